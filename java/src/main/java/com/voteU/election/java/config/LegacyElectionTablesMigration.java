@@ -0,0 +1,104 @@
+package com.voteU.election.java.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves the election tables of a database that was created before the migrations out of the way, so V1 creates them
+ * with their natural keys.<br>
+ * Those tables were created by Hibernate from the entities in entities/electiondata, with only the id as their primary
+ * key. V1 creates its tables if they do not exist, so it would keep them, and the partitioning of V2, which needs
+ * election_id in every unique key, would fail on them. A table whose primary key does not include election_id is
+ * renamed to {@code <table>_legacy}, with its rows, and the elections are filled again with
+ * {@code POST /elections/{electionId}/persist}. The legacy tables can be dropped after that.
+ * <p>
+ * Flyway runs it as version 0.1, after the baseline at version 0 of a database that already holds tables and before
+ * V1. Spring Boot gives the migration beans to Flyway.
+ */
+@Slf4j
+@Component
+public class LegacyElectionTablesMigration implements JavaMigration {
+    /**
+     * The election tables of V1, in the order they are created there.
+     */
+    private static final List<String> TABLES = List.of("elections", "parties", "provinces", "candidates", "national_party_votes",
+            "national_candidate_votes", "constituencies", "constituency_party_votes", "constituency_candidate_votes",
+            "authorities", "authority_party_votes", "authority_candidate_votes", "pollingstations",
+            "pollingstation_party_votes", "pollingstation_candidate_votes");
+
+    @Override
+    public MigrationVersion getVersion() {
+        return MigrationVersion.fromVersion("0.1");
+    }
+
+    @Override
+    public String getDescription() {
+        return "rename legacy election tables";
+    }
+
+    @Override
+    public Integer getChecksum() {
+        return null;
+    }
+
+    /**
+     * MySQL commits every rename on its own, so there is no transaction to run it in.
+     */
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        List<String> legacy = new ArrayList<>();
+        for (String table : TABLES) {
+            if (exists(connection, table) && !primaryKey(connection, table).contains("election_id")) {
+                if (exists(connection, table + "_legacy")) {
+                    throw new IllegalStateException("Cannot rename the legacy table " + table + ", "
+                            + table + "_legacy already exists");
+                }
+                legacy.add(table);
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String table : legacy) {
+                log.warn("Renaming the legacy table {} to {}_legacy, persist its elections again", table, table);
+                statement.execute("ALTER TABLE " + table + " RENAME TO " + table + "_legacy");
+            }
+        }
+    }
+
+    private static boolean exists(Connection connection, String table) throws SQLException {
+        try (ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(), connection.getSchema(),
+                table, new String[]{"TABLE"})) {
+            return tables.next();
+        }
+    }
+
+    /**
+     * Returns the lower case names of the columns of the primary key of a table, none when it has no primary key.
+     */
+    private static List<String> primaryKey(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        List<String> columns = new ArrayList<>();
+        try (ResultSet primaryKey = metaData.getPrimaryKeys(connection.getCatalog(), connection.getSchema(), table)) {
+            while (primaryKey.next()) {
+                columns.add(primaryKey.getString("COLUMN_NAME").toLowerCase());
+            }
+        }
+        return columns;
+    }
+}
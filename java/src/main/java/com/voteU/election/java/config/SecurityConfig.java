@@ -52,8 +52,11 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST, "/api/users/*/unblock").hasAuthority("ROLE_ADMIN")
                         .requestMatchers("/api/users").permitAll()
                         .requestMatchers("/api/elections").permitAll()
-                        .requestMatchers("/api/election").permitAll()
-                        .requestMatchers("/api/election/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/elections/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/election").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/election/**").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/election", "/api/election/**").hasAuthority("ROLE_ADMIN")
+                        .requestMatchers(HttpMethod.DELETE, "/api/election/jobs/**").hasAuthority("ROLE_ADMIN")
                         .requestMatchers("/api/countries").permitAll()
                         .requestMatchers("/api/posts").permitAll()
                         .requestMatchers("/api/posts/**").permitAll()
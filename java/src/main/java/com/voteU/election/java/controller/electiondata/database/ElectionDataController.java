@@ -1,11 +1,15 @@
 package com.voteU.election.java.controller.electiondata.database;
 
+import com.voteU.election.java.dto.PersistedTableDTO;
+import com.voteU.election.java.exceptions.ResourceNotFoundException;
 import com.voteU.election.java.model.Election;
 import com.voteU.election.java.services.ElectionDataInserter;
 import com.voteU.election.java.services.electiondata.memory.ElectionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/elections")
 public class ElectionDataController {
@@ -19,13 +23,17 @@ public class ElectionDataController {
         this.electionService = electionService;
     }
 
+    /**
+     * Writes a loaded election into the database.
+     *
+     * @return the number of rows and the rows per second of every table that was written.
+     */
     @PostMapping("/{electionId}/persist")
-    public String saveElectionById(@PathVariable String electionId) {
+    public List<PersistedTableDTO> saveElectionById(@PathVariable String electionId) {
         Election election = electionService.getElection(electionId);
         if (election == null) {
-            return "Election not found with ID: " + electionId;
+            throw new ResourceNotFoundException("Election not found with ID: " + electionId);
         }
-        electionDataInserter.insertElection(election);
-        return "Election saved successfully!";
+        return electionDataInserter.insertElection(election);
     }
 }
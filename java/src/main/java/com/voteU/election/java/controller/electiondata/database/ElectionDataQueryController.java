@@ -0,0 +1,81 @@
+package com.voteU.election.java.controller.electiondata.database;
+
+import com.voteU.election.java.dto.AuthorityDTO;
+import com.voteU.election.java.dto.CandidateVotesDTO;
+import com.voteU.election.java.dto.ConstituencyDTO;
+import com.voteU.election.java.dto.ElectionDTO;
+import com.voteU.election.java.dto.KeysetPageDTO;
+import com.voteU.election.java.dto.PollingStationDTO;
+import com.voteU.election.java.services.electiondata.database.ElectionDataQueryService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Answers the questions of the memory controllers from the database, so an instance does not need the elections in
+ * memory.<br>
+ * The long lists are paged with a key: a page holds at most {@code limit} rows, and its {@code next} key is given as
+ * {@code after} to read the page that follows it.
+ */
+@RestController
+@RequestMapping("/api/elections")
+public class ElectionDataQueryController {
+    private final ElectionDataQueryService electionDataQueryService;
+
+    public ElectionDataQueryController(ElectionDataQueryService electionDataQueryService) {
+        this.electionDataQueryService = electionDataQueryService;
+    }
+
+    @GetMapping
+    public List<ElectionDTO> getElections() {
+        return electionDataQueryService.getElections();
+    }
+
+    @GetMapping("/{electionId}")
+    public ElectionDTO getElection(@PathVariable String electionId) {
+        return electionDataQueryService.getElection(electionId);
+    }
+
+    @GetMapping("/{electionId}/constituencies")
+    public List<ConstituencyDTO> getConstituencies(@PathVariable String electionId) {
+        return electionDataQueryService.getConstituencies(electionId);
+    }
+
+    @GetMapping("/{electionId}/constituencies/{constituencyId}/authorities")
+    public KeysetPageDTO<AuthorityDTO> getAuthorities(@PathVariable String electionId, @PathVariable int constituencyId, @RequestParam(required = false) String after, @RequestParam(defaultValue = "100") int limit) {
+        return electionDataQueryService.getAuthorities(electionId, constituencyId, after, limit);
+    }
+
+    @GetMapping("/{electionId}/pollingStations")
+    public KeysetPageDTO<PollingStationDTO> getPollingStations(@PathVariable String electionId, @RequestParam(required = false) String after, @RequestParam(defaultValue = "100") int limit) {
+        return electionDataQueryService.getPollingStations(electionId, after, limit);
+    }
+
+    @GetMapping("/{electionId}/authorities/{authorityId}/pollingStations")
+    public KeysetPageDTO<PollingStationDTO> getPollingStationsByAuthorityId(@PathVariable String electionId, @PathVariable String authorityId, @RequestParam(required = false) String after, @RequestParam(defaultValue = "100") int limit) {
+        return electionDataQueryService.getPollingStationsByAuthorityId(electionId, authorityId, after, limit);
+    }
+
+    /**
+     * @param after the {@code partyId:candidateId} key of the last candidate of the previous page.
+     */
+    @GetMapping("/{electionId}/candidates")
+    public KeysetPageDTO<CandidateVotesDTO> getCandidateVotes(@PathVariable String electionId, @RequestParam(required = false) String after, @RequestParam(defaultValue = "100") int limit) {
+        return electionDataQueryService.getCandidateVotes(electionId, after, limit);
+    }
+
+    @GetMapping("/{electionId}/constituencies/{constituencyId}/candidates")
+    public KeysetPageDTO<CandidateVotesDTO> getCandidateVotesByConstituencyId(@PathVariable String electionId, @PathVariable int constituencyId, @RequestParam(required = false) String after, @RequestParam(defaultValue = "100") int limit) {
+        return electionDataQueryService.getCandidateVotesByConstituencyId(electionId, constituencyId, after, limit);
+    }
+
+    @GetMapping("/{electionId}/authorities/{authorityId}/candidates")
+    public KeysetPageDTO<CandidateVotesDTO> getCandidateVotesByAuthorityId(@PathVariable String electionId, @PathVariable String authorityId, @RequestParam(required = false) String after, @RequestParam(defaultValue = "100") int limit) {
+        return electionDataQueryService.getCandidateVotesByAuthorityId(electionId, authorityId, after, limit);
+    }
+
+    @GetMapping("/{electionId}/pollingStations/{pollingStationId}/candidates")
+    public KeysetPageDTO<CandidateVotesDTO> getCandidateVotesByPollingStationId(@PathVariable String electionId, @PathVariable String pollingStationId, @RequestParam(required = false) String after, @RequestParam(defaultValue = "100") int limit) {
+        return electionDataQueryService.getCandidateVotesByPollingStationId(electionId, pollingStationId, after, limit);
+    }
+}
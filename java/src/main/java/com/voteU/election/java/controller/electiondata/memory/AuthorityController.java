@@ -4,9 +4,13 @@ import com.voteU.election.java.model.Authority;
 import com.voteU.election.java.model.Candidate;
 import com.voteU.election.java.model.Party;
 import com.voteU.election.java.services.electiondata.memory.AuthorityService;
+import com.voteU.election.java.utils.json.ElectionJsonWriter;
+import com.voteU.election.java.utils.json.Projection;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -19,6 +23,11 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api/election/{year}/constituencies/{constituencyId}/authorities")
 public class AuthorityController {
+    /**
+     * The properties of the authorities of the compact endpoint.
+     */
+    private static final Projection COMPACT = Projection.fields("id", "name");
+
     private final AuthorityService authorityService;
 
     public AuthorityController(AuthorityService authorityService) {
@@ -30,25 +39,31 @@ public class AuthorityController {
      *
      * @param year the election year for which authorities are being retrieved
      * @param constituencyId the ID of the constituency for which authorities are being retrieved
-     * @return a map where the key is the authority identifier and the value is an Authority object
+     * @param depth the number of nested levels to include, all levels when it is not given
+     * @param fields the comma separated properties to include, all properties when it is not given
+     * @return a map where the key is the authority identifier and the value is an Authority object, streamed as JSON
      * @throws ResponseStatusException if an internal server error occurs during the retrieval process
      */
     @GetMapping
-    public Map<String, Authority> getAuthoritiesByConstituencyId(@PathVariable String year, @PathVariable Integer constituencyId) {
+    public ResponseEntity<StreamingResponseBody> getAuthoritiesByConstituencyId(@PathVariable String year, @PathVariable Integer constituencyId, @RequestParam(required = false) Integer depth, @RequestParam(required = false) String fields) {
+        Map<String, Authority> authorities;
         try {
-            return authorityService.getAuthoritiesByConstituencyId(year, constituencyId);
+            authorities = authorityService.getAuthoritiesByConstituencyId(year, constituencyId);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to fetch authorities", e);
         }
+        return ElectionJsonWriter.stream(Projection.of(depth, fields), writer -> writer.writeAuthorities(authorities));
     }
 
     @GetMapping("/compact")
-    public Map<String, Authority> getAuthoritiesByConstituencyIdCompact(@PathVariable String year, @PathVariable Integer constituencyId) {
+    public ResponseEntity<StreamingResponseBody> getAuthoritiesByConstituencyIdCompact(@PathVariable String year, @PathVariable Integer constituencyId) {
+        Map<String, Authority> authorities;
         try {
-            return authorityService.getAuthoritiesByConstituencyIdCompact(year, constituencyId);
+            authorities = authorityService.getAuthoritiesByConstituencyId(year, constituencyId);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to fetch authorities", e);
         }
+        return ElectionJsonWriter.stream(COMPACT, writer -> writer.writeAuthorities(authorities));
     }
 
     /**
@@ -58,16 +73,18 @@ public class AuthorityController {
      * @param year the election year for which the authority data is being requested
      * @param constituencyId the identifier for the specific constituency
      * @param authorityId the unique identifier of the authority to fetch
-     * @return the Authority object corresponding to the provided authorityId
+     * @param depth the number of nested levels to include, all levels when it is not given
+     * @param fields the comma separated properties to include, all properties when it is not given
+     * @return the Authority object corresponding to the provided authorityId, streamed as JSON
      * @throws ResponseStatusException if the authority is not found
      */
     @GetMapping("/{authorityId}")
-    public Authority getAuthorityById(@PathVariable String year, @PathVariable Integer constituencyId, @PathVariable String authorityId) {
+    public ResponseEntity<StreamingResponseBody> getAuthorityById(@PathVariable String year, @PathVariable Integer constituencyId, @PathVariable String authorityId, @RequestParam(required = false) Integer depth, @RequestParam(required = false) String fields) {
         Authority authority = authorityService.getAuthorityById(year, constituencyId, authorityId);
         if (authority == null) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Authority not found");
         }
-        return authority;
+        return ElectionJsonWriter.stream(Projection.of(depth, fields), writer -> writer.writeAuthority(authority));
     }
 
     /**
@@ -1,9 +1,14 @@
 package com.voteU.election.java.controller.electiondata.memory;
-import com.voteU.election.java.dtoCompact.CompactConstituency;
 import com.voteU.election.java.model.Constituency;
 import com.voteU.election.java.model.Party;
 import com.voteU.election.java.services.electiondata.memory.ConstituencyService;
+import com.voteU.election.java.services.electiondata.memory.ResponseCache;
+import com.voteU.election.java.utils.json.ElectionJsonWriter;
+import com.voteU.election.java.utils.json.Projection;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.Map;
 
 /**
@@ -19,37 +24,51 @@ import java.util.Map;
 @RequestMapping("/api/election/{year}/constituencies")
 public class ConstituencyController {
 
+    /**
+     * The properties of the constituencies of the compact endpoint.
+     */
+    private static final Projection COMPACT = Projection.fields("id", "name", "votes", "electionId", "provinceId");
+
     private final ConstituencyService constituencyService;
+    private final ResponseCache responseCache;
 
     /**
      * Constructor for ConstituencyController.
      *
      * @param constituencyService the service layer handling constituency data
+     * @param responseCache the cache of the encoded responses
      */
-    public ConstituencyController(ConstituencyService constituencyService) {
+    public ConstituencyController(ConstituencyService constituencyService, ResponseCache responseCache) {
         this.constituencyService = constituencyService;
+        this.responseCache = responseCache;
     }
 
     /**
      * Retrieves all constituencies for a given election year.
      *
      * @param year the election year
-     * @return a map of constituency IDs to full Constituency objects
+     * @param depth the number of nested levels to include, all levels when it is not given
+     * @param fields the comma separated properties to include, all properties when it is not given
+     * @return a map of constituency IDs to full Constituency objects, streamed as JSON while it is written
      */
     @GetMapping
-    public Map<Integer, Constituency> getConstituenciesByYear(@PathVariable String year){
-        return constituencyService.getConstituenciesByYear(year);
+    public ResponseEntity<StreamingResponseBody> getConstituenciesByYear(@PathVariable String year, @RequestParam(required = false) Integer depth, @RequestParam(required = false) String fields){
+        Map<Integer, Constituency> constituencies = constituencyService.getConstituenciesByYear(year);
+        return ElectionJsonWriter.stream(Projection.of(depth, fields), writer -> writer.writeConstituencies(constituencies));
     }
 
     /**
      * Retrieves compact representations of all constituencies for a given election year.
      *
      * @param year the election year
-     * @return a map of constituency IDs to CompactConstituency DTOs
+     * @param headers the headers of the request
+     * @return a map of constituency IDs to the constituencies without their parties and authorities, served from the
+     *         {@link ResponseCache}
      */
     @GetMapping("/compact")
-    public Map<Integer, CompactConstituency> getConstituenciesByYearCompact(@PathVariable String year){
-        return constituencyService.getConstituenciesByYearCompact(year);
+    public ResponseEntity<byte[]> getConstituenciesByYearCompact(@PathVariable String year, @RequestHeader HttpHeaders headers){
+        return responseCache.get(headers, year, "constituencies/compact", COMPACT,
+                writer -> writer.writeConstituencies(constituencyService.getConstituenciesByYear(year)));
     }
 
     /**
@@ -57,11 +76,14 @@ public class ConstituencyController {
      *
      * @param year the election year
      * @param constituencyId the ID of the constituency
-     * @return the Constituency object
+     * @param depth the number of nested levels to include, all levels when it is not given
+     * @param fields the comma separated properties to include, all properties when it is not given
+     * @return the Constituency object, streamed as JSON while it is written
      */
     @GetMapping("/{constituencyId}")
-    public Constituency getConstituencyById(@PathVariable String year, @PathVariable Integer constituencyId){
-        return constituencyService.getConstituencyById(year, constituencyId);
+    public ResponseEntity<StreamingResponseBody> getConstituencyById(@PathVariable String year, @PathVariable Integer constituencyId, @RequestParam(required = false) Integer depth, @RequestParam(required = false) String fields){
+        Constituency constituency = constituencyService.getConstituencyById(year, constituencyId);
+        return ElectionJsonWriter.stream(Projection.of(depth, fields), writer -> writer.writeConstituency(constituency));
     }
 
     /**
@@ -1,10 +1,23 @@
     package com.voteU.election.java.controller.electiondata.memory;
-    import com.voteU.election.java.dtoCompact.CompactElection;
     import com.voteU.election.java.model.Election;
-    import com.voteU.election.java.model.Party;
+    import com.voteU.election.java.model.PollingStation;
+    import com.voteU.election.java.model.SearchIndex;
     import com.voteU.election.java.services.electiondata.memory.ElectionService;
+    import com.voteU.election.java.services.electiondata.memory.IngestJob;
+    import com.voteU.election.java.services.electiondata.memory.IngestJobService;
+    import com.voteU.election.java.services.electiondata.memory.ResponseCache;
+    import com.voteU.election.java.utils.json.ElectionJsonWriter;
+    import com.voteU.election.java.utils.json.Projection;
+    import org.springframework.http.HttpHeaders;
+    import org.springframework.http.HttpStatus;
+    import org.springframework.http.ResponseEntity;
     import org.springframework.web.bind.annotation.*;
+    import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+    import java.util.EnumSet;
+    import java.util.List;
+    import java.util.Locale;
     import java.util.Map;
+    import java.util.Set;
 
     /**
      * ElectionController is a REST controller that provides endpoints for managing and retrieving election-related data.
@@ -15,50 +28,122 @@
      * requests related to elections and their associated entities.
      *
      * Mappings:
-     * - `POST /api/election`: Reads all election results.
-     * - `POST /api/election/{electionId}`: Reads results for a specific election.
-     * - `GET /api/election`: Retrieves all elections.
+     * - `POST /api/election`: Starts reading all election results in the background, returns the jobs.
+     * - `POST /api/election/{electionId}`: Starts reading the results of a specific election, returns the job.
+     * - `GET /api/election/jobs`: Retrieves the jobs that read elections, with their progress.
+     * - `GET /api/election/jobs/{jobId}`: Retrieves the progress of a job.
+     * - `DELETE /api/election/jobs/{jobId}`: Cancels a job.
+     * - `GET /api/election`: Retrieves all elections, streamed while they are serialized.
      * - `GET /api/election/{electionId}`: Retrieves details of a specific election by ID.
      * - `GET /api/election/{electionId}/compact`: Fetches compact information for a specific election ID.
      * - `GET /api/election/{electionId}/parties`: Retrieves all parties associated with a specific election ID.
+     * - `GET /api/election/{electionId}/pollingStations/search`: Finds the polling stations by the start of their zip
+     *   code, without a query on the database.
+     * - `GET /api/election/{electionId}/search`: Searches the candidates, parties, authorities and polling stations by
+     *   name, for example `?q=omtzigt&types=candidate`.
+     *
+     * The elections are pruned while they are written with the optional `depth` and `fields` parameters, see
+     * {@link Projection}. For example `GET /api/election/TK2023?depth=1&fields=id,name,votes,parties` returns the
+     * national totals of the parties without their candidates.
+     *
+     * The compact election and the parties are served from the {@link ResponseCache}, with an ETag.
      */
     @RestController
     @RequestMapping("/api/election")
     public class ElectionController {
         private final ElectionService electionService;
+        private final IngestJobService ingestJobService;
+        private final ResponseCache responseCache;
 
-        public ElectionController(ElectionService electionService) {
+        public ElectionController(ElectionService electionService, IngestJobService ingestJobService, ResponseCache responseCache) {
             this.electionService = electionService;
+            this.ingestJobService = ingestJobService;
+            this.responseCache = responseCache;
         }
 
         @PostMapping
-        public boolean readResults() {
-            return electionService.readElections();
+        @ResponseStatus(HttpStatus.ACCEPTED)
+        public List<IngestJob> readResults() {
+            return ingestJobService.startAll();
         }
 
         @PostMapping("/{electionId}")
-        public boolean readResultsElection(@PathVariable String electionId) {
-            return electionService.readElection(electionId);
+        @ResponseStatus(HttpStatus.ACCEPTED)
+        public IngestJob readResultsElection(@PathVariable String electionId) {
+            return ingestJobService.start(electionId);
+        }
+
+        @GetMapping("/jobs")
+        public List<IngestJob> getIngestJobs() {
+            return ingestJobService.getJobs();
+        }
+
+        @GetMapping("/jobs/{jobId}")
+        public IngestJob getIngestJob(@PathVariable String jobId) {
+            return ingestJobService.getJob(jobId);
+        }
+
+        @DeleteMapping("/jobs/{jobId}")
+        public IngestJob cancelIngestJob(@PathVariable String jobId) {
+            return ingestJobService.cancel(jobId);
         }
 
         @GetMapping
-        public Map<String, Election> getAllElections() {
-            return electionService.getAll();
+        public ResponseEntity<StreamingResponseBody> getAllElections(@RequestParam(required = false) Integer depth, @RequestParam(required = false) String fields) {
+            Map<String, Election> elections = electionService.getAll();
+            return ElectionJsonWriter.stream(Projection.of(depth, fields), writer -> writer.writeElections(elections));
         }
 
         @GetMapping("/{electionId}")
-        public Election getElection(@PathVariable String electionId) {
-            return electionService.getElection(electionId);
+        public ResponseEntity<StreamingResponseBody> getElection(@PathVariable String electionId, @RequestParam(required = false) Integer depth, @RequestParam(required = false) String fields) {
+            Election election = electionService.getElection(electionId);
+            return ElectionJsonWriter.stream(Projection.of(depth, fields), writer -> writer.writeElection(election));
         }
 
         @GetMapping("{electionId}/compact")
-        public CompactElection getCompactElection(@PathVariable String electionId) {
-            return electionService.getCompactElection(electionId);
+        public ResponseEntity<byte[]> getCompactElection(@PathVariable String electionId, @RequestHeader HttpHeaders headers) {
+            return responseCache.get(headers, electionId, "compact", () -> electionService.getCompactElection(electionId));
+        }
+
+        /**
+         * Finds the polling stations whose zip code starts with the given prefix, for search as you type. Only their
+         * own values are written unless a depth is given.
+         */
+        @GetMapping("/{electionId}/pollingStations/search")
+        public ResponseEntity<StreamingResponseBody> searchPollingStationsByZipCode(@PathVariable String electionId, @RequestParam String zipCode, @RequestParam(defaultValue = "20") int limit, @RequestParam(required = false) Integer depth, @RequestParam(required = false) String fields) {
+            List<PollingStation> pollingStations = electionService.searchPollingStationsByZipCode(electionId, zipCode, limit);
+            return ElectionJsonWriter.stream(Projection.of(depth == null ? 0 : depth, fields), writer -> writer.writePollingStations(pollingStations));
+        }
+
+        /**
+         * Searches the names of the candidates, parties, authorities and polling stations of an election.
+         *
+         * @param q the words to search for, the last one may be incomplete.
+         * @param types the comma separated types of the results, for example {@code candidate,party}, all types when it
+         *              is not given.
+         */
+        @GetMapping("/{electionId}/search")
+        public List<SearchIndex.Hit> search(@PathVariable String electionId, @RequestParam String q, @RequestParam(required = false) String types, @RequestParam(defaultValue = "20") int limit) {
+            return electionService.search(electionId, q, parseTypes(types), limit);
+        }
+
+        private static Set<SearchIndex.Type> parseTypes(String types) {
+            if (types == null || types.isBlank()) {
+                return null;
+            }
+            Set<SearchIndex.Type> parsed = EnumSet.noneOf(SearchIndex.Type.class);
+            for (String type : types.split(",")) {
+                if (!type.isBlank()) {
+                    // An unknown type is an IllegalArgumentException, answered with a 400
+                    parsed.add(SearchIndex.Type.valueOf(type.trim().toUpperCase(Locale.ROOT)));
+                }
+            }
+            return parsed;
         }
 
         @GetMapping("/{electionId}/parties")
-        public Map<Integer, Party> getAllPartiesByElection(@PathVariable String electionId){
-            return electionService.getAllPartiesByElection(electionId);
+        public ResponseEntity<byte[]> getAllPartiesByElection(@PathVariable String electionId, @RequestHeader HttpHeaders headers){
+            return responseCache.get(headers, electionId, "parties", () -> electionService.getAllPartiesByElection(electionId));
         }
 
     }
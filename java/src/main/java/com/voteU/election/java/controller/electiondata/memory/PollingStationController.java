@@ -1,15 +1,18 @@
 package com.voteU.election.java.controller.electiondata.memory;
 
-import com.voteU.election.java.dtoCompact.CompactPollingStation;
 import com.voteU.election.java.model.Party;
 import com.voteU.election.java.model.PollingStation;
 import com.voteU.election.java.services.electiondata.memory.PollingStationService;
+import com.voteU.election.java.utils.json.ElectionJsonWriter;
+import com.voteU.election.java.utils.json.Projection;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -21,6 +24,11 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api/election/{electionId}/constituencies/{constituencyId}/authorities/{authorityId}/pollingStations")
 public class PollingStationController {
+    /**
+     * The properties of the polling stations of the compact endpoint.
+     */
+    private static final Projection COMPACT = Projection.fields("id", "name", "zipCode");
+
     private final PollingStationService pollingStationService;
 
     /**
@@ -38,11 +46,14 @@ public class PollingStationController {
      * @param electionId the unique identifier for the election
      * @param constituencyId the identifier for the constituency
      * @param authorityId the identifier for the authority managing the polling stations
-     * @return a map where the key is the polling station ID and the value is the PollingStation object
+     * @param depth the number of nested levels to include, all levels when it is not given
+     * @param fields the comma separated properties to include, all properties when it is not given
+     * @return a map where the key is the polling station ID and the value is the PollingStation object, streamed as JSON
      */
     @GetMapping
-    public Map<String, PollingStation> getPollingStationsByAuthorityId(@PathVariable String electionId, @PathVariable int constituencyId, @PathVariable String authorityId) {
-        return pollingStationService.getPollingStationsByAuthorityId(electionId, constituencyId, authorityId);
+    public ResponseEntity<StreamingResponseBody> getPollingStationsByAuthorityId(@PathVariable String electionId, @PathVariable int constituencyId, @PathVariable String authorityId, @RequestParam(required = false) Integer depth, @RequestParam(required = false) String fields) {
+        Map<String, PollingStation> pollingStations = pollingStationService.getPollingStationsByAuthorityId(electionId, constituencyId, authorityId);
+        return ElectionJsonWriter.stream(Projection.of(depth, fields), writer -> writer.writePollingStations(pollingStations));
     }
 
     /**
@@ -51,11 +62,12 @@ public class PollingStationController {
      * @param electionId the ID of the election for which polling stations are retrieved
      * @param constituencyId the ID of the constituency associated with the polling stations
      * @param authorityId the ID of the authority for which polling stations are retrieved
-     * @return a list of CompactPollingStation objects matching the specified parameters
+     * @return a list of the polling stations with only their ID, name and zip code
      */
     @GetMapping("/compact")
-    public List<CompactPollingStation> getPollingStationsByAuthorityIdCompact(@PathVariable String electionId, @PathVariable int constituencyId, @PathVariable String authorityId) {
-        return pollingStationService.getPollingStationsByAuthorityIdCompact(electionId, constituencyId, authorityId);
+    public ResponseEntity<StreamingResponseBody> getPollingStationsByAuthorityIdCompact(@PathVariable String electionId, @PathVariable int constituencyId, @PathVariable String authorityId) {
+        Map<String, PollingStation> pollingStations = pollingStationService.getPollingStationsByAuthorityId(electionId, constituencyId, authorityId);
+        return ElectionJsonWriter.stream(COMPACT, writer -> writer.writePollingStations(pollingStations.values()));
     }
 
     /**
@@ -65,11 +77,14 @@ public class PollingStationController {
      * @param constituencyId the ID of the constituency to which the polling station belongs
      * @param authorityId the ID of the authority managing the polling station
      * @param pollingStationId the unique identifier of the polling station
-     * @return the PollingStation corresponding to the given identifiers
+     * @param depth the number of nested levels to include, all levels when it is not given
+     * @param fields the comma separated properties to include, all properties when it is not given
+     * @return the PollingStation corresponding to the given identifiers, streamed as JSON
      */
     @GetMapping("/{pollingStationId}")
-    public PollingStation getPollingStationById(@PathVariable String electionId, @PathVariable int constituencyId, @PathVariable String authorityId, @PathVariable String pollingStationId) {
-       return pollingStationService.getPollingStationById(electionId, constituencyId, authorityId, pollingStationId);
+    public ResponseEntity<StreamingResponseBody> getPollingStationById(@PathVariable String electionId, @PathVariable int constituencyId, @PathVariable String authorityId, @PathVariable String pollingStationId, @RequestParam(required = false) Integer depth, @RequestParam(required = false) String fields) {
+        PollingStation pollingStation = pollingStationService.getPollingStationById(electionId, constituencyId, authorityId, pollingStationId);
+        return ElectionJsonWriter.stream(Projection.of(depth, fields), writer -> writer.writePollingStation(pollingStation));
     }
 
     /**
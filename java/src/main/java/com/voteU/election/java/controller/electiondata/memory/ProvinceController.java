@@ -1,25 +1,33 @@
 package com.voteU.election.java.controller.electiondata.memory;
 
-import com.voteU.election.java.dtoCompact.CompactConstituency;
-import com.voteU.election.java.dtoCompact.CompactProvince;
 import com.voteU.election.java.model.Constituency;
-import com.voteU.election.java.model.Party;
 import com.voteU.election.java.model.Province;
 import com.voteU.election.java.services.electiondata.memory.ProvinceService;
+import com.voteU.election.java.services.electiondata.memory.ResponseCache;
+import com.voteU.election.java.utils.json.ElectionJsonWriter;
+import com.voteU.election.java.utils.json.Projection;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
-import java.util.Map;
 
 /**
  * Controller class responsible for handling HTTP requests related to provinces
  * in the context of elections for a specified year. The endpoints within this
  * controller allow clients to retrieve information about provinces, their
  * constituencies, and associated voting data.
+ * The compact endpoints and the votes per party are served from the {@link ResponseCache}, with an ETag.
  */
 @RestController
 @RequestMapping("/api/election/{year}/provinces")
 public class ProvinceController {
+    /**
+     * The properties of the provinces and constituencies of the compact endpoints.
+     */
+    private static final Projection COMPACT_PROVINCE = Projection.fields("id", "name");
+    private static final Projection COMPACT_CONSTITUENCY = Projection.fields("id", "name", "votes", "electionId", "provinceId");
 
     /**
      * A service component responsible for handling operations
@@ -28,36 +36,47 @@ public class ProvinceController {
      * and processing province-specific information.
      */
     private final ProvinceService provinceService;
+    /**
+     * The encoded responses of the endpoints that only change when the election is read again.
+     */
+    private final ResponseCache responseCache;
 
     /**
      * Constructor for the ProvinceController class.
      *
      * @param provinceService the service instance used for managing province-related operations
+     * @param responseCache the cache of the encoded responses
      */
-    public ProvinceController(ProvinceService provinceService) {
+    public ProvinceController(ProvinceService provinceService, ResponseCache responseCache) {
         this.provinceService = provinceService;
+        this.responseCache = responseCache;
     }
 
     /**
      * Retrieves a list of provinces for the specified year.
      *
      * @param year the year for which to retrieve the list of provinces
-     * @return a list of Province objects for the specified year
+     * @param depth the number of nested levels to include, all levels when it is not given
+     * @param fields the comma separated properties to include, all properties when it is not given
+     * @return a list of Province objects for the specified year, streamed as JSON
      */
     @GetMapping
-    public List<Province> getProvinces(@PathVariable String year) {
-        return provinceService.getProvinces(year);
+    public ResponseEntity<StreamingResponseBody> getProvinces(@PathVariable String year, @RequestParam(required = false) Integer depth, @RequestParam(required = false) String fields) {
+        List<Province> provinces = provinceService.getProvinces(year);
+        return ElectionJsonWriter.stream(Projection.of(depth, fields), writer -> writer.writeProvinces(provinces));
     }
 
     /**
      * Retrieves a list of compact provinces for the specified year.
      *
      * @param year the year for which the compact provinces are to be retrieved
-     * @return a list of CompactProvince objects representing the compact provinces for the specified year
+     * @param headers the headers of the request
+     * @return a list of the provinces for the specified year with only their ID and name
      */
     @GetMapping("/compact")
-    public List<CompactProvince> getCompactProvinces(@PathVariable String year) {
-        return provinceService.getCompactProvinces(year);
+    public ResponseEntity<byte[]> getCompactProvinces(@PathVariable String year, @RequestHeader HttpHeaders headers) {
+        return responseCache.get(headers, year, "provinces/compact", COMPACT_PROVINCE,
+                writer -> writer.writeProvinces(provinceService.getProvinces(year)));
     }
 
     /**
@@ -77,11 +96,14 @@ public class ProvinceController {
      *
      * @param year the year for which the constituencies are to be retrieved
      * @param provinceId the identifier of the province whose constituencies are to be retrieved
-     * @return a list of constituencies associated with the specified province ID and year
+     * @param depth the number of nested levels to include, all levels when it is not given
+     * @param fields the comma separated properties to include, all properties when it is not given
+     * @return a list of constituencies associated with the specified province ID and year, streamed as JSON
      */
     @GetMapping("/{provinceId}/constituencies")
-    public List<Constituency> getConstituenciesByProvinceId(@PathVariable String year, @PathVariable int provinceId) {
-        return provinceService.getConstituenciesByProvinceId(year, provinceId);
+    public ResponseEntity<StreamingResponseBody> getConstituenciesByProvinceId(@PathVariable String year, @PathVariable int provinceId, @RequestParam(required = false) Integer depth, @RequestParam(required = false) String fields) {
+        List<Constituency> constituencies = provinceService.getConstituenciesByProvinceId(year, provinceId);
+        return ElectionJsonWriter.stream(Projection.of(depth, fields), writer -> writer.writeConstituencies(constituencies));
     }
 
     /**
@@ -89,11 +111,14 @@ public class ProvinceController {
      *
      * @param year The year for which the constituencies need to be retrieved.
      * @param provinceId The ID of the province for which the constituencies are to be fetched.
-     * @return A list of compact constituencies associated with the given province ID and year.
+     * @param headers The headers of the request.
+     * @return A list of the constituencies associated with the given province ID and year, without their parties and
+     *         authorities.
      */
     @GetMapping("/{provinceId}/constituencies/compact")
-    public List<CompactConstituency> getCompactConstituenciesByProvinceId(@PathVariable String year, @PathVariable int provinceId) {
-        return provinceService.getCompactConstituenciesByProvinceId(year, provinceId);
+    public ResponseEntity<byte[]> getCompactConstituenciesByProvinceId(@PathVariable String year, @PathVariable int provinceId, @RequestHeader HttpHeaders headers) {
+        return responseCache.get(headers, year, "provinces/" + provinceId + "/constituencies/compact", COMPACT_CONSTITUENCY,
+                writer -> writer.writeConstituencies(provinceService.getConstituenciesByProvinceId(year, provinceId)));
     }
 
     /**
@@ -101,11 +126,13 @@ public class ProvinceController {
      *
      * @param year the year for which the voting data is to be retrieved
      * @param provinceId the unique identifier of the province
+     * @param headers the headers of the request
      * @return a map with the party ID as the key and the Party object containing vote details as the value
      */
     @GetMapping("/{provinceId}/parties")
-    public Map<Integer, Party> getTotalVotesPerParty(@PathVariable String year, @PathVariable int provinceId) {
-        return provinceService.getTotalVotesPerParty(year, provinceId);
+    public ResponseEntity<byte[]> getTotalVotesPerParty(@PathVariable String year, @PathVariable int provinceId, @RequestHeader HttpHeaders headers) {
+        return responseCache.get(headers, year, "provinces/" + provinceId + "/parties",
+                () -> provinceService.getTotalVotesPerParty(year, provinceId));
     }
 
 
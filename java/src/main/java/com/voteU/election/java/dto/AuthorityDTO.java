@@ -0,0 +1,23 @@
+package com.voteU.election.java.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * An authority as it is stored in the database, without its polling stations.
+ */
+@Getter
+@Setter
+public class AuthorityDTO {
+    private String id;
+    private int constituencyId;
+    private String name;
+    private int votes;
+
+    public AuthorityDTO(String id, int constituencyId, String name, int votes) {
+        this.id = id;
+        this.constituencyId = constituencyId;
+        this.name = name;
+        this.votes = votes;
+    }
+}
@@ -0,0 +1,23 @@
+package com.voteU.election.java.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A constituency as it is stored in the database, without its authorities.
+ */
+@Getter
+@Setter
+public class ConstituencyDTO {
+    private int id;
+    private int provinceId;
+    private String name;
+    private int votes;
+
+    public ConstituencyDTO(int id, int provinceId, String name, int votes) {
+        this.id = id;
+        this.provinceId = provinceId;
+        this.name = name;
+        this.votes = votes;
+    }
+}
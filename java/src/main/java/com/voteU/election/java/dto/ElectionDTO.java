@@ -0,0 +1,23 @@
+package com.voteU.election.java.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * An election as it is stored in the database, without its constituencies.
+ */
+@Getter
+@Setter
+public class ElectionDTO {
+    private String id;
+    private String name;
+    private String date;
+    private int votes;
+
+    public ElectionDTO(String id, String name, String date, int votes) {
+        this.id = id;
+        this.name = name;
+        this.date = date;
+        this.votes = votes;
+    }
+}
@@ -0,0 +1,25 @@
+package com.voteU.election.java.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * One page of rows read with keyset pagination.
+ */
+@Getter
+@Setter
+public class KeysetPageDTO<T> {
+    private List<T> items;
+    /**
+     * The key of the last row of the page, which is given as {@code after} to read the next page, or {@code null} when
+     * this is the last page.
+     */
+    private String next;
+
+    public KeysetPageDTO(List<T> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+}
@@ -0,0 +1,13 @@
+package com.voteU.election.java.dto;
+
+/**
+ * The rows that were written into one table while an election was persisted.
+ *
+ * @param method        how the rows were written, {@code batch} or {@code load data}.
+ * @param skippedRows   the rows that were written by an earlier run that failed, and were skipped.
+ * @param chunkSize     the maximum number of rows of a batch.
+ * @param seconds       the time between the start of the first batch and the end of the last batch of the table.
+ * @param rowsPerSecond the number of rows divided by the seconds, 0 when nothing was written.
+ */
+public record PersistedTableDTO(String table, String method, long rows, long skippedRows, long chunks, int chunkSize, double seconds, double rowsPerSecond) {
+}
@@ -0,0 +1,25 @@
+package com.voteU.election.java.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A polling station as it is stored in the database, without its votes per party.
+ */
+@Getter
+@Setter
+public class PollingStationDTO {
+    private String id;
+    private String authorityId;
+    private String name;
+    private String zipCode;
+    private int votes;
+
+    public PollingStationDTO(String id, String authorityId, String name, String zipCode, int votes) {
+        this.id = id;
+        this.authorityId = authorityId;
+        this.name = name;
+        this.zipCode = zipCode;
+        this.votes = votes;
+    }
+}
@@ -0,0 +1,248 @@
+package com.voteU.election.java.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The party totals of the provinces, constituencies and authorities of an election, summed once from the votes of the
+ * authorities after the election has been processed or loaded.<br>
+ * Every level numbers its provinces, constituencies or authorities with an ordinal, and every party of the election
+ * has an ordinal as well. The totals, party votes and percentages of a level are stored in primitive arrays indexed by
+ * these ordinals, so the requests for a province are answered without walking the election or allocating anything.
+ * The index is not updated when the election changes afterward, a new index has to be built instead.
+ */
+public final class AggregateIndex {
+    private final int[] partyIds;
+    private final String[] partyNames;
+    private final Map<Integer, Integer> partyOrdinals = new HashMap<>();
+
+    private final Province[] provinces;
+    private final int[] provinceOrdinals;
+    private final Map<Integer, Integer> constituencyOrdinals = new HashMap<>();
+    private final Map<String, Integer> authorityOrdinals = new HashMap<>();
+
+    private final Level provinceLevel;
+    private final Level constituencyLevel;
+    private final Level authorityLevel;
+
+    /**
+     * The totals of one level of the election.
+     */
+    public static final class Level {
+        private final int partyCount;
+        private final int[] totals;
+        private final int[] votes;
+        private final double[] percentages;
+        private final boolean[] present;
+
+        private Level(int size, int partyCount) {
+            this.partyCount = partyCount;
+            this.totals = new int[size];
+            this.votes = new int[size * partyCount];
+            this.percentages = new double[size * partyCount];
+            this.present = new boolean[size * partyCount];
+        }
+
+        private void add(int ordinal, int party, int partyVotes) {
+            int index = ordinal * partyCount + party;
+            votes[index] += partyVotes;
+            present[index] = true;
+            totals[ordinal] += partyVotes;
+        }
+
+        private void calculatePercentages() {
+            for (int ordinal = 0; ordinal < totals.length; ordinal++) {
+                for (int party = 0; party < partyCount; party++) {
+                    int index = ordinal * partyCount + party;
+                    percentages[index] = totals[ordinal] == 0 ? 0 : votes[index] * 100.0 / totals[ordinal];
+                }
+            }
+        }
+
+        /**
+         * Returns the total of the votes of all parties.
+         */
+        public int total(int ordinal) {
+            return totals[ordinal];
+        }
+
+        /**
+         * Returns whether one of the authorities has votes for a party, by its ordinal in the {@link AggregateIndex}.
+         */
+        public boolean hasParty(int ordinal, int party) {
+            return present[ordinal * partyCount + party];
+        }
+
+        /**
+         * Returns the votes of a party, by its ordinal in the {@link AggregateIndex}.
+         */
+        public int votes(int ordinal, int party) {
+            return votes[ordinal * partyCount + party];
+        }
+
+        /**
+         * Returns the votes of a party as a percentage of the total, by its ordinal in the {@link AggregateIndex}.
+         */
+        public double percentage(int ordinal, int party) {
+            return percentages[ordinal * partyCount + party];
+        }
+    }
+
+    private AggregateIndex(List<Province> provinceList) {
+        provinces = provinceList.toArray(new Province[0]);
+        provinceOrdinals = new int[provinceList.stream().mapToInt(Province::getId).max().orElse(0) + 1];
+        Arrays.fill(provinceOrdinals, -1);
+
+        // Number the provinces, constituencies, authorities and parties, the parties in the order of their ids
+        Map<Integer, String> partyNamesById = new TreeMap<>();
+        for (int ordinal = 0; ordinal < provinces.length; ordinal++) {
+            int id = provinces[ordinal].getId();
+            if (id >= 0 && provinceOrdinals[id] < 0) {
+                provinceOrdinals[id] = ordinal;
+            }
+            for (Constituency constituency : provinces[ordinal].getConstituencies()) {
+                constituencyOrdinals.putIfAbsent(constituency.getId(), constituencyOrdinals.size());
+                for (Authority authority : authorities(constituency)) {
+                    authorityOrdinals.putIfAbsent(authority.getId(), authorityOrdinals.size());
+                    for (Party party : parties(authority)) {
+                        partyNamesById.putIfAbsent(party.getId(), party.getName());
+                    }
+                }
+            }
+        }
+        partyIds = new int[partyNamesById.size()];
+        partyNames = new String[partyNamesById.size()];
+        for (Map.Entry<Integer, String> entry : partyNamesById.entrySet()) {
+            int party = partyOrdinals.size();
+            partyIds[party] = entry.getKey();
+            partyNames[party] = entry.getValue();
+            partyOrdinals.put(entry.getKey(), party);
+        }
+
+        provinceLevel = new Level(provinces.length, partyIds.length);
+        constituencyLevel = new Level(constituencyOrdinals.size(), partyIds.length);
+        authorityLevel = new Level(authorityOrdinals.size(), partyIds.length);
+        for (int ordinal = 0; ordinal < provinces.length; ordinal++) {
+            for (Constituency constituency : provinces[ordinal].getConstituencies()) {
+                int constituencyOrdinal = constituencyOrdinals.get(constituency.getId());
+                for (Authority authority : authorities(constituency)) {
+                    int authorityOrdinal = authorityOrdinals.get(authority.getId());
+                    for (Party party : parties(authority)) {
+                        int partyOrdinal = partyOrdinals.get(party.getId());
+                        provinceLevel.add(ordinal, partyOrdinal, party.getVotes());
+                        constituencyLevel.add(constituencyOrdinal, partyOrdinal, party.getVotes());
+                        authorityLevel.add(authorityOrdinal, partyOrdinal, party.getVotes());
+                    }
+                }
+            }
+        }
+        provinceLevel.calculatePercentages();
+        constituencyLevel.calculatePercentages();
+        authorityLevel.calculatePercentages();
+    }
+
+    /**
+     * Builds the index of the provinces of an election.
+     */
+    public static AggregateIndex of(Election election) {
+        return new AggregateIndex(election.getProvinces() == null ? List.of() : election.getProvinces());
+    }
+
+    private static Iterable<Authority> authorities(Constituency constituency) {
+        return constituency.getAuthorities() == null ? List.of() : constituency.getAuthorities().values();
+    }
+
+    private static Iterable<Party> parties(Authority authority) {
+        return authority.getParties() == null ? List.of() : authority.getParties().values();
+    }
+
+    /**
+     * Builds the parties of a province, with their total votes and percentage, in the order of the party ids.
+     */
+    private Map<Integer, Party> provincePartiesOf(int ordinal) {
+        Map<Integer, Party> parties = new LinkedHashMap<>();
+        for (int party = 0; party < partyIds.length; party++) {
+            if (provinceLevel.hasParty(ordinal, party)) {
+                Party total = new Party(partyIds[party], partyNames[party]);
+                total.setVotes(provinceLevel.votes(ordinal, party));
+                total.setPercentage(provinceLevel.percentage(ordinal, party));
+                parties.put(partyIds[party], total);
+            }
+        }
+        return parties;
+    }
+
+    /**
+     * Returns the ordinal of a party, or {@code -1} when no authority has votes for it.
+     */
+    public int partyOrdinal(int partyId) {
+        Integer ordinal = partyOrdinals.get(partyId);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Returns the ordinal of a province, or {@code -1} when the election has no such province.
+     */
+    public int provinceOrdinal(int provinceId) {
+        return provinceId >= 0 && provinceId < provinceOrdinals.length ? provinceOrdinals[provinceId] : -1;
+    }
+
+    /**
+     * Returns the ordinal of a constituency, or {@code -1} when it is not part of a province.
+     */
+    public int constituencyOrdinal(int constituencyId) {
+        Integer ordinal = constituencyOrdinals.get(constituencyId);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Returns the ordinal of an authority, or {@code -1} when it is not part of a province.
+     */
+    public int authorityOrdinal(String authorityId) {
+        Integer ordinal = authorityOrdinals.get(authorityId);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Returns a province, or {@code null} when the election has no such province.
+     */
+    public Province province(int provinceId) {
+        int ordinal = provinceOrdinal(provinceId);
+        return ordinal < 0 ? null : provinces[ordinal];
+    }
+
+    /**
+     * Returns the total of the votes of the authorities of a province, or 0 when the election has no such province.
+     */
+    public int provinceVotes(int provinceId) {
+        int ordinal = provinceOrdinal(provinceId);
+        return ordinal < 0 ? 0 : provinceLevel.total(ordinal);
+    }
+
+    /**
+     * Returns the parties of a province with their total votes and percentages. The map cannot be changed, and the
+     * parties are built from the totals on every call, so changing one does not change the index. The map is empty when
+     * the election has no such province.
+     */
+    public Map<Integer, Party> provinceParties(int provinceId) {
+        int ordinal = provinceOrdinal(provinceId);
+        return ordinal < 0 ? Map.of() : Collections.unmodifiableMap(provincePartiesOf(ordinal));
+    }
+
+    public Level provinces() {
+        return provinceLevel;
+    }
+
+    public Level constituencies() {
+        return constituencyLevel;
+    }
+
+    public Level authorities() {
+        return authorityLevel;
+    }
+}
@@ -46,6 +46,7 @@ public class Authority {
      *
      * This map facilitates the management and retrieval of polling station data,
      * such as location, votes, and associated parties, within an authority.
+     * It is a {@link PollingStationVotes} store, unless another map has been set.
      */
     Map<String, PollingStation> pollingStations;
     /**
@@ -67,7 +68,7 @@ public class Authority {
         this.id = id;
         this.name = "";
         this.parties = new HashMap<>();
-        this.pollingStations = new HashMap<>();
+        this.pollingStations = new PollingStationVotes();
         this.constituencyId = 0;
         this.electionId = "";
         this.votes = 0;
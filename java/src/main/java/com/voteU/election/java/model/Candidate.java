@@ -1,27 +1,61 @@
 package com.voteU.election.java.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import lombok.*;
 
+/**
+ * The votes of a candidate at one level of the election. The personal details are not copied into every candidate,
+ * they are referenced as one shared {@link CandidateDetails} instance.
+ */
 @Getter
 @Setter
+@JsonPropertyOrder({"id", "firstName", "lastName", "gender", "localityName", "partyId", "votes", "electionId"})
 public class Candidate {
     private int id;
-    private String firstName;
-    private String lastName;
-    private String gender;
-    private String localityName;
+    @Getter(onMethod_ = @JsonIgnore)
+    private CandidateDetails details;
     private int partyId;
     private int votes;
     private String electionId;
 
     public Candidate() {
         this.id = 0;
-        this.firstName = "";
-        this.lastName = "";
-        this.gender = "";
-        this.localityName = "";
+        this.details = CandidateDetails.EMPTY;
         this.partyId = 0;
         this.votes = 0;
 
     }
+
+    public String getFirstName() {
+        return details.firstName();
+    }
+
+    public String getLastName() {
+        return details.lastName();
+    }
+
+    public String getGender() {
+        return details.gender();
+    }
+
+    public String getLocalityName() {
+        return details.localityName();
+    }
+
+    public void setFirstName(String firstName) {
+        this.details = new CandidateDetails(firstName, details.lastName(), details.gender(), details.localityName());
+    }
+
+    public void setLastName(String lastName) {
+        this.details = new CandidateDetails(details.firstName(), lastName, details.gender(), details.localityName());
+    }
+
+    public void setGender(String gender) {
+        this.details = new CandidateDetails(details.firstName(), details.lastName(), gender, details.localityName());
+    }
+
+    public void setLocalityName(String localityName) {
+        this.details = new CandidateDetails(details.firstName(), details.lastName(), details.gender(), localityName);
+    }
 }
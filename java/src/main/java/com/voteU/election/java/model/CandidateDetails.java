@@ -0,0 +1,17 @@
+package com.voteU.election.java.model;
+
+/**
+ * The personal details of a candidate as they appear on a candidate list. The details are shared by every
+ * {@link Candidate} of the same person, at every level of the election, through a {@link CandidateDictionary}.
+ *
+ * @param firstName    the first name of the candidate.
+ * @param lastName     the last name of the candidate.
+ * @param gender       the gender of the candidate.
+ * @param localityName the place of residence of the candidate.
+ */
+public record CandidateDetails(String firstName, String lastName, String gender, String localityName) {
+    /**
+     * The details of a candidate that has votes, but has not been found on a candidate list (yet).
+     */
+    public static final CandidateDetails EMPTY = new CandidateDetails("", "", "", "");
+}
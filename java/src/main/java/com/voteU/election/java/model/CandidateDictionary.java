@@ -0,0 +1,53 @@
+package com.voteU.election.java.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The canonical {@link CandidateDetails} of the candidates of one election, keyed by their contest, party and
+ * candidate id.<br>
+ * The candidate lists are registered per contest, and the same candidate id of a party can belong to a different
+ * person in another contest. The details are interned on their value, so a candidate that appears on the lists of
+ * several contests still has a single instance, which is referenced by all of its {@link Candidate} objects.
+ * The dictionary is filled by a single thread while the election is processed.
+ */
+public final class CandidateDictionary {
+    private final Map<CandidateDetails, CandidateDetails> interned = new HashMap<>();
+    private final Map<Key, CandidateDetails> candidates = new HashMap<>();
+
+    private record Key(int contestId, int partyId, int candidateId) {
+    }
+
+    /**
+     * Returns the canonical instance of the given details.
+     */
+    public CandidateDetails intern(CandidateDetails details) {
+        CandidateDetails existing = interned.putIfAbsent(details, details);
+        return existing == null ? details : existing;
+    }
+
+    /**
+     * Registers the details of a candidate of a contest, replacing the details it had before.
+     *
+     * @return the canonical instance of the details.
+     */
+    public CandidateDetails register(int contestId, int partyId, int candidateId, CandidateDetails details) {
+        CandidateDetails canonical = intern(details);
+        candidates.put(new Key(contestId, partyId, candidateId), canonical);
+        return canonical;
+    }
+
+    /**
+     * Returns the details of a candidate of a contest, or {@code null} when the candidate has not been registered.
+     */
+    public CandidateDetails get(int contestId, int partyId, int candidateId) {
+        return candidates.get(new Key(contestId, partyId, candidateId));
+    }
+
+    /**
+     * Returns the number of candidates that have been registered, counted per contest.
+     */
+    public int size() {
+        return candidates.size();
+    }
+}
@@ -0,0 +1,80 @@
+package com.voteU.election.java.model;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash table from a candidate id to the position of the candidate in the list of a {@link Party}.
+ * The keys and positions are stored in two {@code int} arrays, with linear probing, so a lookup does not box the id
+ * and does not walk the list.
+ */
+final class CandidateIndex {
+    private static final int FREE = -1;
+
+    private int[] keys;
+    private int[] positions;
+    private int mask;
+    private int size;
+
+    CandidateIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, FREE);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Returns the position of a candidate, or {@code -1} when the id is not in the index.
+     */
+    int get(int candidateId) {
+        for (int slot = slot(candidateId); ; slot = (slot + 1) & mask) {
+            int position = positions[slot];
+            if (position == FREE || keys[slot] == candidateId) {
+                return position;
+            }
+        }
+    }
+
+    /**
+     * Adds the position of a candidate, unless the id is already in the index. Like a scan of the list, the index
+     * finds the first candidate with an id.
+     */
+    void putIfAbsent(int candidateId, int position) {
+        int slot = slot(candidateId);
+        while (positions[slot] != FREE) {
+            if (keys[slot] == candidateId) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = candidateId;
+        positions[slot] = position;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldPositions = positions;
+        keys = new int[oldKeys.length * 2];
+        positions = new int[oldKeys.length * 2];
+        Arrays.fill(positions, FREE);
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldPositions[i] != FREE) {
+                int slot = slot(oldKeys[i]);
+                while (positions[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                positions[slot] = oldPositions[i];
+            }
+        }
+    }
+
+    private int slot(int candidateId) {
+        int hash = candidateId * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
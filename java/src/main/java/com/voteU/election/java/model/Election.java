@@ -1,5 +1,6 @@
 package com.voteU.election.java.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.voteU.election.java.utils.xml.Transformer;
 import lombok.Getter;
 import lombok.Setter;
@@ -25,6 +26,22 @@ public class Election {
     private List<Province> provinces;
     private Map<Integer, Constituency> constituencies;
     private Map<Integer, Party> parties;
+    /**
+     * The precomputed totals of the provinces, built once the election has been processed or loaded.
+     */
+    @Getter(onMethod_ = @JsonIgnore)
+    private volatile AggregateIndex aggregates;
+    /**
+     * The polling stations sorted by zip code, built once the election has been processed or loaded.
+     */
+    @Getter(onMethod_ = @JsonIgnore)
+    private volatile ZipCodeIndex zipCodeIndex;
+    /**
+     * The names of the candidates, parties, authorities and polling stations, built once the election has been
+     * processed or loaded.
+     */
+    @Getter(onMethod_ = @JsonIgnore)
+    private volatile SearchIndex searchIndex;
 
     public Election(String id, String name, String date) {
         this.id = id;
@@ -35,6 +52,10 @@ public class Election {
         this.parties = new HashMap<>();
 
     }
+    /**
+     * Sums the votes of the national parties again. The total is already kept while the national votes are
+     * registered, so this is only needed after the parties have been replaced.
+     */
     public void recalculateTotalVotes() {
         int totalVotes = 0;
         for (Party party : this.getParties().values()) {
@@ -1,5 +1,6 @@
 package com.voteU.election.java.model;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -14,6 +15,17 @@ public class Party {
     int votes;
     double percentage;
     List<Candidate> candidates;
+    /**
+     * Finds a candidate in {@link #candidates} on its id. It covers the first {@code indexed} candidates of the list and
+     * is brought up to date when the list has grown. A list whose candidates are replaced in place should be set again
+     * with {@link #setCandidates}, otherwise the index only notices it when it finds a candidate with another id.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private CandidateIndex index;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int indexed;
 
     public Party(int id, String name) {
         this.id = id;
@@ -22,18 +34,46 @@ public class Party {
         this.votes = 0;
     }
 
+    public void setCandidates(List<Candidate> candidates) {
+        this.candidates = candidates;
+        this.index = null;
+    }
+
     public void addCandidate(Candidate candidate) {
         this.candidates.add(candidate);
     }
 
+    /**
+     * Returns the first candidate with the given id, or {@code null} when the party has no such candidate.
+     */
+    public Candidate getCandidate(int candidateId) {
+        if (this.candidates == null) {
+            return null;
+        }
+        int size = this.candidates.size();
+        if (this.index == null || this.indexed > size) {
+            this.index = new CandidateIndex(size);
+            this.indexed = 0;
+        }
+        for (; this.indexed < size; this.indexed++) {
+            this.index.putIfAbsent(this.candidates.get(this.indexed).getId(), this.indexed);
+        }
+
+        int position = this.index.get(candidateId);
+        if (position < 0) {
+            return null;
+        }
+        Candidate candidate = this.candidates.get(position);
+        if (candidate.getId() != candidateId) {
+            // The list has been changed in place, index it again
+            this.index = null;
+            return getCandidate(candidateId);
+        }
+        return candidate;
+    }
 
     public boolean hasCandidateId(int candidateId) {
-        for (Candidate candidate : this.candidates) {
-            if (candidate.getId() == candidateId) {
-                return true;
-            }
-        }
-        return false;
+        return getCandidate(candidateId) != null;
     }
 
     public String toString() {
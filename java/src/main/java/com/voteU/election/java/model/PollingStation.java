@@ -1,5 +1,6 @@
 package com.voteU.election.java.model;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -17,6 +18,15 @@ public class PollingStation {
     private String electionId;
     private String authorityId;
     private Map<Integer, Party> parties;
+    /**
+     * The store this polling station is a view of, its parties are built from it when they are first asked for.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private PollingStationVotes store;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int ordinal;
 
     public PollingStation(String id, String name, String zipCode) {
         this.id = id;
@@ -27,6 +37,27 @@ public class PollingStation {
         this.authorityId = "";
     }
 
+    PollingStation(PollingStationVotes store, int ordinal, String id, String name, String zipCode) {
+        this.id = id;
+        this.name = name;
+        this.zipCode = zipCode;
+        this.authorityId = "";
+        this.store = store;
+        this.ordinal = ordinal;
+    }
+
+    public Map<Integer, Party> getParties() {
+        if (parties == null && store != null) {
+            parties = store.parties(ordinal);
+        }
+        return parties;
+    }
+
+    public void setParties(Map<Integer, Party> parties) {
+        this.parties = parties;
+        this.store = null;
+    }
+
 
     @Override
     public String toString() {
@@ -34,7 +65,7 @@ public class PollingStation {
                 "id='" + id + '\'' +
                 ", name='" + name + '\'' +
                 ", zipCode='" + zipCode + '\'' +
-                ", parties=" + parties +
+                ", parties=" + getParties() +
                 '}';
     }
 }
@@ -0,0 +1,414 @@
+package com.voteU.election.java.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Stores the votes of all polling stations of one {@link Authority} in columns of primitive arrays, instead of a
+ * {@link Party} map with {@link Candidate} lists for every polling station.<br>
+ * The polling stations (reporting units), parties and candidates are each numbered with an ordinal in the order they
+ * are first seen. Every polling station has one dense {@code int} row, holding a cell for every party and every
+ * candidate of the authority, which contains the number of votes or {@link #ABSENT} when the polling station did not
+ * report it. The ids and names are stored once per authority, in the dictionaries of the ordinals, and the details of
+ * the candidates are the shared instances of the {@link CandidateDictionary}.
+ * <p>
+ * The store is also the {@code Map<String, PollingStation>} of the authority: {@link #get} and the entries return a
+ * {@link PollingStation} view, whose parties are only built from the rows when they are asked for. Changes made to
+ * such a view are not written back, a polling station is changed with {@link #put} or the {@code register} methods.
+ * The store is written by a single thread while the election is processed, and only read afterward.
+ */
+public final class PollingStationVotes extends AbstractMap<String, PollingStation> {
+    /**
+     * The value of a cell of a party or candidate a polling station did not report votes for.
+     */
+    static final int ABSENT = -1;
+
+    // Polling stations, indexed by their ordinal
+    private final Map<String, Integer> stationOrdinals = new HashMap<>();
+    private String[] stationIds = new String[8];
+    private String[] stationNames = new String[8];
+    private String[] zipCodes = new String[8];
+    private String[] electionIds = new String[8];
+    private String[] authorityIds = new String[8];
+    private int[] stationVotes = new int[8];
+    private int[][] rows = new int[8][];
+    private int stationCount;
+
+    // Parties, indexed by their ordinal
+    private final Map<Integer, Integer> partyOrdinals = new HashMap<>();
+    private int[] partyIds = new int[4];
+    private String[] partyNames = new String[4];
+    private int[] partyCells = new int[4];
+    private int partyCount;
+
+    // The candidates of every party ordinal, in the order they were first seen
+    private final Map<Long, Integer> candidateCellsByKey = new HashMap<>();
+    private int[][] candidateIds = new int[4][];
+    private int[][] candidateCells = new int[4][];
+    private int[] candidateCounts = new int[4];
+
+    // The details of the candidates, indexed by their cell, and whether they were registered from a candidate list
+    private CandidateDetails[] details = new CandidateDetails[16];
+    private boolean[] listed = new boolean[16];
+    private int cellCount;
+
+    /**
+     * Returns the ordinal of a polling station, registering it when it is not known yet.
+     *
+     * @return the ordinal of the polling station, used by the other {@code register} methods.
+     */
+    public int registerPollingStation(String id, String name, String zipCode, String electionId, String authorityId) {
+        Integer ordinal = stationOrdinals.get(id);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        if (stationCount == stationIds.length) {
+            int capacity = stationCount + (stationCount >> 1);
+            stationIds = Arrays.copyOf(stationIds, capacity);
+            stationNames = Arrays.copyOf(stationNames, capacity);
+            zipCodes = Arrays.copyOf(zipCodes, capacity);
+            electionIds = Arrays.copyOf(electionIds, capacity);
+            authorityIds = Arrays.copyOf(authorityIds, capacity);
+            stationVotes = Arrays.copyOf(stationVotes, capacity);
+            rows = Arrays.copyOf(rows, capacity);
+        }
+        int station = stationCount++;
+        stationIds[station] = id;
+        stationNames[station] = name;
+        zipCodes[station] = zipCode;
+        electionIds[station] = electionId;
+        authorityIds[station] = authorityId;
+        rows[station] = emptyRow(cellCount);
+        stationOrdinals.put(id, station);
+        return station;
+    }
+
+    /**
+     * Returns the ordinal of a polling station, or {@code null} when it has not been registered.
+     */
+    public Integer ordinal(String id) {
+        return stationOrdinals.get(id);
+    }
+
+    /**
+     * Registers the votes of a party in a polling station, unless they were already registered. The votes are added to
+     * the total of the polling station.
+     */
+    public void registerPartyVotes(int station, int partyId, String partyName, int votes) {
+        int party = partyOrdinal(partyId, partyName);
+        int cell = partyCells[party];
+        int[] row = row(station, cell);
+        if (row[cell] == ABSENT) {
+            row[cell] = votes;
+            stationVotes[station] += votes;
+        }
+    }
+
+    /**
+     * Registers the votes of a candidate in a polling station, unless they were already registered or the polling
+     * station has no votes for the party of the candidate.
+     */
+    public void registerCandidateVotes(int station, int partyId, int candidateId, int votes) {
+        Integer party = partyOrdinals.get(partyId);
+        if (party == null || cell(rows[station], partyCells[party]) == ABSENT) {
+            return;
+        }
+        int cell = candidateCell(party, candidateId);
+        int[] row = row(station, cell);
+        if (row[cell] == ABSENT) {
+            row[cell] = votes;
+        }
+    }
+
+    /**
+     * Registers the details of a candidate from a candidate list. The candidate is part of every polling station that
+     * has votes for the party, with 0 votes when the polling station did not report any for the candidate itself.
+     */
+    public void registerCandidate(int partyId, int candidateId, CandidateDetails candidateDetails) {
+        Integer party = partyOrdinals.get(partyId);
+        if (party == null) {
+            return;
+        }
+        int cell = candidateCell(party, candidateId);
+        details[cell] = candidateDetails;
+        listed[cell] = true;
+    }
+
+    /**
+     * Builds the parties of a polling station, with their candidates, from its row.
+     */
+    Map<Integer, Party> parties(int station) {
+        int[] row = rows[station];
+        Map<Integer, Party> parties = new HashMap<>();
+        for (int party = 0; party < partyCount; party++) {
+            int votes = cell(row, partyCells[party]);
+            if (votes == ABSENT) {
+                continue;
+            }
+            Party view = new Party(partyIds[party], partyNames[party]);
+            view.setVotes(votes);
+            List<Candidate> candidates = new ArrayList<>(candidateCounts[party]);
+            for (int i = 0; i < candidateCounts[party]; i++) {
+                int cell = candidateCells[party][i];
+                int candidateVotes = cell(row, cell);
+                if (candidateVotes == ABSENT && listed[cell]) {
+                    candidateVotes = 0;
+                }
+                if (candidateVotes != ABSENT) {
+                    candidates.add(candidate(station, party, candidateIds[party][i], cell, candidateVotes));
+                }
+            }
+            view.setCandidates(candidates);
+            parties.put(partyIds[party], view);
+        }
+        return parties;
+    }
+
+    /**
+     * Receives the votes of a party in a polling station.
+     */
+    @FunctionalInterface
+    public interface PartyVotesVisitor {
+        void visit(String pollingStationId, int partyId, int votes);
+    }
+
+    /**
+     * Receives the votes of a candidate in a polling station.
+     */
+    @FunctionalInterface
+    public interface CandidateVotesVisitor {
+        void visit(String pollingStationId, int partyId, int candidateId, int votes);
+    }
+
+    /**
+     * Visits the votes of every party in every polling station straight from the rows, without building the
+     * {@link PollingStation} and {@link Party} views. The polling stations and parties are visited in the order they
+     * were registered.
+     */
+    public void forEachPartyVotes(PartyVotesVisitor visitor) {
+        for (int station = 0; station < stationCount; station++) {
+            int[] row = rows[station];
+            for (int party = 0; party < partyCount; party++) {
+                int votes = cell(row, partyCells[party]);
+                if (votes != ABSENT) {
+                    visitor.visit(stationIds[station], partyIds[party], votes);
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits the votes of every candidate in every polling station straight from the rows, with the same candidates
+     * and votes as the {@link Party} views of {@link #parties} have.
+     */
+    public void forEachCandidateVotes(CandidateVotesVisitor visitor) {
+        for (int station = 0; station < stationCount; station++) {
+            int[] row = rows[station];
+            for (int party = 0; party < partyCount; party++) {
+                if (cell(row, partyCells[party]) == ABSENT) {
+                    continue;
+                }
+                for (int i = 0; i < candidateCounts[party]; i++) {
+                    int cell = candidateCells[party][i];
+                    int votes = cell(row, cell);
+                    if (votes == ABSENT && listed[cell]) {
+                        votes = 0;
+                    }
+                    if (votes != ABSENT) {
+                        visitor.visit(stationIds[station], partyIds[party], candidateIds[party][i], votes);
+                    }
+                }
+            }
+        }
+    }
+
+    private Candidate candidate(int station, int party, int candidateId, int cell, int votes) {
+        Candidate candidate = new Candidate();
+        candidate.setId(candidateId);
+        candidate.setDetails(details[cell]);
+        candidate.setPartyId(partyIds[party]);
+        candidate.setVotes(votes);
+        candidate.setElectionId(electionIds[station]);
+        return candidate;
+    }
+
+    private PollingStation view(int station) {
+        PollingStation view = new PollingStation(this, station, stationIds[station], stationNames[station], zipCodes[station]);
+        view.setVotes(stationVotes[station]);
+        view.setElectionId(electionIds[station]);
+        view.setAuthorityId(authorityIds[station]);
+        return view;
+    }
+
+    private int partyOrdinal(int partyId, String partyName) {
+        Integer ordinal = partyOrdinals.get(partyId);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        if (partyCount == partyIds.length) {
+            int capacity = partyCount * 2;
+            partyIds = Arrays.copyOf(partyIds, capacity);
+            partyNames = Arrays.copyOf(partyNames, capacity);
+            partyCells = Arrays.copyOf(partyCells, capacity);
+            candidateIds = Arrays.copyOf(candidateIds, capacity);
+            candidateCells = Arrays.copyOf(candidateCells, capacity);
+            candidateCounts = Arrays.copyOf(candidateCounts, capacity);
+        }
+        int party = partyCount++;
+        partyIds[party] = partyId;
+        partyNames[party] = partyName;
+        partyCells[party] = newCell();
+        candidateIds[party] = new int[8];
+        candidateCells[party] = new int[8];
+        partyOrdinals.put(partyId, party);
+        return party;
+    }
+
+    private int candidateCell(int party, int candidateId) {
+        long key = ((long) party << 32) | (candidateId & 0xFFFFFFFFL);
+        Integer existing = candidateCellsByKey.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        int count = candidateCounts[party];
+        if (count == candidateIds[party].length) {
+            candidateIds[party] = Arrays.copyOf(candidateIds[party], count * 2);
+            candidateCells[party] = Arrays.copyOf(candidateCells[party], count * 2);
+        }
+        int cell = newCell();
+        candidateIds[party][count] = candidateId;
+        candidateCells[party][count] = cell;
+        candidateCounts[party] = count + 1;
+        details[cell] = CandidateDetails.EMPTY;
+        candidateCellsByKey.put(key, cell);
+        return cell;
+    }
+
+    private int newCell() {
+        if (cellCount == details.length) {
+            int capacity = cellCount * 2;
+            details = Arrays.copyOf(details, capacity);
+            listed = Arrays.copyOf(listed, capacity);
+        }
+        return cellCount++;
+    }
+
+    /**
+     * Returns the row of a polling station, grown so it has the given cell.
+     */
+    private int[] row(int station, int cell) {
+        int[] row = rows[station];
+        if (cell >= row.length) {
+            int length = Math.max(Math.max(cell + 1, cellCount), row.length + (row.length >> 1));
+            int[] grown = Arrays.copyOf(row, length);
+            Arrays.fill(grown, row.length, length, ABSENT);
+            rows[station] = row = grown;
+        }
+        return row;
+    }
+
+    private static int cell(int[] row, int cell) {
+        return cell < row.length ? row[cell] : ABSENT;
+    }
+
+    private static int[] emptyRow(int length) {
+        int[] row = new int[length];
+        Arrays.fill(row, ABSENT);
+        return row;
+    }
+
+    @Override
+    public int size() {
+        return stationCount;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return stationOrdinals.containsKey(key);
+    }
+
+    @Override
+    public PollingStation get(Object key) {
+        Integer station = stationOrdinals.get(key);
+        return station == null ? null : view(station);
+    }
+
+    /**
+     * Stores a copy of a polling station in the columns, replacing the votes it had before. The polling stations are
+     * keyed on their id, so {@code key} is also used as the id of the copy.
+     */
+    @Override
+    public PollingStation put(String key, PollingStation pollingStation) {
+        Integer existing = stationOrdinals.get(key);
+        PollingStation previous = null;
+        if (existing != null) {
+            previous = view(existing);
+            previous.getParties();
+        }
+        int station = existing == null
+                ? registerPollingStation(key, pollingStation.getName(), pollingStation.getZipCode(), pollingStation.getElectionId(), pollingStation.getAuthorityId())
+                : existing;
+        stationNames[station] = pollingStation.getName();
+        zipCodes[station] = pollingStation.getZipCode();
+        electionIds[station] = pollingStation.getElectionId();
+        authorityIds[station] = pollingStation.getAuthorityId();
+        rows[station] = emptyRow(cellCount);
+
+        Map<Integer, Party> parties = pollingStation.getParties();
+        if (parties != null) {
+            for (Party party : parties.values()) {
+                registerPartyVotes(station, party.getId(), party.getName(), party.getVotes());
+                int ordinal = partyOrdinals.get(party.getId());
+                if (party.getCandidates() == null) {
+                    continue;
+                }
+                for (Candidate candidate : party.getCandidates()) {
+                    int cell = candidateCell(ordinal, candidate.getId());
+                    details[cell] = candidate.getDetails();
+                    row(station, cell)[cell] = candidate.getVotes();
+                }
+            }
+        }
+        stationVotes[station] = pollingStation.getVotes();
+        return previous;
+    }
+
+    @Override
+    public Set<Entry<String, PollingStation>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, PollingStation>> iterator() {
+                return new Iterator<>() {
+                    private int station;
+
+                    @Override
+                    public boolean hasNext() {
+                        return station < stationCount;
+                    }
+
+                    @Override
+                    public Entry<String, PollingStation> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        PollingStation view = view(station++);
+                        return new SimpleImmutableEntry<>(view.getId(), view);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return stationCount;
+            }
+        };
+    }
+}
@@ -0,0 +1,381 @@
+package com.voteU.election.java.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * An inverted index over the names of the candidates, parties, authorities and polling stations of an election, built
+ * once after the election has been processed or loaded.<br>
+ * The names are split into terms that are folded to lower case without diacritics, so <i>Ömtzigt</i> is found with
+ * <i>omtzigt</i>. The terms are kept in one sorted array with the documents they occur in, which finds a term or every
+ * term that starts with a prefix with a binary search. Typos are found through the deletions of every term: two terms
+ * within an edit distance {@code k} share a string that is left after at most {@code k} deletions from each, so the
+ * deletions of a query term lead straight to the similar terms without comparing it to all of them.
+ * <p>
+ * Every term of a query has to match a term of a document. An exact match scores higher than a prefix, and a prefix
+ * higher than a typo, the best documents are returned first.
+ * The index is not updated when the election changes afterward, a new index has to be built instead.
+ */
+public final class SearchIndex {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int FUZZY = 1;
+
+    public enum Type {CANDIDATE, PARTY, AUTHORITY, POLLING_STATION}
+
+    /**
+     * A document that matched a query.
+     *
+     * @param detail the locality of a candidate or the zip code of a polling station.
+     * @param score  how well the document matched, higher is better.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Hit(Type type, String id, String name, String detail, Integer partyId, Integer constituencyId,
+                      String authorityId, int score) {
+    }
+
+    private record Document(Type type, String id, String name, String detail, Integer partyId, Integer constituencyId,
+                            String authorityId) {
+        Hit hit(int score) {
+            return new Hit(type, id, name, detail, partyId, constituencyId, authorityId, score);
+        }
+    }
+
+    private final Document[] documents;
+    /**
+     * The terms of every document, by the ordinal of the term.
+     */
+    private final int[][] documentTerms;
+    private final String[] terms;
+    /**
+     * The documents of every term in ascending order, by the ordinal of the term.
+     */
+    private final int[][] postings;
+    /**
+     * The terms that every deletion of a term leads to, see {@link #deletions}.
+     */
+    private final Map<String, int[]> termsByDeletion;
+
+    private SearchIndex(List<Document> documentList, List<List<String>> documentTermList) {
+        documents = documentList.toArray(new Document[0]);
+
+        // Number the terms in sorted order and collect their documents
+        TreeMap<String, List<Integer>> documentsByTerm = new TreeMap<>();
+        for (int document = 0; document < documents.length; document++) {
+            for (String term : documentTermList.get(document)) {
+                List<Integer> list = documentsByTerm.computeIfAbsent(term, ignored -> new ArrayList<>());
+                if (list.isEmpty() || list.get(list.size() - 1) != document) {
+                    list.add(document);
+                }
+            }
+        }
+        terms = documentsByTerm.keySet().toArray(new String[0]);
+        postings = new int[terms.length][];
+        Map<String, Integer> termOrdinals = new HashMap<>();
+        Map<String, List<Integer>> deletionLists = new HashMap<>();
+        for (int term = 0; term < terms.length; term++) {
+            postings[term] = documentsByTerm.get(terms[term]).stream().mapToInt(Integer::intValue).toArray();
+            termOrdinals.put(terms[term], term);
+            for (String deletion : deletions(terms[term], indexedDistance(terms[term].length()))) {
+                deletionLists.computeIfAbsent(deletion, ignored -> new ArrayList<>()).add(term);
+            }
+        }
+        termsByDeletion = new HashMap<>(deletionLists.size() * 4 / 3 + 1);
+        deletionLists.forEach((deletion, list) -> termsByDeletion.put(deletion, list.stream().mapToInt(Integer::intValue).toArray()));
+
+        documentTerms = new int[documents.length][];
+        for (int document = 0; document < documents.length; document++) {
+            documentTerms[document] = documentTermList.get(document).stream().distinct().mapToInt(termOrdinals::get).toArray();
+        }
+    }
+
+    /**
+     * Builds the index of the candidates and parties of the election, and the authorities and polling stations of all
+     * constituencies.
+     */
+    public static SearchIndex of(Election election) {
+        List<Document> documents = new ArrayList<>();
+        List<List<String>> terms = new ArrayList<>();
+        if (election.getParties() != null) {
+            for (Party party : election.getParties().values()) {
+                add(documents, terms, new Document(Type.PARTY, String.valueOf(party.getId()), party.getName(), null, party.getId(), null, null),
+                        party.getName());
+                if (party.getCandidates() == null) {
+                    continue;
+                }
+                for (Candidate candidate : party.getCandidates()) {
+                    String name = join(candidate.getFirstName(), candidate.getLastName());
+                    add(documents, terms, new Document(Type.CANDIDATE, String.valueOf(candidate.getId()), name, candidate.getLocalityName(), party.getId(), null, null),
+                            name, candidate.getLocalityName());
+                }
+            }
+        }
+        if (election.getConstituencies() != null) {
+            for (Constituency constituency : election.getConstituencies().values()) {
+                for (Authority authority : constituency.getAuthorities().values()) {
+                    add(documents, terms, new Document(Type.AUTHORITY, authority.getId(), authority.getName(), null, null, constituency.getId(), authority.getId()),
+                            authority.getName());
+                    for (PollingStation pollingStation : authority.getPollingStations().values()) {
+                        add(documents, terms, new Document(Type.POLLING_STATION, pollingStation.getId(), pollingStation.getName(), pollingStation.getZipCode(), null, constituency.getId(), authority.getId()),
+                                pollingStation.getName());
+                    }
+                }
+            }
+        }
+        return new SearchIndex(documents, terms);
+    }
+
+    private static void add(List<Document> documents, List<List<String>> terms, Document document, String... texts) {
+        List<String> documentTerms = new ArrayList<>();
+        for (String text : texts) {
+            documentTerms.addAll(terms(text));
+        }
+        if (!documentTerms.isEmpty()) {
+            documents.add(document);
+            terms.add(documentTerms);
+        }
+    }
+
+    private static String join(String first, String last) {
+        if (first == null || first.isBlank()) {
+            return last;
+        }
+        return last == null || last.isBlank() ? first : first + " " + last;
+    }
+
+    /**
+     * Splits a text into terms, in lower case and without diacritics.
+     */
+    public static List<String> terms(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARATORS.split(folded)).filter(term -> !term.isEmpty()).toList();
+    }
+
+    /**
+     * Returns the number of typos allowed in a query term: none in short terms, where a typo gives another word, one
+     * from 4 characters and two from 8.
+     */
+    static int allowedDistance(int length) {
+        return length >= 8 ? 2 : length >= 4 ? 1 : 0;
+    }
+
+    /**
+     * Returns the number of deletions that are indexed for a term: enough to find it from every query term that is
+     * allowed that many typos, which can be up to 2 characters longer.
+     */
+    private static int indexedDistance(int length) {
+        return allowedDistance(length + 2);
+    }
+
+    /**
+     * Returns the strings left after deleting up to {@code distance} characters from a term, including the term
+     * itself.
+     */
+    private static Set<String> deletions(String term, int distance) {
+        Set<String> deletions = new HashSet<>();
+        deletions.add(term);
+        List<String> current = List.of(term);
+        for (int step = 0; step < distance; step++) {
+            List<String> next = new ArrayList<>();
+            for (String string : current) {
+                for (int i = 0; i < string.length(); i++) {
+                    String deletion = string.substring(0, i) + string.substring(i + 1);
+                    if (deletions.add(deletion)) {
+                        next.add(deletion);
+                    }
+                }
+            }
+            current = next;
+        }
+        return deletions;
+    }
+
+    /**
+     * Returns the documents that match every term of a query, the best matches first.
+     *
+     * @param query the query, for example a name with a typo or the start of a name.
+     * @param types the types of the documents that are returned, or {@code null} for all of them.
+     * @param limit the maximum number of documents that are returned.
+     */
+    public List<Hit> search(String query, Set<Type> types, int limit) {
+        List<String> queryTerms = terms(query).stream().distinct().toList();
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        // The score of every index term that matches a query term, per query term
+        List<Map<Integer, Integer>> matches = new ArrayList<>();
+        for (String queryTerm : queryTerms) {
+            Map<Integer, Integer> scores = matchingTerms(queryTerm);
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+            matches.add(scores);
+        }
+        // Start from the query term that matches the fewest documents, and only check its documents for the others
+        matches.sort(Comparator.comparingLong(this::postingCount));
+
+        Map<Integer, Integer> candidates = new LinkedHashMap<>();
+        matches.get(0).forEach((term, score) -> {
+            for (int document : postings[term]) {
+                if (types == null || types.contains(documents[document].type())) {
+                    candidates.merge(document, score, Math::max);
+                }
+            }
+        });
+        for (int i = 1; i < matches.size() && !candidates.isEmpty(); i++) {
+            Map<Integer, Integer> scores = matches.get(i);
+            candidates.replaceAll((document, score) -> {
+                int best = 0;
+                for (int term : documentTerms[document]) {
+                    best = Math.max(best, scores.getOrDefault(term, 0));
+                }
+                return best == 0 ? 0 : score + best;
+            });
+            candidates.values().removeIf(score -> score == 0);
+        }
+
+        // A short prefix can match many documents, only the best ones are kept instead of sorting all of them
+        Comparator<Map.Entry<Integer, Integer>> best = Map.Entry.<Integer, Integer>comparingByValue().reversed()
+                .thenComparing(entry -> documents[entry.getKey()].name().length())
+                .thenComparing(Map.Entry::getKey);
+        PriorityQueue<Map.Entry<Integer, Integer>> top = new PriorityQueue<>(limit + 1, best.reversed());
+        for (Map.Entry<Integer, Integer> entry : candidates.entrySet()) {
+            top.add(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        return top.stream()
+                .sorted(best)
+                .map(entry -> documents[entry.getKey()].hit(entry.getValue()))
+                .toList();
+    }
+
+    private long postingCount(Map<Integer, Integer> scores) {
+        long count = 0;
+        for (int term : scores.keySet()) {
+            count += postings[term].length;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the index terms that match a query term exactly, by prefix or with typos, with their score.
+     */
+    private Map<Integer, Integer> matchingTerms(String queryTerm) {
+        Map<Integer, Integer> scores = new HashMap<>();
+        int from = lowerBound(queryTerm);
+        // A single character only matches whole terms, as a prefix it would match a large part of the index
+        int to = queryTerm.length() < 2 ? from : prefixEnd(queryTerm, from);
+        if (from < terms.length && terms[from].equals(queryTerm)) {
+            scores.put(from, EXACT);
+        }
+        for (int term = from; term < to; term++) {
+            scores.putIfAbsent(term, PREFIX);
+        }
+        int distance = allowedDistance(queryTerm.length());
+        if (distance > 0) {
+            for (String deletion : deletions(queryTerm, distance)) {
+                int[] similar = termsByDeletion.get(deletion);
+                if (similar == null) {
+                    continue;
+                }
+                for (int term : similar) {
+                    if (!scores.containsKey(term) && editDistance(queryTerm, terms[term], distance) <= distance) {
+                        scores.put(term, FUZZY);
+                    }
+                }
+            }
+        }
+        return scores;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = terms.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (terms[middle].compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int prefixEnd(String prefix, int from) {
+        int low = from;
+        int high = terms.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (terms[middle].startsWith(prefix)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the number of insertions, deletions, substitutions and swaps of adjacent characters that turn one term
+     * into the other, or {@code max + 1} as soon as it is known to be larger than {@code max}.
+     */
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMinimum = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int distance = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    distance = Math.min(distance, previous2[j - 2] + 1);
+                }
+                current[j] = distance;
+                rowMinimum = Math.min(rowMinimum, distance);
+            }
+            if (rowMinimum > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    public int size() {
+        return documents.length;
+    }
+}
@@ -0,0 +1,136 @@
+package com.voteU.election.java.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The polling stations of an election sorted by their zip code, so the polling stations whose zip code starts with a
+ * prefix are found with a binary search instead of a scan or a database query.<br>
+ * The zip codes are stored without spaces and in upper case, in one sorted array with the polling stations in a
+ * parallel array. A prefix query finds the first and the last match with two binary searches and returns a view of the
+ * polling stations in between, so it takes {@code O(log n)} whatever the number of matches, and copies nothing.
+ * The index is not updated when the election changes afterward, a new index has to be built instead.
+ */
+public final class ZipCodeIndex {
+    private final String[] zipCodes;
+    private final PollingStation[] pollingStations;
+
+    private record Entry(String zipCode, PollingStation pollingStation) {
+    }
+
+    private ZipCodeIndex(List<Entry> entries) {
+        entries.sort(Comparator.comparing(Entry::zipCode)
+                .thenComparing(entry -> entry.pollingStation().getAuthorityId(), Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(entry -> entry.pollingStation().getId(), Comparator.nullsFirst(Comparator.naturalOrder())));
+        zipCodes = new String[entries.size()];
+        pollingStations = new PollingStation[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            zipCodes[i] = entries.get(i).zipCode();
+            pollingStations[i] = entries.get(i).pollingStation();
+        }
+    }
+
+    /**
+     * Builds the index of the polling stations of all authorities of an election. Polling stations without a zip code
+     * are left out.
+     */
+    public static ZipCodeIndex of(Election election) {
+        List<Entry> entries = new ArrayList<>();
+        if (election.getConstituencies() != null) {
+            for (Constituency constituency : election.getConstituencies().values()) {
+                for (Authority authority : constituency.getAuthorities().values()) {
+                    for (PollingStation pollingStation : authority.getPollingStations().values()) {
+                        String zipCode = normalize(pollingStation.getZipCode());
+                        if (!zipCode.isEmpty()) {
+                            entries.add(new Entry(zipCode, pollingStation));
+                        }
+                    }
+                }
+            }
+        }
+        return new ZipCodeIndex(entries);
+    }
+
+    /**
+     * Removes the spaces from a zip code and puts it in upper case, the way the zip codes are stored in the index.
+     */
+    public static String normalize(String zipCode) {
+        if (zipCode == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(zipCode.length());
+        for (int i = 0; i < zipCode.length(); i++) {
+            char c = zipCode.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the polling stations whose zip code starts with a prefix, in the order of their zip codes. The list is a
+     * view of the index and cannot be changed.
+     *
+     * @param prefix the start of the zip code, spaces and case are ignored.
+     * @param limit  the maximum number of polling stations that are returned.
+     */
+    public List<PollingStation> search(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        int from = lowerBound(normalized);
+        int to = from + Math.min(upperBound(normalized, from) - from, Math.max(0, limit));
+        return Collections.unmodifiableList(Arrays.asList(pollingStations).subList(from, to));
+    }
+
+    /**
+     * Returns the number of polling stations whose zip code starts with a prefix.
+     */
+    public int count(String prefix) {
+        String normalized = normalize(prefix);
+        int from = lowerBound(normalized);
+        return upperBound(normalized, from) - from;
+    }
+
+    public int size() {
+        return zipCodes.length;
+    }
+
+    /**
+     * Returns the index of the first zip code that is not smaller than the prefix, which is the first match if there
+     * is one.
+     */
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = zipCodes.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (zipCodes[middle].compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index after the last zip code that starts with the prefix, searching from the first match.
+     */
+    private int upperBound(String prefix, int from) {
+        int low = from;
+        int high = zipCodes.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (zipCodes[middle].startsWith(prefix)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
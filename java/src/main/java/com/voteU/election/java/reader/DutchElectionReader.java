@@ -1,25 +1,70 @@
 package com.voteU.election.java.reader;
 
+import com.voteU.election.java.model.AggregateIndex;
+import com.voteU.election.java.model.SearchIndex;
+import com.voteU.election.java.model.ZipCodeIndex;
 import com.voteU.election.java.model.Election;
 import com.voteU.election.java.utils.PathUtils;
 import com.voteU.election.java.utils.xml.DutchElectionProcessor;
+import com.voteU.election.java.utils.xml.ProcessingListener;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 /**
- * Processes election data from XML files and provides access to the results.
+ * Processes election data from XML files and provides access to the results.<br>
+ * Every read builds a completely new {@link Election} with its own transformer, so an election that has been returned
+ * before is never changed by a later read of the same election.<br>
+ * When a snapshot folder is configured, every election that has been processed successfully is also stored as an
+ * {@link ElectionSnapshot}. The next time the same election is read, it is loaded from that snapshot instead, as long
+ * as the EML files and the code that parses them have not changed since.
  */
 @Slf4j
 @Component
 public class DutchElectionReader {
-    private final DutchElectionTransformer transformer;
-    private final DutchElectionProcessor<Election> electionProcessor;
+    /**
+     * The elections that are read by {@link #getAll()}.
+     */
+    public static final List<String> ELECTION_IDS = List.of("TK2021", "TK2023");
+
+    private final int parallelism;
+    private final Path snapshotFolder;
 
 
     public DutchElectionReader() {
-        this.transformer = new DutchElectionTransformer();
-        this.electionProcessor = new DutchElectionProcessor<>(transformer);
+        this(1);
+    }
+
+    /**
+     * Creates a reader that parses up to {@code parallelism} EML files at the same time, without snapshots.
+     *
+     * @param parallelism the maximum number of files that are parsed concurrently.
+     */
+    public DutchElectionReader(int parallelism) {
+        this(parallelism, null);
+    }
+
+    /**
+     * Creates a reader that parses up to {@code parallelism} EML files at the same time.
+     *
+     * @param parallelism    the maximum number of files that are parsed concurrently, configured through the
+     *                       {@code election.ingest.parallelism} property. Defaults to the number of available processors.
+     * @param snapshotFolder the folder the snapshots of the elections are stored in, configured through the
+     *                       {@code election.snapshot.folder} property. Snapshots are disabled when it is empty.
+     */
+    @Autowired
+    public DutchElectionReader(@Value("${election.ingest.parallelism:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int parallelism,
+                               @Value("${election.snapshot.folder:}") String snapshotFolder) {
+        this.parallelism = parallelism;
+        this.snapshotFolder = snapshotFolder == null || snapshotFolder.isBlank() ? null : Path.of(snapshotFolder);
+        log.info("Election files will be parsed with a parallelism of {}", parallelism);
     }
 
     /**
@@ -28,43 +73,125 @@ public class DutchElectionReader {
      * @return A map containing election results, organized by election year.
      */
     public Map<String, Election> getAll() {
-        String[] electionIds = {"TK2021", "TK2023"};
-        Map<String, Election> elections = new HashMap<>();
-
-        for (String electionId : electionIds) {
-            String path = "/EML_bestanden_" + electionId;
-            try {
-                // Process election data
-                Election election = electionProcessor.processResults(electionId, PathUtils.getResourcePath(path));
-                elections.put(electionId, election);
-                log.info("Processed Election " + electionId);
-            } catch(Exception e){
-                System.out.println("Could not process " + electionId);
-                e.printStackTrace();
-            }
-        }
-        System.out.println("All files are processed.\n");
         Map<String, Election> electionsMap = new HashMap<>();
-        for (Map.Entry<String, Election> entry : elections.entrySet()) {
-            String electionYear = entry.getKey();
-            Election election = transformer.getElection(electionYear);
-            electionsMap.put(electionYear, election);
+
+        for (String electionId : ELECTION_IDS) {
+            Election election = getElection(electionId);
+            if (election != null) {
+                electionsMap.put(electionId, election);
+            }
         }
         return electionsMap;
     }
 
     public Election getElection(String electionId) {
-            String path = "/EML_bestanden_" + electionId;
-            try {
-                // Process election data
-                electionProcessor.processResults(electionId, PathUtils.getResourcePath(path));
-                log.info("Processed Election " + electionId);
-            } catch(Exception e){
-                log.error("Could not process {}", electionId, e);
-            }
+        return getElection(electionId, ProcessingListener.NONE);
+    }
+
+    /**
+     * Reads and processes the election results of an election, and tells the listener how far it is.
+     *
+     * @param electionId the identifier of the election, for example <i>TK2023</i>.
+     * @param listener   the listener that is told about the progress of processing the EML files. It is not called
+     *                   when the election is loaded from its snapshot.
+     * @return the election, or {@code null} when it could not be processed or the thread has been interrupted.
+     */
+    public Election getElection(String electionId, ProcessingListener listener) {
+        return getElection(electionId, PathUtils.getResourcePath("/EML_bestanden_" + electionId), listener);
+    }
+
+    /**
+     * Reads and processes the election results stored in the given folder.
+     *
+     * @param electionId the identifier of the election, for example <i>TK2023</i>.
+     * @param folderName the folder that contains the EML files of the election.
+     * @return the election, or {@code null} when it could not be processed.
+     */
+    public Election getElection(String electionId, String folderName) {
+        return getElection(electionId, folderName, ProcessingListener.NONE);
+    }
+
+    private Election getElection(String electionId, String folderName, ProcessingListener listener) {
+        byte[] checksum = sourceChecksum(electionId, folderName);
+        Election snapshot = loadSnapshot(electionId, checksum);
+        if (snapshot != null) {
+            snapshot.setAggregates(AggregateIndex.of(snapshot));
+            snapshot.setZipCodeIndex(ZipCodeIndex.of(snapshot));
+            snapshot.setSearchIndex(SearchIndex.of(snapshot));
+            return snapshot;
+        }
+
+        DutchElectionTransformer transformer = new DutchElectionTransformer();
+        DutchElectionProcessor<Election> electionProcessor = new DutchElectionProcessor<>(transformer, parallelism);
+        electionProcessor.setListener(listener);
+        try {
+            // Process election data
+            electionProcessor.processResults(electionId, folderName);
+            log.info("Processed Election " + electionId);
+        } catch (InterruptedIOException e) {
+            // A half processed election is never returned after an interruption
+            log.info("Stopped processing {}", electionId);
+            return null;
+        } catch(Exception e){
+            // Neither is a half processed election, the election that is published stays in place
+            log.error("Could not process {}", electionId, e);
+            return null;
+        }
 
         System.out.println("All files are processed.\n");
-        return transformer.getElection(electionId);
+        Election election = transformer.getElection(electionId);
+        if (election != null) {
+            election.setAggregates(AggregateIndex.of(election));
+            election.setZipCodeIndex(ZipCodeIndex.of(election));
+            election.setSearchIndex(SearchIndex.of(election));
+        }
+        saveSnapshot(election, checksum);
+        return election;
+    }
+
+    private byte[] sourceChecksum(String electionId, String folderName) {
+        if (snapshotFolder == null) {
+            return null;
+        }
+        try {
+            return ElectionSnapshot.sourceChecksum(electionId, folderName);
+        } catch (IOException e) {
+            log.warn("Could not calculate the checksum of the files of {}, snapshots are not used", electionId, e);
+            return null;
+        }
+    }
+
+    private Path snapshotFile(String electionId) {
+        return snapshotFolder.resolve(electionId + ".snapshot");
+    }
+
+    private Election loadSnapshot(String electionId, byte[] checksum) {
+        if (checksum == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            Election election = ElectionSnapshot.read(snapshotFile(electionId), checksum);
+            if (election != null) {
+                log.info("Loaded election {} from snapshot in {} ms", electionId, (System.nanoTime() - start) / 1_000_000);
+            }
+            return election;
+        } catch (IOException e) {
+            log.warn("Could not load the snapshot of {}, the files will be processed instead", electionId, e);
+            return null;
+        }
+    }
+
+    private void saveSnapshot(Election election, byte[] checksum) {
+        if (election == null || checksum == null) {
+            return;
+        }
+        try {
+            ElectionSnapshot.write(election, checksum, snapshotFile(election.getId()));
+            log.info("Stored snapshot of election {} in {}", election.getId(), snapshotFolder);
+        } catch (IOException e) {
+            log.warn("Could not store the snapshot of {}", election.getId(), e);
+        }
     }
 
 }
@@ -2,11 +2,14 @@ package com.voteU.election.java.reader;
 
 import com.voteU.election.java.model.*;
 import com.voteU.election.java.utils.xml.DutchElectionProcessor;
-import com.voteU.election.java.utils.xml.Transformer;
+import com.voteU.election.java.utils.xml.ReportingUnit;
+import com.voteU.election.java.utils.xml.VoteScope;
+import com.voteU.election.java.utils.xml.VoteTransformer;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The DutchElectionTransformer class is responsible for transforming and registering various election-related data
@@ -15,12 +18,15 @@ import java.util.*;
  * elections, parties, constituencies, and candidates.
  *
  * This class also maintains an internal representation of elections data and handles mappings necessary for data processing.
+ * The vote counts of the municipalities are received as typed {@link VoteTransformer} events, the {@link Map} based
+ * methods for those vote counts only convert their input and pass it on to the typed methods.
  * It extends multiple parent classes and overrides their methods to achieve functionality specific to Dutch elections.
  */
 @Slf4j
 @Getter
-public class DutchElectionTransformer implements Transformer<Election> {
-    private final Map<String, Election> elections = new HashMap<>();
+public class DutchElectionTransformer implements VoteTransformer<Election> {
+    private final Map<String, Election> elections = new ConcurrentHashMap<>();
+    private final Map<String, CandidateDictionary> candidateDictionaries = new ConcurrentHashMap<>();
     private static final Map<Integer, Integer> DISTRICT_TO_PROVINCE_ID = Map.ofEntries(
             Map.entry(3, 1),  // Drenthe
             Map.entry(5, 2),  // Flevoland
@@ -108,6 +114,7 @@ public class DutchElectionTransformer implements Transformer<Election> {
 
         // Step 5: Create new party map for this constituency
         Map<Integer, Party> parties = new HashMap<>();
+        int totalConstituencyVotes = 0;
 
         for (Map.Entry<Integer, String> entry : affiliationNames.entrySet()) {
             int partyId = entry.getKey();
@@ -135,11 +142,9 @@ public class DutchElectionTransformer implements Transformer<Election> {
 
             party.setCandidates(candidates);
             parties.put(partyId, party);
-            // Update total authority votes
-            int totalConstituencyVotes = parties.values().stream().mapToInt(Party::getVotes).sum();
-            constituency.setVotes(totalConstituencyVotes);
-
+            totalConstituencyVotes += totalVotes;
         }
+        constituency.setVotes(totalConstituencyVotes);
 
         // Step 6: Set the parties to the constituency and store it back
         constituency.setParties(parties);
@@ -236,174 +241,187 @@ public class DutchElectionTransformer implements Transformer<Election> {
     }
 
 
+    /**
+     * Map based variant of {@link #registerAuthorityAffiliationVotes} and {@link #registerAuthorityCandidateVotes},
+     * only the totals of a municipality ({@code Source} is {@code GEMEENTE}) are registered.
+     */
     @Override
     public void registerAuthority(Map<String, String> authorityData) {
-        String electionId = authorityData.get(DutchElectionProcessor.ELECTION_IDENTIFIER);
-        String contestIdStr = authorityData.get(DutchElectionProcessor.CONTEST_IDENTIFIER);
-        String authorityId = authorityData.get(DutchElectionProcessor.AUTHORITY_IDENTIFIER);
-        String partyIdStr = authorityData.get(DutchElectionProcessor.AFFILIATION_IDENTIFIER);
-        String partyName = authorityData.getOrDefault(DutchElectionProcessor.REGISTERED_NAME, "UNKNOWN");
-        String authorityName = authorityData.get(DutchElectionProcessor.AUTHORITY_NAME);
-        boolean isTotalVotes = "GEMEENTE".equals(authorityData.get("Source"));
-
-        // Validate basic data
-        if (electionId == null || contestIdStr == null || authorityId == null || partyIdStr == null) return;
-
-        int contestId, partyId;
-        try {
-            contestId = Integer.parseInt(contestIdStr);
-            partyId = Integer.parseInt(partyIdStr);
-        } catch (NumberFormatException e) {
-            return;
-        }
+        if (!"GEMEENTE".equals(authorityData.get("Source"))) return;
 
-        // Retrieve election and constituency
-        Election election = elections.get(electionId);
-        if (election == null) return;
+        VoteScope scope = toVoteScope(authorityData);
+        if (scope == null || authorityData.get(DutchElectionProcessor.AUTHORITY_IDENTIFIER) == null) return;
 
-        Constituency constituency = election.getConstituencies().get(contestId);
-        if (constituency == null) {
-            log.error("[registerAuthority] ❌ Constituency with ID " + contestId + " not found in election " + electionId);
-            return;
-        }
+        try {
+            int partyId = Integer.parseInt(authorityData.get(DutchElectionProcessor.AFFILIATION_IDENTIFIER));
+            if (authorityData.containsKey(DutchElectionProcessor.VALID_VOTES)) {
+                int votes = Integer.parseInt(authorityData.get(DutchElectionProcessor.VALID_VOTES));
+                String partyName = authorityData.getOrDefault(DutchElectionProcessor.REGISTERED_NAME, "UNKNOWN");
+                registerAuthorityAffiliationVotes(scope, partyId, partyName, votes);
+            }
+            if (authorityData.containsKey("CandidateVotes")) {
+                int candidateId = Integer.parseInt(authorityData.get(DutchElectionProcessor.CANDIDATE_IDENTIFIER));
+                int candidateVotes = Integer.parseInt(authorityData.get("CandidateVotes"));
+                registerAuthorityCandidateVotes(scope, partyId, candidateId, candidateVotes);
+            }
+        } catch (NumberFormatException ignored) {}
+    }
 
-        // Get or create authority in constituency
-        Map<String, Authority> authorityMap = constituency.getAuthorities();
-        Authority authorityInMap = authorityMap.computeIfAbsent(authorityId, id -> {
-            Authority authority = new Authority(id);
-            authority.setName(authorityName);
-            authority.setConstituencyId(contestId);
-            authority.setElectionId(electionId);
-            return authority;
-        });
+    @Override
+    public void registerAuthorityAffiliationVotes(VoteScope scope, int partyId, String partyName, int votes) {
+        Authority authority = getOrCreateAuthority(scope, "registerAuthority");
+        if (authority == null) return;
 
         // Register party votes under authority
-        Map<Integer, Party> partyMap = authorityInMap.getParties();
-        Party party = partyMap.get(partyId);
-
-        if (isTotalVotes && party == null) {
-            String votesStr = authorityData.get(DutchElectionProcessor.VALID_VOTES);
-            if (votesStr == null) return;
-
-            try {
-                int votes = Integer.parseInt(votesStr);
-                party = new Party(partyId, partyName);
-                party.setVotes(votes);
-                partyMap.put(partyId, party);
-
-                // Update total authority votes
-                int totalVotes = partyMap.values().stream().mapToInt(Party::getVotes).sum();
-                authorityInMap.setVotes(totalVotes);
+        Map<Integer, Party> partyMap = authority.getParties();
+        if (!partyMap.containsKey(partyId)) {
+            Party party = new Party(partyId, partyName);
+            party.setVotes(votes);
+            partyMap.put(partyId, party);
 
-            } catch (NumberFormatException ignored) {}
+            // Update the running total of the authority
+            authority.setVotes(authority.getVotes() + votes);
         }
+    }
 
-        // Register candidate votes (if applicable)
-        if (authorityData.containsKey("CandidateVotes") && party != null && isTotalVotes) {
-            try {
-                int candidateId = Integer.parseInt(authorityData.get(DutchElectionProcessor.CANDIDATE_IDENTIFIER));
-                int candidateVotes = Integer.parseInt(authorityData.get("CandidateVotes"));
-
-                if (!party.hasCandidateId(candidateId)) {
-                    Candidate candidate = new Candidate();
-                    candidate.setId(candidateId);
-                    candidate.setVotes(candidateVotes);
-                    candidate.setPartyId(partyId);
-                    party.addCandidate(candidate);
-                }
-            } catch (NumberFormatException | NullPointerException ignored) {}
+    @Override
+    public void registerAuthorityCandidateVotes(VoteScope scope, int partyId, int candidateId, int votes) {
+        Authority authority = getOrCreateAuthority(scope, "registerAuthority");
+        if (authority == null) return;
+
+        Party party = authority.getParties().get(partyId);
+        if (party != null && !party.hasCandidateId(candidateId)) {
+            Candidate candidate = new Candidate();
+            candidate.setId(candidateId);
+            candidate.setVotes(votes);
+            candidate.setPartyId(partyId);
+            party.addCandidate(candidate);
         }
     }
 
+    /**
+     * Map based variant of {@link #registerPollingStationAffiliationVotes} and
+     * {@link #registerPollingStationCandidateVotes}.
+     */
     @Override
     public void registerPollingStation(Map<String, String> reportingUnitData) {
-        String electionId = reportingUnitData.get(DutchElectionProcessor.ELECTION_IDENTIFIER);
-        String contestIdStr = reportingUnitData.get(DutchElectionProcessor.CONTEST_IDENTIFIER);
-        String authorityId = reportingUnitData.get(DutchElectionProcessor.AUTHORITY_IDENTIFIER);
+        VoteScope scope = toVoteScope(reportingUnitData);
         String pollingStationId = reportingUnitData.get(DutchElectionProcessor.REPORTING_UNIT_IDENTIFIER);
-        String partyIdStr = reportingUnitData.get(DutchElectionProcessor.AFFILIATION_IDENTIFIER);
-        String partyName = reportingUnitData.getOrDefault(DutchElectionProcessor.REGISTERED_NAME, "UNKNOWN");
-        String pollingStationName = reportingUnitData.get(DutchElectionProcessor.REPORTING_UNIT_NAME);
-        String zipcode = reportingUnitData.get(DutchElectionProcessor.ZIPCODE);
-
-        // Validate basic data
-        if (electionId == null || contestIdStr == null || authorityId == null || pollingStationId == null || partyIdStr == null) return;
+        if (scope == null || scope.authorityId() == null || pollingStationId == null) return;
 
-        int contestId, partyId;
+        ReportingUnit reportingUnit = new ReportingUnit(scope, pollingStationId,
+                reportingUnitData.get(DutchElectionProcessor.REPORTING_UNIT_NAME),
+                reportingUnitData.get(DutchElectionProcessor.ZIPCODE));
         try {
-            contestId = Integer.parseInt(contestIdStr);
-            partyId = Integer.parseInt(partyIdStr);
-        } catch (NumberFormatException e) {
-            return;
-        }
+            int partyId = Integer.parseInt(reportingUnitData.get(DutchElectionProcessor.AFFILIATION_IDENTIFIER));
+            if (reportingUnitData.containsKey("AffiliationVotes")) {
+                int votes = Integer.parseInt(reportingUnitData.get("AffiliationVotes"));
+                String partyName = reportingUnitData.getOrDefault(DutchElectionProcessor.REGISTERED_NAME, "UNKNOWN");
+                registerPollingStationAffiliationVotes(reportingUnit, partyId, partyName, votes);
+            }
+            if (reportingUnitData.containsKey("CandidateVotes")) {
+                int candidateId = Integer.parseInt(reportingUnitData.get(DutchElectionProcessor.CANDIDATE_IDENTIFIER));
+                int candidateVotes = Integer.parseInt(reportingUnitData.get("CandidateVotes"));
+                registerPollingStationCandidateVotes(reportingUnit, partyId, candidateId, candidateVotes);
+            }
+        } catch (NumberFormatException ignored) {}
+    }
 
-        // Retrieve election and constituency
-        Election election = elections.get(electionId);
-        if (election == null) return;
+    @Override
+    public void registerPollingStationAffiliationVotes(ReportingUnit reportingUnit, int partyId, String partyName, int votes) {
+        Authority authority = findAuthority(reportingUnit.scope(), "registerPollingStation");
+        if (authority == null) return;
+
+        // Get or create polling station inside authority, and register the party votes under it
+        VoteScope scope = reportingUnit.scope();
+        PollingStationVotes pollingStations = pollingStationVotes(authority);
+        int pollingStation = pollingStations.registerPollingStation(reportingUnit.id(), reportingUnit.name(),
+                reportingUnit.zipCode(), scope.electionId(), scope.authorityId());
+        pollingStations.registerPartyVotes(pollingStation, partyId, partyName, votes);
+    }
 
-        Constituency constituency = election.getConstituencies().get(contestId);
-        if (constituency == null) {
-            log.error("[registerPollingStation] ❌ Constituency with ID " + contestId + " not found in election " + electionId);
-            return;
+    @Override
+    public void registerPollingStationCandidateVotes(ReportingUnit reportingUnit, int partyId, int candidateId, int votes) {
+        Authority authority = findAuthority(reportingUnit.scope(), "registerPollingStation");
+        if (authority == null) return;
+
+        PollingStationVotes pollingStations = pollingStationVotes(authority);
+        Integer pollingStation = pollingStations.ordinal(reportingUnit.id());
+        if (pollingStation != null) {
+            pollingStations.registerCandidateVotes(pollingStation, partyId, candidateId, votes);
         }
+    }
 
-        // Get the authority inside the constituency
-        Map<String, Authority> authorityMap = constituency.getAuthorities();
-        Authority authority = authorityMap.get(authorityId);
-        if (authority == null) {
-            log.error("[registerPollingStation] ❌ Authority with ID " + authorityId + " not found in constituency " + contestId);
-            return;
+    /**
+     * Returns the columnar store of the polling stations of an authority. A polling station map that was set on the
+     * authority is copied into a new store first.
+     */
+    private static PollingStationVotes pollingStationVotes(Authority authority) {
+        if (authority.getPollingStations() instanceof PollingStationVotes pollingStationVotes) {
+            return pollingStationVotes;
         }
+        PollingStationVotes pollingStationVotes = new PollingStationVotes();
+        if (authority.getPollingStations() != null) {
+            pollingStationVotes.putAll(authority.getPollingStations());
+        }
+        authority.setPollingStations(pollingStationVotes);
+        return pollingStationVotes;
+    }
 
-        // Get or create polling station inside authority
-        Map<String, PollingStation> pollingStationMap = authority.getPollingStations();
-        PollingStation pollingStation = pollingStationMap.computeIfAbsent(pollingStationId, id -> {
-            PollingStation ps = new PollingStation(pollingStationId,pollingStationName, zipcode);
-            ps.setAuthorityId(authorityId);
-            ps.setElectionId(electionId);
-            return ps;
-        });
+    /**
+     * Reads the election, contest and authority from a map as passed to the map based methods, or returns
+     * {@code null} when the election or contest is missing.
+     */
+    private VoteScope toVoteScope(Map<String, String> data) {
+        String electionId = data.get(DutchElectionProcessor.ELECTION_IDENTIFIER);
+        String contestIdStr = data.get(DutchElectionProcessor.CONTEST_IDENTIFIER);
+        if (electionId == null || contestIdStr == null) return null;
 
-        // Register party votes under polling station
-        Map<Integer, Party> partyMap = pollingStation.getParties();
-        Party party = partyMap.get(partyId);
+        try {
+            return new VoteScope(electionId, data.get(DutchElectionProcessor.ELECTION_NAME),
+                    data.get(DutchElectionProcessor.ELECTION_CATEGORY), data.get(DutchElectionProcessor.ELECTION_DATE),
+                    Integer.parseInt(contestIdStr), data.get(DutchElectionProcessor.CONTEST_NAME),
+                    data.get(DutchElectionProcessor.AUTHORITY_IDENTIFIER), data.get(DutchElectionProcessor.AUTHORITY_NAME));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 
-        if (party == null) {
-            String votesStr = reportingUnitData.get("AffiliationVotes");
-            if (votesStr == null) return;
+    private Constituency findConstituency(VoteScope scope, String caller) {
+        Election election = elections.get(scope.electionId());
+        if (election == null) return null;
 
-            try {
-                int votes = Integer.parseInt(votesStr);
-                party = new Party(partyId, partyName);
-                party.setVotes(votes);
-                partyMap.put(partyId, party);
+        Constituency constituency = election.getConstituencies().get(scope.contestId());
+        if (constituency == null) {
+            log.error("[" + caller + "] ❌ Constituency with ID " + scope.contestId() + " not found in election " + scope.electionId());
+        }
+        return constituency;
+    }
 
-                // Update total polling station votes
-                int totalVotes = partyMap.values().stream().mapToInt(Party::getVotes).sum();
-                pollingStation.setVotes(totalVotes);
+    private Authority getOrCreateAuthority(VoteScope scope, String caller) {
+        Constituency constituency = findConstituency(scope, caller);
+        if (constituency == null) return null;
 
-            } catch (NumberFormatException ignored) {}
-        }
+        return constituency.getAuthorities().computeIfAbsent(scope.authorityId(), id -> {
+            Authority authority = new Authority(id);
+            authority.setName(scope.authorityName());
+            authority.setConstituencyId(scope.contestId());
+            authority.setElectionId(scope.electionId());
+            return authority;
+        });
+    }
 
-        // Register candidate votes (if applicable)
-        if (reportingUnitData.containsKey("CandidateVotes") && party != null) {
-            try {
-                int candidateId = Integer.parseInt(reportingUnitData.get(DutchElectionProcessor.CANDIDATE_IDENTIFIER));
-                int candidateVotes = Integer.parseInt(reportingUnitData.get("CandidateVotes"));
+    private Authority findAuthority(VoteScope scope, String caller) {
+        Constituency constituency = findConstituency(scope, caller);
+        if (constituency == null) return null;
 
-                if (!party.hasCandidateId(candidateId)) {
-                    Candidate candidate = new Candidate();
-                    candidate.setId(candidateId);
-                    candidate.setVotes(candidateVotes);
-                    candidate.setPartyId(partyId);
-                    candidate.setElectionId(electionId);
-                    party.addCandidate(candidate);
-                }
-            } catch (NumberFormatException | NullPointerException ignored) {}
+        Authority authority = constituency.getAuthorities().get(scope.authorityId());
+        if (authority == null) {
+            log.error("[" + caller + "] ❌ Authority with ID " + scope.authorityId() + " not found in constituency " + scope.contestId());
         }
+        return authority;
     }
 
-
     @Override
     public void registerCandidate(Map<String, String> candidateData) {
         String caIdStr = candidateData.get(DutchElectionProcessor.CANDIDATE_IDENTIFIER);
@@ -423,8 +441,12 @@ public class DutchElectionTransformer implements Transformer<Election> {
             Election election = elections.get(electionId);
 
             if (election != null) {
+                // Every level references the same details from the dictionary of the election
+                CandidateDetails details = getCandidateDictionary(electionId)
+                        .register(contestId, affId, caId, new CandidateDetails(caFirstName, caLastName, gender, localityName));
+
                 Map<Integer, Party> electionParties = election.getParties();
-                populateCandidate(caFirstName, caLastName, localityName, gender, caId, affId, electionParties, electionId);
+                populateCandidate(details, caId, affId, electionParties, electionId);
 
                 Map<Integer, Constituency> constituencies = election.getConstituencies();
                 Constituency constituency = constituencies.get(contestId);
@@ -432,52 +454,41 @@ public class DutchElectionTransformer implements Transformer<Election> {
                 if (constituency != null) {
                     // Update or insert candidate in Constituency-level Party
                     Map<Integer, Party> parties = constituency.getParties();
-                    populateCandidate(caFirstName, caLastName, localityName, gender, caId, affId, parties, electionId);
+                    populateCandidate(details, caId, affId, parties, electionId);
 
-                    // Update or insert candidate in each Authority-level Party
+                    // Update or insert candidate in each Authority-level Party and its polling stations
                     Map<String, Authority> authorities = constituency.getAuthorities();
                     for (Authority authority : authorities.values()) {
                         Map<Integer, Party> partyMap = authority.getParties();
-                        populateCandidate(caFirstName, caLastName, localityName, gender, caId, affId, partyMap, electionId);
+                        populateCandidate(details, caId, affId, partyMap, electionId);
 
-                        Map<String, PollingStation> pollingStations = authority.getPollingStations();
-                        for (PollingStation pollingStation : pollingStations.values()) {
-                            Map<Integer, Party> pollingStationParties = pollingStation.getParties();
-                            populateCandidate(caFirstName, caLastName, localityName, gender, caId, affId, pollingStationParties, electionId);
-                        }
+                        pollingStationVotes(authority).registerCandidate(affId, caId, details);
                     }
                 }
             }
         }
     }
 
-    private void populateCandidate(String caFirstName, String caLastName, String localityName, String gender, int caId, int affId, Map<Integer, Party> parties, String electionId) {
+    /**
+     * Returns the dictionary with the details of the candidates of an election.
+     */
+    public CandidateDictionary getCandidateDictionary(String electionId) {
+        return candidateDictionaries.computeIfAbsent(electionId, id -> new CandidateDictionary());
+    }
+
+    private void populateCandidate(CandidateDetails details, int caId, int affId, Map<Integer, Party> parties, String electionId) {
         Party party = parties.get(affId);
 
         if (party != null) {
-            List<Candidate> candidates = party.getCandidates();
-            Candidate existingCandidate = null;
+            Candidate existingCandidate = party.getCandidate(caId);
 
-            for (Candidate candidate : candidates) {
-                if (candidate.getId() == caId && candidate.getPartyId() == affId) {
-                    existingCandidate = candidate;
-                    break;
-                }
-            }
-
-            if (existingCandidate != null) {
-                existingCandidate.setFirstName(caFirstName);
-                existingCandidate.setLastName(caLastName);
-                existingCandidate.setGender(gender);
-                existingCandidate.setLocalityName(localityName);
+            if (existingCandidate != null && existingCandidate.getPartyId() == affId) {
+                existingCandidate.setDetails(details);
                 existingCandidate.setElectionId(electionId);
             } else {
                 Candidate newCandidate = new Candidate();
                 newCandidate.setId(caId);
-                newCandidate.setFirstName(caFirstName);
-                newCandidate.setLastName(caLastName);
-                newCandidate.setGender(gender);
-                newCandidate.setLocalityName(localityName);
+                newCandidate.setDetails(details);
                 newCandidate.setPartyId(affId);
                 newCandidate.setElectionId(electionId);
 
@@ -498,11 +509,14 @@ public class DutchElectionTransformer implements Transformer<Election> {
             return;
         }
 
-        // Maak een nieuwe lijst voor de provinces, zodat we zeker een verse kopie hebben
-        List<Province> updatedProvinces = new ArrayList<>();
-        for (int i = 1; i <= 13; i++) {
-            Province province = new Province(i, getProvinceName(i));
-            updatedProvinces.add(province);
+        // The provinces are created once, so their running totals are kept when more constituencies are added
+        List<Province> provinces = election.getProvinces();
+        if (provinces == null || provinces.isEmpty()) {
+            provinces = new ArrayList<>();
+            for (int i = 1; i <= 13; i++) {
+                provinces.add(new Province(i, getProvinceName(i)));
+            }
+            election.setProvinces(provinces);
         }
 
         for (Map.Entry<Integer, Integer> entry : DISTRICT_TO_PROVINCE_ID.entrySet()) {
@@ -514,20 +528,29 @@ public class DutchElectionTransformer implements Transformer<Election> {
                 continue;
             }
 
-            Province matchedProvince = updatedProvinces.stream()
-                    .filter(p -> p.getId() == provinceId)
-                    .findFirst()
-                    .orElse(null);
-
-            if (matchedProvince != null) {
-                matchedProvince.getConstituencies().add(constituency);
-            } else {
+            Province matchedProvince = findProvince(provinces, provinceId);
+            if (matchedProvince == null) {
                 log.error("[registerProvinceConstituencies] ❌ Province not found for ID: " + provinceId);
+            } else if (!matchedProvince.getConstituencies().contains(constituency)) {
+                matchedProvince.getConstituencies().add(constituency);
             }
         }
+    }
 
-        // Zet de nieuwe, gekoppelde provinces in de election
-        election.setProvinces(updatedProvinces);
+    private static Province findProvince(List<Province> provinces, int provinceId) {
+        if (provinces == null) {
+            return null;
+        }
+        // The provinces are created in the order of their ids
+        if (provinceId >= 1 && provinceId <= provinces.size() && provinces.get(provinceId - 1).getId() == provinceId) {
+            return provinces.get(provinceId - 1);
+        }
+        for (Province province : provinces) {
+            if (province.getId() == provinceId) {
+                return province;
+            }
+        }
+        return null;
     }
 
     private String getProvinceName(int id) {
@@ -0,0 +1,544 @@
+package com.voteU.election.java.reader;
+
+import com.voteU.election.java.model.*;
+import com.voteU.election.java.utils.PathUtils;
+import com.voteU.election.java.utils.xml.DutchElectionProcessor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Stores a completely built {@link Election} in a compact binary file, so it can be loaded again without parsing all
+ * the EML files. A snapshot has the following layout:
+ * <pre>
+ *     int    magic ('ELSN')
+ *     int    format version
+ *     byte[] SHA-256 checksum of the source files and the code (32 bytes)
+ *     long   offset of the string table
+ *     ...    the election, its parties, constituencies, authorities, polling stations and provinces
+ *     ...    the string table
+ * </pre>
+ * All numbers in the body are written as variable length integers, and every text is written as an index in the
+ * string table. The names of the candidates and parties appear at every level of the election, but are only stored
+ * once, and the loaded election shares a single {@link String} instance for each of them.<br>
+ * <br>
+ * The checksum covers the name and the content of every source file, and the bytecode of the classes that parse the
+ * files and build the election. When one of the files changes, is added or is removed, or the application is deployed
+ * with another parser or model, the snapshot no longer matches and {@link #read(Path, byte[])} ignores it.
+ */
+@Slf4j
+public final class ElectionSnapshot {
+    private static final int MAGIC = 0x454C534E;
+    /**
+     * Must be incremented whenever the layout of the snapshot changes.
+     */
+    static final int VERSION = 1;
+    private static final int CHECKSUM_LENGTH = 32;
+    private static final int HEADER_LENGTH = 4 + 4 + CHECKSUM_LENGTH + 8;
+    /**
+     * The classes that decide what an election holds, their bytecode is part of the checksum. The ones that are not
+     * public are named.
+     */
+    private static final List<String> CODE = List.of("com.voteU.election.java.utils.xml.XMLParser",
+            "com.voteU.election.java.model.CandidateIndex",
+            DutchElectionProcessor.class.getName(), DutchElectionTransformer.class.getName(), ElectionSnapshot.class.getName(),
+            Election.class.getName(), Province.class.getName(), Constituency.class.getName(), Authority.class.getName(),
+            PollingStation.class.getName(), PollingStationVotes.class.getName(), Party.class.getName(),
+            Candidate.class.getName(), CandidateDetails.class.getName(), CandidateDictionary.class.getName());
+
+    private ElectionSnapshot() {
+    }
+
+    /**
+     * Calculates the checksum of the EML files of an election, which reads all of them once, and of the code that
+     * builds the election from them.
+     *
+     * @param electionId the identifier of the election, only files with this identifier in their name are included.
+     * @param folderName the folder that contains the EML files.
+     * @return the checksum, or {@code null} when the folder does not contain any file of the election.
+     * @throws IOException when the folder can't be read.
+     */
+    public static byte[] sourceChecksum(String electionId, String folderName) throws IOException {
+        if (folderName == null || !Files.isDirectory(Path.of(folderName))) {
+            return null;
+        }
+        List<Path> files = new ArrayList<>(PathUtils.findFilesToScan(folderName, electionId));
+        if (files.isEmpty()) {
+            return null;
+        }
+        files.sort(Comparator.naturalOrder());
+
+        MessageDigest digest = sha256();
+        for (String type : CODE) {
+            try (InputStream in = ElectionSnapshot.class.getResourceAsStream("/" + type.replace('.', '/') + ".class")) {
+                if (in == null) {
+                    throw new IOException("The bytecode of " + type + " can't be read.");
+                }
+                update(digest, in);
+            }
+        }
+        Path folder = Path.of(folderName);
+        for (Path file : files) {
+            digest.update(folder.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+            digest.update(ByteBuffer.allocate(8).putLong(0, Files.size(file)).array());
+            try (InputStream in = Files.newInputStream(file)) {
+                update(digest, in);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static void update(MessageDigest digest, InputStream in) throws IOException {
+        byte[] buffer = new byte[1 << 16];
+        for (int read; (read = in.read(buffer)) > 0; ) {
+            digest.update(buffer, 0, read);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    /**
+     * Writes the election to {@code file}. The snapshot is first written to a temporary file which replaces
+     * {@code file} when it is complete, so a snapshot is never read while it is partially written.
+     *
+     * @param election the election to store.
+     * @param checksum the checksum of the source files, see {@link #sourceChecksum(String, String)}.
+     * @param file     the file to write the snapshot to.
+     * @throws IOException when the snapshot can't be written.
+     */
+    public static void write(Election election, byte[] checksum, Path file) throws IOException {
+        if (checksum.length != CHECKSUM_LENGTH) {
+            throw new IllegalArgumentException("The checksum must be %d bytes.".formatted(CHECKSUM_LENGTH));
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new Writer(channel);
+            writer.buffer.putInt(MAGIC).putInt(VERSION).put(checksum).putLong(0);
+            writer.election(election);
+            long stringTableOffset = writer.position();
+            writer.strings();
+            writer.flush();
+
+            channel.write(ByteBuffer.allocate(8).putLong(0, stringTableOffset), HEADER_LENGTH - 8);
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads an election from a snapshot through a memory mapped file.
+     *
+     * @param file     the snapshot to read.
+     * @param checksum the checksum of the current source files, see {@link #sourceChecksum(String, String)}.
+     * @return the election, or {@code null} when there is no snapshot, or when it was created by another version of
+     * the application or from other source files.
+     * @throws IOException when the snapshot can't be read.
+     */
+    public static Election read(Path file, byte[] checksum) throws IOException {
+        if (checksum == null || !Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_LENGTH || channel.size() > Integer.MAX_VALUE) {
+                log.warn("Ignoring snapshot {} with an unsupported size of {} bytes", file, channel.size());
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                log.info("Ignoring snapshot {}, it has an unknown format", file);
+                return null;
+            }
+            byte[] storedChecksum = new byte[CHECKSUM_LENGTH];
+            buffer.get(storedChecksum);
+            if (!Arrays.equals(storedChecksum, checksum)) {
+                log.info("Ignoring snapshot {}, the source files have changed", file);
+                return null;
+            }
+            long stringTableOffset = buffer.getLong();
+            return new Reader(buffer, (int) stringTableOffset).election();
+        } catch (RuntimeException e) {
+            throw new IOException("Snapshot %s is corrupt.".formatted(file), e);
+        }
+    }
+
+    private static final class Writer {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        private final Map<String, Integer> stringIndexes = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+        private long written;
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        long position() {
+            return written + buffer.position();
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void varInt(int value) throws IOException {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        void integer(int value) throws IOException {
+            varInt((value << 1) ^ (value >> 31));
+        }
+
+        void decimal(double value) throws IOException {
+            ensure(8);
+            buffer.putDouble(value);
+        }
+
+        void string(String value) throws IOException {
+            if (value == null) {
+                varInt(0);
+                return;
+            }
+            Integer index = stringIndexes.get(value);
+            if (index == null) {
+                index = strings.size();
+                strings.add(value);
+                stringIndexes.put(value, index);
+            }
+            varInt(index + 1);
+        }
+
+        /**
+         * Writes the size of a map or list, with 0 for {@code null}.
+         */
+        void size(Collection<?> values) throws IOException {
+            varInt(values == null ? 0 : values.size() + 1);
+        }
+
+        void strings() throws IOException {
+            varInt(strings.size());
+            for (String value : strings) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                varInt(bytes.length);
+                for (int offset = 0; offset < bytes.length; ) {
+                    ensure(1);
+                    int length = Math.min(buffer.remaining(), bytes.length - offset);
+                    buffer.put(bytes, offset, length);
+                    offset += length;
+                }
+            }
+        }
+
+        void election(Election election) throws IOException {
+            string(election.getId());
+            string(election.getName());
+            string(election.getDate());
+            integer(election.getVotes());
+            parties(election.getParties());
+
+            Map<Integer, Constituency> constituencies = election.getConstituencies();
+            size(constituencies == null ? null : constituencies.entrySet());
+            if (constituencies != null) {
+                for (Map.Entry<Integer, Constituency> entry : constituencies.entrySet()) {
+                    integer(entry.getKey());
+                    constituency(entry.getValue());
+                }
+            }
+
+            List<Province> provinces = election.getProvinces();
+            size(provinces);
+            if (provinces != null) {
+                for (Province province : provinces) {
+                    integer(province.getId());
+                    string(province.getName());
+                    size(province.getConstituencies());
+                    for (Constituency constituency : province.getConstituencies()) {
+                        integer(constituency.getId());
+                    }
+                }
+            }
+        }
+
+        void constituency(Constituency constituency) throws IOException {
+            integer(constituency.getId());
+            string(constituency.getName());
+            integer(constituency.getVotes());
+            integer(constituency.getProvinceId());
+            string(constituency.getElectionId());
+            parties(constituency.getParties());
+
+            Map<String, Authority> authorities = constituency.getAuthorities();
+            size(authorities == null ? null : authorities.entrySet());
+            if (authorities != null) {
+                for (Map.Entry<String, Authority> entry : authorities.entrySet()) {
+                    string(entry.getKey());
+                    authority(entry.getValue());
+                }
+            }
+        }
+
+        void authority(Authority authority) throws IOException {
+            string(authority.getId());
+            string(authority.getName());
+            integer(authority.getVotes());
+            string(authority.getElectionId());
+            integer(authority.getConstituencyId());
+            parties(authority.getParties());
+
+            Map<String, PollingStation> pollingStations = authority.getPollingStations();
+            size(pollingStations == null ? null : pollingStations.entrySet());
+            if (pollingStations != null) {
+                for (Map.Entry<String, PollingStation> entry : pollingStations.entrySet()) {
+                    string(entry.getKey());
+                    pollingStation(entry.getValue());
+                }
+            }
+        }
+
+        void pollingStation(PollingStation pollingStation) throws IOException {
+            string(pollingStation.getId());
+            string(pollingStation.getName());
+            string(pollingStation.getZipCode());
+            integer(pollingStation.getVotes());
+            string(pollingStation.getElectionId());
+            string(pollingStation.getAuthorityId());
+            parties(pollingStation.getParties());
+        }
+
+        void parties(Map<Integer, Party> parties) throws IOException {
+            size(parties == null ? null : parties.entrySet());
+            if (parties == null) {
+                return;
+            }
+            for (Map.Entry<Integer, Party> entry : parties.entrySet()) {
+                Party party = entry.getValue();
+                integer(entry.getKey());
+                integer(party.getId());
+                string(party.getName());
+                integer(party.getVotes());
+                decimal(party.getPercentage());
+                size(party.getCandidates());
+                if (party.getCandidates() != null) {
+                    for (Candidate candidate : party.getCandidates()) {
+                        candidate(candidate);
+                    }
+                }
+            }
+        }
+
+        void candidate(Candidate candidate) throws IOException {
+            integer(candidate.getId());
+            string(candidate.getFirstName());
+            string(candidate.getLastName());
+            string(candidate.getGender());
+            string(candidate.getLocalityName());
+            integer(candidate.getPartyId());
+            integer(candidate.getVotes());
+            string(candidate.getElectionId());
+        }
+    }
+
+    private static final class Reader {
+        private final ByteBuffer buffer;
+        private final String[] strings;
+        // Shares the details of a candidate between the levels of the election, as they are after processing
+        private final CandidateDictionary candidates = new CandidateDictionary();
+
+        Reader(ByteBuffer buffer, int stringTableOffset) {
+            this.buffer = buffer;
+            int bodyOffset = buffer.position();
+            buffer.position(stringTableOffset);
+            strings = new String[varInt()];
+            byte[] bytes = new byte[256];
+            for (int i = 0; i < strings.length; i++) {
+                int length = varInt();
+                if (length > bytes.length) {
+                    bytes = new byte[Math.max(length, bytes.length * 2)];
+                }
+                buffer.get(bytes, 0, length);
+                strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+            buffer.position(bodyOffset);
+        }
+
+        int varInt() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        int integer() {
+            int value = varInt();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String string() {
+            int index = varInt();
+            return index == 0 ? null : strings[index - 1];
+        }
+
+        /**
+         * Reads the size of a map or list, -1 means {@code null}.
+         */
+        int size() {
+            return varInt() - 1;
+        }
+
+        Election election() {
+            Election election = new Election(string(), string(), string());
+            election.setVotes(integer());
+            election.setParties(parties());
+
+            int constituencyCount = size();
+            Map<Integer, Constituency> constituencies = null;
+            if (constituencyCount >= 0) {
+                constituencies = new HashMap<>(capacity(constituencyCount));
+                for (int i = 0; i < constituencyCount; i++) {
+                    constituencies.put(integer(), constituency());
+                }
+            }
+            election.setConstituencies(constituencies);
+
+            int provinceCount = size();
+            if (provinceCount >= 0) {
+                List<Province> provinces = new ArrayList<>(provinceCount);
+                for (int i = 0; i < provinceCount; i++) {
+                    Province province = new Province(integer(), string());
+                    int count = size();
+                    for (int c = 0; c < count; c++) {
+                        // The provinces share the constituencies of the election.
+                        province.getConstituencies().add(constituencies.get(integer()));
+                    }
+                    provinces.add(province);
+                }
+                election.setProvinces(provinces);
+            }
+            return election;
+        }
+
+        Constituency constituency() {
+            Constituency constituency = new Constituency(integer(), string());
+            constituency.setVotes(integer());
+            constituency.setProvinceId(integer());
+            constituency.setElectionId(string());
+            constituency.setParties(parties());
+
+            int count = size();
+            Map<String, Authority> authorities = null;
+            if (count >= 0) {
+                authorities = new HashMap<>(capacity(count));
+                for (int i = 0; i < count; i++) {
+                    authorities.put(string(), authority());
+                }
+            }
+            constituency.setAuthorities(authorities);
+            return constituency;
+        }
+
+        Authority authority() {
+            Authority authority = new Authority(string());
+            authority.setName(string());
+            authority.setVotes(integer());
+            authority.setElectionId(string());
+            authority.setConstituencyId(integer());
+            authority.setParties(parties());
+
+            int count = size();
+            if (count < 0) {
+                authority.setPollingStations(null);
+            }
+            for (int i = 0; i < count; i++) {
+                authority.getPollingStations().put(string(), pollingStation());
+            }
+            return authority;
+        }
+
+        PollingStation pollingStation() {
+            PollingStation pollingStation = new PollingStation(string(), string(), string());
+            pollingStation.setVotes(integer());
+            pollingStation.setElectionId(string());
+            pollingStation.setAuthorityId(string());
+            pollingStation.setParties(parties());
+            return pollingStation;
+        }
+
+        Map<Integer, Party> parties() {
+            int count = size();
+            if (count < 0) {
+                return null;
+            }
+            Map<Integer, Party> parties = new HashMap<>(capacity(count));
+            for (int i = 0; i < count; i++) {
+                int key = integer();
+                Party party = new Party(integer(), string());
+                party.setVotes(integer());
+                party.setPercentage(buffer.getDouble());
+                int candidateCount = size();
+                if (candidateCount < 0) {
+                    party.setCandidates(null);
+                } else {
+                    List<Candidate> candidates = new ArrayList<>(candidateCount);
+                    for (int c = 0; c < candidateCount; c++) {
+                        candidates.add(candidate());
+                    }
+                    party.setCandidates(candidates);
+                }
+                parties.put(key, party);
+            }
+            return parties;
+        }
+
+        Candidate candidate() {
+            Candidate candidate = new Candidate();
+            candidate.setId(integer());
+            candidate.setDetails(candidates.intern(new CandidateDetails(string(), string(), string(), string())));
+            candidate.setPartyId(integer());
+            candidate.setVotes(integer());
+            candidate.setElectionId(string());
+            return candidate;
+        }
+
+        private static int capacity(int size) {
+            return (int) (size / 0.75f) + 1;
+        }
+    }
+}
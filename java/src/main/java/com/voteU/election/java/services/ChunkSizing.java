@@ -0,0 +1,94 @@
+package com.voteU.election.java.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * Decides how many rows are written in one JDBC batch.<br>
+ * Without {@code rewriteBatchedStatements} the MySQL driver sends every row of a batch as a statement of its own, so a
+ * large batch only costs memory and the default of {@value #DEFAULT_ROWS} rows is kept. With it, the driver rewrites a
+ * batch into multi-row inserts of at most {@code max_allowed_packet} bytes each, so a batch is sized to fill about half
+ * a packet, estimating {@value #BYTES_PER_PARAMETER} bytes per value, between {@value #DEFAULT_ROWS} and
+ * {@value #MAX_ROWS} rows.
+ * <p>
+ * The rows of a {@code LOAD DATA LOCAL INFILE} are streamed to the server in as many packets as they need, so its
+ * chunks only hold {@value #LOAD_DATA_ROWS} rows to keep a few of them in memory at the same time.
+ *
+ * @param maxAllowedPacket the {@code max_allowed_packet} of the server in bytes.
+ * @param loadData         whether both the driver and the server allow {@code LOAD DATA LOCAL INFILE}.
+ */
+record ChunkSizing(boolean rewriteBatchedStatements, long maxAllowedPacket, boolean loadData) {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkSizing.class);
+
+    static final int DEFAULT_ROWS = 1000;
+    static final int MAX_ROWS = 50_000;
+    static final int BYTES_PER_PARAMETER = 32;
+    static final int LOAD_DATA_ROWS = 200_000;
+    /**
+     * The default {@code max_allowed_packet} of MySQL 8, used when the server cannot be asked.
+     */
+    static final long DEFAULT_MAX_ALLOWED_PACKET = 64L * 1024 * 1024;
+
+    /**
+     * Returns the number of rows of a batch of an insert statement with a number of parameters.
+     */
+    int rowsPerChunk(int parameters) {
+        if (!rewriteBatchedStatements) {
+            return DEFAULT_ROWS;
+        }
+        long rows = (maxAllowedPacket / 2) / ((long) Math.max(1, parameters) * BYTES_PER_PARAMETER);
+        return (int) Math.max(DEFAULT_ROWS, Math.min(MAX_ROWS, rows));
+    }
+
+    /**
+     * Returns the number of rows of a {@code LOAD DATA} chunk.
+     */
+    int rowsPerLoad() {
+        return LOAD_DATA_ROWS;
+    }
+
+    /**
+     * Finds out whether the connections rewrite batches and may load local data, and the {@code max_allowed_packet}
+     * of the server.
+     *
+     * @param rewriteConfigured   whether {@code rewriteBatchedStatements} is set as a property of the data source, it
+     *                            is also looked for in the URL of the connection.
+     * @param loadDataConfigured  whether {@code LOAD DATA LOCAL INFILE} is turned on for the inserter, the server has
+     *                            to allow it as well.
+     */
+    static ChunkSizing detect(JdbcTemplate jdbc, boolean rewriteConfigured, boolean loadDataConfigured) {
+        ChunkSizing sizing = null;
+        try {
+            sizing = jdbc.execute((ConnectionCallback<ChunkSizing>) connection -> {
+                String url = connection.getMetaData().getURL();
+                url = url == null ? "" : url.toLowerCase(Locale.ROOT);
+                boolean rewrite = rewriteConfigured || url.contains("rewritebatchedstatements=true");
+                try (Statement statement = connection.createStatement();
+                     ResultSet result = statement.executeQuery("SELECT @@max_allowed_packet, @@local_infile")) {
+                    if (result.next()) {
+                        return new ChunkSizing(rewrite, result.getLong(1), loadDataConfigured && result.getBoolean(2));
+                    }
+                } catch (SQLException e) {
+                    logger.debug("Could not query the server variables", e);
+                }
+                return new ChunkSizing(rewrite, DEFAULT_MAX_ALLOWED_PACKET, false);
+            });
+        } catch (DataAccessException e) {
+            logger.warn("Could not inspect the database connection, the default batch size is used", e);
+        }
+        if (sizing == null) {
+            sizing = new ChunkSizing(rewriteConfigured, DEFAULT_MAX_ALLOWED_PACKET, false);
+        }
+        logger.info("Batches are {}rewritten into multi-row inserts, max_allowed_packet is {} bytes, LOAD DATA LOCAL INFILE is {}",
+                sizing.rewriteBatchedStatements() ? "" : "not ", sizing.maxAllowedPacket(), sizing.loadData() ? "used" : "not used");
+        return sizing;
+    }
+}
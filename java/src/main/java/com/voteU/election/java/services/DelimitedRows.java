@@ -0,0 +1,176 @@
+package com.voteU.election.java.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Rows encoded as UTF-8 text in memory, one line per row with the values separated by a character, in the format
+ * {@code LOAD DATA} reads with {@code ESCAPED BY '\\'}: {@code null} is written as {@code \N}, and a backslash,
+ * tab, newline, carriage return or separator in a string is escaped with a backslash.<br>
+ * Numbers and ASCII strings are written byte by byte into one growing array, so a row costs no formatting and no
+ * objects of its own. The array is kept by {@link #clear}, so it can be filled again.
+ */
+final class DelimitedRows implements RowSink {
+    private final byte separator;
+    private byte[] bytes;
+    private int size;
+    private int rows;
+    /**
+     * Whether the next value is the first of its row, which is not preceded by a separator.
+     */
+    private boolean first = true;
+
+    /**
+     * @param separator the character between the values of a row, an ASCII character.
+     */
+    DelimitedRows(char separator, int capacity) {
+        if (separator >= 0x80) {
+            throw new IllegalArgumentException("The separator must be an ASCII character: " + separator);
+        }
+        this.separator = (byte) separator;
+        this.bytes = new byte[Math.max(16, capacity)];
+    }
+
+    @Override
+    public RowSink value(Object value) {
+        separate();
+        if (value == null) {
+            write((byte) '\\');
+            write((byte) 'N');
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+            writeNumber(((Number) value).longValue());
+        } else {
+            writeString(value.toString());
+        }
+        return this;
+    }
+
+    @Override
+    public RowSink value(long value) {
+        separate();
+        writeNumber(value);
+        return this;
+    }
+
+    @Override
+    public void end() {
+        write((byte) '\n');
+        rows++;
+        first = true;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns a stream of the rows that reads the array itself, without copying it.
+     */
+    InputStream stream() {
+        return new ByteArrayInputStream(bytes, 0, size);
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, size);
+    }
+
+    void clear() {
+        size = 0;
+        rows = 0;
+        first = true;
+    }
+
+    private void separate() {
+        if (!first) {
+            write(separator);
+        }
+        first = false;
+    }
+
+    private void writeNumber(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeString(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            write((byte) '-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        ensure(digits);
+        for (int i = size + digits - 1; i >= size; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size += digits;
+    }
+
+    private void writeString(String value) {
+        ensure(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                // Not ASCII, the rest of the string is encoded by the charset
+                writeEncoded(value.substring(i));
+                return;
+            }
+            writeEscaped((byte) c);
+        }
+    }
+
+    private void writeEncoded(String value) {
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            // The bytes of a multi-byte character are all above 0x7F, so they never need escaping
+            writeEscaped(b);
+        }
+    }
+
+    private void writeEscaped(byte b) {
+        switch (b) {
+            case '\\' -> {
+                write((byte) '\\');
+                write((byte) '\\');
+            }
+            case '\t' -> {
+                write((byte) '\\');
+                write((byte) 't');
+            }
+            case '\n' -> {
+                write((byte) '\\');
+                write((byte) 'n');
+            }
+            case '\r' -> {
+                write((byte) '\\');
+                write((byte) 'r');
+            }
+            default -> {
+                if (b == separator) {
+                    write((byte) '\\');
+                }
+                write(b);
+            }
+        }
+    }
+
+    private void write(byte b) {
+        ensure(1);
+        bytes[size++] = b;
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+}
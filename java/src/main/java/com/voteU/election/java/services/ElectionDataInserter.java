@@ -1,15 +1,27 @@
 package com.voteU.election.java.services;
 
+import com.voteU.election.java.dto.PersistedTableDTO;
 import com.voteU.election.java.model.*;
+import com.voteU.election.java.services.electiondata.database.ElectionQueryCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.*;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class ElectionDataInserter {
@@ -17,231 +29,389 @@ public class ElectionDataInserter {
     private static final Logger logger = LoggerFactory.getLogger(ElectionDataInserter.class);
 
     private final JdbcTemplate jdbc;
+    private final ElectionQueryCache queryCache;
+    private final int writers;
+    private final boolean rewriteBatchedStatements;
+    /**
+     * The connections that may send {@code LOAD DATA LOCAL INFILE}, or {@code null} when it is not used.
+     */
+    private final JdbcTemplate loadDataJdbc;
+    /**
+     * The elections that are being persisted, an election is only persisted by one request at a time because its
+     * journal would be shared.
+     */
+    private final Set<String> persisting = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param writers                  the number of connections that write at the same time, it should stay below
+     *                                 the size of the connection pool.
+     * @param rewriteBatchedStatements whether the data source is configured to rewrite batches into multi-row inserts,
+     *                                 which allows larger batches.
+     * @param loadData                 whether the polling station tables are sent with {@code LOAD DATA LOCAL INFILE}
+     *                                 when the server allows it. The connections of the pool never allow it, the
+     *                                 inserter opens connections of its own for it.
+     */
+    @Autowired
+    public ElectionDataInserter(JdbcTemplate jdbc, ElectionQueryCache queryCache,
+                                @Value("${election.persist.writers:4}") int writers,
+                                @Value("${spring.datasource.hikari.data-source-properties.rewriteBatchedStatements:false}") boolean rewriteBatchedStatements,
+                                @Value("${election.persist.load-data:false}") boolean loadData,
+                                ObjectProvider<DataSourceProperties> dataSourceProperties) {
+        this(jdbc, queryCache, writers, rewriteBatchedStatements,
+                loadData ? loadDataJdbc(dataSourceProperties.getObject(), rewriteBatchedStatements) : null);
+    }
 
-    private void batchUpdateInChunks(String sql, List<Object[]> batchArgs, int chunkSize) {
-        int total = batchArgs.size();
-        for (int i = 0; i < total; i += chunkSize) {
-            int end = Math.min(total, i + chunkSize);
-            List<Object[]> chunk = batchArgs.subList(i, end);
-            int[] result = jdbc.batchUpdate(sql, chunk);
-            logger.info("Batch update executed for chunk {} - {} of {}, affected rows: {}", i, end, total, result.length);
+    /**
+     * @param loadDataJdbc the connections that allow {@code LOAD DATA LOCAL INFILE}, or {@code null} to insert every
+     *                     table in batches.
+     */
+    public ElectionDataInserter(JdbcTemplate jdbc, ElectionQueryCache queryCache, int writers,
+                                boolean rewriteBatchedStatements, JdbcTemplate loadDataJdbc) {
+        if (writers <= 0) {
+            throw new IllegalArgumentException("The number of writers must be positive: " + writers);
         }
+        this.jdbc = jdbc;
+        this.queryCache = queryCache;
+        this.writers = writers;
+        this.rewriteBatchedStatements = rewriteBatchedStatements;
+        this.loadDataJdbc = loadDataJdbc;
     }
 
-    public ElectionDataInserter(JdbcTemplate jdbc) {
-        this.jdbc = jdbc;
+    /**
+     * Opens the connections of the writers next to the pool, with {@code allowLoadLocalInfile}, so no other connection
+     * can be made to send a local file. They are only opened while an election is persisted.
+     */
+    private static JdbcTemplate loadDataJdbc(DataSourceProperties dataSource, boolean rewriteBatchedStatements) {
+        DriverManagerDataSource loadData = new DriverManagerDataSource(dataSource.determineUrl(),
+                dataSource.determineUsername(), dataSource.determinePassword());
+        Properties properties = new Properties();
+        properties.setProperty("allowLoadLocalInfile", "true");
+        properties.setProperty("rewriteBatchedStatements", String.valueOf(rewriteBatchedStatements));
+        loadData.setConnectionProperties(properties);
+        return new JdbcTemplate(loadData);
     }
 
-    public void insertElection(Election election) {
+    /**
+     * Writes all rows of an election into the database. The tables are written in the order of their references, the
+     * tables of one level at the same time by a number of connections, see {@link PersistencePipeline}.<br>
+     * Every row is upserted, and the chunks that were written are recorded in a {@link PersistenceJournal}, so when
+     * persisting fails halfway, persisting the election again skips what was written and continues where it stopped.
+     *
+     * @return the number of rows and the rows per second of every table.
+     */
+    public List<PersistedTableDTO> insertElection(Election election) {
+        if (!persisting.add(election.getId())) {
+            throw new IllegalStateException("Election " + election.getId() + " is already being persisted");
+        }
         logger.info("Starting insertion of election with id {}", election.getId());
-
-        // Insert single election row (assuming elections table id is unique)
-        // insertElectionRow(election);
-        // batchInsertParties(election.getId(), election.getParties().values());
-        //batchInsertCandidates(election.getId(), election.getParties().values());
-
-        //batchInsertNationalPartyVotes(election.getId(), election.getParties().values());
-        // batchInsertNationalCandidateVotes(election.getId(), election.getParties().values());
-
-        // batchInsertConstituencies(election);
-        //batchInsertConstituencyPartyVotes(election);
-        //batchInsertConstituencyCandidateVotes(election);
-        //batchInsertAuthorities(election);
-        //batchInsertAuthorityPartyVotes(election);
-        batchInsertAuthorityCandidateVotes(election);
-
-
+        // The cached queries of the election are dropped before and after the rows change, so nothing that was read
+        // while the election was being inserted is kept
+        queryCache.invalidate(election.getId());
+
+        List<List<PersistencePipeline.Table>> levels = List.of(
+                List.of(elections(election)),
+                List.of(parties(election), provinces(election)),
+                List.of(candidates(election), nationalPartyVotes(election), constituencies(election)),
+                List.of(nationalCandidateVotes(election), constituencyPartyVotes(election),
+                        constituencyCandidateVotes(election), authorities(election)),
+                List.of(authorityPartyVotes(election), authorityCandidateVotes(election), pollingStations(election)),
+                List.of(pollingStationPartyVotes(election), pollingStationCandidateVotes(election)));
+        List<PersistedTableDTO> tables;
+        try {
+            ChunkSizing chunkSizing = ChunkSizing.detect(jdbc, rewriteBatchedStatements, loadDataJdbc != null);
+            PersistenceJournal journal = new PersistenceJournal(jdbc, election.getId());
+            // Only the writers need the connections that allow LOAD DATA, and only when the server allows it too
+            JdbcTemplate writerJdbc = chunkSizing.loadData() ? loadDataJdbc : jdbc;
+            tables = new PersistencePipeline(writerJdbc, writers, chunkSizing, journal).run(levels);
+        } finally {
+            queryCache.invalidate(election.getId());
+            persisting.remove(election.getId());
+        }
         logger.info("Finished insertion of election with id {}", election.getId());
+        return tables;
     }
 
-    private void insertElectionRow(Election election) {
-        String sql = "INSERT IGNORE INTO elections (election_id, name, date, votes) VALUES (?, ?, ?, ?)";
-        int rows = jdbc.update(sql, election.getId(), election.getName(), election.getDate(), election.getVotes());
-        logger.info("Inserted election row for election_id {}. Rows affected: {}", election.getId(), rows);
+    private PersistencePipeline.Table elections(Election election) {
+        return new PersistencePipeline.Table("elections",
+                "INSERT INTO elections (election_id, name, date, votes) VALUES (?, ?, ?, ?)"
+                        + " ON DUPLICATE KEY UPDATE name = VALUES(name), date = VALUES(date), votes = VALUES(votes)", 4,
+                sink -> sink.value(election.getId()).value(election.getName()).value(election.getDate()).value(election.getVotes()).end());
     }
 
-    private void batchInsertParties(String electionId, Iterable<Party> parties) {
-        String sql = "INSERT IGNORE INTO parties (party_id, election_id, name) VALUES (?, ?, ?)";
-        List<Object[]> batchArgs = new ArrayList<>();
-        for (Party p : parties) {
-            batchArgs.add(new Object[]{p.getId(), electionId, p.getName()});
-        }
-        int[] result = jdbc.batchUpdate(sql, batchArgs);
-        logger.info("Batch inserted parties for election {}. Number of parties: {}, Batch update count: {}", electionId, batchArgs.size(), result.length);
-    }
-
-    private void batchInsertCandidates(String electionId, Iterable<Party> parties) {
-        String sql = "INSERT IGNORE INTO candidates (candidate_id, party_id, election_id, first_name, last_name, gender, locality_name) " + "VALUES (?, ?, ?, ?, ?, ?, ?)";
-        List<Object[]> batchArgs = new ArrayList<>();
-        for (Party p : parties) {
-            for (Candidate c : p.getCandidates()) {
-                batchArgs.add(new Object[]{c.getId(), // candidate_id
-                        p.getId(), // party_id
-                        electionId, c.getFirstName(), c.getLastName(), c.getGender(), c.getLocalityName()});
+    private PersistencePipeline.Table parties(Election election) {
+        return new PersistencePipeline.Table("parties",
+                "INSERT INTO parties (party_id, election_id, name) VALUES (?, ?, ?)"
+                        + " ON DUPLICATE KEY UPDATE name = VALUES(name)", 3, sink -> {
+            for (Party p : election.getParties().values()) {
+                sink.value(p.getId()).value(election.getId()).value(p.getName()).end();
             }
-        }
-        int[] result = jdbc.batchUpdate(sql, batchArgs);
-        logger.info("Batch inserted candidates for election {}. Number of candidates: {}, Batch update count: {}", electionId, batchArgs.size(), result.length);
+        });
     }
 
-    private void batchInsertNationalPartyVotes(String electionId, Collection<Party> parties) {
-        String sql = "INSERT IGNORE INTO national_party_votes (election_id, party_id, votes) VALUES (?, ?, ?)";
-        List<Object[]> batchArgs = new ArrayList<>();
-        for (Party p : parties) {
-            batchArgs.add(new Object[]{electionId, p.getId(), p.getVotes()});
-        }
-        int[] result = jdbc.batchUpdate(sql, batchArgs);
-        logger.info("Batch inserted national party votes for election {}. Count: {}, Batch update count: {}", electionId, parties.size(), result.length);
-    }
-
-    private void batchInsertNationalCandidateVotes(String electionId, Collection<Party> parties) {
-        String sql = "INSERT IGNORE INTO national_candidate_votes (candidate_id, party_id, election_id, votes) VALUES (?, ?, ?, ?)";
-        List<Object[]> batchArgs = new ArrayList<>();
-        for (Party p : parties) {
-            for (Candidate c : p.getCandidates()) {
-                batchArgs.add(new Object[]{c.getId(),    // candidate_ref_id (references candidates.id)
-                        p.getId(),    // party_id
-                        electionId,   // election_id
-                        c.getVotes()  // votes
-                });
+    private PersistencePipeline.Table provinces(Election election) {
+        AggregateIndex aggregates = election.getAggregates() != null ? election.getAggregates() : AggregateIndex.of(election);
+        return new PersistencePipeline.Table("provinces",
+                "INSERT INTO provinces (province_id, election_id, name, votes) VALUES (?, ?, ?, ?)"
+                        + " ON DUPLICATE KEY UPDATE name = VALUES(name), votes = VALUES(votes)", 4, sink -> {
+            for (Province province : election.getProvinces()) {
+                sink.value(province.getId()).value(election.getId()).value(province.getName())
+                        .value(aggregates.provinceVotes(province.getId())).end();
             }
-        }
-        int[] result = jdbc.batchUpdate(sql, batchArgs);
-        logger.info("Batch inserted national candidate votes for election {}. Number of entries: {}, Batch update count: {}", electionId, batchArgs.size(), result.length);
+        });
     }
 
-    private void batchInsertConstituencies(Election election) {
-        String sql = "INSERT INTO constituencies " + "(constituency_id, province_id, election_id, name, votes) VALUES (?, ?, ?, ?, ?)";
-
-        List<Object[]> batchArgs = new ArrayList<>();
-
-        for (Province province : election.getProvinces()) {
-            for (Constituency constituency : province.getConstituencies()) {
-                batchArgs.add(new Object[]{constituency.getId(), province.getId(), election.getId(), constituency.getName(), constituency.getVotes()  // assuming this is the field in your model
-                });
+    private PersistencePipeline.Table candidates(Election election) {
+        return new PersistencePipeline.Table("candidates",
+                "INSERT INTO candidates (candidate_id, party_id, election_id, first_name, last_name, gender, locality_name) " + "VALUES (?, ?, ?, ?, ?, ?, ?)"
+                        + " ON DUPLICATE KEY UPDATE first_name = VALUES(first_name), last_name = VALUES(last_name), gender = VALUES(gender), locality_name = VALUES(locality_name)", 7, sink -> {
+            for (Party p : election.getParties().values()) {
+                for (Candidate c : p.getCandidates()) {
+                    sink.value(c.getId()).value(p.getId()).value(election.getId())
+                            .value(c.getFirstName()).value(c.getLastName()).value(c.getGender()).value(c.getLocalityName()).end();
+                }
             }
-        }
-
-        batchUpdateInChunks(sql, batchArgs, 1000);
-        logger.info("Inserted into 'constituencies' for election {}: {} rows", election.getId(), batchArgs.size());
+        });
     }
 
-    private void batchInsertConstituencyPartyVotes(Election election) {
-        String sql = "INSERT INTO constituency_party_votes " + "(constituency_id, election_id, party_id, votes) VALUES (?, ?, ?, ?)";
-
-        List<Object[]> batchArgs = new ArrayList<>();
+    private PersistencePipeline.Table nationalPartyVotes(Election election) {
+        return new PersistencePipeline.Table("national_party_votes",
+                "INSERT INTO national_party_votes (election_id, party_id, votes) VALUES (?, ?, ?)"
+                        + " ON DUPLICATE KEY UPDATE votes = VALUES(votes)", 3, sink -> {
+            for (Party p : election.getParties().values()) {
+                sink.value(election.getId()).value(p.getId()).value(p.getVotes()).end();
+            }
+        });
+    }
 
-        for (Province province : election.getProvinces()) {
-            for (Constituency constituency : province.getConstituencies()) {
-                for (Party party : constituency.getParties().values()) {
-                    batchArgs.add(new Object[]{constituency.getId(), election.getId(), party.getId(), party.getVotes()});
+    private PersistencePipeline.Table nationalCandidateVotes(Election election) {
+        return new PersistencePipeline.Table("national_candidate_votes",
+                "INSERT INTO national_candidate_votes (candidate_id, party_id, election_id, votes) VALUES (?, ?, ?, ?)"
+                        + " ON DUPLICATE KEY UPDATE votes = VALUES(votes)", 4, sink -> {
+            for (Party p : election.getParties().values()) {
+                for (Candidate c : p.getCandidates()) {
+                    sink.value(c.getId()).value(p.getId()).value(election.getId()).value(c.getVotes()).end();
                 }
             }
-        }
-
-        batchUpdateInChunks(sql, batchArgs, 1000);
-        logger.info("Inserted constituency_party_votes for election {}: {} rows", election.getId(), batchArgs.size());
+        });
     }
 
-    private void batchInsertConstituencyCandidateVotes(Election election) {
-        String sql = "INSERT INTO constituency_candidate_votes " + "(candidate_id, party_id, election_id, constituency_id, votes) VALUES (?, ?, ?, ?, ?)";
-
-        List<Object[]> batchArgs = new ArrayList<>();
+    private PersistencePipeline.Table constituencies(Election election) {
+        return new PersistencePipeline.Table("constituencies",
+                "INSERT INTO constituencies " + "(constituency_id, province_id, election_id, name, votes) VALUES (?, ?, ?, ?, ?)"
+                        + " ON DUPLICATE KEY UPDATE province_id = VALUES(province_id), name = VALUES(name), votes = VALUES(votes)", 5, sink -> {
+            for (Province province : election.getProvinces()) {
+                for (Constituency constituency : province.getConstituencies()) {
+                    sink.value(constituency.getId()).value(province.getId()).value(election.getId()).value(constituency.getName()).value(constituency.getVotes()).end();
+                }
+            }
+        });
+    }
 
-        for (Province province : election.getProvinces()) {
-            for (Constituency constituency : province.getConstituencies()) {
-                for (Party party : constituency.getParties().values()) {
-                    for (Candidate candidate : party.getCandidates()) {
-                        batchArgs.add(new Object[]{candidate.getId(), party.getId(), election.getId(), constituency.getId(), candidate.getVotes()});
+    private PersistencePipeline.Table constituencyPartyVotes(Election election) {
+        return new PersistencePipeline.Table("constituency_party_votes",
+                "INSERT INTO constituency_party_votes " + "(constituency_id, election_id, party_id, votes) VALUES (?, ?, ?, ?)"
+                        + " ON DUPLICATE KEY UPDATE votes = VALUES(votes)", 4, sink -> {
+            for (Province province : election.getProvinces()) {
+                for (Constituency constituency : province.getConstituencies()) {
+                    for (Party party : constituency.getParties().values()) {
+                        sink.value(constituency.getId()).value(election.getId()).value(party.getId()).value(party.getVotes()).end();
                     }
                 }
             }
-        }
-
-        batchUpdateInChunks(sql, batchArgs, 1000);
-        logger.info("Inserted constituency_candidate_votes for election {}: {} rows", election.getId(), batchArgs.size());
+        });
     }
 
-    private void batchInsertAuthorities(Election election) {
-        String sql = "INSERT IGNORE INTO authorities (authority_id, constituency_id, election_id, name, votes) VALUES (?, ?, ?, ?, ?)";
+    private PersistencePipeline.Table constituencyCandidateVotes(Election election) {
+        return new PersistencePipeline.Table("constituency_candidate_votes",
+                "INSERT INTO constituency_candidate_votes " + "(candidate_id, party_id, election_id, constituency_id, votes) VALUES (?, ?, ?, ?, ?)"
+                        + " ON DUPLICATE KEY UPDATE votes = VALUES(votes)", 5, sink -> {
+            for (Province province : election.getProvinces()) {
+                for (Constituency constituency : province.getConstituencies()) {
+                    for (Party party : constituency.getParties().values()) {
+                        for (Candidate candidate : party.getCandidates()) {
+                            sink.value(candidate.getId()).value(party.getId()).value(election.getId()).value(constituency.getId()).value(candidate.getVotes()).end();
+                        }
+                    }
+                }
+            }
+        });
+    }
 
-        List<Object[]> batchArgs = new ArrayList<>();
-        for (Province province : election.getProvinces()) {
-            for (Constituency constituency : province.getConstituencies()) {
-                for (Authority authority : constituency.getAuthorities().values()) {
-                    batchArgs.add(new Object[]{authority.getId(), constituency.getId(), election.getId(), authority.getName(), authority.getVotes()});
+    private PersistencePipeline.Table authorities(Election election) {
+        return new PersistencePipeline.Table("authorities",
+                "INSERT INTO authorities (authority_id, constituency_id, election_id, name, votes) VALUES (?, ?, ?, ?, ?)"
+                        + " ON DUPLICATE KEY UPDATE constituency_id = VALUES(constituency_id), name = VALUES(name), votes = VALUES(votes)", 5, sink -> {
+            for (Province province : election.getProvinces()) {
+                for (Constituency constituency : province.getConstituencies()) {
+                    for (Authority authority : constituency.getAuthorities().values()) {
+                        sink.value(authority.getId()).value(constituency.getId()).value(election.getId()).value(authority.getName()).value(authority.getVotes()).end();
+                    }
                 }
             }
-        }
+        });
+    }
 
-        batchUpdateInChunks(sql, batchArgs, 1000);
-        logger.info("Batch inserted authorities for election {}. Total authorities: {}", election.getId(), batchArgs.size());
+    private PersistencePipeline.Table authorityPartyVotes(Election election) {
+        return new PersistencePipeline.Table("authority_party_votes",
+                "INSERT INTO authority_party_votes (authority_id, party_id, election_id, votes) VALUES (?, ?, ?, ?)"
+                        + " ON DUPLICATE KEY UPDATE votes = VALUES(votes)", 4, sink -> {
+            for (Province province : election.getProvinces()) {
+                for (Constituency constituency : province.getConstituencies()) {
+                    for (Authority authority : constituency.getAuthorities().values()) {
+                        for (Party party : authority.getParties().values()) {
+                            sink.value(authority.getId()).value(party.getId()).value(election.getId()).value(party.getVotes()).end();
+                        }
+                    }
+                }
+            }
+        });
     }
 
-    private void batchInsertAuthorityPartyVotes(Election election) {
-        String sql = "INSERT IGNORE INTO authority_party_votes (authority_id, party_id, election_id, votes) VALUES (?, ?, ?, ?)";
+    private PersistencePipeline.Table authorityCandidateVotes(Election election) {
+        return new PersistencePipeline.Table("authority_candidate_votes",
+                "INSERT INTO authority_candidate_votes (authority_id, election_id, party_id, candidate_id, votes) VALUES (?, ?, ?, ?, ?)"
+                        + " ON DUPLICATE KEY UPDATE votes = VALUES(votes)", 5, sink -> {
+            for (Province province : election.getProvinces()) {
+                for (Constituency constituency : province.getConstituencies()) {
+                    for (Authority authority : constituency.getAuthorities().values()) {
+                        for (Party party : authority.getParties().values()) {
+                            for (Candidate candidate : party.getCandidates()) {
+                                sink.value(authority.getId()).value(election.getId()).value(party.getId()).value(candidate.getId()).value(candidate.getVotes()).end();
+                            }
+                        }
+                    }
+                }
+            }
+        });
+    }
 
-        List<Object[]> batchArgs = new ArrayList<>();
+    /**
+     * Returns the statements that load the tab separated rows of a table from the stream of the statement, see
+     * {@link DelimitedRows}. The rows are loaded into a staging table first and then merged into the table with the
+     * update of its insert statement, so a row that is persisted again keeps its id, which {@code REPLACE} would give a
+     * new one.
+     */
+    private static PersistencePipeline.LoadData loadData(String table, String columns, String update) {
+        String staging = table + "_load";
+        return new PersistencePipeline.LoadData(
+                "CREATE TEMPORARY TABLE IF NOT EXISTS " + staging + " AS SELECT " + columns + " FROM " + table + " LIMIT 0",
+                "LOAD DATA LOCAL INFILE '" + table + ".tsv' INTO TABLE " + staging + " CHARACTER SET utf8mb4 "
+                        + "FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' (" + columns + ")",
+                "INSERT INTO " + table + " (" + columns + ") SELECT " + columns + " FROM " + staging + update,
+                "DELETE FROM " + staging);
+    }
 
-        for (Province province : election.getProvinces()) {
-            for (Constituency constituency : province.getConstituencies()) {
-                for (Authority authority : constituency.getAuthorities().values()) {
-                    // Assuming Authority has a Map<Integer, Party> parties with votes
-                    for (Party party : authority.getParties().values()) {
-                        batchArgs.add(new Object[]{authority.getId(), party.getId(), election.getId(), party.getVotes()});
+    private PersistencePipeline.Table pollingStations(Election election) {
+        String columns = "pollingstation_id, authority_id, authority_name, election_id, name, votes, zipcode";
+        String update = " ON DUPLICATE KEY UPDATE authority_id = VALUES(authority_id), authority_name = VALUES(authority_name), name = VALUES(name), votes = VALUES(votes), zipcode = VALUES(zipcode)";
+        return new PersistencePipeline.Table("pollingstations",
+                "INSERT INTO pollingstations (" + columns + ") VALUES (?, ?, ?, ?, ?, ?, ?)" + update, 7, sink -> {
+            for (Province province : election.getProvinces()) {
+                for (Constituency constituency : province.getConstituencies()) {
+                    for (Authority authority : constituency.getAuthorities().values()) {
+                        for (PollingStation ps : authority.getPollingStations().values()) {
+                            sink.value(ps.getId()).value(authority.getId()).value(authority.getName()).value(election.getId())
+                                    .value(ps.getName()).value(ps.getVotes()).value(ps.getZipCode()).end();
+                        }
                     }
                 }
             }
-        }
-
-        batchUpdateInChunks(sql, batchArgs, 1000);
-        logger.info("Batch inserted authority party votes for election {}. Total records: {}", election.getId(), batchArgs.size());
+        }, loadData("pollingstations", columns, update));
     }
 
-    private void batchInsertAuthorityCandidateVotes(Election election) {
-        String sql = "INSERT INTO authority_candidate_votes (authority_id, election_id, party_id, candidate_id, votes) VALUES (?, ?, ?, ?, ?)";
+    private PersistencePipeline.Table pollingStationPartyVotes(Election election) {
+        String columns = "election_id, pollingstation_id, party_id, votes";
+        String update = " ON DUPLICATE KEY UPDATE votes = VALUES(votes)";
+        return new PersistencePipeline.Table("pollingstation_party_votes",
+                "INSERT INTO pollingstation_party_votes (" + columns + ") VALUES (?, ?, ?, ?)" + update, 4, sink -> {
+            for (Province province : election.getProvinces()) {
+                for (Constituency constituency : province.getConstituencies()) {
+                    for (Authority authority : constituency.getAuthorities().values()) {
+                        // The votes are read from the columns of the store, without building a party view per polling station
+                        if (authority.getPollingStations() instanceof PollingStationVotes store) {
+                            store.forEachPartyVotes((pollingStationId, partyId, votes) ->
+                                    sink.value(election.getId()).value(pollingStationId).value(partyId).value(votes).end());
+                            continue;
+                        }
+                        for (PollingStation ps : authority.getPollingStations().values()) {
+                            for (Party party : ps.getParties().values()) {
+                                sink.value(election.getId()).value(ps.getId()).value(party.getId()).value(party.getVotes()).end();
+                            }
+                        }
+                    }
+                }
+            }
+        }, loadData("pollingstation_party_votes", columns, update));
+    }
 
-        List<Object[]> batchArgs = new ArrayList<>();
+    private PersistencePipeline.Table pollingStationCandidateVotes(Election election) {
+        String columns = "election_id, pollingstation_id, party_id, candidate_id, votes";
+        String update = " ON DUPLICATE KEY UPDATE votes = VALUES(votes)";
+        return new PersistencePipeline.Table("pollingstation_candidate_votes",
+                "INSERT INTO pollingstation_candidate_votes (" + columns + ") VALUES (?, ?, ?, ?, ?)" + update, 5,
+                sink -> pollingStationCandidateVotes(election, sink),
+                loadData("pollingstation_candidate_votes", columns, update));
+    }
 
+    private static void pollingStationCandidateVotes(Election election, RowSink sink) {
         for (Province province : election.getProvinces()) {
-            for (Constituency constituency : province.getConstituencies()) {
-                for (Authority authority : constituency.getAuthorities().values()) {
-                    for (Party party : authority.getParties().values()) {
-                        for (Candidate candidate : party.getCandidates()) {
-                            batchArgs.add(new Object[]{authority.getId(), election.getId(), party.getId(), candidate.getId(), candidate.getVotes()});
+            for (Constituency c : province.getConstituencies()) {
+                for (Authority a : c.getAuthorities().values()) {
+                    if (a.getPollingStations() instanceof PollingStationVotes store) {
+                        store.forEachCandidateVotes((pollingStationId, partyId, candidateId, votes) ->
+                                sink.value(election.getId()).value(pollingStationId).value(partyId).value(candidateId).value(votes).end());
+                        continue;
+                    }
+                    for (PollingStation ps : a.getPollingStations().values()) {
+                        for (Party p : ps.getParties().values()) {
+                            for (Candidate candidate : p.getCandidates()) {
+                                sink.value(election.getId()).value(ps.getId()).value(p.getId()).value(candidate.getId()).value(candidate.getVotes()).end();
+                            }
                         }
                     }
                 }
             }
         }
-
-        batchUpdateInChunks(sql, batchArgs, 1000);
-        logger.info("Batch inserted authority candidate votes for election {}. Total records: {}", election.getId(), batchArgs.size());
     }
 
-
+    /**
+     * Writes the candidate votes of all polling stations into a comma separated file, in the format of the
+     * {@code LOAD DATA} of the pollingstation_candidate_votes table with {@code FIELDS TERMINATED BY ','}.
+     */
     public void exportPollingStationCandidateVotesToCSV(Election election, String filePath) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            writer.write("election_id,pollingstation_id,party_id,candidate_id,votes");
-            writer.newLine();
-            for (Province province : election.getProvinces()) {
-                for (Constituency c : province.getConstituencies()) {
-                    for (Authority a : c.getAuthorities().values()) {
-                        for (PollingStation ps : a.getPollingStations().values()) {
-                            for (Party p : ps.getParties().values()) {
-                                for (Candidate candidate : p.getCandidates()) {
-                                    int votes = candidate.getVotes();
-                                    String line = String.format("%s,%s,%s,%s,%d", election.getId(), ps.getId(), p.getId(), candidate.getId(), votes);
-                                    writer.write(line);
-                                    writer.newLine();
-                                }
-                            }
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(filePath))) {
+            out.write("election_id,pollingstation_id,party_id,candidate_id,votes\n".getBytes(StandardCharsets.UTF_8));
+            DelimitedRows rows = new DelimitedRows(',', 1 << 16);
+            IOException[] failure = new IOException[1];
+            pollingStationCandidateVotes(election, new RowSink() {
+                @Override
+                public RowSink value(Object value) {
+                    return rows.value(value);
+                }
+
+                @Override
+                public RowSink value(long value) {
+                    return rows.value(value);
+                }
+
+                @Override
+                public void end() {
+                    rows.end();
+                    // The rows are written to the file every 64 KiB, so the buffer never grows
+                    if (rows.size() >= 1 << 16 && failure[0] == null) {
+                        try {
+                            rows.writeTo(out);
+                        } catch (IOException e) {
+                            failure[0] = e;
                         }
+                        rows.clear();
                     }
                 }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
             }
+            rows.writeTo(out);
         }
     }
-
-
 }
@@ -0,0 +1,120 @@
+package com.voteU.election.java.services;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records which chunks of which tables of an election have been written, so persisting an election that failed
+ * halfway can skip what was written before.<br>
+ * A chunk is recorded in the transaction that writes its rows, so a chunk is either written and recorded or neither.
+ * The size of the chunks of a table is recorded with them, and so is the fingerprint of the rows of every chunk. The
+ * rows come from maps whose order can differ between runs, so a chunk with an index only holds the same rows again when
+ * its fingerprint is the same, a chunk with another fingerprint is written again. When all chunks of a table have been
+ * written the table is recorded as complete, and it is not written again. When the whole election has been written its
+ * records are removed, so persisting it again writes everything again.
+ */
+final class PersistenceJournal {
+    /**
+     * The chunk of the record that marks a table as complete.
+     */
+    static final int COMPLETE = -1;
+
+    static final String RECORD = "INSERT INTO persist_journal (election_id, table_name, chunk, chunk_size, rows_written, fingerprint) "
+            + "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE chunk_size = VALUES(chunk_size), rows_written = VALUES(rows_written), "
+            + "fingerprint = VALUES(fingerprint)";
+
+    /**
+     * What has been written into a table before.
+     *
+     * @param chunkSize the size of the chunks the table was cut into, which has to be used again.
+     * @param chunks    the chunks that have been written, by index.
+     * @param rows      the number of rows in those chunks, or in the whole table when it is complete.
+     */
+    record TableState(int chunkSize, Map<Integer, Chunk> chunks, boolean complete, long rows) {
+        static final TableState EMPTY = new TableState(0, Map.of(), false, 0);
+    }
+
+    /**
+     * A chunk that has been written before.
+     *
+     * @param fingerprint the fingerprint of its rows, see {@link PersistencePipeline}.
+     */
+    record Chunk(long rows, long fingerprint) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final String electionId;
+
+    PersistenceJournal(JdbcTemplate jdbc, String electionId) {
+        this.jdbc = jdbc;
+        this.electionId = electionId;
+    }
+
+    /**
+     * Returns what has been written of the election before, by table. The journal table is created by the migrations.
+     */
+    Map<String, TableState> open() {
+        Map<String, Integer> chunkSizes = new HashMap<>();
+        Map<String, Map<Integer, Chunk>> chunks = new HashMap<>();
+        Map<String, Long> chunkRows = new HashMap<>();
+        Map<String, Long> tableRows = new HashMap<>();
+        List<Map<String, Object>> records = jdbc.queryForList(
+                "SELECT table_name, chunk, chunk_size, rows_written, fingerprint FROM persist_journal WHERE election_id = ?", electionId);
+        for (Map<String, Object> record : records == null ? List.<Map<String, Object>>of() : records) {
+            String table = (String) record.get("table_name");
+            int chunk = ((Number) record.get("chunk")).intValue();
+            long rows = ((Number) record.get("rows_written")).longValue();
+            chunkSizes.put(table, ((Number) record.get("chunk_size")).intValue());
+            if (chunk == COMPLETE) {
+                tableRows.put(table, rows);
+            } else {
+                chunks.computeIfAbsent(table, key -> new HashMap<>())
+                        .put(chunk, new Chunk(rows, ((Number) record.get("fingerprint")).longValue()));
+                chunkRows.merge(table, rows, Long::sum);
+            }
+        }
+        Map<String, TableState> states = new HashMap<>();
+        for (Map.Entry<String, Integer> table : chunkSizes.entrySet()) {
+            String name = table.getKey();
+            boolean complete = tableRows.containsKey(name);
+            states.put(name, new TableState(table.getValue(), chunks.getOrDefault(name, Map.of()), complete,
+                    complete ? tableRows.get(name) : chunkRows.getOrDefault(name, 0L)));
+        }
+        return states;
+    }
+
+    /**
+     * Records a chunk as written, in the transaction of the connection that wrote it.
+     *
+     * @param record the {@link #RECORD} statement prepared on that connection.
+     */
+    void chunkWritten(PreparedStatement record, String table, int chunk, int chunkSize, int rows, long fingerprint) throws SQLException {
+        record.setString(1, electionId);
+        record.setString(2, table);
+        record.setInt(3, chunk);
+        record.setInt(4, chunkSize);
+        record.setLong(5, rows);
+        record.setLong(6, fingerprint);
+        record.executeUpdate();
+    }
+
+    /**
+     * Records a table as complete, with the total number of its rows. The record has no fingerprint, a complete table
+     * is not produced again.
+     */
+    void tableWritten(String table, int chunkSize, long rows) {
+        jdbc.update(RECORD, electionId, table, COMPLETE, chunkSize, rows, 0L);
+    }
+
+    /**
+     * Removes the records of the election once all its tables have been written.
+     */
+    void close() {
+        jdbc.update("DELETE FROM persist_journal WHERE election_id = ?", electionId);
+    }
+}
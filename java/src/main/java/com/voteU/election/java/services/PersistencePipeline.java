@@ -0,0 +1,560 @@
+package com.voteU.election.java.services;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import com.voteU.election.java.dto.PersistedTableDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.SQLExceptionSubclassTranslator;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes the rows of a number of tables to the database with several connections at the same time.<br>
+ * The tables are written level by level, a level only starts when all rows of the previous level have been written,
+ * so rows are never written before the rows they refer to. Within a level one producer, the calling thread, walks
+ * the model and gives the rows of its tables value by value to a {@link RowSink}, which cuts them into chunks. A number
+ * of writer threads each hold one connection for the whole level, take chunks from a queue and bind them into a batch of
+ * a prepared statement that is reused for all chunks of the table.
+ * <p>
+ * The values of a chunk are stored in the arrays of a {@link ChunkBuffer}, numbers unboxed, and a written buffer goes
+ * back to a pool to be filled with the next chunk. There is a fixed number of buffers, so the producer waits when the
+ * writers fall behind, and the memory used by the pipeline does not depend on the size of the election.
+ * <p>
+ * A table can also be written with {@code LOAD DATA LOCAL INFILE}. Its rows are then encoded into the
+ * {@link DelimitedRows} of the buffer, and every chunk is streamed to the server from memory by one statement, which
+ * saves the parsing of an insert statement and the result of every row. The chunk is loaded into a temporary staging
+ * table of the connection and merged into the table from there, see {@link LoadData}.
+ * <p>
+ * Every chunk is written in a transaction of its own, together with its record in the {@link PersistenceJournal}. The
+ * chunks and tables the journal has recorded in an earlier run are skipped, so a run that failed continues where it
+ * stopped. The producer hashes the values of every chunk into a fingerprint, which is recorded with the chunk, and a
+ * recorded chunk is only skipped when the rows produced for it now have the same fingerprint. The first failing chunk
+ * stops the producer, the remaining chunks are dropped and the failure is thrown by {@link #run}. The chunks that have
+ * been written by then stay written and recorded.
+ */
+final class PersistencePipeline {
+    private static final Logger logger = LoggerFactory.getLogger(PersistencePipeline.class);
+
+    private static final SQLExceptionTranslator translator = new SQLExceptionSubclassTranslator();
+
+    /**
+     * Produces the rows of a table, giving the values of the parameters of the insert statement of every row to the
+     * sink.
+     */
+    @FunctionalInterface
+    interface Rows {
+        void produce(RowSink sink);
+    }
+
+    /**
+     * A table that is written by the pipeline.
+     *
+     * @param parameters the number of parameters of the insert statement, which is the number of values of a row.
+     * @param loadData   the statements that load the table with tab separated values, or {@code null} to write it with
+     *                   the insert statement.
+     */
+    record Table(String name, String sql, int parameters, Rows rows, LoadData loadData) {
+        Table(String name, String sql, int parameters, Rows rows) {
+            this(name, sql, parameters, rows, null);
+        }
+    }
+
+    /**
+     * The statements that write a chunk of a table with {@code LOAD DATA LOCAL INFILE}, in the transaction of the chunk.
+     *
+     * @param stage creates the temporary staging table of the connection when it does not exist yet.
+     * @param load  the {@code LOAD DATA LOCAL INFILE} statement into the staging table.
+     * @param merge inserts the rows of the staging table into the table, updating the rows that exist.
+     * @param clear empties the staging table for the next chunk.
+     */
+    record LoadData(String stage, String load, String merge, String clear) {
+    }
+
+    /**
+     * Marks the end of a level for a writer.
+     */
+    private static final ChunkBuffer END = new ChunkBuffer();
+
+    /**
+     * Marks a value of a buffer that is a number, stored in the array of numbers.
+     */
+    private static final Object NUMBER = new Object();
+
+    /**
+     * The rows of one chunk of a table. A buffer is reused for chunk after chunk, its arrays are only replaced when a
+     * table needs larger ones.
+     */
+    private static final class ChunkBuffer implements RowSink {
+        Progress table;
+        int index;
+        int rows;
+        long fingerprint;
+        private int position;
+        private Object[] values = new Object[0];
+        private long[] numbers = new long[0];
+        private DelimitedRows data;
+
+        void reset(Progress table, int index) {
+            this.table = table;
+            this.index = index;
+            this.rows = 0;
+            this.position = 0;
+            if (table.loadData) {
+                if (data == null) {
+                    // About 32 bytes for each row of a vote table
+                    data = new DelimitedRows('\t', table.chunkSize * 32);
+                }
+                data.clear();
+            } else {
+                int capacity = table.chunkSize * table.table.parameters();
+                if (values.length < capacity) {
+                    values = new Object[capacity];
+                    numbers = new long[capacity];
+                }
+            }
+        }
+
+        @Override
+        public RowSink value(Object value) {
+            if (table.loadData) {
+                data.value(value);
+            } else {
+                values[position++] = value;
+            }
+            return this;
+        }
+
+        @Override
+        public RowSink value(long value) {
+            if (table.loadData) {
+                data.value(value);
+            } else {
+                numbers[position] = value;
+                values[position++] = NUMBER;
+            }
+            return this;
+        }
+
+        @Override
+        public void end() {
+            if (table.loadData) {
+                data.end();
+            }
+            rows++;
+        }
+
+        /**
+         * Binds the rows to the parameters of the insert statement, adding every row to its batch.
+         */
+        void bind(PreparedStatement statement) throws SQLException {
+            int parameters = table.table.parameters();
+            for (int row = 0, position = 0; row < rows; row++) {
+                for (int parameter = 1; parameter <= parameters; parameter++, position++) {
+                    if (values[position] == NUMBER) {
+                        statement.setLong(parameter, numbers[position]);
+                    } else {
+                        statement.setObject(parameter, values[position]);
+                    }
+                }
+                statement.addBatch();
+            }
+        }
+    }
+
+    /**
+     * Thrown by the sink of a producer to stop it when a writer has failed.
+     */
+    private static final class Stopped extends RuntimeException {
+        Stopped() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * The rows written into one table, and the time between the start of its first batch and the end of its last.
+     */
+    private static final class Progress {
+        final Table table;
+        final boolean loadData;
+        final int chunkSize;
+        /**
+         * What was written into the table by an earlier run.
+         */
+        final PersistenceJournal.TableState journaled;
+        final AtomicLong rows = new AtomicLong();
+        /**
+         * The rows of the recorded chunks that were produced again with the same fingerprint, and not written.
+         */
+        final AtomicLong skipped = new AtomicLong();
+        final AtomicLong chunks = new AtomicLong();
+        final AtomicLong firstStart = new AtomicLong(Long.MAX_VALUE);
+        final AtomicLong lastEnd = new AtomicLong(Long.MIN_VALUE);
+
+        Progress(Table table, boolean loadData, int chunkSize, PersistenceJournal.TableState journaled) {
+            this.table = table;
+            this.loadData = loadData;
+            this.chunkSize = journaled.chunkSize() > 0 ? journaled.chunkSize() : chunkSize;
+            this.journaled = journaled;
+        }
+
+        /**
+         * Returns the record of a chunk that was written before, or {@code null}.
+         */
+        PersistenceJournal.Chunk journaled(int chunk) {
+            return journaled.chunks().get(chunk);
+        }
+
+        long skippedRows() {
+            return journaled.complete() ? journaled.rows() : skipped.get();
+        }
+
+        void written(int count, long start, long end) {
+            rows.addAndGet(count);
+            chunks.incrementAndGet();
+            firstStart.accumulateAndGet(start, Math::min);
+            lastEnd.accumulateAndGet(end, Math::max);
+        }
+
+        PersistedTableDTO report() {
+            double seconds = rows.get() == 0 ? 0 : (lastEnd.get() - firstStart.get()) / 1_000_000_000.0;
+            double rowsPerSecond = seconds > 0 ? rows.get() / seconds : 0;
+            return new PersistedTableDTO(table.name(), loadData ? "load data" : "batch", rows.get(), skippedRows(), chunks.get(),
+                    chunkSize, seconds, rowsPerSecond);
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+    private final int writers;
+    private final ChunkSizing chunkSizing;
+    private final PersistenceJournal journal;
+
+    /**
+     * @param writers the number of connections that write at the same time.
+     */
+    PersistencePipeline(JdbcTemplate jdbc, int writers, ChunkSizing chunkSizing, PersistenceJournal journal) {
+        this.jdbc = jdbc;
+        this.writers = writers;
+        this.chunkSizing = chunkSizing;
+        this.journal = journal;
+    }
+
+    /**
+     * Writes the tables, one level after the other, skipping what the journal has recorded. The records of the journal
+     * are removed when all tables have been written.
+     *
+     * @return the number of rows and the speed of every table, in the order they were written.
+     */
+    List<PersistedTableDTO> run(List<List<Table>> levels) {
+        Map<String, PersistenceJournal.TableState> journaled = journal.open();
+        if (!journaled.isEmpty()) {
+            logger.info("Resuming the persisting of {} tables that were partly or completely written before", journaled.size());
+        }
+        BlockingQueue<ChunkBuffer> free = new ArrayBlockingQueue<>(buffers());
+        for (int i = 0; i < buffers(); i++) {
+            free.add(new ChunkBuffer());
+        }
+        List<PersistedTableDTO> reports = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            for (List<Table> level : levels) {
+                for (Progress progress : runLevel(executor, level, journaled, free)) {
+                    PersistedTableDTO report = progress.report();
+                    logger.info("Persisted {} rows into {} with {} in {} chunks of {} in {} s ({} rows/s), {} rows were written before",
+                            report.rows(), report.table(), report.method(), report.chunks(), report.chunkSize(),
+                            String.format("%.2f", report.seconds()), Math.round(report.rowsPerSecond()), report.skippedRows());
+                    reports.add(report);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        journal.close();
+        return reports;
+    }
+
+    /**
+     * Returns the number of buffers, every writer writes one while another one waits for it, and the producer fills
+     * one.
+     */
+    private int buffers() {
+        return writers * 2 + 1;
+    }
+
+    private List<Progress> runLevel(ExecutorService executor, List<Table> level, Map<String, PersistenceJournal.TableState> journaled,
+                                    BlockingQueue<ChunkBuffer> free) {
+        // Room for all buffers and the end of every writer, so putting a chunk never waits
+        BlockingQueue<ChunkBuffer> queue = new ArrayBlockingQueue<>(buffers() + writers);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            running.add(executor.submit(() -> write(queue, free, failure)));
+        }
+
+        List<Progress> progress = new ArrayList<>();
+        try {
+            for (Table table : level) {
+                boolean loadData = table.loadData() != null && chunkSizing.loadData();
+                Progress tableProgress = new Progress(table, loadData,
+                        loadData ? chunkSizing.rowsPerLoad() : chunkSizing.rowsPerChunk(table.parameters()),
+                        journaled.getOrDefault(table.name(), PersistenceJournal.TableState.EMPTY));
+                progress.add(tableProgress);
+                if (!tableProgress.journaled.complete()) {
+                    Producer producer = new Producer(queue, free, failure, tableProgress);
+                    table.rows().produce(producer);
+                    producer.flush();
+                }
+            }
+        } catch (Stopped e) {
+            // A writer has failed, its failure is thrown below
+        } finally {
+            for (int i = 0; i < writers; i++) {
+                put(queue, END);
+            }
+        }
+        for (Future<?> writer : running) {
+            try {
+                writer.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while persisting", e);
+            } catch (ExecutionException e) {
+                failure.compareAndSet(null, new IllegalStateException("A writer failed", e.getCause()));
+            }
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        for (Progress table : progress) {
+            if (!table.journaled.complete()) {
+                journal.tableWritten(table.table.name(), table.chunkSize, table.skipped.get() + table.rows.get());
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * Cuts the rows of a table into chunks and puts them on the queue, hashing the values of every chunk into its
+     * fingerprint. A chunk the journal has recorded with the same fingerprint goes back to the free buffers instead.
+     */
+    private static final class Producer implements RowSink {
+        private static final long FINGERPRINT_START = 0xcbf29ce484222325L;
+
+        private final BlockingQueue<ChunkBuffer> queue;
+        private final BlockingQueue<ChunkBuffer> free;
+        private final AtomicReference<RuntimeException> failure;
+        private final Progress table;
+        private int index;
+        private int count;
+        private long fingerprint = FINGERPRINT_START;
+        private ChunkBuffer buffer;
+
+        Producer(BlockingQueue<ChunkBuffer> queue, BlockingQueue<ChunkBuffer> free, AtomicReference<RuntimeException> failure,
+                 Progress table) {
+            this.queue = queue;
+            this.free = free;
+            this.failure = failure;
+            this.table = table;
+        }
+
+        @Override
+        public RowSink value(Object value) {
+            // The hash of a string is the same in every run, unlike the identity of an object
+            hash(value == null ? 0 : value.toString().hashCode());
+            buffer().value(value);
+            return this;
+        }
+
+        @Override
+        public RowSink value(long value) {
+            hash(value);
+            buffer().value(value);
+            return this;
+        }
+
+        @Override
+        public void end() {
+            hash(-1);
+            buffer().end();
+            if (++count == table.chunkSize) {
+                flush();
+            }
+        }
+
+        private void hash(long value) {
+            fingerprint = (fingerprint ^ value) * 0x100000001b3L;
+        }
+
+        /**
+         * Puts the current chunk on the queue, unless it is empty or it was written before with the same rows.
+         */
+        void flush() {
+            if (count == 0) {
+                return;
+            }
+            PersistenceJournal.Chunk journaled = table.journaled(index);
+            if (journaled != null && journaled.fingerprint() == fingerprint) {
+                table.skipped.addAndGet(count);
+                put(free, buffer);
+            } else {
+                if (journaled != null) {
+                    logger.info("Chunk {} of {} holds other rows than when it was written, writing it again", index,
+                            table.table.name());
+                }
+                buffer.fingerprint = fingerprint;
+                put(queue, buffer);
+            }
+            buffer = null;
+            index++;
+            count = 0;
+            fingerprint = FINGERPRINT_START;
+        }
+
+        /**
+         * Returns the buffer of the current chunk, taking a free one when the chunk has just started.
+         */
+        private ChunkBuffer buffer() {
+            if (buffer == null) {
+                if (failure.get() != null) {
+                    throw new Stopped();
+                }
+                buffer = take(free);
+                buffer.reset(table, index);
+            }
+            return buffer;
+        }
+    }
+
+    /**
+     * Writes chunks on one connection until the end of the level, each in a transaction of its own. After a failure
+     * the remaining chunks are only taken from the queue, so the producer is never blocked.
+     */
+    private void write(BlockingQueue<ChunkBuffer> queue, BlockingQueue<ChunkBuffer> free, AtomicReference<RuntimeException> failure) {
+        boolean[] ended = {false};
+        try {
+            jdbc.execute((ConnectionCallback<Void>) connection -> {
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                Map<String, PreparedStatement> statements = new HashMap<>();
+                try {
+                    while (true) {
+                        ChunkBuffer chunk = take(queue);
+                        if (chunk == END) {
+                            ended[0] = true;
+                            return null;
+                        }
+                        try {
+                            if (failure.get() == null) {
+                                long start = System.nanoTime();
+                                write(connection, statements, chunk);
+                                chunk.table.written(chunk.rows, start, System.nanoTime());
+                            }
+                        } catch (SQLException | RuntimeException e) {
+                            logger.error("Could not persist a chunk of {} rows into {}", chunk.rows, chunk.table.table.name(), e);
+                            connection.rollback();
+                            failure.compareAndSet(null, e instanceof SQLException sqlException
+                                    ? translate(chunk.table.table, sqlException) : (RuntimeException) e);
+                        } finally {
+                            put(free, chunk);
+                        }
+                    }
+                } finally {
+                    for (PreparedStatement statement : statements.values()) {
+                        statement.close();
+                    }
+                    connection.setAutoCommit(autoCommit);
+                }
+            });
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+            while (!ended[0]) {
+                ChunkBuffer chunk = take(queue);
+                if (chunk == END) {
+                    ended[0] = true;
+                } else {
+                    put(free, chunk);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a chunk and its record in the journal, and commits them.
+     */
+    private void write(Connection connection, Map<String, PreparedStatement> statements, ChunkBuffer chunk) throws SQLException {
+        Table table = chunk.table.table;
+        if (chunk.table.loadData) {
+            LoadData loadData = table.loadData();
+            try (Statement statement = connection.createStatement()) {
+                // The staging table lives as long as the connection, it is created before the first chunk of the table on it
+                if (!statements.containsKey(loadData.merge())) {
+                    statement.execute(loadData.stage());
+                }
+                // The driver sends the stream of the statement whatever the name of the file in it is
+                statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(chunk.data.stream());
+                statement.execute(loadData.load());
+            }
+            prepare(connection, statements, loadData.merge()).executeUpdate();
+            prepare(connection, statements, loadData.clear()).executeUpdate();
+        } else {
+            PreparedStatement statement = prepare(connection, statements, table.sql());
+            chunk.bind(statement);
+            statement.executeBatch();
+        }
+        journal.chunkWritten(prepare(connection, statements, PersistenceJournal.RECORD), table.name(), chunk.index,
+                chunk.table.chunkSize, chunk.rows, chunk.fingerprint);
+        connection.commit();
+    }
+
+    private static PreparedStatement prepare(Connection connection, Map<String, PreparedStatement> statements, String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    private static DataAccessException translate(Table table, SQLException e) {
+        String task = "Persisting " + table.name();
+        DataAccessException translated = translator.translate(task, table.sql(), e);
+        return translated != null ? translated : new UncategorizedSQLException(task, table.sql(), e);
+    }
+
+    private static void put(BlockingQueue<ChunkBuffer> queue, ChunkBuffer chunk) {
+        try {
+            queue.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while persisting", e);
+        }
+    }
+
+    private static ChunkBuffer take(BlockingQueue<ChunkBuffer> queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while persisting", e);
+        }
+    }
+}
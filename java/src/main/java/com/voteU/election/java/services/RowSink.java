@@ -0,0 +1,14 @@
+package com.voteU.election.java.services;
+
+/**
+ * Receives rows value by value, so a row is never collected into an array of its own.<br>
+ * The values of a row are given in the order of the parameters of the insert statement, followed by {@link #end}.
+ * Numbers are given with {@link #value(long)}, so they are not boxed.
+ */
+interface RowSink {
+    RowSink value(Object value);
+
+    RowSink value(long value);
+
+    void end();
+}
@@ -0,0 +1,231 @@
+package com.voteU.election.java.services.electiondata.database;
+
+import com.voteU.election.java.dto.AuthorityDTO;
+import com.voteU.election.java.dto.CandidateVotesDTO;
+import com.voteU.election.java.dto.ConstituencyDTO;
+import com.voteU.election.java.dto.ElectionDTO;
+import com.voteU.election.java.dto.KeysetPageDTO;
+import com.voteU.election.java.dto.PollingStationDTO;
+import com.voteU.election.java.exceptions.ResourceNotFoundException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads the elections that were persisted by the {@link com.voteU.election.java.services.ElectionDataInserter} from the
+ * database, so an instance can answer without loading the election into memory.<br>
+ * The long lists are read page by page with keyset pagination: a page continues after the key of the last row of the
+ * previous page instead of skipping an offset, so every page is one range scan on the index of the table, however far
+ * into the list it is. The rows are ordered by the columns that follow {@code election_id} in that index, and only the
+ * columns of the answer are selected. The results are cached in the {@link ElectionQueryCache}.
+ */
+@Service
+public class ElectionDataQueryService {
+    /**
+     * The maximum number of rows of a page.
+     */
+    public static final int MAX_LIMIT = 1000;
+
+    private static final String CANDIDATE_VOTES = "SELECT v.party_id, v.candidate_id, c.first_name, c.last_name, c.gender, "
+            + "c.locality_name, v.votes FROM %s v "
+            + "JOIN candidates c ON c.election_id = v.election_id AND c.party_id = v.party_id AND c.candidate_id = v.candidate_id "
+            + "WHERE v.election_id = ? %s"
+            // Written out instead of (v.party_id, v.candidate_id) > (?, ?), which MySQL does not turn into a range
+            + "AND (v.party_id > ? OR (v.party_id = ? AND v.candidate_id > ?)) "
+            + "ORDER BY v.party_id, v.candidate_id LIMIT ?";
+
+    private final JdbcTemplate jdbc;
+    private final ElectionQueryCache queryCache;
+
+    public ElectionDataQueryService(JdbcTemplate jdbc, ElectionQueryCache queryCache) {
+        this.jdbc = jdbc;
+        this.queryCache = queryCache;
+    }
+
+    public List<ElectionDTO> getElections() {
+        return jdbc.query("SELECT election_id, name, date, votes FROM elections ORDER BY election_id", electionMapper());
+    }
+
+    public ElectionDTO getElection(String electionId) {
+        List<ElectionDTO> elections = queryCache.get("election", electionId, "", () -> jdbc.query(
+                "SELECT election_id, name, date, votes FROM elections WHERE election_id = ?", electionMapper(), electionId));
+        if (elections.isEmpty()) {
+            throw new ResourceNotFoundException("Election not found with ID: " + electionId);
+        }
+        return elections.get(0);
+    }
+
+    public List<ConstituencyDTO> getConstituencies(String electionId) {
+        List<ConstituencyDTO> constituencies = queryCache.get("constituencies", electionId, "", () -> jdbc.query(
+                "SELECT constituency_id, province_id, name, votes FROM constituencies WHERE election_id = ? ORDER BY constituency_id",
+                (rs, row) -> new ConstituencyDTO(rs.getInt(1), rs.getInt(2), rs.getString(3), rs.getInt(4)), electionId));
+        if (constituencies.isEmpty()) {
+            throw new ResourceNotFoundException("No constituencies found for election ID " + electionId);
+        }
+        return constituencies;
+    }
+
+    /**
+     * Returns the authorities of a constituency, ordered by their id.
+     *
+     * @param after the id of the last authority of the previous page, or {@code null} for the first page.
+     * @throws IllegalArgumentException when the limit is not between 1 and {@link #MAX_LIMIT}.
+     */
+    public KeysetPageDTO<AuthorityDTO> getAuthorities(String electionId, int constituencyId, String after, int limit) {
+        checkLimit(limit);
+        String from = after == null ? "" : after;
+        return page(queryCache.get("authorities", electionId, constituencyId + "|" + from + "|" + limit, () -> jdbc.query(
+                "SELECT authority_id, constituency_id, name, votes FROM authorities "
+                        + "WHERE election_id = ? AND constituency_id = ? AND authority_id > ? ORDER BY authority_id LIMIT ?",
+                (rs, row) -> new AuthorityDTO(rs.getString(1), rs.getInt(2), rs.getString(3), rs.getInt(4)),
+                electionId, constituencyId, from, limit + 1)), limit, AuthorityDTO::getId);
+    }
+
+    /**
+     * Returns the polling stations of an election, ordered by their id.
+     *
+     * @param after the id of the last polling station of the previous page, or {@code null} for the first page.
+     * @throws IllegalArgumentException when the limit is not between 1 and {@link #MAX_LIMIT}.
+     */
+    public KeysetPageDTO<PollingStationDTO> getPollingStations(String electionId, String after, int limit) {
+        checkLimit(limit);
+        String from = after == null ? "" : after;
+        return page(queryCache.get("pollingStations", electionId, from + "|" + limit, () -> jdbc.query(
+                "SELECT pollingstation_id, authority_id, name, zipcode, votes FROM pollingstations "
+                        + "WHERE election_id = ? AND pollingstation_id > ? ORDER BY pollingstation_id LIMIT ?",
+                pollingStationMapper(), electionId, from, limit + 1)), limit, PollingStationDTO::getId);
+    }
+
+    /**
+     * Returns the polling stations of an authority, ordered by their id.
+     *
+     * @param after the id of the last polling station of the previous page, or {@code null} for the first page.
+     * @throws IllegalArgumentException when the limit is not between 1 and {@link #MAX_LIMIT}.
+     */
+    public KeysetPageDTO<PollingStationDTO> getPollingStationsByAuthorityId(String electionId, String authorityId, String after, int limit) {
+        checkLimit(limit);
+        String from = after == null ? "" : after;
+        return page(queryCache.get("authorityPollingStations", electionId, authorityId + "|" + from + "|" + limit, () -> jdbc.query(
+                "SELECT pollingstation_id, authority_id, name, zipcode, votes FROM pollingstations "
+                        + "WHERE election_id = ? AND authority_id = ? AND pollingstation_id > ? ORDER BY pollingstation_id LIMIT ?",
+                pollingStationMapper(), electionId, authorityId, from, limit + 1)), limit, PollingStationDTO::getId);
+    }
+
+    /**
+     * Returns the national votes of the candidates, ordered by party and candidate.
+     *
+     * @param after the key of the last candidate of the previous page, {@code partyId:candidateId}, or {@code null} for
+     *              the first page.
+     * @throws IllegalArgumentException when the key or the limit is not valid.
+     */
+    public KeysetPageDTO<CandidateVotesDTO> getCandidateVotes(String electionId, String after, int limit) {
+        return candidateVotes("nationalCandidateVotes", "national_candidate_votes", "", null, electionId, after, limit);
+    }
+
+    /**
+     * Returns the votes of the candidates in a constituency, ordered by party and candidate.
+     *
+     * @see #getCandidateVotes
+     */
+    public KeysetPageDTO<CandidateVotesDTO> getCandidateVotesByConstituencyId(String electionId, int constituencyId, String after, int limit) {
+        return candidateVotes("constituencyCandidateVotes", "constituency_candidate_votes", "AND v.constituency_id = ? ",
+                constituencyId, electionId, after, limit);
+    }
+
+    /**
+     * Returns the votes of the candidates in an authority, ordered by party and candidate.
+     *
+     * @see #getCandidateVotes
+     */
+    public KeysetPageDTO<CandidateVotesDTO> getCandidateVotesByAuthorityId(String electionId, String authorityId, String after, int limit) {
+        return candidateVotes("authorityCandidateVotes", "authority_candidate_votes", "AND v.authority_id = ? ",
+                authorityId, electionId, after, limit);
+    }
+
+    /**
+     * Returns the votes of the candidates in a polling station, ordered by party and candidate.
+     *
+     * @see #getCandidateVotes
+     */
+    public KeysetPageDTO<CandidateVotesDTO> getCandidateVotesByPollingStationId(String electionId, String pollingStationId, String after, int limit) {
+        return candidateVotes("pollingStationCandidateVotes", "pollingstation_candidate_votes", "AND v.pollingstation_id = ? ",
+                pollingStationId, electionId, after, limit);
+    }
+
+    /**
+     * @param filter the condition on the region of the votes, or an empty string for the national votes.
+     * @param region the parameter of the filter, {@code null} when there is none.
+     */
+    private KeysetPageDTO<CandidateVotesDTO> candidateVotes(String query, String table, String filter, Object region,
+                                                            String electionId, String after, int limit) {
+        checkLimit(limit);
+        int[] from = parseCandidateKey(after);
+        String sql = String.format(CANDIDATE_VOTES, table, filter);
+        Object[] parameters = region == null
+                ? new Object[]{electionId, from[0], from[0], from[1], limit + 1}
+                : new Object[]{electionId, region, from[0], from[0], from[1], limit + 1};
+        RowMapper<CandidateVotesDTO> mapper = (rs, row) -> new CandidateVotesDTO(electionId, rs.getInt(1), rs.getInt(2),
+                fullName(rs.getString(3), rs.getString(4)), rs.getInt(7), rs.getString(5), rs.getString(6));
+        List<CandidateVotesDTO> rows = queryCache.get(query, electionId, region + "|" + from[0] + ":" + from[1] + "|" + limit,
+                () -> jdbc.query(sql, mapper, parameters));
+        return page(rows, limit, candidate -> candidate.getPartyId() + ":" + candidate.getId());
+    }
+
+    /**
+     * Joins the first and last name of a candidate, leaving out the ones that are {@code null}. A candidate list does
+     * not always give the first name of a candidate.
+     */
+    private static String fullName(String firstName, String lastName) {
+        return Stream.of(firstName, lastName).filter(Objects::nonNull).collect(Collectors.joining(" "));
+    }
+
+    /**
+     * Parses the key of a candidate, the key before the first candidate when it is {@code null}.
+     */
+    private static int[] parseCandidateKey(String after) {
+        if (after == null) {
+            return new int[]{Integer.MIN_VALUE, Integer.MIN_VALUE};
+        }
+        int separator = after.indexOf(':');
+        try {
+            if (separator < 0) {
+                throw new NumberFormatException();
+            }
+            return new int[]{Integer.parseInt(after.substring(0, separator)), Integer.parseInt(after.substring(separator + 1))};
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The key of a candidate must be partyId:candidateId: " + after);
+        }
+    }
+
+    /**
+     * Cuts the rows that were read with a limit one higher than the page down to the page, the extra row tells whether
+     * there is a next page.
+     */
+    private static <T> KeysetPageDTO<T> page(List<T> rows, int limit, Function<T, String> key) {
+        if (rows.size() <= limit) {
+            return new KeysetPageDTO<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new KeysetPageDTO<>(items, key.apply(items.get(limit - 1)));
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("The limit must be between 1 and " + MAX_LIMIT + ": " + limit);
+        }
+    }
+
+    private static RowMapper<ElectionDTO> electionMapper() {
+        return (rs, row) -> new ElectionDTO(rs.getString(1), rs.getString(2), rs.getString(3), rs.getInt(4));
+    }
+
+    private static RowMapper<PollingStationDTO> pollingStationMapper() {
+        return (rs, row) -> new PollingStationDTO(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getInt(5));
+    }
+}
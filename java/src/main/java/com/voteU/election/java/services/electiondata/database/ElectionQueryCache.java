@@ -0,0 +1,86 @@
+package com.voteU.election.java.services.electiondata.database;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the results of the election queries on the database in memory. The election data is written once by the
+ * {@link com.voteU.election.java.services.ElectionDataInserter}, so a result stays valid until the election is
+ * inserted again, and {@link #invalidate(String)} is called.<br>
+ * The cache is bounded by the total number of rows it holds, and evicts with Caffeine's W-TinyLFU policy: a new result
+ * only replaces a cached one when it is asked for more often, so a burst of one-off queries does not push out the
+ * results that are asked for all the time. Its hits, misses and evictions are published as the
+ * {@code cache.*} metrics of the {@code election-queries} cache on the actuator.
+ */
+@Slf4j
+@Service
+public class ElectionQueryCache {
+    static final String NAME = "election-queries";
+
+    /**
+     * A query on the data of one election.
+     *
+     * @param generation the generation of the election when the query was run, see {@link #invalidate(String)}.
+     */
+    private record Key(String query, String electionId, long generation, String argument) {
+    }
+
+    private final Cache<Key, List<?>> results;
+    /**
+     * The generation of every election that has been invalidated. A result is stored under the generation that was
+     * current when its query started, so a query that is still running while the election is invalidated can never
+     * store an outdated result under the new generation.
+     */
+    private final Map<String, Long> generationsByElectionId = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxRows       the maximum total number of rows of the cached results, configured through the
+     *                      {@code election.cache.max-rows} property.
+     * @param meterRegistry the registry the metrics of the cache are published to.
+     */
+    public ElectionQueryCache(@Value("${election.cache.max-rows:200000}") long maxRows, MeterRegistry meterRegistry) {
+        this.results = Caffeine.newBuilder()
+                .maximumWeight(maxRows)
+                .weigher((Key key, List<?> rows) -> rows.size() + 1)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, NAME);
+    }
+
+    /**
+     * Returns the cached result of a query, or runs the query and caches its result. Concurrent requests for the same
+     * result run the query once.
+     *
+     * @param query      the name of the query.
+     * @param electionId the election the query reads.
+     * @param argument   the other arguments of the query.
+     * @param loader     runs the query on the database.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(String query, String electionId, String argument, Supplier<List<T>> loader) {
+        Key key = new Key(query, electionId, generationsByElectionId.getOrDefault(electionId, 0L), argument);
+        return (List<T>) results.get(key, ignored -> {
+            List<T> rows = loader.get();
+            return rows == null ? List.of() : List.copyOf(rows);
+        });
+    }
+
+    /**
+     * Drops the cached results of an election, because it is being inserted again.
+     */
+    public void invalidate(String electionId) {
+        generationsByElectionId.merge(electionId, 1L, Long::sum);
+        results.asMap().keySet().removeIf(key -> key.electionId().equals(electionId));
+        log.info("Invalidated the cached queries of election {}", electionId);
+    }
+}
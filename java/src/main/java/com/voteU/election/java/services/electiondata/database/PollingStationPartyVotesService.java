@@ -14,13 +14,16 @@ public class PollingStationPartyVotesService {
 
 
     private final PollingStationPartyVotesRepository pollingStationPartyVotesRepository;
+    private final ElectionQueryCache queryCache;
 
-    public PollingStationPartyVotesService(PollingStationPartyVotesRepository pollingStationPartyVotesRepository) {
+    public PollingStationPartyVotesService(PollingStationPartyVotesRepository pollingStationPartyVotesRepository, ElectionQueryCache queryCache) {
         this.pollingStationPartyVotesRepository = pollingStationPartyVotesRepository;
+        this.queryCache = queryCache;
     }
 
     public List<PartyVotesDTO> getPollingStationPartyVotesByElectionAndPollingStationId(String electionId, String pollingStationId) {
-        List<PartyVotesDTO> votes = pollingStationPartyVotesRepository.findPollingStationPartyVotesByElectionAndPollingStationId(electionId, pollingStationId);
+        List<PartyVotesDTO> votes = queryCache.get("pollingStationPartyVotes", electionId, pollingStationId,
+                () -> pollingStationPartyVotesRepository.findPollingStationPartyVotesByElectionAndPollingStationId(electionId, pollingStationId));
 
         if (votes == null || votes.isEmpty()) {
             throw new ResourceNotFoundException("No party votes found for polling station ID " + pollingStationId + " and election ID " + electionId);
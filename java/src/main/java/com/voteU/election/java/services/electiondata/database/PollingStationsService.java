@@ -14,9 +14,11 @@ import java.util.List;
 @Service
 public class PollingStationsService {
     private final PollingStationRepository pollingStationRepository;
+    private final ElectionQueryCache queryCache;
 
-    public PollingStationsService(PollingStationRepository pollingStationRepository) {
+    public PollingStationsService(PollingStationRepository pollingStationRepository, ElectionQueryCache queryCache) {
         this.pollingStationRepository = pollingStationRepository;
+        this.queryCache = queryCache;
     }
 
     public List<PollingStations> getPollingStationsByZipCode(String zipcode, String electionId) {
@@ -26,7 +28,8 @@ public class PollingStationsService {
             throw new IllegalArgumentException("Invalid Dutch postcode format. Must start with up to 4 digits followed by up to 2 letters.");
         }
 
-        List<PollingStations> stations = pollingStationRepository.findByZipcodeStartingWithAndElectionId(cleanedZipcode, electionId);
+        List<PollingStations> stations = queryCache.get("pollingStationsByZipcode", electionId, cleanedZipcode,
+                () -> pollingStationRepository.findByZipcodeStartingWithAndElectionId(cleanedZipcode, electionId));
         if (stations.isEmpty()) {
             throw new ResourceNotFoundException("No polling stations found for the given zipcode and election.");
         }
@@ -34,6 +37,11 @@ public class PollingStationsService {
         return stations;
     }
 
+    /**
+     * Returns a page of the polling stations ordered by name. The page is found by skipping the rows of the pages
+     * before it, which gets slower the further it is, {@link ElectionDataQueryService#getPollingStations} continues
+     * after a key instead.
+     */
     public Page<PollingStations> getPollingStations(String electionId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending());
         Page<PollingStations> pageResult = pollingStationRepository.findByElectionId(electionId, pageable);
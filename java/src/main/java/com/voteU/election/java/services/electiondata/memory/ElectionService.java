@@ -3,46 +3,72 @@ package com.voteU.election.java.services.electiondata.memory;
 import com.voteU.election.java.dtoCompact.CompactElection;
 import com.voteU.election.java.model.*;
 import com.voteU.election.java.reader.DutchElectionReader;
+import com.voteU.election.java.utils.xml.ProcessingListener;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @Service
 public class ElectionService {
+    /**
+     * The maximum number of results of a search.
+     */
+    public static final int MAX_LIMIT = 1000;
+
     private final DutchElectionReader electionReader;
-    private final Map<String, Election> electionsByElectionId = new HashMap<>();
+    /**
+     * The published elections. A read builds new elections off to the side and then replaces the whole map at once, so
+     * readers never block and never see an election that is still being built. The map itself is never changed.
+     */
+    private final AtomicReference<Map<String, Election>> electionsByElectionId = new AtomicReference<>(Map.of());
 
     public ElectionService(DutchElectionReader electionReader) {
         this.electionReader = electionReader;
     }
 
-    public boolean readElections() {
-        Map<String, Election> elections = electionReader.getAll();
-        if (elections == null || elections.isEmpty()) {
-            log.warn("No election data found during readElections().");
-            return false;
-        }
-        electionsByElectionId.putAll(elections);
-        return true;
+    public boolean readElection(String electionId) {
+        return readElection(electionId, ProcessingListener.NONE);
     }
 
-    public boolean readElection(String electionId) {
-        Election election = electionReader.getElection(electionId);
+    /**
+     * Reads an election and publishes it, while the listener is told how far the reader is.
+     *
+     * @return {@code true} when the election has been published, {@code false} when it could not be read or the
+     *         thread has been interrupted.
+     */
+    public boolean readElection(String electionId, ProcessingListener listener) {
+        Election election = electionReader.getElection(electionId, listener);
         if (election == null) {
             log.warn("No election data found for year {} during readElectionYear().", electionId);
             return false;
         }
-        electionsByElectionId.put(electionId, election);
+        publish(Map.of(electionId, election));
         return true;
     }
 
+    /**
+     * Replaces the published elections by a copy that contains the given elections.
+     */
+    private void publish(Map<String, Election> elections) {
+        electionsByElectionId.updateAndGet(published -> {
+            Map<String, Election> next = new HashMap<>(published);
+            next.putAll(elections);
+            return Collections.unmodifiableMap(next);
+        });
+    }
+
+    /**
+     * Returns the elections that are published at this moment. The map cannot be changed, and is not changed by later
+     * reads either.
+     */
     public Map<String, Election> getAll() {
-        return electionsByElectionId;
+        return electionsByElectionId.get();
     }
 
     public Election getElection(String electionId) {
-        return electionsByElectionId.get(electionId);
+        return electionsByElectionId.get().get(electionId);
     }
 
     public CompactElection getCompactElection(String electionId){
@@ -56,6 +82,59 @@ public class ElectionService {
         return new CompactElection(id, name, votes, size);
     }
 
+    /**
+     * Returns the polling stations of an election whose zip code starts with a prefix, in the order of their zip codes.
+     * They are found in the {@link ZipCodeIndex} of the election, which is built when the election is read.
+     *
+     * @param zipCode the start of the zip code, spaces and case are ignored.
+     * @param limit   the maximum number of polling stations that are returned.
+     * @return the polling stations, or an empty list when the election has not been read.
+     * @throws IllegalArgumentException when the limit is not between 1 and {@link #MAX_LIMIT}.
+     */
+    public List<PollingStation> searchPollingStationsByZipCode(String electionId, String zipCode, int limit) {
+        checkLimit(limit);
+        Election election = getElection(electionId);
+        if (election == null) {
+            return List.of();
+        }
+        ZipCodeIndex index = election.getZipCodeIndex();
+        if (index == null) {
+            index = ZipCodeIndex.of(election);
+            election.setZipCodeIndex(index);
+        }
+        return index.search(zipCode, limit);
+    }
+
+    /**
+     * Searches the names of the candidates, parties, authorities and polling stations of an election in its
+     * {@link SearchIndex}, which is built when the election is read. Diacritics and case are ignored, the last word may
+     * be incomplete and longer words may have typos.
+     *
+     * @param types the types of the results, or {@code null} for all of them.
+     * @param limit the maximum number of results.
+     * @return the best results first, or an empty list when the election has not been read.
+     * @throws IllegalArgumentException when the limit is not between 1 and {@link #MAX_LIMIT}.
+     */
+    public List<SearchIndex.Hit> search(String electionId, String query, Set<SearchIndex.Type> types, int limit) {
+        checkLimit(limit);
+        Election election = getElection(electionId);
+        if (election == null) {
+            return List.of();
+        }
+        SearchIndex index = election.getSearchIndex();
+        if (index == null) {
+            index = SearchIndex.of(election);
+            election.setSearchIndex(index);
+        }
+        return index.search(query, types, limit);
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("The limit must be between 1 and " + MAX_LIMIT + ": " + limit);
+        }
+    }
+
     public Map<Integer, Party> getAllPartiesByElection(String electionId) {
         Election election = getElection(electionId);
         if (election == null) {
@@ -0,0 +1,157 @@
+package com.voteU.election.java.services.electiondata.memory;
+
+import com.voteU.election.java.utils.xml.ProcessingListener;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * A background job that reads an election, see {@link IngestJobService}. The job is updated by the thread that reads
+ * the election and can be read at any time by other threads, so all its state is volatile.
+ */
+@Getter
+public class IngestJob implements ProcessingListener {
+    public enum State {QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED}
+
+    private final String id;
+    private final String electionId;
+    private final Instant createdAt = Instant.now();
+    private volatile State state = State.QUEUED;
+    private volatile String phase;
+    private volatile int filesDone;
+    private volatile int filesTotal;
+    private volatile long bytesDone;
+    private volatile long bytesTotal;
+    /**
+     * The number of records that have been registered in the election, for example the votes of a party in one
+     * polling station.
+     */
+    private volatile long rows;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String message;
+
+    @Getter(AccessLevel.NONE)
+    private volatile long startedNanos;
+    @Getter(AccessLevel.NONE)
+    private volatile long finishedNanos;
+    @Getter(AccessLevel.NONE)
+    private Future<?> future;
+    @Getter(AccessLevel.PACKAGE)
+    private volatile boolean cancelRequested;
+
+    public IngestJob(String id, String electionId) {
+        this.id = id;
+        this.electionId = electionId;
+    }
+
+    /**
+     * Returns the number of rows per second since the job started, or 0 when it has not started yet.
+     */
+    public double getRowsPerSecond() {
+        double seconds = elapsedSeconds();
+        return seconds > 0 ? rows / seconds : 0;
+    }
+
+    /**
+     * Estimates the number of seconds until the job is done from the bytes processed so far, or returns {@code null}
+     * when there is nothing to estimate it on yet.
+     */
+    public Long getEtaSeconds() {
+        if (state != State.RUNNING || bytesDone == 0 || bytesTotal == 0) {
+            return null;
+        }
+        double bytesPerSecond = bytesDone / elapsedSeconds();
+        return Math.round(Math.max(0, bytesTotal - bytesDone) / bytesPerSecond);
+    }
+
+    public boolean isFinished() {
+        return state == State.SUCCEEDED || state == State.FAILED || state == State.CANCELLED;
+    }
+
+    private double elapsedSeconds() {
+        if (startedNanos == 0) {
+            return 0;
+        }
+        long end = finishedNanos == 0 ? System.nanoTime() : finishedNanos;
+        return (end - startedNanos) / 1_000_000_000.0;
+    }
+
+    synchronized void attach(Future<?> future) {
+        this.future = future;
+        if (cancelRequested) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Asks the job to stop. A job that is still queued does not start anymore, a running job stops before the next
+     * file and does not publish anything.
+     *
+     * @return {@code false} when the job has already finished.
+     */
+    synchronized boolean cancel() {
+        if (isFinished()) {
+            return false;
+        }
+        cancelRequested = true;
+        if (future != null) {
+            future.cancel(true);
+        }
+        return true;
+    }
+
+    void running() {
+        startedAt = Instant.now();
+        startedNanos = System.nanoTime();
+        state = State.RUNNING;
+    }
+
+    void finished(State state, String message) {
+        finishedNanos = System.nanoTime();
+        finishedAt = Instant.now();
+        this.message = message;
+        this.state = state;
+    }
+
+    @Override
+    public void started(List<Path> files) {
+        long bytes = 0;
+        for (Path file : files) {
+            bytes += size(file);
+        }
+        filesTotal = files.size();
+        bytesTotal = bytes;
+    }
+
+    @Override
+    public void phaseStarted(String phase, List<Path> files) {
+        this.phase = phase;
+    }
+
+    @Override
+    public void fileProcessed(Path file, long registrations) {
+        // Only the processing thread writes these fields, the readers never see a partial update of one field
+        rows += registrations;
+        bytesDone += size(file);
+        filesDone++;
+    }
+
+    /**
+     * Returns the size of a file for the progress, or 0 when it cannot be read. A file that is gone is reported by the
+     * processor, the progress should not fail the job.
+     */
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.voteU.election.java.services.electiondata.memory;
+
+import com.voteU.election.java.exceptions.ResourceNotFoundException;
+import com.voteU.election.java.reader.DutchElectionReader;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reads elections in the background, so reading the EML files never blocks the thread of a request. Every read is an
+ * {@link IngestJob} that reports how far it is and can be cancelled. An election is read by at most one job at the
+ * same time, asking for an election that is already being read returns the job that reads it.<br>
+ * Finished jobs are kept for an hour, so their result can still be requested.
+ */
+@Slf4j
+@Service
+public class IngestJobService {
+    private static final Duration FINISHED_JOB_RETENTION = Duration.ofHours(1);
+
+    private final ElectionService electionService;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, IngestJob> jobsById = new ConcurrentHashMap<>();
+    private final Map<String, IngestJob> runningJobsByElectionId = new ConcurrentHashMap<>();
+
+    public IngestJobService(ElectionService electionService) {
+        this.electionService = electionService;
+    }
+
+    /**
+     * Starts a job that reads an election, unless the election is already being read.
+     *
+     * @return the new job, or the job that is already reading the election.
+     */
+    public IngestJob start(String electionId) {
+        removeFinishedJobs();
+        IngestJob job = new IngestJob(UUID.randomUUID().toString(), electionId);
+        IngestJob running = runningJobsByElectionId.putIfAbsent(electionId, job);
+        if (running != null) {
+            return running;
+        }
+        jobsById.put(job.getId(), job);
+        job.attach(executor.submit(() -> run(job)));
+        return job;
+    }
+
+    /**
+     * Starts a job for every election that is read by {@link DutchElectionReader#getAll()}.
+     */
+    public List<IngestJob> startAll() {
+        List<IngestJob> jobs = new ArrayList<>();
+        for (String electionId : DutchElectionReader.ELECTION_IDS) {
+            jobs.add(start(electionId));
+        }
+        return jobs;
+    }
+
+    public List<IngestJob> getJobs() {
+        return jobsById.values().stream()
+                .sorted(Comparator.comparing(IngestJob::getCreatedAt))
+                .toList();
+    }
+
+    public IngestJob getJob(String jobId) {
+        IngestJob job = jobsById.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Ingest job not found: " + jobId);
+        }
+        return job;
+    }
+
+    /**
+     * Cancels a job. The election that was read before stays published.
+     *
+     * @throws IllegalStateException when the job has already finished.
+     */
+    public IngestJob cancel(String jobId) {
+        IngestJob job = getJob(jobId);
+        if (!job.cancel()) {
+            throw new IllegalStateException("Ingest job %s has already finished".formatted(jobId));
+        }
+        return job;
+    }
+
+    private void run(IngestJob job) {
+        IngestJob.State state;
+        String message = null;
+        try {
+            if (job.isCancelRequested()) {
+                state = IngestJob.State.CANCELLED;
+            } else {
+                job.running();
+                log.info("Started ingest job {} for {}", job.getId(), job.getElectionId());
+                if (electionService.readElection(job.getElectionId(), job)) {
+                    state = IngestJob.State.SUCCEEDED;
+                } else if (job.isCancelRequested()) {
+                    state = IngestJob.State.CANCELLED;
+                } else {
+                    state = IngestJob.State.FAILED;
+                    message = "No election data found for " + job.getElectionId();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Ingest job {} for {} failed", job.getId(), job.getElectionId(), e);
+            state = IngestJob.State.FAILED;
+            message = e.getMessage();
+        }
+        // The election can be read again as soon as the job is seen as finished
+        runningJobsByElectionId.remove(job.getElectionId(), job);
+        job.finished(state, message);
+        log.info("Ingest job {} for {} {}", job.getId(), job.getElectionId(), state);
+    }
+
+    private void removeFinishedJobs() {
+        Instant threshold = Instant.now().minus(FINISHED_JOB_RETENTION);
+        jobsById.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(threshold));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
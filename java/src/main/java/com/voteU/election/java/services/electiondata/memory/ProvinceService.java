@@ -3,6 +3,7 @@ package com.voteU.election.java.services.electiondata.memory;
 import com.voteU.election.java.dtoCompact.CompactConstituency;
 import com.voteU.election.java.dtoCompact.CompactProvince;
 import com.voteU.election.java.dto.DropdownOptionDTO;
+import com.voteU.election.java.model.AggregateIndex;
 import com.voteU.election.java.model.Constituency;
 import com.voteU.election.java.model.Election;
 import com.voteU.election.java.model.Party;
@@ -86,10 +87,7 @@ public class ProvinceService {
         Election election = electionService.getElection(year);
         if (election == null) return new ArrayList<>();
 
-        Province province = election.getProvinces().stream()
-                .filter(p -> p.getId() == provinceId)
-                .findFirst()
-                .orElse(null);
+        Province province = aggregates(election).province(provinceId);
 
         if (province == null) return new ArrayList<>();
 
@@ -107,10 +105,7 @@ public class ProvinceService {
         Election election = electionService.getElection(year);
         if (election == null) return new ArrayList<>();
 
-        Province province = election.getProvinces().stream()
-                .filter(p -> p.getId() == provinceId)
-                .findFirst()
-                .orElse(null);
+        Province province = aggregates(election).province(provinceId);
 
         if (province == null) return new ArrayList<>();
 
@@ -163,7 +158,8 @@ public class ProvinceService {
     }
 
     /**
-     * Retrieves a map containing the total votes per party for a specified province in a given election year.
+     * Retrieves a map containing the total votes per party for a specified province in a given election year. The
+     * totals are taken from the {@link AggregateIndex} of the election, the parties are copies the caller may change.
      *
      * @param year the election year for which the data is being fetched
      * @param provinceId the unique identifier of the province within the election
@@ -173,14 +169,7 @@ public class ProvinceService {
         Election election = electionService.getElection(year);
         if (election == null) return Map.of();
 
-        Province province = election.getProvinces().stream()
-                .filter(p -> p.getId() == provinceId)
-                .findFirst()
-                .orElse(null);
-
-        if (province == null) return Map.of();
-
-        return getTotalVotesPerParty(province);
+        return aggregates(election).provinceParties(provinceId);
     }
 
     /**
@@ -195,7 +184,8 @@ public class ProvinceService {
 
 
     /**
-     * Calculates the total number of votes for a given province in a specific election year.
+     * Retrieves the total number of votes for a given province in a specific election year. The total is taken from the
+     * {@link AggregateIndex} of the election, so the authorities are not summed on every call.
      *
      * @param year the year of the election in which the votes need to be counted
      * @param provinceId the unique identifier of the province for which the votes are to be totaled
@@ -205,24 +195,20 @@ public class ProvinceService {
         Election election = electionService.getElection(year);
         if (election == null) return 0;
 
-        Province province = election.getProvinces().stream()
-                .filter(p -> p.getId() == provinceId)
-                .findFirst()
-                .orElse(null);
-
-        if (province == null) return 0;
-
-        int totalVotes = 0;
+        return aggregates(election).provinceVotes(provinceId);
+    }
 
-        for (var constituency : province.getConstituencies()) {
-            for (var authority : constituency.getAuthorities().values()) {
-                for (var party : authority.getParties().values()) {
-                    totalVotes += party.getVotes();
-                }
-            }
+    /**
+     * Returns the precomputed totals of an election, building them when the election was not read by the
+     * {@link com.voteU.election.java.reader.DutchElectionReader}.
+     */
+    private AggregateIndex aggregates(Election election) {
+        AggregateIndex aggregates = election.getAggregates();
+        if (aggregates == null) {
+            aggregates = AggregateIndex.of(election);
+            election.setAggregates(aggregates);
         }
-
-        return totalVotes;
+        return aggregates;
     }
 
 
@@ -0,0 +1,200 @@
+package com.voteU.election.java.services.electiondata.memory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voteU.election.java.model.Election;
+import com.voteU.election.java.utils.json.ElectionJsonWriter;
+import com.voteU.election.java.utils.json.Projection;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the encoded JSON of responses that only depend on a published election, so they are serialized once instead of
+ * on every request. Large responses are also kept gzipped, and are sent that way to clients that accept it.<br>
+ * Every response gets a strong ETag, and a request with a matching {@code If-None-Match} header is answered with
+ * {@code 304 Not Modified} and no body.<br>
+ * The responses of an election are kept together with the election they were written from. As soon as the election is
+ * read again and a new one is published, all its responses are dropped and written again on the next request.
+ */
+@Service
+public class ResponseCache {
+    /**
+     * Responses smaller than this are not gzipped, the saving is smaller than the cost of decompressing them.
+     */
+    static final int GZIP_THRESHOLD = 1024;
+    /**
+     * The maximum number of responses kept for one election, so requests for many unknown ids cannot fill the memory.
+     */
+    static final int MAX_RESPONSES_PER_ELECTION = 1024;
+
+    private final ElectionService electionService;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Responses> responsesByElectionId = new ConcurrentHashMap<>();
+
+    /**
+     * The encoded responses of one published election.
+     */
+    private record Responses(Election election, Map<String, Encoded> responsesByKey) {
+    }
+
+    /**
+     * An encoded response.
+     *
+     * @param gzip the gzipped JSON, or {@code null} when the JSON is too small to be worth it.
+     */
+    private record Encoded(byte[] json, byte[] gzip, String etag) {
+        String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+    }
+
+    @FunctionalInterface
+    private interface Encoder {
+        void write(OutputStream output) throws IOException;
+    }
+
+    public ResponseCache(ElectionService electionService, ObjectMapper objectMapper) {
+        this.electionService = electionService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Returns the response for a route of an election, serializing {@code value} with Jackson when it is not cached.
+     *
+     * @param request    the headers of the request, for {@code If-None-Match} and {@code Accept-Encoding}.
+     * @param electionId the election the response depends on.
+     * @param key        the route and its parameters, unique within the election.
+     * @param value      supplies the value of the response, only called when it is not cached.
+     */
+    public ResponseEntity<byte[]> get(HttpHeaders request, String electionId, String key, Supplier<?> value) {
+        return get(request, electionId, key, output -> objectMapper.writeValue(output, value.get()));
+    }
+
+    /**
+     * Returns the response for a route of an election, writing it with an {@link ElectionJsonWriter} when it is not
+     * cached.
+     *
+     * @see #get(HttpHeaders, String, String, Supplier)
+     */
+    public ResponseEntity<byte[]> get(HttpHeaders request, String electionId, String key, Projection projection, ElectionJsonWriter.Body body) {
+        return get(request, electionId, key, output -> {
+            try (ElectionJsonWriter writer = new ElectionJsonWriter(output, projection)) {
+                body.write(writer);
+            }
+        });
+    }
+
+    private ResponseEntity<byte[]> get(HttpHeaders request, String electionId, String key, Encoder encoder) {
+        Election election = electionService.getElection(electionId);
+        if (election == null) {
+            // Nothing is cached for an election that is not published, it may be published at any moment
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(encode(encoder).json());
+        }
+        Responses responses = responsesByElectionId.compute(electionId, (id, cached) ->
+                cached != null && cached.election() == election ? cached : new Responses(election, new ConcurrentHashMap<>()));
+        Encoded encoded = responses.responsesByKey().get(key);
+        if (encoded == null) {
+            encoded = encode(encoder);
+            if (responses.responsesByKey().size() < MAX_RESPONSES_PER_ELECTION) {
+                Encoded previous = responses.responsesByKey().putIfAbsent(key, encoded);
+                encoded = previous != null ? previous : encoded;
+            }
+        }
+        return respond(request, encoded);
+    }
+
+    private static ResponseEntity<byte[]> respond(HttpHeaders request, Encoded encoded) {
+        boolean gzip = encoded.gzip() != null && acceptsGzip(request);
+        String etag = gzip ? encoded.gzipEtag() : encoded.etag();
+        if (matches(request.getIfNoneMatch(), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(encoded.gzip());
+        }
+        return response.body(encoded.json());
+    }
+
+    /**
+     * Compares the ETags of an {@code If-None-Match} header the weak way, as that header requires.
+     */
+    private static boolean matches(Iterable<String> ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch) {
+            if (candidate.equals("*") || opaque(candidate).equals(opaque(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static boolean acceptsGzip(HttpHeaders request) {
+        for (String value : request.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : value.split(",")) {
+                String[] parts = coding.split(";");
+                if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                    return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Encoded encode(Encoder encoder) {
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            encoder.write(output);
+            byte[] json = output.toByteArray();
+            return new Encoded(json, gzip(json), etag(json));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        if (json.length < GZIP_THRESHOLD) {
+            return null;
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(json);
+        }
+        return output.size() < json.length ? output.toByteArray() : null;
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.voteU.election.java.utils.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.voteU.election.java.model.*;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Writes the election model as JSON straight to an output stream with a Jackson {@link JsonGenerator}, producing the
+ * same JSON as the default serialization of the model.<br>
+ * The tree is walked one object at a time and the generator is flushed after every constituency and authority, so a
+ * response is sent in chunks and never buffered as a whole. The polling stations of a {@link PollingStationVotes}
+ * store are views that are dropped as soon as they have been written, so the memory needed for a response does not
+ * grow with the size of the tree.<br>
+ * A {@link Projection} limits the levels and the properties that are written. The parts of the tree that are left
+ * out are not visited at all.
+ */
+public class ElectionJsonWriter implements AutoCloseable {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final JsonGenerator generator;
+    private final Projection projection;
+    /**
+     * The level of the objects that are being written, the requested objects are at level 0.
+     */
+    private int level;
+
+    /**
+     * Writes the body of a response.
+     */
+    @FunctionalInterface
+    public interface Body {
+        void write(ElectionJsonWriter writer) throws IOException;
+    }
+
+    /**
+     * Writes a nested value of an object.
+     */
+    @FunctionalInterface
+    private interface Nested {
+        void write() throws IOException;
+    }
+
+    public ElectionJsonWriter(OutputStream output) throws IOException {
+        this(output, Projection.ALL);
+    }
+
+    public ElectionJsonWriter(OutputStream output, Projection projection) throws IOException {
+        this.generator = JSON_FACTORY.createGenerator(output);
+        this.projection = projection;
+    }
+
+    /**
+     * Creates a JSON response that is written by {@code body} while it is sent. The response has no content length and
+     * is sent with chunked transfer encoding.
+     */
+    public static ResponseEntity<StreamingResponseBody> stream(Body body) {
+        return stream(Projection.ALL, body);
+    }
+
+    /**
+     * Creates a JSON response like {@link #stream(Body)}, that only contains the part of the tree of the projection.
+     */
+    public static ResponseEntity<StreamingResponseBody> stream(Projection projection, Body body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(output -> {
+                    try (ElectionJsonWriter writer = new ElectionJsonWriter(output, projection)) {
+                        body.write(writer);
+                    }
+                });
+    }
+
+    public void writeElections(Map<String, Election> elections) throws IOException {
+        if (elections == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        for (Map.Entry<String, Election> entry : elections.entrySet()) {
+            generator.writeFieldName(entry.getKey());
+            writeElection(entry.getValue());
+        }
+        generator.writeEndObject();
+    }
+
+    public void writeElection(Election election) throws IOException {
+        if (election == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        stringField("id", election.getId());
+        stringField("name", election.getName());
+        stringField("date", election.getDate());
+        numberField("votes", election.getVotes());
+        nested("provinces", () -> writeProvinces(election.getProvinces()));
+        nested("constituencies", () -> writeConstituencies(election.getConstituencies()));
+        nested("parties", () -> writeParties(election.getParties()));
+        generator.writeEndObject();
+    }
+
+    public void writeProvinces(Collection<Province> provinces) throws IOException {
+        if (provinces == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartArray();
+        for (Province province : provinces) {
+            writeProvince(province);
+        }
+        generator.writeEndArray();
+    }
+
+    public void writeProvince(Province province) throws IOException {
+        if (province == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        numberField("id", province.getId());
+        stringField("name", province.getName());
+        nested("constituencies", () -> writeConstituencies(province.getConstituencies()));
+        generator.writeEndObject();
+    }
+
+    public void writeConstituencies(Map<Integer, Constituency> constituencies) throws IOException {
+        if (constituencies == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        for (Map.Entry<Integer, Constituency> entry : constituencies.entrySet()) {
+            generator.writeFieldName(String.valueOf(entry.getKey()));
+            writeConstituency(entry.getValue());
+        }
+        generator.writeEndObject();
+    }
+
+    public void writeConstituencies(Collection<Constituency> constituencies) throws IOException {
+        if (constituencies == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartArray();
+        for (Constituency constituency : constituencies) {
+            writeConstituency(constituency);
+        }
+        generator.writeEndArray();
+    }
+
+    public void writeConstituency(Constituency constituency) throws IOException {
+        if (constituency == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        numberField("id", constituency.getId());
+        stringField("name", constituency.getName());
+        numberField("votes", constituency.getVotes());
+        numberField("provinceId", constituency.getProvinceId());
+        stringField("electionId", constituency.getElectionId());
+        nested("parties", () -> writeParties(constituency.getParties()));
+        nested("authorities", () -> writeAuthorities(constituency.getAuthorities()));
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    public void writeAuthorities(Map<String, Authority> authorities) throws IOException {
+        if (authorities == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        for (Map.Entry<String, Authority> entry : authorities.entrySet()) {
+            generator.writeFieldName(entry.getKey());
+            writeAuthority(entry.getValue());
+        }
+        generator.writeEndObject();
+    }
+
+    public void writeAuthority(Authority authority) throws IOException {
+        if (authority == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        stringField("id", authority.getId());
+        stringField("name", authority.getName());
+        numberField("votes", authority.getVotes());
+        stringField("electionId", authority.getElectionId());
+        nested("parties", () -> writeParties(authority.getParties()));
+        nested("pollingStations", () -> writePollingStations(authority.getPollingStations()));
+        numberField("constituencyId", authority.getConstituencyId());
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    public void writePollingStations(Map<String, PollingStation> pollingStations) throws IOException {
+        if (pollingStations == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        for (Map.Entry<String, PollingStation> entry : pollingStations.entrySet()) {
+            generator.writeFieldName(entry.getKey());
+            writePollingStation(entry.getValue());
+        }
+        generator.writeEndObject();
+    }
+
+    public void writePollingStations(Collection<PollingStation> pollingStations) throws IOException {
+        if (pollingStations == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartArray();
+        for (PollingStation pollingStation : pollingStations) {
+            writePollingStation(pollingStation);
+        }
+        generator.writeEndArray();
+    }
+
+    public void writePollingStation(PollingStation pollingStation) throws IOException {
+        if (pollingStation == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        stringField("id", pollingStation.getId());
+        stringField("name", pollingStation.getName());
+        stringField("zipCode", pollingStation.getZipCode());
+        numberField("votes", pollingStation.getVotes());
+        stringField("electionId", pollingStation.getElectionId());
+        stringField("authorityId", pollingStation.getAuthorityId());
+        // The parties of a view are only built when they are written
+        nested("parties", () -> writeParties(pollingStation.getParties()));
+        generator.writeEndObject();
+    }
+
+    private void writeParties(Map<Integer, Party> parties) throws IOException {
+        if (parties == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        for (Map.Entry<Integer, Party> entry : parties.entrySet()) {
+            generator.writeFieldName(String.valueOf(entry.getKey()));
+            writeParty(entry.getValue());
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeParty(Party party) throws IOException {
+        if (party == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        numberField("id", party.getId());
+        stringField("name", party.getName());
+        numberField("votes", party.getVotes());
+        numberField("percentage", party.getPercentage());
+        nested("candidates", () -> {
+            if (party.getCandidates() == null) {
+                generator.writeNull();
+                return;
+            }
+            generator.writeStartArray();
+            for (Candidate candidate : party.getCandidates()) {
+                writeCandidate(candidate);
+            }
+            generator.writeEndArray();
+        });
+        generator.writeEndObject();
+    }
+
+    private void writeCandidate(Candidate candidate) throws IOException {
+        if (candidate == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        numberField("id", candidate.getId());
+        stringField("firstName", candidate.getFirstName());
+        stringField("lastName", candidate.getLastName());
+        stringField("gender", candidate.getGender());
+        stringField("localityName", candidate.getLocalityName());
+        numberField("partyId", candidate.getPartyId());
+        numberField("votes", candidate.getVotes());
+        stringField("electionId", candidate.getElectionId());
+        generator.writeEndObject();
+    }
+
+    private void stringField(String name, String value) throws IOException {
+        if (projection.includes(name)) {
+            generator.writeStringField(name, value);
+        }
+    }
+
+    private void numberField(String name, int value) throws IOException {
+        if (projection.includes(name)) {
+            generator.writeNumberField(name, value);
+        }
+    }
+
+    private void numberField(String name, double value) throws IOException {
+        if (projection.includes(name)) {
+            generator.writeNumberField(name, value);
+        }
+    }
+
+    /**
+     * Writes a property that holds nested objects, when the projection includes both the property and the next level.
+     */
+    private void nested(String name, Nested value) throws IOException {
+        if (!projection.includes(name) || !projection.includesChildren(level)) {
+            return;
+        }
+        generator.writeFieldName(name);
+        level++;
+        try {
+            value.write();
+        } finally {
+            level--;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,55 @@
+package com.voteU.election.java.utils.json;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The part of the election tree that {@link ElectionJsonWriter} writes. The tree is pruned while it is written, nothing
+ * is copied.
+ *
+ * @param depth  the number of levels of nested objects that are written below the requested objects, for example the
+ *               authorities of a constituency are one level and their polling stations a second. With a depth of 0
+ *               only the plain values of the requested objects are written. {@link #UNLIMITED} writes every level.
+ * @param fields the names of the properties that are written, at every level, or {@code null} to write all of them.
+ */
+public record Projection(int depth, Set<String> fields) {
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+    public static final Projection ALL = new Projection(UNLIMITED, null);
+
+    /**
+     * Creates a projection from the {@code depth} and {@code fields} request parameters.
+     *
+     * @param depth  the depth, or {@code null} to write every level.
+     * @param fields a comma separated list of property names, or {@code null} or blank to write all properties.
+     * @throws IllegalArgumentException when the depth is negative.
+     */
+    public static Projection of(Integer depth, String fields) {
+        if (depth != null && depth < 0) {
+            throw new IllegalArgumentException("The depth cannot be negative: " + depth);
+        }
+        Set<String> names = fields == null || fields.isBlank() ? null : Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        return new Projection(depth == null ? UNLIMITED : depth, names);
+    }
+
+    /**
+     * Creates a projection that writes only the given properties of the requested objects.
+     */
+    public static Projection fields(String... fields) {
+        return new Projection(0, Set.of(fields));
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    /**
+     * Returns whether the objects nested in an object at the given level are written.
+     */
+    public boolean includesChildren(int level) {
+        return level < depth;
+    }
+}
@@ -4,9 +4,16 @@ import com.voteU.election.java.utils.PathUtils;
 
 import javax.xml.stream.XMLStreamException;
 import java.io.FileInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 /**
@@ -29,6 +36,11 @@ import java.util.logging.Logger;
  * {@link Map} containing all the information on that level, including the information at the higher levels,
  * is provided. The {@link Map} is specified as: Map&lt;String, String>. It is up to the transformer to convert any
  * numerical information from its {@link String} representation into its appropriate datatype.<br>
+ * The vote counts of the municipality files are the exception, they are passed as typed events to a
+ * {@link VoteTransformer}. A transformer that only implements {@link Transformer} still receives them as a {@link Map}.<br>
+ * <br>
+ * Within each step the files can be parsed in parallel, see {@link #DutchElectionProcessor(Transformer, int)}. The
+ * transformer is still called from a single thread and in the same order as with a sequential load.<br>
  * <br>
  * <em>It assumes that filenames have NOT been changed and that the content has not been altered!
  * The code assumes that there is no whitespace between the open and closing tags.</em><br>
@@ -44,7 +56,15 @@ import java.util.logging.Logger;
  */
 public class DutchElectionProcessor<E> {
     private static final Logger LOG = Logger.getLogger(DutchElectionProcessor.class.getName());
-    private final Transformer<E> transformer;
+    private final VoteTransformer<E> transformer;
+    private final int parallelism;
+    private ProcessingListener listener = ProcessingListener.NONE;
+    /**
+     * The number of calls this processor made to its transformer, used to report the progress of a file.
+     */
+    private long registrations;
+    private int filesProcessed;
+    private int filesToProcess;
 
     // Common attribute name that is use on multiple tags.
     public static final String ID = "Id";
@@ -121,7 +141,31 @@ public class DutchElectionProcessor<E> {
      *                    specific models.
      */
     public DutchElectionProcessor(Transformer<E> transformer) {
-        this.transformer = transformer;
+        this(transformer, 1);
+    }
+
+    /**
+     * Creates a new instance that will use the provided transformer, and parses up to {@code parallelism} files of
+     * the same kind at the same time.
+     *
+     * @param transformer the {@link Transformer} that will take care of transforming the data into the application
+     *                    specific models.
+     * @param parallelism the maximum number of files that are parsed concurrently. A value of 1 or less processes
+     *                    all files sequentially on the calling thread.
+     */
+    public DutchElectionProcessor(Transformer<E> transformer, int parallelism) {
+        this.transformer = transformer instanceof VoteTransformer<E> voteTransformer
+                ? voteTransformer : new MapTransformerAdapter<>(transformer);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the listener that is told how far the processing is.
+     *
+     * @param listener the listener, or {@code null} to ignore the progress.
+     */
+    public void setListener(ProcessingListener listener) {
+        this.listener = listener == null ? ProcessingListener.NONE : listener;
     }
 
     /**
@@ -145,57 +189,177 @@ public class DutchElectionProcessor<E> {
         Map<String, String> electionData = new HashMap<>();
         electionData.put(ELECTION_IDENTIFIER, electionId);
 
-        for (Path kiesKringFile : PathUtils.findFilesToScan(folderName, "Telling_%s_kieskring_".formatted(electionId))) {
-            System.out.println(folderName + kiesKringFile.toString());
-            XMLParser parser = new XMLParser(new FileInputStream(kiesKringFile.toString()));
-            processElection(electionData, parser);
-            processConstituency(electionData, parser);
-        }
+        List<Path> kiesKringFiles = PathUtils.findFilesToScan(folderName, "Telling_%s_kieskring_".formatted(electionId));
+        List<Path> municipalityFiles = PathUtils.findFilesToScan(folderName, "Telling_%s_gemeente_".formatted(electionId));
+        List<Path> totalVotesFiles = PathUtils.findFilesToScan(folderName, "Totaaltelling_%s.eml.xml".formatted(electionId));
+        List<Path> candidateFiles = PathUtils.findFilesToScan(folderName, "Kandidatenlijsten_%s_".formatted(electionId));
+
+        List<Path> allFiles = new ArrayList<>(kiesKringFiles);
+        allFiles.addAll(municipalityFiles);
+        allFiles.addAll(totalVotesFiles);
+        allFiles.addAll(candidateFiles);
+        filesProcessed = 0;
+        filesToProcess = allFiles.size();
+        listener.started(allFiles);
+
+        processFiles("constituencies", kiesKringFiles, electionData, (processor, data, parser) -> {
+            processor.processElection(data, parser);
+            processor.processConstituency(data, parser);
+        });
+
+        processFiles("municipalities", municipalityFiles, electionData, (processor, data, parser) -> {
+            processor.processElection(data, parser);
+            processor.processMunicipality(data, parser);
+        });
+
+        processFiles("nation", totalVotesFiles, electionData, (processor, data, parser) -> {
+            processor.processElection(data, parser);
+            processor.processNation(data, parser);
+        });
+
+        processFiles("candidates", candidateFiles, electionData, (processor, data, parser) -> {
+            processor.processElection(data, parser);
+            processor.processContest(data, parser);
+        });
 
-        List<Path> filesToScan = PathUtils.findFilesToScan(folderName, "Telling_%s_gemeente_".formatted(electionId));
-        int totalFiles = filesToScan.size();
-        int totalSteps = totalFiles * 2; // since we loop over them twice
-        int currentIndex = 0;
+        return transformer.retrieve();
+    }
 
-        for (Path authorityFile : filesToScan) {
-            double percentDone = ((currentIndex + 1) / (double) totalSteps) * 100;
-            System.out.printf("[%.2f%%] Processing %s (first pass)%n", percentDone, authorityFile.getFileName());
+    /**
+     * Runs one phase of the import: applies {@code step} to every file in {@code files}. The phases themselves are
+     * executed one after the other, because every phase depends on the data that has been registered by the phases
+     * before it (e.g. the authorities must exist before their reporting units can be registered).<br>
+     * <br>
+     * With a parallelism of 1 the files are processed one by one on the calling thread, directly on the transformer.
+     * With a higher parallelism, at most {@code parallelism} files are parsed at the same time on virtual threads, each
+     * into its own {@link RecordingTransformer}. The recordings are replayed on the transformer by the calling thread,
+     * strictly in the order of {@code files}. The transformer is therefore never called concurrently and the result is
+     * exactly the same as the result of a sequential load, regardless of the order in which the workers finish.
+     *
+     * <br>
+     * The processing stops with an {@link InterruptedIOException} before the next file when the calling thread has
+     * been interrupted. The transformer then holds the data of the files that have been processed so far.
+     *
+     * @param phase        the name of the phase, reported to the listener.
+     * @param files        the files to process, in the order they must be registered.
+     * @param electionData the information about the election gathered so far.
+     * @param step         the processing that must be applied to each file.
+     * @throws IOException        in case something goes wrong while reading one of the files.
+     * @throws XMLStreamException when one of the files has not the expected format.
+     */
+    private void processFiles(String phase, List<Path> files, Map<String, String> electionData, FileStep<E> step)
+            throws IOException, XMLStreamException {
+        listener.phaseStarted(phase, files);
+        if (parallelism <= 1 || files.size() <= 1) {
+            for (Path file : files) {
+                checkInterrupted();
+                long before = registrations;
+                try (InputStream input = new FileInputStream(file.toString())) {
+                    step.process(this, electionData, new XMLParser(input));
+                }
+                fileProcessed(file, registrations - before);
+            }
+            return;
+        }
 
+        Deque<Future<RecordingTransformer<E>>> inFlight = new ArrayDeque<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            try {
+                int submitted = 0;
+                for (int i = 0; i < files.size(); i++) {
+                    // Keep the window of files that are being parsed, or are parsed but not yet replayed, bounded.
+                    while (submitted < files.size() && inFlight.size() < parallelism) {
+                        Path file = files.get(submitted++);
+                        Map<String, String> fileElectionData = new HashMap<>(electionData);
+                        inFlight.add(executor.submit(() -> record(file, fileElectionData, step)));
+                    }
+                    checkInterrupted();
+                    RecordingTransformer<E> recording = awaitRecording(inFlight.poll());
+                    recording.replay(transformer);
+                    registrations += recording.size();
+                    fileProcessed(files.get(i), recording.size());
+                }
+            } catch (Throwable e) {
+                // Here, because closing the executor waits for the files that are still being parsed
+                inFlight.forEach(future -> future.cancel(true));
+                throw e;
+            }
+        }
+    }
 
-            XMLParser parser = new XMLParser(new FileInputStream(authorityFile.toString()));
-            processElection(electionData, parser);
-            processVotes(electionData, parser, "gemeente");
+    private void fileProcessed(Path file, long fileRegistrations) {
+        filesProcessed++;
+        LOG.fine("[%.2f%%] Processed %s".formatted(filesProcessed * 100.0 / filesToProcess, file.getFileName()));
+        listener.fileProcessed(file, fileRegistrations);
+    }
 
-            currentIndex++;
+    private static void checkInterrupted() throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Interrupted while processing the election files.");
         }
+    }
 
-        for (Path authorityFile : filesToScan) {
-            double percentDone = ((currentIndex + 1) / (double) totalSteps) * 100;
-          System.out.printf("[%.2f%%] Processing %s (second pass)%n", percentDone, authorityFile.getFileName());
+    /**
+     * Parses a single file into a new {@link RecordingTransformer}. Called on a worker thread.
+     */
+    private static <E> RecordingTransformer<E> record(Path file, Map<String, String> electionData, FileStep<E> step)
+            throws IOException, XMLStreamException {
+        RecordingTransformer<E> recording = new RecordingTransformer<>();
+        try (InputStream input = new InterruptibleInputStream(new FileInputStream(file.toString()))) {
+            step.process(new DutchElectionProcessor<>(recording), electionData, new XMLParser(input));
+        }
+        return recording;
+    }
 
-          XMLParser parser = new XMLParser(new FileInputStream(authorityFile.toString()));
-         processElection(electionData, parser);
-          processVotes2(electionData, parser);
+    /**
+     * Stops reading a file when its worker has been cancelled, so the parse ends at the next read instead of at the end
+     * of the file.
+     */
+    private static final class InterruptibleInputStream extends FilterInputStream {
+        InterruptibleInputStream(InputStream in) {
+            super(in);
+        }
 
-           currentIndex++;
-     }
+        @Override
+        public int read() throws IOException {
+            checkInterrupted();
+            return super.read();
+        }
 
-        for (Path totalVotesFile : PathUtils.findFilesToScan(folderName, "Totaaltelling_%s.eml.xml".formatted(electionId))) {
-            LOG.fine("Found: %s".formatted(totalVotesFile));
-            XMLParser parser = new XMLParser(new FileInputStream(totalVotesFile.toString()));
-            processElection(electionData, parser);
-            processNation(electionData, parser);
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkInterrupted();
+            return super.read(b, off, len);
         }
+    }
 
-        List<Path> files = PathUtils.findFilesToScan(folderName, "Kandidatenlijsten_%s_".formatted(electionId));
-        for (Path electionFile : files) {
-            LOG.fine("Found: %s".formatted(electionFile));
-            XMLParser parser = new XMLParser(new FileInputStream(electionFile.toString()));
-            processElection(electionData, parser);
-            processContest(electionData, parser);
+    private static <E> RecordingTransformer<E> awaitRecording(Future<RecordingTransformer<E>> future)
+            throws IOException, XMLStreamException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the election files to be parsed.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            } else if (cause instanceof XMLStreamException xmlStreamException) {
+                throw xmlStreamException;
+            } else if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Unable to process election file.", cause);
         }
+    }
 
-        return transformer.retrieve();
+    /**
+     * The processing that is applied to a single file within one phase of the import.
+     */
+    @FunctionalInterface
+    private interface FileStep<E> {
+        void process(DutchElectionProcessor<E> processor, Map<String, String> electionData, XMLParser parser)
+                throws XMLStreamException;
     }
 
     private void processElection(Map<String, String> electionData, XMLParser parser) throws XMLStreamException {
@@ -235,6 +399,7 @@ public class DutchElectionProcessor<E> {
                     electionData.put(ELECTION_DATE, electionDate);
                 }
 
+                registrations++;
                 transformer.registerElection(electionData);
 
                 parser.findAndAcceptEndTag(ELECTION_IDENTIFIER);
@@ -262,6 +427,7 @@ public class DutchElectionProcessor<E> {
             contestData.put(CONTEST_IDENTIFIER, String.valueOf(id));
             contestData.put(CONTEST_NAME, name);
 
+            registrations++;
             transformer.registerContest(contestData);
 
             parser.findBeginTag(AFFILIATION);
@@ -294,6 +460,7 @@ public class DutchElectionProcessor<E> {
             affiliationData.put(AFFILIATION_IDENTIFIER, String.valueOf(id));
             affiliationData.put(REGISTERED_NAME, name);
 
+            registrations++;
             transformer.registerAffiliation(affiliationData);
 
             parser.findBeginTag(CANDIDATE);
@@ -379,40 +546,10 @@ public class DutchElectionProcessor<E> {
         }
 
         // Register the candidate data with the transformer
+        registrations++;
         transformer.registerCandidate(candidateData);
     }
 
-    private void processVotes(Map<String, String> electionData, XMLParser parser, String fileType) throws XMLStreamException {
-        if (parser.findBeginTag(CONTEST)) {
-            int contestId = 0;
-            String contestName = null;
-            if (parser.findBeginTag(CONTEST_IDENTIFIER)) {
-                contestId = parser.getIntegerAttributeValue(null, ID, 0);
-                if (parser.findBeginTag(CONTEST_NAME)) {
-                    contestName = parser.getElementText();
-                    parser.findAndAcceptEndTag(CONTEST_NAME);
-                }
-                parser.findAndAcceptEndTag(CONTEST_IDENTIFIER);
-            }
-
-            Map<String, String> contestData = new HashMap<>(electionData);
-            contestData.put(CONTEST_IDENTIFIER, String.valueOf(contestId));
-            contestData.put(CONTEST_NAME, contestName);
-           // processReportingUnit(contestData, parser);
-
-            if (parser.findBeginTag(TOTAL_VOTES)) {
-                switch (fileType) {
-                    case "gemeente":
-                        System.out.println("Processing gemeente votes");
-                        processAuthority(contestData, parser);
-                        break;
-                }
-            }
-
-            parser.findAndAcceptEndTag(CONTEST);
-        }
-    }
-
     private void processNation(Map<String, String> contestData, XMLParser parser) throws XMLStreamException {
         if (parser.findBeginTag(TOTAL_VOTES)) {
             int affiliationId = 0;
@@ -446,6 +583,7 @@ public class DutchElectionProcessor<E> {
                         afTotalVotesData.put(REGISTERED_NAME, name);
                         afTotalVotesData.put(VALID_VOTES, String.valueOf(affiliationVotes));
                         afTotalVotesData.put("Source", "TOTAL"); // ✅ important!
+                        registrations++;
                         transformer.registerNation(afTotalVotesData);
                         registeredAffiliationIds.add(affiliationId);
                         break;
@@ -471,6 +609,7 @@ public class DutchElectionProcessor<E> {
                             caTotalVotesData.put("CandidateVotes", String.valueOf(candidateVoteCount));
                             caTotalVotesData.put(AFFILIATION_IDENTIFIER, String.valueOf(affiliationId));
                             caTotalVotesData.put("Source", "TOTAL"); // ✅ important!
+                            registrations++;
                             transformer.registerNation(caTotalVotesData);
                             //System.out.println(caTotalVotesData.get("CandidateVotes"));
                             registeredCandidateIds.add(candidateId);
@@ -582,94 +721,17 @@ public class DutchElectionProcessor<E> {
                 parser.findAndAcceptEndTag(TOTAL_VOTES);
             }
 
+            registrations++;
             transformer.registerConstituency(constituencyData, affiliationVotes, candidateVotes, affiliationNames);
         }
     }
 
-    private void processAuthority(Map<String, String> contestData, XMLParser parser) throws XMLStreamException {
-        if (parser.findBeginTag(TOTAL_VOTES)) {
-            // System.out.println("Parser at " + parser.getLocalName());
-            int affiliationId = 0;
-            String name = INVALID_NAME;
-            int affiliationVotes = 0;
-
-            Set<String> registeredCandidateAffiliations = new HashSet<>();
-
-            while (parser.findBeginTag(SELECTION)) {
-                //System.out.println("FOUND SELECTION TAG");
-                parser.next();
-                switch (parser.getLocalName()) {
-                    case AFFILIATION_IDENTIFIER:
-                        // System.out.println("Parser inside AFFILIATION_IDENTIFIER     tag...");
-                        Map<String, String> afTotalVotesData = new HashMap<>(contestData);
-                        affiliationId = parser.getIntegerAttributeValue(null, ID, 0);
-
-                        // Avoid processing the same affiliation multiple times
-                        if (afTotalVotesData.containsKey(String.valueOf(affiliationId))) {
-                            parser.findAndAcceptEndTag(AFFILIATION_IDENTIFIER);
-                            continue;
-                        }
-
-                        if (parser.findBeginTag(REGISTERED_NAME)) {
-                            name = parser.getElementText();
-                            parser.findAndAcceptEndTag(REGISTERED_NAME);
-                        }
-                        parser.findAndAcceptEndTag(AFFILIATION_IDENTIFIER);
-                        if (parser.findBeginTag(VALID_VOTES)) {
-                            affiliationVotes = Integer.parseInt(parser.getElementText());
-                            parser.findAndAcceptEndTag(VALID_VOTES);
-                        }
-                        afTotalVotesData.put(AFFILIATION_IDENTIFIER, String.valueOf(affiliationId));
-                        afTotalVotesData.put(REGISTERED_NAME, name);
-                        afTotalVotesData.put(VALID_VOTES, String.valueOf(affiliationVotes));
-                        afTotalVotesData.put("Source", "GEMEENTE");// ✅ important!
-                        transformer.registerAuthority(afTotalVotesData);
-                        break;
-                    case CANDIDATE:
-                        //System.out.println("Parser inside CANDIDATE tag...");
-                        Map<String, String> caTotalVotesData = new HashMap<>(contestData);
-                        int candidateId = 0;
-
-                        if (parser.findBeginTag(CANDIDATE_IDENTIFIER)) {
-                            // System.out.println("Found candidate identifier!");
-                            candidateId = parser.getIntegerAttributeValue(null, ID, 0);
-                        }
-                        // Form a composite key using both candidate ID and affiliation ID
-                        String candidateAffiliationKey = candidateId + "_" + affiliationId;
-
-                        parser.findAndAcceptEndTag(CANDIDATE);
-                        // If this candidate has already been registered, skip it
-                        if (registeredCandidateAffiliations.contains(candidateAffiliationKey)) {
-                            parser.findAndAcceptEndTag(VALID_VOTES);
-                            continue;
-                        }
-
-                        if (parser.findBeginTag(VALID_VOTES)) {
-                            int candidateVoteCount = Integer.parseInt(parser.getElementText());
-                            parser.findAndAcceptEndTag(VALID_VOTES);
-
-                            caTotalVotesData.put(CANDIDATE_IDENTIFIER, String.valueOf(candidateId));
-                            caTotalVotesData.put("CandidateVotes", String.valueOf(candidateVoteCount));
-                            caTotalVotesData.put(AFFILIATION_IDENTIFIER, String.valueOf(affiliationId));
-                            caTotalVotesData.put("Source", "GEMEENTE");// ✅ important!
-                            transformer.registerAuthority(caTotalVotesData);
-                            registeredCandidateAffiliations.add(candidateAffiliationKey);
-
-                        } else {
-                            LOG.warning("Missing %s tag, unable to register votes for candidate %s of affiliation %d.".formatted(VALID_VOTES, candidateId, affiliationId));
-                        }
-                        break;
-                    default:
-                        LOG.warning("Unknown element [%s] found!".formatted(parser.getLocalName()));
-                }
-
-                parser.findAndAcceptEndTag(SELECTION);
-            }
-            parser.findAndAcceptEndTag(TOTAL_VOTES);
-        }
-    }
-
-    private void processVotes2(Map<String, String> electionData, XMLParser parser) throws XMLStreamException {
+    /**
+     * Processes the contest of a municipality file in a single traversal. A municipality file contains the totals of
+     * the municipality followed by the votes per reporting unit, so the authority is always registered before any of
+     * its reporting units.
+     */
+    private void processMunicipality(Map<String, String> electionData, XMLParser parser) throws XMLStreamException {
         if (parser.findBeginTag(CONTEST)) {
             int contestId = 0;
             String contestName = null;
@@ -682,16 +744,85 @@ public class DutchElectionProcessor<E> {
                 parser.findAndAcceptEndTag(CONTEST_IDENTIFIER);
             }
 
-            Map<String, String> contestData = new HashMap<>(electionData);
-            contestData.put(CONTEST_IDENTIFIER, String.valueOf(contestId));
-            contestData.put(CONTEST_NAME, contestName);
-            processReportingUnit(contestData, parser);
+            VoteScope scope = voteScope(electionData, contestId, contestName);
+            if (parser.findBeginTag(TOTAL_VOTES)) {
+                processAuthorityTotals(scope, parser);
+            }
+            processReportingUnit(scope, parser);
             parser.findAndAcceptEndTag(CONTEST);
         }
     }
 
+    /**
+     * Registers the party and candidate totals of a municipality. It stops at the end of the {@code TotalVotes} element,
+     * so the parser is left in front of the first reporting unit. A candidate that is selected more than once for the
+     * same affiliation is only registered the first time, because the totals of an authority are summed as they are
+     * registered.
+     */
+    private void processAuthorityTotals(VoteScope scope, XMLParser parser) throws XMLStreamException {
+        int affiliationId = 0;
+        Set<String> registeredCandidateAffiliations = new HashSet<>();
+        parser.next();
+        while (parser.nextBeginTag(SELECTION)) {
+            parser.next();
+            switch (parser.getLocalName()) {
+                case AFFILIATION_IDENTIFIER:
+                    affiliationId = parser.getIntegerAttributeValue(null, ID, 0);
+                    String name = INVALID_NAME;
+                    int affiliationVotes = 0;
+                    if (parser.findBeginTag(REGISTERED_NAME)) {
+                        name = parser.getElementText();
+                        parser.findAndAcceptEndTag(REGISTERED_NAME);
+                    }
+                    parser.findAndAcceptEndTag(AFFILIATION_IDENTIFIER);
+                    if (parser.findBeginTag(VALID_VOTES)) {
+                        affiliationVotes = Integer.parseInt(parser.getElementText());
+                        parser.findAndAcceptEndTag(VALID_VOTES);
+                    }
+                    registrations++;
+                    transformer.registerAuthorityAffiliationVotes(scope, affiliationId, name, affiliationVotes);
+                    break;
+                case CANDIDATE:
+                    int candidateId = 0;
+                    if (parser.findBeginTag(CANDIDATE_IDENTIFIER)) {
+                        candidateId = parser.getIntegerAttributeValue(null, ID, 0);
+                    }
+                    parser.findAndAcceptEndTag(CANDIDATE);
+                    // Form a composite key using both candidate ID and affiliation ID
+                    String candidateAffiliationKey = candidateId + "_" + affiliationId;
+                    if (registeredCandidateAffiliations.contains(candidateAffiliationKey)) {
+                        LOG.warning("Candidate %s of affiliation %d is selected again, ignoring it."
+                                .formatted(candidateId, affiliationId));
+                    } else if (parser.findBeginTag(VALID_VOTES)) {
+                        int candidateVoteCount = Integer.parseInt(parser.getElementText());
+                        parser.findAndAcceptEndTag(VALID_VOTES);
+                        registrations++;
+                        transformer.registerAuthorityCandidateVotes(scope, affiliationId, candidateId, candidateVoteCount);
+                        registeredCandidateAffiliations.add(candidateAffiliationKey);
+                    } else {
+                        LOG.warning("Missing %s tag, unable to register votes for candidate %s of affiliation %d.".formatted(VALID_VOTES, candidateId, affiliationId));
+                    }
+                    break;
+                default:
+                    LOG.warning("Unknown element [%s] found!".formatted(parser.getLocalName()));
+            }
 
-    private void processReportingUnit(Map<String, String> contestData, XMLParser parser) throws XMLStreamException {
+            parser.findAndAcceptEndTag(SELECTION);
+        }
+        parser.findAndAcceptEndTag(TOTAL_VOTES);
+    }
+
+    /**
+     * Captures the election and authority information gathered from the header of the file, together with the
+     * contest, for the vote counts that follow.
+     */
+    private static VoteScope voteScope(Map<String, String> electionData, int contestId, String contestName) {
+        return new VoteScope(electionData.get(ELECTION_IDENTIFIER), electionData.get(ELECTION_NAME),
+                electionData.get(ELECTION_CATEGORY), electionData.get(ELECTION_DATE), contestId, contestName,
+                electionData.get(AUTHORITY_IDENTIFIER), electionData.get(AUTHORITY_NAME));
+    }
+
+    private void processReportingUnit(VoteScope scope, XMLParser parser) throws XMLStreamException {
         while (parser.findBeginTag(REPORTING_UNIT_VOTES)) {
             String reportingUnitId = null;
             String reportingUnitName = null;
@@ -713,10 +844,7 @@ public class DutchElectionProcessor<E> {
                 }
             }
 
-            Map<String, String> reportingUnitData = new HashMap<>(contestData);
-            reportingUnitData.put(REPORTING_UNIT_IDENTIFIER, reportingUnitId);
-            reportingUnitData.put(REPORTING_UNIT_NAME, reportingUnitName);
-            reportingUnitData.put(ZIPCODE, zipCode);
+            ReportingUnit reportingUnit = new ReportingUnit(scope, reportingUnitId, reportingUnitName, zipCode);
 
             int affiliationId = 0;
             while (parser.getLocalName().equals(SELECTION)) {
@@ -729,14 +857,12 @@ public class DutchElectionProcessor<E> {
                             parser.findAndAcceptEndTag(REGISTERED_NAME);
                         }
                         parser.findAndAcceptEndTag(AFFILIATION_IDENTIFIER);
-                        // Skipping the total ValidVotes for this affiliation
                         if (parser.findBeginTag(VALID_VOTES)) {
                             int voteCount = Integer.parseInt(parser.getElementText());
                             parser.findAndAcceptEndTag(VALID_VOTES);
-                            reportingUnitData.put("AffiliationVotes", String.valueOf(voteCount));
+                            registrations++;
+                            transformer.registerPollingStationAffiliationVotes(reportingUnit, affiliationId, name, voteCount);
                         }
-                        reportingUnitData.put(AFFILIATION_IDENTIFIER, String.valueOf(affiliationId));
-                        reportingUnitData.put(REGISTERED_NAME, name);
                         break;
                     case CANDIDATE:
                         int candidateId = 0;
@@ -748,11 +874,8 @@ public class DutchElectionProcessor<E> {
                         if (parser.findBeginTag(VALID_VOTES)) {
                             int voteCount = Integer.parseInt(parser.getElementText());
                             parser.findAndAcceptEndTag(VALID_VOTES);
-
-                            reportingUnitData.put(CANDIDATE_IDENTIFIER, String.valueOf(candidateId));
-                            reportingUnitData.put("CandidateVotes", String.valueOf(voteCount));
-
-                            transformer.registerPollingStation(reportingUnitData);
+                            registrations++;
+                            transformer.registerPollingStationCandidateVotes(reportingUnit, affiliationId, candidateId, voteCount);
                         } else {
                             LOG.warning("Missing %s tag, unable to register votes for candidate %d of affiliation %d within reporting unit %s.".formatted(VALID_VOTES, candidateId, affiliationId, reportingUnitName));
                         }
@@ -0,0 +1,150 @@
+package com.voteU.election.java.utils.xml;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Offers a {@link Transformer} that only knows the {@link Map} based methods as a {@link VoteTransformer}. The typed
+ * vote events are converted into the same maps that the {@link DutchElectionProcessor} used to create itself:
+ * <ul>
+ *     <li>the totals of a municipality are passed to {@link Transformer#registerAuthority(Map)} with a
+ *     {@code Source} of {@code GEMEENTE}, one new map per affiliation or candidate.</li>
+ *     <li>the votes of a reporting unit are passed to {@link Transformer#registerPollingStation(Map)} once per
+ *     candidate. One map is used per reporting unit, it holds the latest affiliation and its votes as
+ *     {@code AffiliationVotes} and the candidate and its votes as {@code CandidateVotes}.</li>
+ * </ul>
+ *
+ * @param <E> the type of the result returned by the wrapped transformer.
+ */
+class MapTransformerAdapter<E> implements VoteTransformer<E> {
+    static final String SOURCE = "Source";
+    static final String SOURCE_MUNICIPALITY = "GEMEENTE";
+    static final String AFFILIATION_VOTES = "AffiliationVotes";
+    static final String CANDIDATE_VOTES = "CandidateVotes";
+
+    private final Transformer<E> transformer;
+    private ReportingUnit reportingUnit;
+    private Map<String, String> reportingUnitData;
+
+    MapTransformerAdapter(Transformer<E> transformer) {
+        this.transformer = transformer;
+    }
+
+    @Override
+    public void registerAuthorityAffiliationVotes(VoteScope scope, int affiliationId, String registeredName, int votes) {
+        Map<String, String> afTotalVotesData = toMap(scope);
+        afTotalVotesData.put(DutchElectionProcessor.AFFILIATION_IDENTIFIER, String.valueOf(affiliationId));
+        afTotalVotesData.put(DutchElectionProcessor.REGISTERED_NAME, registeredName);
+        afTotalVotesData.put(DutchElectionProcessor.VALID_VOTES, String.valueOf(votes));
+        afTotalVotesData.put(SOURCE, SOURCE_MUNICIPALITY);
+        transformer.registerAuthority(afTotalVotesData);
+    }
+
+    @Override
+    public void registerAuthorityCandidateVotes(VoteScope scope, int affiliationId, int candidateId, int votes) {
+        Map<String, String> caTotalVotesData = toMap(scope);
+        caTotalVotesData.put(DutchElectionProcessor.CANDIDATE_IDENTIFIER, String.valueOf(candidateId));
+        caTotalVotesData.put(CANDIDATE_VOTES, String.valueOf(votes));
+        caTotalVotesData.put(DutchElectionProcessor.AFFILIATION_IDENTIFIER, String.valueOf(affiliationId));
+        caTotalVotesData.put(SOURCE, SOURCE_MUNICIPALITY);
+        transformer.registerAuthority(caTotalVotesData);
+    }
+
+    @Override
+    public void registerPollingStationAffiliationVotes(ReportingUnit reportingUnit, int affiliationId, String registeredName, int votes) {
+        Map<String, String> data = reportingUnitData(reportingUnit);
+        data.put(AFFILIATION_VOTES, String.valueOf(votes));
+        data.put(DutchElectionProcessor.AFFILIATION_IDENTIFIER, String.valueOf(affiliationId));
+        data.put(DutchElectionProcessor.REGISTERED_NAME, registeredName);
+    }
+
+    @Override
+    public void registerPollingStationCandidateVotes(ReportingUnit reportingUnit, int affiliationId, int candidateId, int votes) {
+        Map<String, String> data = reportingUnitData(reportingUnit);
+        data.put(DutchElectionProcessor.CANDIDATE_IDENTIFIER, String.valueOf(candidateId));
+        data.put(CANDIDATE_VOTES, String.valueOf(votes));
+        transformer.registerPollingStation(data);
+    }
+
+    /**
+     * Returns the map of the given reporting unit, a new map is started as soon as the events of the next reporting
+     * unit arrive.
+     */
+    private Map<String, String> reportingUnitData(ReportingUnit reportingUnit) {
+        if (this.reportingUnit != reportingUnit) {
+            this.reportingUnit = reportingUnit;
+            reportingUnitData = toMap(reportingUnit.scope());
+            reportingUnitData.put(DutchElectionProcessor.REPORTING_UNIT_IDENTIFIER, reportingUnit.id());
+            reportingUnitData.put(DutchElectionProcessor.REPORTING_UNIT_NAME, reportingUnit.name());
+            reportingUnitData.put(DutchElectionProcessor.ZIPCODE, reportingUnit.zipCode());
+        }
+        return reportingUnitData;
+    }
+
+    private static Map<String, String> toMap(VoteScope scope) {
+        Map<String, String> data = new HashMap<>();
+        data.put(DutchElectionProcessor.ELECTION_IDENTIFIER, scope.electionId());
+        if (scope.electionName() != null) {
+            data.put(DutchElectionProcessor.ELECTION_NAME, scope.electionName());
+        }
+        if (scope.electionCategory() != null) {
+            data.put(DutchElectionProcessor.ELECTION_CATEGORY, scope.electionCategory());
+        }
+        if (scope.electionDate() != null) {
+            data.put(DutchElectionProcessor.ELECTION_DATE, scope.electionDate());
+        }
+        data.put(DutchElectionProcessor.AUTHORITY_IDENTIFIER, scope.authorityId());
+        data.put(DutchElectionProcessor.AUTHORITY_NAME, scope.authorityName());
+        data.put(DutchElectionProcessor.CONTEST_IDENTIFIER, String.valueOf(scope.contestId()));
+        data.put(DutchElectionProcessor.CONTEST_NAME, scope.contestName());
+        return data;
+    }
+
+    @Override
+    public void registerElection(Map<String, String> electionData) {
+        transformer.registerElection(electionData);
+    }
+
+    @Override
+    public void registerContest(Map<String, String> contestData) {
+        transformer.registerContest(contestData);
+    }
+
+    @Override
+    public void registerAffiliation(Map<String, String> affiliationData) {
+        transformer.registerAffiliation(affiliationData);
+    }
+
+    @Override
+    public void registerCandidate(Map<String, String> candidateData) {
+        transformer.registerCandidate(candidateData);
+    }
+
+    @Override
+    public void registerNation(Map<String, String> votesData) {
+        transformer.registerNation(votesData);
+    }
+
+    @Override
+    public void registerConstituency(Map<String, String> constituencyData,
+                                     Map<Integer, Integer> affiliationVotes,
+                                     Map<Integer, Map<Integer, Integer>> candidateVotes,
+                                     Map<Integer, String> affiliationNames) {
+        transformer.registerConstituency(constituencyData, affiliationVotes, candidateVotes, affiliationNames);
+    }
+
+    @Override
+    public void registerPollingStation(Map<String, String> pollingStationData) {
+        transformer.registerPollingStation(pollingStationData);
+    }
+
+    @Override
+    public void registerAuthority(Map<String, String> authorityData) {
+        transformer.registerAuthority(authorityData);
+    }
+
+    @Override
+    public E retrieve() {
+        return transformer.retrieve();
+    }
+}
@@ -0,0 +1,42 @@
+package com.voteU.election.java.utils.xml;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Is told by {@link DutchElectionProcessor} how far it is with processing the files of an election. The methods are
+ * called on the thread that calls {@link DutchElectionProcessor#processResults}, and do nothing by default.
+ */
+public interface ProcessingListener {
+    /**
+     * A listener that ignores the progress.
+     */
+    ProcessingListener NONE = new ProcessingListener() {
+    };
+
+    /**
+     * Called once, before the first file is processed.
+     *
+     * @param files every file that will be processed, in all phases. A file that is processed twice is listed twice.
+     */
+    default void started(List<Path> files) {
+    }
+
+    /**
+     * Called when the processor starts with the next phase, for example the municipality files.
+     *
+     * @param phase the name of the phase.
+     * @param files the files of the phase.
+     */
+    default void phaseStarted(String phase, List<Path> files) {
+    }
+
+    /**
+     * Called after a file has been registered with the transformer.
+     *
+     * @param file          the file.
+     * @param registrations the number of calls to the transformer the file resulted in.
+     */
+    default void fileProcessed(Path file, long registrations) {
+    }
+}
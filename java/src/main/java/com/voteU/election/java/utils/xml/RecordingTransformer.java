@@ -0,0 +1,122 @@
+package com.voteU.election.java.utils.xml;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Transformer} that does not transform anything itself, but records every call so it can be replayed
+ * later on the real transformer. It is used by {@link DutchElectionProcessor} when files are parsed in parallel:
+ * each worker parses one file into its own recording, and the recordings are replayed one after the other in the
+ * original file order. That way the application transformer only ever sees a single writer and receives exactly the
+ * same sequence of calls as during a sequential load.<br>
+ * <br>
+ * The processor re-uses some of its maps between calls, so every map is copied when it is recorded. The typed vote
+ * events only hold immutable records and primitives and are recorded as they are.
+ *
+ * @param <E> the type returned by the transformer the recording is replayed on.
+ */
+class RecordingTransformer<E> implements VoteTransformer<E> {
+    private final List<Consumer<VoteTransformer<E>>> calls = new ArrayList<>();
+
+    /**
+     * Replays all recorded calls, in the order they were recorded, on the given transformer.
+     *
+     * @param target the transformer that should receive the recorded calls.
+     */
+    void replay(VoteTransformer<E> target) {
+        for (Consumer<VoteTransformer<E>> call : calls) {
+            call.accept(target);
+        }
+    }
+
+    /**
+     * Returns the number of recorded calls.
+     */
+    int size() {
+        return calls.size();
+    }
+
+    @Override
+    public void registerElection(Map<String, String> electionData) {
+        Map<String, String> data = new HashMap<>(electionData);
+        calls.add(target -> target.registerElection(data));
+    }
+
+    @Override
+    public void registerContest(Map<String, String> contestData) {
+        Map<String, String> data = new HashMap<>(contestData);
+        calls.add(target -> target.registerContest(data));
+    }
+
+    @Override
+    public void registerAffiliation(Map<String, String> affiliationData) {
+        Map<String, String> data = new HashMap<>(affiliationData);
+        calls.add(target -> target.registerAffiliation(data));
+    }
+
+    @Override
+    public void registerCandidate(Map<String, String> candidateData) {
+        Map<String, String> data = new HashMap<>(candidateData);
+        calls.add(target -> target.registerCandidate(data));
+    }
+
+    @Override
+    public void registerNation(Map<String, String> votesData) {
+        Map<String, String> data = new HashMap<>(votesData);
+        calls.add(target -> target.registerNation(data));
+    }
+
+    @Override
+    public void registerConstituency(Map<String, String> constituencyData,
+                                     Map<Integer, Integer> affiliationVotes,
+                                     Map<Integer, Map<Integer, Integer>> candidateVotes,
+                                     Map<Integer, String> affiliationNames) {
+        Map<String, String> data = new HashMap<>(constituencyData);
+        calls.add(target -> target.registerConstituency(data, affiliationVotes, candidateVotes, affiliationNames));
+    }
+
+    @Override
+    public void registerPollingStation(Map<String, String> pollingStationData) {
+        Map<String, String> data = new HashMap<>(pollingStationData);
+        calls.add(target -> target.registerPollingStation(data));
+    }
+
+    @Override
+    public void registerAuthority(Map<String, String> authorityData) {
+        Map<String, String> data = new HashMap<>(authorityData);
+        calls.add(target -> target.registerAuthority(data));
+    }
+
+    @Override
+    public void registerAuthorityAffiliationVotes(VoteScope scope, int affiliationId, String registeredName, int votes) {
+        calls.add(target -> target.registerAuthorityAffiliationVotes(scope, affiliationId, registeredName, votes));
+    }
+
+    @Override
+    public void registerAuthorityCandidateVotes(VoteScope scope, int affiliationId, int candidateId, int votes) {
+        calls.add(target -> target.registerAuthorityCandidateVotes(scope, affiliationId, candidateId, votes));
+    }
+
+    @Override
+    public void registerPollingStationAffiliationVotes(ReportingUnit reportingUnit, int affiliationId, String registeredName, int votes) {
+        calls.add(target -> target.registerPollingStationAffiliationVotes(reportingUnit, affiliationId, registeredName, votes));
+    }
+
+    @Override
+    public void registerPollingStationCandidateVotes(ReportingUnit reportingUnit, int affiliationId, int candidateId, int votes) {
+        calls.add(target -> target.registerPollingStationCandidateVotes(reportingUnit, affiliationId, candidateId, votes));
+    }
+
+    /**
+     * A recording has no result of its own, the result is produced by the transformer it is replayed on.
+     *
+     * @return always {@code null}.
+     */
+    @Override
+    public E retrieve() {
+        return null;
+    }
+}
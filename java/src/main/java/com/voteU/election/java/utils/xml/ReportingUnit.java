@@ -0,0 +1,13 @@
+package com.voteU.election.java.utils.xml;
+
+/**
+ * A reporting unit ('stembureau') within a municipality file. One instance is created per reporting unit and shared
+ * by all the vote counts of that reporting unit.
+ *
+ * @param scope   the election, contest and authority the reporting unit belongs to.
+ * @param id      the identifier of the reporting unit, for example <i>0014::SB1</i>.
+ * @param name    the name of the reporting unit, without the zipcode.
+ * @param zipCode the zipcode of the reporting unit without spaces, or an empty {@code String} when it is unknown.
+ */
+public record ReportingUnit(VoteScope scope, String id, String name, String zipCode) {
+}
@@ -0,0 +1,19 @@
+package com.voteU.election.java.utils.xml;
+
+/**
+ * The election, contest and managing authority that a set of vote counts belongs to. One instance is created per
+ * contest in a file and shared by every vote count within that contest, so the vote counts themselves can be passed
+ * to a {@link VoteTransformer} as plain {@code int}'s.
+ *
+ * @param electionId       the identifier of the election, for example <i>TK2023</i>.
+ * @param electionName     the name of the election, or {@code null} when the file doesn't contain it.
+ * @param electionCategory the category of the election, or {@code null} when the file doesn't contain it.
+ * @param electionDate     the date of the election, or {@code null} when the file doesn't contain it.
+ * @param contestId        the identifier of the contest ('kieskring').
+ * @param contestName      the name of the contest, or {@code null} when the file doesn't contain it.
+ * @param authorityId      the zero padded identifier of the managing authority, for example <i>0014</i>.
+ * @param authorityName    the name of the managing authority.
+ */
+public record VoteScope(String electionId, String electionName, String electionCategory, String electionDate,
+                        int contestId, String contestName, String authorityId, String authorityName) {
+}
@@ -0,0 +1,59 @@
+package com.voteU.election.java.utils.xml;
+
+import java.util.Map;
+
+/**
+ * A {@link Transformer} that receives the vote counts of the municipality files as typed events instead of as a
+ * {@link Map}. The municipality files hold by far the most rows of the data set, one per candidate per reporting unit,
+ * so these events pass the identifiers and votes as {@code int}'s and share the surrounding {@link VoteScope} and
+ * {@link ReportingUnit} between all the rows they contain.<br>
+ * <br>
+ * When the {@link DutchElectionProcessor} is given a transformer that does not implement this interface, the events
+ * are converted into the {@link Map}'s that are passed to {@link #registerAuthority(Map)} and
+ * {@link #registerPollingStation(Map)} instead.
+ *
+ * @param <E> the type of the result returned by {@link #retrieve()}.
+ */
+public interface VoteTransformer<E> extends Transformer<E> {
+    /**
+     * Called once per affiliation with the total number of votes of that affiliation within a municipality.
+     *
+     * @param scope          the election, contest and authority of the votes.
+     * @param affiliationId  the identifier of the affiliation.
+     * @param registeredName the registered name of the affiliation.
+     * @param votes          the number of valid votes for the affiliation.
+     */
+    void registerAuthorityAffiliationVotes(VoteScope scope, int affiliationId, String registeredName, int votes);
+
+    /**
+     * Called once per candidate with the total number of votes of that candidate within a municipality. It is always
+     * called after {@link #registerAuthorityAffiliationVotes} for the affiliation of the candidate.
+     *
+     * @param scope         the election, contest and authority of the votes.
+     * @param affiliationId the identifier of the affiliation of the candidate.
+     * @param candidateId   the identifier of the candidate within the affiliation.
+     * @param votes         the number of valid votes for the candidate.
+     */
+    void registerAuthorityCandidateVotes(VoteScope scope, int affiliationId, int candidateId, int votes);
+
+    /**
+     * Called once per affiliation per reporting unit with the number of votes of that affiliation.
+     *
+     * @param reportingUnit  the reporting unit of the votes.
+     * @param affiliationId  the identifier of the affiliation.
+     * @param registeredName the registered name of the affiliation.
+     * @param votes          the number of valid votes for the affiliation.
+     */
+    void registerPollingStationAffiliationVotes(ReportingUnit reportingUnit, int affiliationId, String registeredName, int votes);
+
+    /**
+     * Called once per candidate per reporting unit with the number of votes of that candidate. It is always called
+     * after {@link #registerPollingStationAffiliationVotes} for the affiliation of the candidate.
+     *
+     * @param reportingUnit the reporting unit of the votes.
+     * @param affiliationId the identifier of the affiliation of the candidate.
+     * @param candidateId   the identifier of the candidate within the affiliation.
+     * @param votes         the number of valid votes for the candidate.
+     */
+    void registerPollingStationCandidateVotes(ReportingUnit reportingUnit, int affiliationId, int candidateId, int votes);
+}
@@ -0,0 +1,191 @@
+-- The tables the ElectionDataInserter writes an election into, and the entities in entities/electiondata read.
+--
+-- The primary key of every table is its natural key, starting with election_id. InnoDB stores the rows in the order of
+-- the primary key, so the lookups and the keyset pages of one election, a polling station or an authority read one
+-- range of rows that holds all their columns, and the ON DUPLICATE KEY UPDATE of the inserter finds the row it
+-- replaces. The id of the entities is kept as an AUTO_INCREMENT column with a unique key of its own, which includes
+-- election_id so the tables can be partitioned by it (V2).
+--
+-- The ids are at most 64 characters, because every secondary index repeats the primary key. There are no foreign
+-- keys, which a partitioned table cannot have, the inserter writes the rows a row refers to first.
+--
+-- The election tables of a database that was created before these migrations, with only the id as primary key, are
+-- renamed to <table>_legacy by LegacyElectionTablesMigration (version 0.1) first, so they are created again here. They
+-- are filled again with POST /elections/{electionId}/persist.
+
+CREATE TABLE IF NOT EXISTS elections (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    election_id VARCHAR(64)  NOT NULL,
+    name        VARCHAR(255) NOT NULL,
+    date        VARCHAR(32)  NOT NULL,
+    votes       INT          NOT NULL DEFAULT 0,
+    PRIMARY KEY (election_id),
+    CONSTRAINT uk_elections_id UNIQUE (id)
+);
+
+CREATE TABLE IF NOT EXISTS parties (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    election_id VARCHAR(64)  NOT NULL,
+    party_id    INT          NOT NULL,
+    name        VARCHAR(255) NOT NULL,
+    PRIMARY KEY (election_id, party_id),
+    CONSTRAINT uk_parties_id UNIQUE (id, election_id)
+);
+
+CREATE TABLE IF NOT EXISTS provinces (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    election_id VARCHAR(64)  NOT NULL,
+    province_id INT          NOT NULL,
+    name        VARCHAR(255) NOT NULL,
+    votes       INT          NOT NULL DEFAULT 0,
+    PRIMARY KEY (election_id, province_id),
+    CONSTRAINT uk_provinces_id UNIQUE (id, election_id)
+);
+
+CREATE TABLE IF NOT EXISTS candidates (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    election_id   VARCHAR(64)  NOT NULL,
+    party_id      INT          NOT NULL,
+    candidate_id  INT          NOT NULL,
+    first_name    VARCHAR(255),
+    last_name     VARCHAR(255),
+    gender        VARCHAR(16),
+    locality_name VARCHAR(255),
+    PRIMARY KEY (election_id, party_id, candidate_id),
+    CONSTRAINT uk_candidates_id UNIQUE (id, election_id)
+);
+
+CREATE TABLE IF NOT EXISTS national_party_votes (
+    id          BIGINT      NOT NULL AUTO_INCREMENT,
+    election_id VARCHAR(64) NOT NULL,
+    party_id    INT         NOT NULL,
+    votes       INT         NOT NULL DEFAULT 0,
+    PRIMARY KEY (election_id, party_id),
+    CONSTRAINT uk_national_party_votes_id UNIQUE (id, election_id)
+);
+
+CREATE TABLE IF NOT EXISTS national_candidate_votes (
+    id           BIGINT      NOT NULL AUTO_INCREMENT,
+    election_id  VARCHAR(64) NOT NULL,
+    party_id     INT         NOT NULL,
+    candidate_id INT         NOT NULL,
+    votes        INT         NOT NULL DEFAULT 0,
+    PRIMARY KEY (election_id, party_id, candidate_id),
+    CONSTRAINT uk_national_candidate_votes_id UNIQUE (id, election_id)
+);
+
+CREATE TABLE IF NOT EXISTS constituencies (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    election_id     VARCHAR(64)  NOT NULL,
+    constituency_id INT          NOT NULL,
+    province_id     INT,
+    name            VARCHAR(255) NOT NULL,
+    votes           INT          NOT NULL DEFAULT 0,
+    PRIMARY KEY (election_id, constituency_id),
+    CONSTRAINT uk_constituencies_id UNIQUE (id, election_id)
+);
+
+CREATE TABLE IF NOT EXISTS constituency_party_votes (
+    id              BIGINT      NOT NULL AUTO_INCREMENT,
+    election_id     VARCHAR(64) NOT NULL,
+    constituency_id INT         NOT NULL,
+    party_id        INT         NOT NULL,
+    votes           INT         NOT NULL DEFAULT 0,
+    PRIMARY KEY (election_id, constituency_id, party_id),
+    CONSTRAINT uk_constituency_party_votes_id UNIQUE (id, election_id)
+);
+
+CREATE TABLE IF NOT EXISTS constituency_candidate_votes (
+    id              BIGINT      NOT NULL AUTO_INCREMENT,
+    election_id     VARCHAR(64) NOT NULL,
+    constituency_id INT         NOT NULL,
+    party_id        INT         NOT NULL,
+    candidate_id    INT         NOT NULL,
+    votes           INT         NOT NULL DEFAULT 0,
+    PRIMARY KEY (election_id, constituency_id, party_id, candidate_id),
+    CONSTRAINT uk_constituency_candidate_votes_id UNIQUE (id, election_id)
+);
+
+CREATE TABLE IF NOT EXISTS authorities (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    election_id     VARCHAR(64)  NOT NULL,
+    authority_id    VARCHAR(64)  NOT NULL,
+    constituency_id INT          NOT NULL,
+    name            VARCHAR(255) NOT NULL,
+    votes           INT          NOT NULL DEFAULT 0,
+    PRIMARY KEY (election_id, authority_id),
+    CONSTRAINT uk_authorities_id UNIQUE (id, election_id)
+);
+
+-- The authorities of a constituency, page by page
+CREATE INDEX idx_authorities_constituency ON authorities (election_id, constituency_id, authority_id);
+
+CREATE TABLE IF NOT EXISTS authority_party_votes (
+    id           BIGINT      NOT NULL AUTO_INCREMENT,
+    election_id  VARCHAR(64) NOT NULL,
+    authority_id VARCHAR(64) NOT NULL,
+    party_id     INT         NOT NULL,
+    votes        INT         NOT NULL DEFAULT 0,
+    PRIMARY KEY (election_id, authority_id, party_id),
+    CONSTRAINT uk_authority_party_votes_id UNIQUE (id, election_id)
+);
+
+CREATE TABLE IF NOT EXISTS authority_candidate_votes (
+    id           BIGINT      NOT NULL AUTO_INCREMENT,
+    election_id  VARCHAR(64) NOT NULL,
+    authority_id VARCHAR(64) NOT NULL,
+    party_id     INT         NOT NULL,
+    candidate_id INT         NOT NULL,
+    votes        INT         NOT NULL DEFAULT 0,
+    PRIMARY KEY (election_id, authority_id, party_id, candidate_id),
+    CONSTRAINT uk_authority_candidate_votes_id UNIQUE (id, election_id)
+);
+
+CREATE TABLE IF NOT EXISTS pollingstations (
+    id                BIGINT       NOT NULL AUTO_INCREMENT,
+    election_id       VARCHAR(64)  NOT NULL,
+    pollingstation_id VARCHAR(64)  NOT NULL,
+    authority_id      VARCHAR(64)  NOT NULL,
+    authority_name    VARCHAR(255),
+    name              VARCHAR(255),
+    votes             INT          NOT NULL DEFAULT 0,
+    zipcode           VARCHAR(16),
+    PRIMARY KEY (election_id, pollingstation_id),
+    CONSTRAINT uk_pollingstations_id UNIQUE (id, election_id)
+);
+
+-- The search of the polling stations by the start of their zip code
+CREATE INDEX idx_pollingstations_zipcode ON pollingstations (election_id, zipcode);
+-- The polling stations of an authority, page by page
+CREATE INDEX idx_pollingstations_authority ON pollingstations (election_id, authority_id, pollingstation_id);
+
+CREATE TABLE IF NOT EXISTS pollingstation_party_votes (
+    id                BIGINT      NOT NULL AUTO_INCREMENT,
+    election_id       VARCHAR(64) NOT NULL,
+    pollingstation_id VARCHAR(64) NOT NULL,
+    party_id          INT         NOT NULL,
+    votes             INT         NOT NULL DEFAULT 0,
+    PRIMARY KEY (election_id, pollingstation_id, party_id),
+    CONSTRAINT uk_pollingstation_party_votes_id UNIQUE (id, election_id)
+);
+
+CREATE TABLE IF NOT EXISTS pollingstation_candidate_votes (
+    id                BIGINT      NOT NULL AUTO_INCREMENT,
+    election_id       VARCHAR(64) NOT NULL,
+    pollingstation_id VARCHAR(64) NOT NULL,
+    party_id          INT         NOT NULL,
+    candidate_id      INT         NOT NULL,
+    votes             INT         NOT NULL DEFAULT 0,
+    PRIMARY KEY (election_id, pollingstation_id, party_id, candidate_id),
+    CONSTRAINT uk_pollingstation_candidate_votes_id UNIQUE (id, election_id)
+);
+
+-- See PersistenceJournal
+CREATE TABLE IF NOT EXISTS persist_journal (
+    election_id  VARCHAR(255) NOT NULL,
+    table_name   VARCHAR(64)  NOT NULL,
+    chunk        INT          NOT NULL,
+    chunk_size   INT          NOT NULL,
+    rows_written BIGINT       NOT NULL,
+    PRIMARY KEY (election_id, table_name, chunk)
+);
@@ -0,0 +1,4 @@
+-- The fingerprint of the rows of a chunk in the order the inserter produced them, see PersistenceJournal. A chunk that
+-- is produced with other rows when a run is resumed is written again instead of being skipped.
+
+ALTER TABLE persist_journal ADD COLUMN fingerprint BIGINT NOT NULL DEFAULT 0;
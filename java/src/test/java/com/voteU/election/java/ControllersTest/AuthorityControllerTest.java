@@ -1,5 +1,7 @@
 package com.voteU.election.java.ControllersTest;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.voteU.election.java.controller.electiondata.memory.AuthorityController;
 import com.voteU.election.java.model.Authority;
 import com.voteU.election.java.model.Candidate;
@@ -10,7 +12,12 @@ import org.junit.jupiter.api.Test;
 import org.mockito.*;
 
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -62,16 +69,23 @@ class AuthorityControllerTest {
         candidates.add(candidate);
     }
 
+    private static JsonNode render(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+        return new ObjectMapper().readTree(output.toByteArray());
+    }
+
     @Test
-    void testGetAuthoritiesByConstituencyId() {
+    void testGetAuthoritiesByConstituencyId() throws IOException {
         when(authorityService.getAuthoritiesByConstituencyId(year, constituencyId)).thenReturn(authorities);
 
-        Map<String, Authority> result = authorityController.getAuthoritiesByConstituencyId(year, constituencyId);
+        ResponseEntity<StreamingResponseBody> response = authorityController.getAuthoritiesByConstituencyId(year, constituencyId, null, null);
+        JsonNode result = render(response);
 
-        assertNotNull(result);
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
         assertEquals(1, result.size());
-        assertTrue(result.containsKey(authorityId));
-        assertEquals("Authority Name", result.get(authorityId).getName());
+        assertTrue(result.has(authorityId));
+        assertEquals("Authority Name", result.get(authorityId).get("name").asText());
         verify(authorityService, times(1)).getAuthoritiesByConstituencyId(year, constituencyId);
     }
 
@@ -80,29 +94,57 @@ class AuthorityControllerTest {
         when(authorityService.getAuthoritiesByConstituencyId(year, constituencyId)).thenThrow(new RuntimeException("DB error"));
 
         ResponseStatusException exception = assertThrows(ResponseStatusException.class,
-                () -> authorityController.getAuthoritiesByConstituencyId(year, constituencyId));
+                () -> authorityController.getAuthoritiesByConstituencyId(year, constituencyId, null, null));
         assertEquals(500, exception.getStatusCode().value());
         assertTrue(exception.getReason().contains("Failed to fetch authorities"));
     }
 
     @Test
-    void testGetAuthoritiesByConstituencyIdCompact() {
-        when(authorityService.getAuthoritiesByConstituencyIdCompact(year, constituencyId)).thenReturn(authorities);
+    void testGetAuthoritiesByConstituencyIdCompact() throws IOException {
+        when(authorityService.getAuthoritiesByConstituencyId(year, constituencyId)).thenReturn(authorities);
 
-        Map<String, Authority> result = authorityController.getAuthoritiesByConstituencyIdCompact(year, constituencyId);
+        JsonNode result = render(authorityController.getAuthoritiesByConstituencyIdCompact(year, constituencyId));
 
-        assertNotNull(result);
-        verify(authorityService, times(1)).getAuthoritiesByConstituencyIdCompact(year, constituencyId);
+        assertEquals(Set.of("id", "name"), fieldNames(result.get(authorityId)));
+        assertEquals("Authority Name", result.get(authorityId).get("name").asText());
+        verify(authorityService, times(1)).getAuthoritiesByConstituencyId(year, constituencyId);
     }
 
     @Test
-    void testGetAuthorityByIdFound() {
+    void testGetAuthorityByIdWithProjection() throws IOException {
+        Party party = new Party(partyId, "Party Name");
+        party.setVotes(42);
+        party.getCandidates().addAll(candidates);
+        sampleAuthority.getParties().put(partyId, party);
         when(authorityService.getAuthorityById(year, constituencyId, authorityId)).thenReturn(sampleAuthority);
 
-        Authority result = authorityController.getAuthorityById(year, constituencyId, authorityId);
+        JsonNode result = render(authorityController.getAuthorityById(year, constituencyId, authorityId, 1, "name,parties,votes"));
 
-        assertNotNull(result);
-        assertEquals("Authority Name", result.getName());
+        assertEquals(Set.of("name", "parties", "votes"), fieldNames(result));
+        assertEquals(Set.of("name", "votes"), fieldNames(result.get("parties").get(String.valueOf(partyId))));
+        assertEquals(42, result.get("parties").get(String.valueOf(partyId)).get("votes").asInt());
+    }
+
+    @Test
+    void testNegativeDepthIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> authorityController.getAuthoritiesByConstituencyId(year, constituencyId, -1, null));
+    }
+
+    private static Set<String> fieldNames(JsonNode node) {
+        Set<String> names = new HashSet<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    @Test
+    void testGetAuthorityByIdFound() throws IOException {
+        when(authorityService.getAuthorityById(year, constituencyId, authorityId)).thenReturn(sampleAuthority);
+
+        JsonNode result = render(authorityController.getAuthorityById(year, constituencyId, authorityId, null, null));
+
+        assertEquals(authorityId, result.get("id").asText());
+        assertEquals("Authority Name", result.get("name").asText());
         verify(authorityService, times(1)).getAuthorityById(year, constituencyId, authorityId);
     }
 
@@ -111,7 +153,7 @@ class AuthorityControllerTest {
         when(authorityService.getAuthorityById(year, constituencyId, authorityId)).thenReturn(null);
 
         ResponseStatusException exception = assertThrows(ResponseStatusException.class,
-                () -> authorityController.getAuthorityById(year, constituencyId, authorityId));
+                () -> authorityController.getAuthorityById(year, constituencyId, authorityId, null, null));
         assertEquals(404, exception.getStatusCode().value());
         assertEquals("Authority not found", exception.getReason());
     }
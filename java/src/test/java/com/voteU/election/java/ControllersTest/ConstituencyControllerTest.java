@@ -1,14 +1,23 @@
 package com.voteU.election.java.ControllersTest;
 
-import com.voteU.election.java.dtoCompact.CompactConstituency;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.voteU.election.java.controller.electiondata.memory.ConstituencyController;
 import com.voteU.election.java.model.Constituency;
 import com.voteU.election.java.model.Party;
 import com.voteU.election.java.services.electiondata.memory.ConstituencyService;
+import com.voteU.election.java.services.electiondata.memory.ElectionService;
+import com.voteU.election.java.services.electiondata.memory.ResponseCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,20 +29,22 @@ class ConstituencyControllerTest {
     @Mock
     private ConstituencyService constituencyService;
 
-    @InjectMocks
+    @Mock
+    private ElectionService electionService;
+
     private ConstituencyController constituencyController;
 
     private final String year = "2023";
     private final Integer constituencyId = 1;
 
     private Map<Integer, Constituency> constituencies;
-    private Map<Integer, CompactConstituency> compactConstituencies;
     private Map<Integer, Party> parties;
     private Constituency sampleConstituency;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        constituencyController = new ConstituencyController(constituencyService, new ResponseCache(electionService, new ObjectMapper()));
 
         sampleConstituency = new Constituency(8, "Zwolle");
         sampleConstituency.setId(constituencyId);
@@ -42,12 +53,6 @@ class ConstituencyControllerTest {
         constituencies = new HashMap<>();
         constituencies.put(constituencyId, sampleConstituency);
 
-        compactConstituencies = new HashMap<>();
-        CompactConstituency compact = new CompactConstituency(4, "Utrecht");
-        compact.setId(constituencyId);
-        compact.setName("Compact Sample");
-        compactConstituencies.put(constituencyId, compact);
-
         parties = new HashMap<>();
         Party party = new Party(8, "Party Z");
         party.setId(10);
@@ -55,40 +60,50 @@ class ConstituencyControllerTest {
         parties.put(party.getId(), party);
     }
 
+    private static JsonNode render(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+        return new ObjectMapper().readTree(output.toByteArray());
+    }
+
     @Test
-    void testGetConstituenciesByYear() {
+    void testGetConstituenciesByYear() throws IOException {
         when(constituencyService.getConstituenciesByYear(year)).thenReturn(constituencies);
 
-        Map<Integer, Constituency> result = constituencyController.getConstituenciesByYear(year);
+        ResponseEntity<StreamingResponseBody> response = constituencyController.getConstituenciesByYear(year, null, null);
+        JsonNode result = render(response);
 
-        assertNotNull(result);
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
         assertEquals(1, result.size());
-        assertTrue(result.containsKey(constituencyId));
-        assertEquals("Sample Constituency", result.get(constituencyId).getName());
+        assertTrue(result.has(String.valueOf(constituencyId)));
+        assertEquals("Sample Constituency", result.get(String.valueOf(constituencyId)).get("name").asText());
         verify(constituencyService, times(1)).getConstituenciesByYear(year);
     }
 
     @Test
-    void testGetConstituenciesByYearCompact() {
-        when(constituencyService.getConstituenciesByYearCompact(year)).thenReturn(compactConstituencies);
+    void testGetConstituenciesByYearCompact() throws IOException {
+        sampleConstituency.getParties().putAll(parties);
+        when(constituencyService.getConstituenciesByYear(year)).thenReturn(constituencies);
 
-        Map<Integer, CompactConstituency> result = constituencyController.getConstituenciesByYearCompact(year);
+        JsonNode result = new ObjectMapper().readTree(constituencyController.getConstituenciesByYearCompact(year, new HttpHeaders()).getBody());
 
-        assertNotNull(result);
         assertEquals(1, result.size());
-        assertTrue(result.containsKey(constituencyId));
-        assertEquals("Compact Sample", result.get(constituencyId).getName());
-        verify(constituencyService, times(1)).getConstituenciesByYearCompact(year);
+        JsonNode compact = result.get(String.valueOf(constituencyId));
+        assertEquals("Sample Constituency", compact.get("name").asText());
+        assertFalse(compact.has("parties"));
+        assertFalse(compact.has("authorities"));
+        assertTrue(compact.has("provinceId"));
+        verify(constituencyService, times(1)).getConstituenciesByYear(year);
     }
 
     @Test
-    void testGetConstituencyById() {
+    void testGetConstituencyById() throws IOException {
         when(constituencyService.getConstituencyById(year, constituencyId)).thenReturn(sampleConstituency);
 
-        Constituency result = constituencyController.getConstituencyById(year, constituencyId);
+        JsonNode result = render(constituencyController.getConstituencyById(year, constituencyId, null, null));
 
-        assertNotNull(result);
-        assertEquals("Sample Constituency", result.getName());
+        assertEquals(constituencyId, result.get("id").asInt());
+        assertEquals("Sample Constituency", result.get("name").asText());
         verify(constituencyService, times(1)).getConstituencyById(year, constituencyId);
     }
 
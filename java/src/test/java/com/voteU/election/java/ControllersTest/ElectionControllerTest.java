@@ -1,14 +1,26 @@
 package com.voteU.election.java.ControllersTest;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.voteU.election.java.dtoCompact.CompactElection;
 import com.voteU.election.java.controller.electiondata.memory.ElectionController;
 import com.voteU.election.java.model.Election;
 import com.voteU.election.java.model.Party;
 import com.voteU.election.java.services.electiondata.memory.ElectionService;
+import com.voteU.election.java.services.electiondata.memory.IngestJob;
+import com.voteU.election.java.services.electiondata.memory.IngestJobService;
+import com.voteU.election.java.services.electiondata.memory.ResponseCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
-
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -19,7 +31,9 @@ class ElectionControllerTest {
     @Mock
     private ElectionService electionService;
 
-    @InjectMocks
+    @Mock
+    private IngestJobService ingestJobService;
+
     private ElectionController electionController;
 
     private final String electionId = "2023";
@@ -32,6 +46,7 @@ class ElectionControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        electionController = new ElectionController(electionService, ingestJobService, new ResponseCache(electionService, new ObjectMapper()));
 
         sampleElection = new Election("TK2021", "Tweede Kamer 2021", "2021-03-17");
         sampleElection.setId(electionId);
@@ -51,69 +66,105 @@ class ElectionControllerTest {
         partyMap.put(party.getId(), party);
     }
 
+    private static JsonNode render(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+        return new ObjectMapper().readTree(output.toByteArray());
+    }
+
     @Test
     void testReadResults() {
-        when(electionService.readElections()).thenReturn(true);
+        List<IngestJob> jobs = List.of(new IngestJob("job-1", "TK2021"), new IngestJob("job-2", "TK2023"));
+        when(ingestJobService.startAll()).thenReturn(jobs);
 
-        boolean result = electionController.readResults();
+        List<IngestJob> result = electionController.readResults();
 
-        assertTrue(result);
-        verify(electionService, times(1)).readElections();
+        assertEquals(jobs, result);
+        verify(ingestJobService, times(1)).startAll();
+        verifyNoInteractions(electionService);
     }
 
     @Test
     void testReadResultsElection() {
-        when(electionService.readElection(electionId)).thenReturn(true);
+        IngestJob job = new IngestJob("job-1", electionId);
+        when(ingestJobService.start(electionId)).thenReturn(job);
 
-        boolean result = electionController.readResultsElection(electionId);
+        IngestJob result = electionController.readResultsElection(electionId);
+
+        assertSame(job, result);
+        verify(ingestJobService, times(1)).start(electionId);
+        verifyNoInteractions(electionService);
+    }
+
+    @Test
+    void testCancelIngestJob() {
+        IngestJob job = new IngestJob("job-1", electionId);
+        when(ingestJobService.cancel("job-1")).thenReturn(job);
 
-        assertTrue(result);
-        verify(electionService, times(1)).readElection(electionId);
+        assertSame(job, electionController.cancelIngestJob("job-1"));
+        verify(ingestJobService, times(1)).cancel("job-1");
     }
 
     @Test
-    void testGetAllElections() {
+    void testGetAllElections() throws IOException {
         when(electionService.getAll()).thenReturn(electionMap);
 
-        Map<String, Election> result = electionController.getAllElections();
+        ResponseEntity<StreamingResponseBody> response = electionController.getAllElections(null, null);
+        JsonNode result = render(response);
 
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
         assertEquals(1, result.size());
-        assertTrue(result.containsKey(electionId));
-        assertEquals("General Election 2023", result.get(electionId).getName());
+        assertTrue(result.has(electionId));
+        assertEquals("General Election 2023", result.get(electionId).get("name").asText());
         verify(electionService, times(1)).getAll();
     }
 
     @Test
-    void testGetElection() {
+    void testGetElection() throws IOException {
         when(electionService.getElection(electionId)).thenReturn(sampleElection);
 
-        Election result = electionController.getElection(electionId);
+        JsonNode result = render(electionController.getElection(electionId, null, null));
 
-        assertNotNull(result);
-        assertEquals("General Election 2023", result.getName());
+        assertEquals(electionId, result.get("id").asText());
+        assertEquals("General Election 2023", result.get("name").asText());
         verify(electionService, times(1)).getElection(electionId);
     }
 
     @Test
-    void testGetCompactElection() {
+    void testGetCompactElection() throws IOException {
         when(electionService.getCompactElection(electionId)).thenReturn(sampleCompactElection);
 
-        CompactElection result = electionController.getCompactElection(electionId);
+        JsonNode result = new ObjectMapper().readTree(electionController.getCompactElection(electionId, new HttpHeaders()).getBody());
 
-        assertNotNull(result);
-        assertEquals("General Election 2023", result.getName());
+        assertEquals("General Election 2023", result.get("name").asText());
+        assertEquals(electionId, result.get("stringId").asText());
         verify(electionService, times(1)).getCompactElection(electionId);
     }
 
     @Test
-    void testGetAllPartiesByElection() {
+    void testGetAllPartiesByElection() throws IOException {
         when(electionService.getAllPartiesByElection(electionId)).thenReturn(partyMap);
 
-        Map<Integer, Party> result = electionController.getAllPartiesByElection(electionId);
+        JsonNode result = new ObjectMapper().readTree(electionController.getAllPartiesByElection(electionId, new HttpHeaders()).getBody());
 
         assertEquals(1, result.size());
-        assertTrue(result.containsKey(1));
-        assertEquals("Party A", result.get(1).getName());
+        assertEquals("Party A", result.get("1").get("name").asText());
+        verify(electionService, times(1)).getAllPartiesByElection(electionId);
+    }
+
+    @Test
+    void testGetAllPartiesByElectionIsCachedWithAnETag() {
+        when(electionService.getElection(electionId)).thenReturn(sampleElection);
+        when(electionService.getAllPartiesByElection(electionId)).thenReturn(partyMap);
+
+        ResponseEntity<byte[]> first = electionController.getAllPartiesByElection(electionId, new HttpHeaders());
+        HttpHeaders revalidation = new HttpHeaders();
+        revalidation.setIfNoneMatch(first.getHeaders().getETag());
+        ResponseEntity<byte[]> second = electionController.getAllPartiesByElection(electionId, revalidation);
+
+        assertNotNull(first.getHeaders().getETag());
+        assertEquals(HttpStatus.NOT_MODIFIED, second.getStatusCode());
+        assertNull(second.getBody());
         verify(electionService, times(1)).getAllPartiesByElection(electionId);
     }
 }
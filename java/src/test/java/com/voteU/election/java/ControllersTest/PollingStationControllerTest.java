@@ -1,6 +1,7 @@
 package com.voteU.election.java.ControllersTest;
 
-import com.voteU.election.java.dtoCompact.CompactPollingStation;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.voteU.election.java.controller.electiondata.memory.PollingStationController;
 import com.voteU.election.java.model.Party;
 import com.voteU.election.java.model.PollingStation;
@@ -8,7 +9,11 @@ import com.voteU.election.java.services.electiondata.memory.PollingStationServic
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,7 +33,6 @@ class PollingStationControllerTest {
     private final String pollingStationId = "poll456";
 
     private PollingStation samplePollingStation;
-    private CompactPollingStation sampleCompactPollingStation;
     private Map<String, PollingStation> pollingStationMap;
     private Map<Integer, Party> partyMap;
 
@@ -40,10 +44,6 @@ class PollingStationControllerTest {
         samplePollingStation.setId(pollingStationId);
         samplePollingStation.setName("Station A");
 
-        sampleCompactPollingStation = new CompactPollingStation("PS1", "Station A", "1234AB");
-        sampleCompactPollingStation.setId(pollingStationId);
-        sampleCompactPollingStation.setName("Station A");
-
         pollingStationMap = new HashMap<>();
         pollingStationMap.put(pollingStationId, samplePollingStation);
 
@@ -54,40 +54,49 @@ class PollingStationControllerTest {
         partyMap.put(party.getId(), party);
     }
 
+    private static JsonNode render(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+        return new ObjectMapper().readTree(output.toByteArray());
+    }
+
     @Test
-    void testGetPollingStationsByAuthorityId() {
+    void testGetPollingStationsByAuthorityId() throws IOException {
         when(pollingStationService.getPollingStationsByAuthorityId(electionId, constituencyId, authorityId))
                 .thenReturn(pollingStationMap);
 
-        Map<String, PollingStation> result = pollingStationController.getPollingStationsByAuthorityId(electionId, constituencyId, authorityId);
+        JsonNode result = render(pollingStationController.getPollingStationsByAuthorityId(electionId, constituencyId, authorityId, null, null));
 
         assertEquals(1, result.size());
-        assertTrue(result.containsKey(pollingStationId));
-        assertEquals("Station A", result.get(pollingStationId).getName());
+        assertTrue(result.has(pollingStationId));
+        assertEquals("Station A", result.get(pollingStationId).get("name").asText());
         verify(pollingStationService, times(1)).getPollingStationsByAuthorityId(electionId, constituencyId, authorityId);
     }
 
     @Test
-    void testGetPollingStationsByAuthorityIdCompact() {
-        when(pollingStationService.getPollingStationsByAuthorityIdCompact(electionId, constituencyId, authorityId))
-                .thenReturn(List.of(sampleCompactPollingStation));
+    void testGetPollingStationsByAuthorityIdCompact() throws IOException {
+        samplePollingStation.setParties(partyMap);
+        when(pollingStationService.getPollingStationsByAuthorityId(electionId, constituencyId, authorityId))
+                .thenReturn(pollingStationMap);
 
-        List<CompactPollingStation> result = pollingStationController.getPollingStationsByAuthorityIdCompact(electionId, constituencyId, authorityId);
+        JsonNode result = render(pollingStationController.getPollingStationsByAuthorityIdCompact(electionId, constituencyId, authorityId));
 
+        assertTrue(result.isArray());
         assertEquals(1, result.size());
-        assertEquals(pollingStationId, result.getFirst().getId());
-        verify(pollingStationService, times(1)).getPollingStationsByAuthorityIdCompact(electionId, constituencyId, authorityId);
+        assertEquals(pollingStationId, result.get(0).get("id").asText());
+        assertEquals("1234AB", result.get(0).get("zipCode").asText());
+        assertEquals(3, result.get(0).size());
+        verify(pollingStationService, times(1)).getPollingStationsByAuthorityId(electionId, constituencyId, authorityId);
     }
 
     @Test
-    void testGetPollingStationById() {
+    void testGetPollingStationById() throws IOException {
         when(pollingStationService.getPollingStationById(electionId, constituencyId, authorityId, pollingStationId))
                 .thenReturn(samplePollingStation);
 
-        PollingStation result = pollingStationController.getPollingStationById(electionId, constituencyId, authorityId, pollingStationId);
+        JsonNode result = render(pollingStationController.getPollingStationById(electionId, constituencyId, authorityId, pollingStationId, null, null));
 
-        assertNotNull(result);
-        assertEquals("Station A", result.getName());
+        assertEquals("Station A", result.get("name").asText());
         verify(pollingStationService, times(1)).getPollingStationById(electionId, constituencyId, authorityId, pollingStationId);
     }
 
@@ -1,15 +1,23 @@
 package com.voteU.election.java.ControllersTest;
 
-import com.voteU.election.java.dtoCompact.CompactConstituency;
-import com.voteU.election.java.dtoCompact.CompactProvince;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.voteU.election.java.controller.electiondata.memory.ProvinceController;
 import com.voteU.election.java.model.Constituency;
 import com.voteU.election.java.model.Party;
 import com.voteU.election.java.model.Province;
+import com.voteU.election.java.services.electiondata.memory.ElectionService;
 import com.voteU.election.java.services.electiondata.memory.ProvinceService;
+import com.voteU.election.java.services.electiondata.memory.ResponseCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -20,96 +28,110 @@ class ProvinceControllerTest {
     @Mock
     private ProvinceService provinceService;
 
-    @InjectMocks
+    @Mock
+    private ElectionService electionService;
+
     private ProvinceController provinceController;
 
     private final String year = "2023";
 
     private Province province;
-    private CompactProvince compactProvince;
     private Constituency constituency;
-    private CompactConstituency compactConstituency;
     private Party party;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        provinceController = new ProvinceController(provinceService, new ResponseCache(electionService, new ObjectMapper()));
 
         province = new Province();
         province.setId(1);
         province.setName("Test Province");
 
-        compactProvince = new CompactProvince(5, "Groningen");
-        compactProvince.setId(1);
-        compactProvince.setName("Compact Province");
-
         constituency = new Constituency(3, "Utrecht");
         constituency.setId(10);
         constituency.setName("Test Constituency");
 
-        compactConstituency = new CompactConstituency(9,"Amsterdam");
-        compactConstituency.setId(10);
-        compactConstituency.setName("Compact Constituency");
-
         party = new Party(8, "VDD");
         party.setId(100);
         party.setName("Test Party");
+
+        province.getConstituencies().add(constituency);
+    }
+
+    private static JsonNode render(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+        return new ObjectMapper().readTree(output.toByteArray());
     }
 
     @Test
-    void testGetProvinces() {
+    void testGetProvinces() throws IOException {
         List<Province> provinces = Collections.singletonList(province);
         when(provinceService.getProvinces(year)).thenReturn(provinces);
 
-        List<Province> result = provinceController.getProvinces(year);
+        JsonNode result = render(provinceController.getProvinces(year, null, null));
 
         assertEquals(1, result.size());
-        assertEquals("Test Province", result.get(0).getName());
+        assertEquals("Test Province", result.get(0).get("name").asText());
+        assertEquals("Test Constituency", result.get(0).get("constituencies").get(0).get("name").asText());
     }
 
     @Test
-    void testGetCompactProvinces() {
-        List<CompactProvince> compactProvinces = Collections.singletonList(compactProvince);
-        when(provinceService.getCompactProvinces(year)).thenReturn(compactProvinces);
+    void testGetProvincesWithDepth() throws IOException {
+        when(provinceService.getProvinces(year)).thenReturn(Collections.singletonList(province));
 
-        List<CompactProvince> result = provinceController.getCompactProvinces(year);
+        JsonNode result = render(provinceController.getProvinces(year, 0, null));
+
+        assertEquals("Test Province", result.get(0).get("name").asText());
+        assertFalse(result.get(0).has("constituencies"));
+    }
+
+    @Test
+    void testGetCompactProvinces() throws IOException {
+        when(provinceService.getProvinces(year)).thenReturn(Collections.singletonList(province));
+
+        JsonNode result = new ObjectMapper().readTree(provinceController.getCompactProvinces(year, new HttpHeaders()).getBody());
 
         assertEquals(1, result.size());
-        assertEquals("Compact Province", result.getFirst().getName());
+        assertEquals(1, result.get(0).get("id").asInt());
+        assertEquals("Test Province", result.get(0).get("name").asText());
+        assertEquals(2, result.get(0).size());
     }
 
     @Test
-    void testGetConstituenciesByProvinceId() {
+    void testGetConstituenciesByProvinceId() throws IOException {
         List<Constituency> constituencies = Collections.singletonList(constituency);
         when(provinceService.getConstituenciesByProvinceId(year, 1)).thenReturn(constituencies);
 
-        List<Constituency> result = provinceController.getConstituenciesByProvinceId(year, 1);
+        JsonNode result = render(provinceController.getConstituenciesByProvinceId(year, 1, null, null));
 
         assertEquals(1, result.size());
-        assertEquals("Test Constituency", result.get(0).getName());
+        assertEquals("Test Constituency", result.get(0).get("name").asText());
     }
 
     @Test
-    void testGetCompactConstituenciesByProvinceId() {
-        List<CompactConstituency> compactConstituencies = Collections.singletonList(compactConstituency);
-        when(provinceService.getCompactConstituenciesByProvinceId(year, 1)).thenReturn(compactConstituencies);
+    void testGetCompactConstituenciesByProvinceId() throws IOException {
+        List<Constituency> constituencies = Collections.singletonList(constituency);
+        when(provinceService.getConstituenciesByProvinceId(year, 1)).thenReturn(constituencies);
 
-        List<CompactConstituency> result = provinceController.getCompactConstituenciesByProvinceId(year, 1);
+        JsonNode result = new ObjectMapper().readTree(provinceController.getCompactConstituenciesByProvinceId(year, 1, new HttpHeaders()).getBody());
 
         assertEquals(1, result.size());
-        assertEquals("Compact Constituency", result.get(0).getName());
+        assertEquals("Test Constituency", result.get(0).get("name").asText());
+        assertFalse(result.get(0).has("parties"));
+        assertFalse(result.get(0).has("authorities"));
     }
 
     @Test
-    void testGetTotalVotesPerParty() {
+    void testGetTotalVotesPerParty() throws IOException {
         Map<Integer, Party> votesPerParty = new HashMap<>();
         votesPerParty.put(party.getId(), party);
         when(provinceService.getTotalVotesPerParty(year, 1)).thenReturn(votesPerParty);
 
-        Map<Integer, Party> result = provinceController.getTotalVotesPerParty(year, 1);
+        JsonNode result = new ObjectMapper().readTree(provinceController.getTotalVotesPerParty(year, 1, new HttpHeaders()).getBody());
 
         assertEquals(1, result.size());
-        assertTrue(result.containsKey(party.getId()));
-        assertEquals("Test Party", result.get(party.getId()).getName());
+        assertEquals("Test Party", result.get(String.valueOf(party.getId())).get("name").asText());
     }
 }
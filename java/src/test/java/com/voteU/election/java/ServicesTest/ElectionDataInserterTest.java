@@ -0,0 +1,384 @@
+package com.voteU.election.java.ServicesTest;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import com.voteU.election.java.dto.PersistedTableDTO;
+import com.voteU.election.java.model.Authority;
+import com.voteU.election.java.model.Candidate;
+import com.voteU.election.java.model.Constituency;
+import com.voteU.election.java.model.Election;
+import com.voteU.election.java.model.Party;
+import com.voteU.election.java.model.PollingStation;
+import com.voteU.election.java.services.ElectionDataInserter;
+import com.voteU.election.java.services.electiondata.database.ElectionQueryCache;
+import com.voteU.election.java.utils.xml.ElectionFixture;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class ElectionDataInserterTest {
+    private static final Pattern TABLE = Pattern.compile("(?:INTO|FROM) (?:TABLE )?(\\w+)");
+
+    private static Election election;
+
+    private JdbcTemplate jdbc;
+    private ElectionQueryCache queryCache;
+    private Connection connection;
+    /**
+     * Whether the server allows {@code LOAD DATA LOCAL INFILE}.
+     */
+    private boolean localInfile;
+    /**
+     * The table whose batches fail, if any.
+     */
+    private String failing;
+    /**
+     * The table of every batch, in the order the batches were executed.
+     */
+    private List<String> batches;
+    private Map<String, AtomicLong> rows;
+    private Map<String, AtomicInteger> prepared;
+    /**
+     * The rows loaded with {@code LOAD DATA}, by the staging table they were loaded into.
+     */
+    private Map<String, String> loaded;
+    /**
+     * The statements that merged a staging table into its table, or emptied it.
+     */
+    private List<String> merged;
+    /**
+     * The parameters of every chunk recorded in the journal.
+     */
+    private List<List<Object>> journaled;
+    /**
+     * The fingerprint recorded in the journal, by table and chunk.
+     */
+    private Map<String, Object> fingerprints;
+
+    @BeforeAll
+    static void load() throws Exception {
+        election = ElectionFixture.tk2023();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbc = mock(JdbcTemplate.class);
+        queryCache = mock(ElectionQueryCache.class);
+        connection = mock(Connection.class);
+        batches = Collections.synchronizedList(new ArrayList<>());
+        rows = new ConcurrentHashMap<>();
+        prepared = new ConcurrentHashMap<>();
+        loaded = new ConcurrentHashMap<>();
+        merged = Collections.synchronizedList(new ArrayList<>());
+        journaled = Collections.synchronizedList(new ArrayList<>());
+        fingerprints = new ConcurrentHashMap<>();
+
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(metaData.getURL()).thenReturn("jdbc:mysql://localhost:3306/voteu");
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.createStatement()).thenAnswer(invocation -> statement());
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> preparedStatement(invocation.getArgument(0)));
+        when(jdbc.execute(any(ConnectionCallback.class)))
+                .thenAnswer(invocation -> ((ConnectionCallback<?>) invocation.getArgument(0)).doInConnection(connection));
+    }
+
+    /**
+     * Returns a statement that answers the query of the server variables, and reads the stream of a {@code LOAD DATA}.
+     */
+    private JdbcStatement statement() throws Exception {
+        JdbcStatement statement = mock(JdbcStatement.class);
+        ResultSet variables = mock(ResultSet.class);
+        when(variables.next()).thenReturn(true);
+        when(variables.getLong(1)).thenReturn(64L * 1024 * 1024);
+        when(variables.getBoolean(2)).thenReturn(localInfile);
+        when(statement.executeQuery(anyString())).thenReturn(variables);
+        when(statement.unwrap(JdbcStatement.class)).thenReturn(statement);
+        InputStream[] stream = new InputStream[1];
+        doAnswer(invocation -> stream[0] = invocation.getArgument(0)).when(statement).setLocalInfileInputStream(any());
+        when(statement.execute(anyString())).thenAnswer(invocation -> {
+            if (!invocation.<String>getArgument(0).startsWith("LOAD DATA")) {
+                return false;
+            }
+            loaded.merge(table(invocation.getArgument(0)), new String(stream[0].readAllBytes(), StandardCharsets.UTF_8),
+                    String::concat);
+            return false;
+        });
+        return statement;
+    }
+
+    /**
+     * Returns a prepared statement that counts the rows of its batches, and keeps the records of the journal.
+     */
+    private PreparedStatement preparedStatement(String sql) throws Exception {
+        String table = table(sql);
+        prepared.computeIfAbsent(table, key -> new AtomicInteger()).incrementAndGet();
+        PreparedStatement statement = mock(PreparedStatement.class);
+        Object[] parameters = new Object[8];
+        int[] pending = {0};
+        doAnswer(invocation -> parameters[invocation.<Integer>getArgument(0)] = invocation.getArgument(1))
+                .when(statement).setObject(anyInt(), any());
+        doAnswer(invocation -> parameters[invocation.<Integer>getArgument(0)] = invocation.getArgument(1))
+                .when(statement).setLong(anyInt(), anyLong());
+        doAnswer(invocation -> parameters[invocation.<Integer>getArgument(0)] = invocation.getArgument(1))
+                .when(statement).setInt(anyInt(), anyInt());
+        doAnswer(invocation -> parameters[invocation.<Integer>getArgument(0)] = invocation.getArgument(1))
+                .when(statement).setString(anyInt(), any());
+        doAnswer(invocation -> pending[0]++).when(statement).addBatch();
+        when(statement.executeBatch()).thenAnswer(invocation -> {
+            int count = pending[0];
+            pending[0] = 0;
+            if (table.equals(failing)) {
+                throw new SQLIntegrityConstraintViolationException("Duplicate entry", "23000", 1062);
+            }
+            batches.add(table);
+            rows.computeIfAbsent(table, key -> new AtomicLong()).addAndGet(count);
+            return new int[count];
+        });
+        when(statement.executeUpdate()).thenAnswer(invocation -> {
+            if (!table.equals("persist_journal")) {
+                merged.add(sql);
+                return 0;
+            }
+            journaled.add(Arrays.asList(Arrays.copyOfRange(parameters, 1, 6)));
+            fingerprints.put(parameters[2] + ":" + parameters[3], parameters[6]);
+            return 1;
+        });
+        return statement;
+    }
+
+    private static String table(String sql) {
+        Matcher matcher = TABLE.matcher(sql);
+        assertTrue(matcher.find(), sql);
+        return matcher.group(1);
+    }
+
+    private ElectionDataInserter inserter(int writers, boolean rewriteBatchedStatements, boolean loadData) {
+        return new ElectionDataInserter(jdbc, queryCache, writers, rewriteBatchedStatements, loadData ? jdbc : null);
+    }
+
+    /**
+     * Returns a record of the journal, with the fingerprint the chunk was recorded with before, if any.
+     */
+    private Map<String, Object> journaled(String table, int chunk, int chunkSize, long rows) {
+        return Map.of("table_name", table, "chunk", chunk, "chunk_size", chunkSize, "rows_written", rows,
+                "fingerprint", fingerprints.getOrDefault(table + ":" + chunk, 0L));
+    }
+
+    /**
+     * Answers the journal of a run that failed while it was writing the candidates, in chunks of 2.
+     */
+    private void journalOfAFailedRun() {
+        when(jdbc.queryForList(
+                startsWith("SELECT table_name, chunk, chunk_size, rows_written, fingerprint FROM persist_journal"), eq("TK2023")))
+                .thenAnswer(invocation -> List.of(
+                        journaled("elections", -1, 1000, 1),
+                        journaled("parties", -1, 1000, 20),
+                        journaled("provinces", -1, 1000, 12),
+                        journaled("candidates", 0, 2, 2),
+                        journaled("candidates", 2, 2, 2)));
+    }
+
+    private void assertWrittenBefore(String table, String referencingTable) {
+        assertTrue(batches.lastIndexOf(table) < batches.indexOf(referencingTable), table + " before " + referencingTable);
+    }
+
+    @Test
+    void everyTableIsWrittenAfterTheTablesItRefersTo() throws Exception {
+        List<PersistedTableDTO> tables = inserter(3, false, false).insertElection(election);
+
+        assertEquals(List.of("elections", "parties", "provinces", "candidates", "national_party_votes", "constituencies",
+                        "national_candidate_votes", "constituency_party_votes", "constituency_candidate_votes", "authorities",
+                        "authority_party_votes", "authority_candidate_votes", "pollingstations", "pollingstation_party_votes",
+                        "pollingstation_candidate_votes"),
+                tables.stream().map(PersistedTableDTO::table).toList());
+        for (PersistedTableDTO table : tables) {
+            assertTrue(table.rows() > 0, table.table());
+            assertEquals(rows.get(table.table()).get(), table.rows(), table.table());
+            assertTrue(table.rowsPerSecond() > 0, table.table());
+            assertEquals(1000, table.chunkSize());
+            assertEquals("batch", table.method());
+        }
+        assertWrittenBefore("elections", "parties");
+        assertWrittenBefore("parties", "candidates");
+        assertWrittenBefore("candidates", "national_candidate_votes");
+        assertWrittenBefore("constituencies", "authorities");
+        assertWrittenBefore("authorities", "authority_candidate_votes");
+        assertWrittenBefore("pollingstations", "pollingstation_party_votes");
+        // Every chunk is committed together with its record in the journal
+        assertEquals(batches.size(), journaled.size());
+        verify(connection, times(batches.size())).commit();
+        verify(queryCache, times(2)).invalidate("TK2023");
+    }
+
+    @Test
+    void theFirstFailingBatchStopsThePersisting() throws Exception {
+        failing = "authorities";
+
+        DataIntegrityViolationException thrown = assertThrows(DataIntegrityViolationException.class,
+                () -> inserter(2, false, false).insertElection(election));
+
+        assertInstanceOf(SQLIntegrityConstraintViolationException.class, thrown.getCause());
+        assertFalse(batches.contains("authority_candidate_votes"));
+        assertFalse(batches.contains("pollingstation_party_votes"));
+        assertTrue(journaled.stream().noneMatch(record -> record.get(1).equals("authorities")));
+        verify(connection, atLeastOnce()).rollback();
+        verify(jdbc).update(startsWith("INSERT INTO persist_journal"), eq("TK2023"), eq("constituencies"), eq(-1), anyInt(), anyLong(), anyLong());
+        verify(jdbc, never()).update(startsWith("DELETE FROM persist_journal"), any(Object[].class));
+        verify(queryCache, times(2)).invalidate("TK2023");
+    }
+
+    @Test
+    void aFailedRunIsResumedFromTheJournal() {
+        long candidates = election.getParties().values().stream().mapToLong(party -> party.getCandidates().size()).sum();
+        journalOfAFailedRun();
+        // The fingerprints of the recorded chunks are not known yet, so this run writes them again and records them
+        inserter(2, false, false).insertElection(election);
+        batches.clear();
+        rows.clear();
+        prepared.clear();
+        journaled.clear();
+
+        List<PersistedTableDTO> tables = inserter(2, false, false).insertElection(election);
+
+        assertFalse(batches.contains("elections"));
+        assertFalse(batches.contains("parties"));
+        assertFalse(batches.contains("provinces"));
+        PersistedTableDTO parties = tables.get(1);
+        assertEquals("parties", parties.table());
+        assertEquals(0, parties.rows());
+        assertEquals(20, parties.skippedRows());
+        PersistedTableDTO written = tables.get(3);
+        assertEquals("candidates", written.table());
+        assertTrue(candidates > 6);
+        assertEquals(2, written.chunkSize());
+        assertEquals(candidates - 4, written.rows());
+        assertEquals(4, written.skippedRows());
+        assertEquals(candidates - 4, rows.get("candidates").get());
+        assertTrue(journaled.contains(List.of("TK2023", "candidates", 1, 2, 2L)));
+        assertTrue(journaled.stream().noneMatch(record -> record.get(1).equals("candidates") && record.get(2).equals(2)));
+        // The insert statement is prepared once by every writer and reused for all chunks of the table
+        assertTrue(prepared.get("candidates").get() <= 2);
+        verify(jdbc, times(2)).update(startsWith("INSERT INTO persist_journal"), eq("TK2023"), eq("candidates"), eq(-1), eq(2),
+                eq(candidates), eq(0L));
+        verify(jdbc, times(2)).update("DELETE FROM persist_journal WHERE election_id = ?", "TK2023");
+    }
+
+    @Test
+    void aRecordedChunkWithOtherRowsIsWrittenAgain() {
+        long candidates = election.getParties().values().stream().mapToLong(party -> party.getCandidates().size()).sum();
+        journalOfAFailedRun();
+
+        List<PersistedTableDTO> tables = inserter(2, false, false).insertElection(election);
+
+        assertFalse(batches.contains("elections"));
+        PersistedTableDTO written = tables.get(3);
+        assertEquals("candidates", written.table());
+        assertEquals(2, written.chunkSize());
+        assertEquals(candidates, written.rows());
+        assertEquals(0, written.skippedRows());
+        assertEquals(candidates, rows.get("candidates").get());
+        assertTrue(journaled.contains(List.of("TK2023", "candidates", 0, 2, 2L)));
+        assertTrue(journaled.contains(List.of("TK2023", "candidates", 2, 2, 2L)));
+    }
+
+    @Test
+    void rewrittenBatchesAreSizedToThePacket() {
+        List<PersistedTableDTO> tables = inserter(1, true, false).insertElection(election);
+
+        // Half of the default packet of 64 MiB at 32 bytes for each of the 5 values of a row is more than the maximum
+        PersistedTableDTO authorityCandidateVotes = tables.stream()
+                .filter(table -> table.table().equals("authority_candidate_votes")).findFirst().orElseThrow();
+        assertEquals(50_000, authorityCandidateVotes.chunkSize());
+        assertThrows(IllegalArgumentException.class, () -> inserter(0, true, false));
+    }
+
+    @Test
+    void thePollingStationTablesAreLoadedFromMemoryWhenTheServerAllowsIt() {
+        localInfile = true;
+
+        List<PersistedTableDTO> tables = inserter(2, true, true).insertElection(election);
+
+        for (PersistedTableDTO table : tables) {
+            boolean pollingStations = table.table().startsWith("pollingstation");
+            assertEquals(pollingStations ? "load data" : "batch", table.method(), table.table());
+            assertEquals(pollingStations, loaded.containsKey(table.table() + "_load"), table.table());
+            if (pollingStations) {
+                assertEquals(table.rows(), loaded.get(table.table() + "_load").lines().count(), table.table());
+                // The existing rows are updated instead of replaced, so they keep their id
+                assertTrue(merged.stream().anyMatch(sql -> sql.startsWith("INSERT INTO " + table.table() + " (")
+                        && sql.contains(" FROM " + table.table() + "_load ON DUPLICATE KEY UPDATE ")), table.table());
+                assertTrue(merged.contains("DELETE FROM " + table.table() + "_load"), table.table());
+            }
+        }
+        PollingStation pollingStation = election.getConstituencies().values().iterator().next()
+                .getAuthorities().values().iterator().next().getPollingStations().values().iterator().next();
+        Party party = pollingStation.getParties().values().iterator().next();
+        assertTrue(loaded.get("pollingstation_party_votes_load").contains(
+                "TK2023\t" + pollingStation.getId() + "\t" + party.getId() + "\t" + party.getVotes() + "\n"));
+    }
+
+    @Test
+    void theTablesAreInsertedInBatchesUnlessLoadDataIsTurnedOn() {
+        localInfile = true;
+
+        List<PersistedTableDTO> tables = inserter(2, true, false).insertElection(election);
+
+        assertTrue(tables.stream().allMatch(table -> table.method().equals("batch")));
+        assertTrue(loaded.isEmpty());
+    }
+
+    @Test
+    void theCandidateVotesAreExportedAsCommaSeparatedValues(@TempDir Path folder) throws Exception {
+        Path file = folder.resolve("votes.csv");
+        StringBuilder expected = new StringBuilder("election_id,pollingstation_id,party_id,candidate_id,votes\n");
+        for (Constituency constituency : election.getConstituencies().values()) {
+            for (Authority authority : constituency.getAuthorities().values()) {
+                for (PollingStation pollingStation : authority.getPollingStations().values()) {
+                    for (Party party : pollingStation.getParties().values()) {
+                        for (Candidate candidate : party.getCandidates()) {
+                            expected.append(String.format("%s,%s,%s,%s,%d%n", election.getId(), pollingStation.getId(),
+                                    party.getId(), candidate.getId(), candidate.getVotes()));
+                        }
+                    }
+                }
+            }
+        }
+
+        inserter(1, false, false).exportPollingStationCandidateVotesToCSV(election, file.toString());
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(expected.toString().lines().count(), lines.size());
+        assertEquals(expected.toString().lines().sorted().toList(), lines.stream().sorted().toList());
+    }
+}
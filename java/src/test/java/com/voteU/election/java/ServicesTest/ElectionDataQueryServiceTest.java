@@ -0,0 +1,142 @@
+package com.voteU.election.java.ServicesTest;
+
+import com.voteU.election.java.dto.CandidateVotesDTO;
+import com.voteU.election.java.dto.KeysetPageDTO;
+import com.voteU.election.java.dto.PollingStationDTO;
+import com.voteU.election.java.exceptions.ResourceNotFoundException;
+import com.voteU.election.java.services.electiondata.database.ElectionDataQueryService;
+import com.voteU.election.java.services.electiondata.database.ElectionQueryCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ElectionDataQueryServiceTest {
+    private JdbcTemplate jdbc;
+    private ElectionDataQueryService service;
+    /**
+     * The rows the database answers, the columns of every row in the order of the select.
+     */
+    private List<Object[]> rows;
+    private String sql;
+    private Object[] parameters;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = mock(JdbcTemplate.class);
+        service = new ElectionDataQueryService(jdbc, new ElectionQueryCache(1000, new SimpleMeterRegistry()));
+        rows = new ArrayList<>();
+        when(jdbc.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(invocation -> {
+            sql = invocation.getArgument(0);
+            parameters = invocation.getRawArguments().length > 2
+                    ? (Object[]) invocation.getRawArguments()[2] : new Object[0];
+            RowMapper<?> mapper = invocation.getArgument(1);
+            List<Object> mapped = new ArrayList<>();
+            for (Object[] row : rows) {
+                ResultSet resultSet = mock(ResultSet.class);
+                for (int column = 1; column <= row.length; column++) {
+                    Object value = row[column - 1];
+                    if (value instanceof Integer number) {
+                        when(resultSet.getInt(column)).thenReturn(number);
+                    } else {
+                        when(resultSet.getString(column)).thenReturn((String) value);
+                    }
+                }
+                mapped.add(mapper.mapRow(resultSet, mapped.size()));
+            }
+            return mapped;
+        });
+    }
+
+    private void pollingStations(String... ids) {
+        for (String id : ids) {
+            rows.add(new Object[]{id, "0363", "Stembureau " + id, "1012AB", 100});
+        }
+    }
+
+    @Test
+    void aPageReadsOneRowMoreThanTheLimitToFindTheNextKey() {
+        pollingStations("0001", "0002", "0003");
+
+        KeysetPageDTO<PollingStationDTO> page = service.getPollingStations("TK2023", null, 2);
+
+        assertEquals(List.of("0001", "0002"), page.getItems().stream().map(PollingStationDTO::getId).toList());
+        assertEquals("0002", page.getNext());
+        assertTrue(sql.contains("pollingstation_id > ? ORDER BY pollingstation_id LIMIT ?"), sql);
+        assertFalse(sql.contains("OFFSET"), sql);
+        assertArrayEquals(new Object[]{"TK2023", "", 3}, parameters);
+    }
+
+    @Test
+    void theLastPageHasNoNextKey() {
+        pollingStations("0003", "0004");
+
+        KeysetPageDTO<PollingStationDTO> page = service.getPollingStationsByAuthorityId("TK2023", "0363", "0002", 2);
+
+        assertEquals(2, page.getItems().size());
+        assertNull(page.getNext());
+        assertArrayEquals(new Object[]{"TK2023", "0363", "0002", 3}, parameters);
+    }
+
+    @Test
+    void theKeyOfACandidateIsItsPartyAndItsId() {
+        rows.add(new Object[]{3, 13, "Jan", "Jansen", "male", "Utrecht", 40});
+        rows.add(new Object[]{4, 1, "Anna", "de Vries", "female", "Delft", 30});
+
+        KeysetPageDTO<CandidateVotesDTO> page = service.getCandidateVotesByPollingStationId("TK2023", "0363::SB1", "3:12", 1);
+
+        CandidateVotesDTO candidate = page.getItems().get(0);
+        assertEquals("Jan Jansen", candidate.getName());
+        assertEquals(40, candidate.getVotes());
+        assertEquals("TK2023", candidate.getElectionId());
+        assertEquals("3:13", page.getNext());
+        assertTrue(sql.contains("FROM pollingstation_candidate_votes v"), sql);
+        assertTrue(sql.contains("(v.party_id > ? OR (v.party_id = ? AND v.candidate_id > ?))"), sql);
+        assertArrayEquals(new Object[]{"TK2023", "0363::SB1", 3, 3, 12, 2}, parameters);
+    }
+
+    @Test
+    void theNameOfACandidateLeavesOutTheNamesThatAreNull() {
+        rows.add(new Object[]{3, 13, null, "Jansen", "male", "Utrecht", 40});
+
+        KeysetPageDTO<CandidateVotesDTO> page = service.getCandidateVotes("TK2023", null, 10);
+
+        assertEquals("Jansen", page.getItems().get(0).getName());
+    }
+
+    @Test
+    void aPageIsReadOnceUntilTheElectionIsInsertedAgain() {
+        pollingStations("0001");
+
+        service.getPollingStations("TK2023", null, 10);
+        service.getPollingStations("TK2023", null, 10);
+
+        verify(jdbc, times(1)).query(anyString(), any(RowMapper.class), any(Object[].class));
+    }
+
+    @Test
+    void anInvalidKeyOrLimitIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.getCandidateVotes("TK2023", "12", 10));
+        assertThrows(IllegalArgumentException.class, () -> service.getCandidateVotes("TK2023", "a:b", 10));
+        assertThrows(IllegalArgumentException.class, () -> service.getPollingStations("TK2023", null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getPollingStations("TK2023", null, ElectionDataQueryService.MAX_LIMIT + 1));
+        verifyNoInteractions(jdbc);
+    }
+
+    @Test
+    void anUnknownElectionIsNotFound() {
+        assertThrows(ResourceNotFoundException.class, () -> service.getElection("TK1900"));
+        assertThrows(ResourceNotFoundException.class, () -> service.getConstituencies("TK1900"));
+    }
+}
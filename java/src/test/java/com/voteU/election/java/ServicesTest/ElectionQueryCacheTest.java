@@ -0,0 +1,75 @@
+package com.voteU.election.java.ServicesTest;
+
+import com.voteU.election.java.services.electiondata.database.ElectionQueryCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ElectionQueryCacheTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger queries = new AtomicInteger();
+
+    private List<String> query(String... rows) {
+        queries.incrementAndGet();
+        return new ArrayList<>(List.of(rows));
+    }
+
+    private double gets(String result) {
+        return registry.get("cache.gets").tag("cache", "election-queries").tag("result", result).functionCounter().count();
+    }
+
+    @Test
+    void aResultIsQueriedOnceAndCountedAsHits() {
+        ElectionQueryCache cache = new ElectionQueryCache(100, registry);
+
+        List<String> first = cache.get("zipcode", "TK2023", "1234", () -> query("A", "B"));
+        List<String> second = cache.get("zipcode", "TK2023", "1234", () -> query("A", "B"));
+
+        assertEquals(List.of("A", "B"), first);
+        assertSame(first, second);
+        assertEquals(1, queries.get());
+        assertThrows(UnsupportedOperationException.class, () -> first.add("C"));
+        assertEquals(1, gets("hit"));
+        assertEquals(1, gets("miss"));
+    }
+
+    @Test
+    void invalidatingAnElectionOnlyDropsItsResults() {
+        ElectionQueryCache cache = new ElectionQueryCache(100, registry);
+        cache.get("zipcode", "TK2023", "1234", () -> query("A"));
+        cache.get("zipcode", "TK2021", "1234", () -> query("B"));
+
+        cache.invalidate("TK2023");
+
+        assertEquals(List.of("C"), cache.get("zipcode", "TK2023", "1234", () -> query("C")));
+        assertEquals(List.of("B"), cache.get("zipcode", "TK2021", "1234", () -> query("D")));
+        assertEquals(3, queries.get());
+    }
+
+    @Test
+    void theCacheIsBoundedByTheNumberOfRows() throws InterruptedException {
+        ElectionQueryCache cache = new ElectionQueryCache(10, registry);
+
+        for (int i = 0; i < 20; i++) {
+            cache.get("zipcode", "TK2023", String.valueOf(i), () -> query("A", "B", "C", "D"));
+        }
+
+        // Caffeine evicts in the background, a result of 4 rows weighs 5 so at most 2 fit
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (size() > 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(size() <= 2);
+        assertTrue(registry.get("cache.evictions").tag("cache", "election-queries").functionCounter().count() >= 18);
+    }
+
+    private double size() {
+        return registry.get("cache.size").tag("cache", "election-queries").gauge().value();
+    }
+}
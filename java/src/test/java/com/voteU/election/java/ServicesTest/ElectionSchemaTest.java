@@ -0,0 +1,229 @@
+package com.voteU.election.java.ServicesTest;
+
+import com.voteU.election.java.config.LegacyElectionTablesMigration;
+import com.voteU.election.java.dto.CandidateVotesDTO;
+import com.voteU.election.java.dto.KeysetPageDTO;
+import com.voteU.election.java.dto.PollingStationDTO;
+import com.voteU.election.java.model.Election;
+import com.voteU.election.java.model.Party;
+import com.voteU.election.java.model.PollingStation;
+import com.voteU.election.java.services.ElectionDataInserter;
+import com.voteU.election.java.services.electiondata.database.ElectionDataQueryService;
+import com.voteU.election.java.services.electiondata.database.ElectionQueryCache;
+import com.voteU.election.java.utils.xml.ElectionFixture;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the migrations on H2 in its MySQL mode, and checks that the inserter can write an election into the tables they
+ * create, also in a database that holds the legacy tables, and that the queries on them read a range of an index
+ * instead of the whole table. The partitions of the MySQL
+ * migrations are not created, H2 has none.
+ */
+class ElectionSchemaTest {
+    /**
+     * The index H2 reads the first table of a query with, and the conditions on its columns.
+     */
+    private static final Pattern INDEX = Pattern.compile("/\\* public\\.(\\w+): (.*?)\\*/", Pattern.DOTALL);
+
+    private static Election election;
+
+    private JdbcTemplate jdbc;
+    /**
+     * The queries the query service has run, with their parameters.
+     */
+    private final List<Map.Entry<String, Object[]>> queries = new ArrayList<>();
+    private ElectionDataQueryService queryService;
+
+    @BeforeAll
+    static void load() throws Exception {
+        election = ElectionFixture.tk2023();
+    }
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = dataSource();
+        migrate(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        JdbcTemplate recording = new JdbcTemplate(dataSource) {
+            @Override
+            public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+                queries.add(Map.entry(sql, args));
+                return super.query(sql, rowMapper, args);
+            }
+        };
+        ElectionQueryCache queryCache = new ElectionQueryCache(100_000, new SimpleMeterRegistry());
+        queryService = new ElectionDataQueryService(recording, queryCache);
+        new ElectionDataInserter(jdbc, queryCache, 2, false, null).insertElection(election);
+        // The selectivity of the columns, which H2 chooses its indexes by like MySQL does
+        jdbc.execute("ANALYZE");
+    }
+
+    private static DataSource dataSource() {
+        return new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+    }
+
+    /**
+     * Runs the migrations the way the application configures Flyway, baselining a database that holds tables.
+     */
+    private static void migrate(DataSource dataSource) {
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration")
+                .javaMigrations(new LegacyElectionTablesMigration()).baselineOnMigrate(true).baselineVersion("0")
+                .load().migrate();
+    }
+
+    private long count(String table) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE election_id = ?", Long.class, "TK2023");
+    }
+
+    /**
+     * Asserts that the plan of a query reads its first table through a range of an index, with a condition on each of
+     * the given columns.
+     *
+     * @param index the name of the index, or {@code PRIMARY_KEY} for the primary key.
+     */
+    private void assertIndexRange(String sql, Object[] parameters, String index, String... columns) {
+        String plan = jdbc.queryForObject("EXPLAIN " + sql, String.class, parameters);
+        assertFalse(plan.contains("tableScan"), plan);
+        Matcher matcher = INDEX.matcher(plan);
+        assertTrue(matcher.find(), plan);
+        assertTrue(matcher.group(1).startsWith(index), plan);
+        for (String column : columns) {
+            assertTrue(matcher.group(2).contains(column + " "), column + " in " + plan);
+        }
+    }
+
+    private Map.Entry<String, Object[]> lastQuery() {
+        return queries.get(queries.size() - 1);
+    }
+
+    @Test
+    void persistingAnElectionAgainReplacesItsRows() {
+        long pollingStations = count("pollingstations");
+        long candidateVotes = count("pollingstation_candidate_votes");
+        assertTrue(pollingStations > 0);
+        assertTrue(candidateVotes > pollingStations);
+
+        new ElectionDataInserter(jdbc, new ElectionQueryCache(10, new SimpleMeterRegistry()), 2, false, null).insertElection(election);
+
+        assertEquals(pollingStations, count("pollingstations"));
+        assertEquals(candidateVotes, count("pollingstation_candidate_votes"));
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM persist_journal", Long.class));
+    }
+
+    @Test
+    void theLegacyTablesOfAnExistingSchemaAreRenamedBeforeTheMigrations() {
+        DataSource dataSource = dataSource();
+        JdbcTemplate legacy = new JdbcTemplate(dataSource);
+        // The tables Hibernate created from the entities, with only the id as primary key
+        legacy.execute("CREATE TABLE users (id BIGINT AUTO_INCREMENT PRIMARY KEY, username VARCHAR(255))");
+        legacy.execute("CREATE TABLE elections (id BIGINT AUTO_INCREMENT PRIMARY KEY, election_id VARCHAR(255), "
+                + "name VARCHAR(255), date VARCHAR(255), votes INT NOT NULL)");
+        legacy.execute("CREATE TABLE pollingstations (id BIGINT AUTO_INCREMENT PRIMARY KEY, pollingstation_id VARCHAR(255), "
+                + "authority_id VARCHAR(255), authority_name VARCHAR(255), election_id VARCHAR(255), name VARCHAR(255), "
+                + "votes INT NOT NULL, zipcode VARCHAR(255))");
+        legacy.update("INSERT INTO users (username) VALUES ('admin')");
+        legacy.update("INSERT INTO pollingstations (pollingstation_id, authority_id, election_id, votes) VALUES ('SB1', '0363', 'TK2021', 10)");
+
+        migrate(dataSource);
+
+        assertEquals(1, legacy.queryForObject("SELECT COUNT(*) FROM pollingstations_legacy", Long.class));
+        assertEquals(1, legacy.queryForObject("SELECT COUNT(*) FROM users", Long.class));
+        assertEquals(List.of("election_id", "pollingstation_id"), legacy.queryForList(
+                "SELECT k.column_name FROM information_schema.table_constraints c "
+                        + "JOIN information_schema.key_column_usage k ON k.constraint_name = c.constraint_name "
+                        + "WHERE c.table_name = 'pollingstations' AND c.constraint_type = 'PRIMARY KEY' ORDER BY k.ordinal_position",
+                String.class));
+        new ElectionDataInserter(legacy, new ElectionQueryCache(10, new SimpleMeterRegistry()), 2, false, null).insertElection(election);
+        assertEquals(count("pollingstations"), legacy.queryForObject(
+                "SELECT COUNT(*) FROM pollingstations WHERE election_id = 'TK2023'", Long.class));
+    }
+
+    @Test
+    void thePagesOfTheQueryServiceHoldEveryRowOnce() {
+        List<String> ids = new ArrayList<>();
+        String after = null;
+        do {
+            KeysetPageDTO<PollingStationDTO> page = queryService.getPollingStations("TK2023", after, 7);
+            page.getItems().forEach(pollingStation -> ids.add(pollingStation.getId()));
+            after = page.getNext();
+        } while (after != null);
+
+        assertEquals(count("pollingstations"), ids.size());
+        assertEquals(ids.stream().sorted().distinct().toList(), ids);
+
+        PollingStation pollingStation = election.getConstituencies().values().iterator().next()
+                .getAuthorities().values().iterator().next().getPollingStations().values().iterator().next();
+        List<CandidateVotesDTO> candidates = new ArrayList<>();
+        after = null;
+        do {
+            KeysetPageDTO<CandidateVotesDTO> page = queryService.getCandidateVotesByPollingStationId("TK2023", pollingStation.getId(), after, 5);
+            candidates.addAll(page.getItems());
+            after = page.getNext();
+        } while (after != null);
+        assertEquals(pollingStation.getParties().values().stream().mapToInt(party -> party.getCandidates().size()).sum(), candidates.size());
+        Party party = pollingStation.getParties().get(candidates.get(0).getPartyId());
+        assertEquals(party.getCandidates().stream().filter(candidate -> candidate.getId() == candidates.get(0).getId())
+                .findFirst().orElseThrow().getVotes(), candidates.get(0).getVotes());
+    }
+
+    @Test
+    void theLookupsOfTheRepositoriesReadARangeOfAnIndex() {
+        // PollingStationRepository.findByZipcodeStartingWithAndElectionId
+        assertIndexRange("SELECT id, pollingstation_id, name, zipcode FROM pollingstations WHERE zipcode LIKE ? AND election_id = ?",
+                new Object[]{"1012%", "TK2023"}, "idx_pollingstations_zipcode", "election_id", "zipcode");
+        // PollingStationPartyVotesRepository.findPollingStationPartyVotesByElectionAndPollingStationId
+        assertIndexRange("SELECT p.party_id, p.name, v.votes FROM pollingstation_party_votes v "
+                        + "JOIN parties p ON v.party_id = p.party_id AND v.election_id = p.election_id "
+                        + "WHERE v.election_id = ? AND v.pollingstation_id = ?",
+                new Object[]{"TK2023", "0363::SB1"}, "PRIMARY_KEY", "election_id", "pollingstation_id");
+        // NationalPartyVotesRepository.findNationalPartyVotesByElectionId
+        assertIndexRange("SELECT p.party_id, p.name, v.votes FROM national_party_votes v "
+                        + "JOIN parties p ON v.party_id = p.party_id AND v.election_id = p.election_id WHERE v.election_id = ?",
+                new Object[]{"TK2023"}, "PRIMARY_KEY", "election_id");
+    }
+
+    @Test
+    void theKeysetPagesReadARangeOfAnIndex() {
+        // The test data has the authorities of one constituency, a real election has 20 with about 17 authorities each
+        List<Object[]> authorities = new ArrayList<>();
+        for (int constituency = 2; constituency <= 20; constituency++) {
+            for (int authority = 0; authority < 17; authority++) {
+                authorities.add(new Object[]{String.format("%02d%02d", constituency, authority), constituency});
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO authorities (election_id, authority_id, constituency_id, name) VALUES ('TK2023', ?, ?, 'Gemeente')",
+                authorities);
+        jdbc.execute("ANALYZE");
+
+        queryService.getPollingStations("TK2023", "0363", 10);
+        assertIndexRange(lastQuery().getKey(), lastQuery().getValue(), "PRIMARY_KEY", "election_id", "pollingstation_id");
+        queryService.getPollingStationsByAuthorityId("TK2023", "0363", "0363::SB1", 10);
+        assertIndexRange(lastQuery().getKey(), lastQuery().getValue(), "idx_pollingstations_authority",
+                "election_id", "authority_id", "pollingstation_id");
+        queryService.getAuthorities("TK2023", 1, "0300", 10);
+        assertIndexRange(lastQuery().getKey(), lastQuery().getValue(), "idx_authorities_constituency",
+                "election_id", "constituency_id", "authority_id");
+        queryService.getCandidateVotesByPollingStationId("TK2023", "0363::SB1", "3:12", 10);
+        assertIndexRange(lastQuery().getKey(), lastQuery().getValue(), "PRIMARY_KEY", "election_id", "pollingstation_id");
+        queryService.getCandidateVotesByAuthorityId("TK2023", "0363", null, 10);
+        assertIndexRange(lastQuery().getKey(), lastQuery().getValue(), "PRIMARY_KEY", "election_id", "authority_id");
+    }
+}
@@ -3,10 +3,16 @@ package com.voteU.election.java.ServicesTest;
 import com.voteU.election.java.model.Election;
 import com.voteU.election.java.reader.DutchElectionReader;
 import com.voteU.election.java.services.electiondata.memory.ElectionService;
+import com.voteU.election.java.utils.xml.ProcessingListener;
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 public class ElectionServiceTest {
     @Test
@@ -32,5 +38,53 @@ public class ElectionServiceTest {
         assertEquals("TK2023", e.getId());
     }
 
+    @Test
+    void readersSeeThePublishedElectionWhileAReloadIsBuilding() throws Exception {
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Election first = new Election("TK2023", "Tweede Kamer 2023", "2023-11-22");
+        Election second = new Election("TK2023", "Tweede Kamer 2023", "2023-11-22");
+        DutchElectionReader reader = new DutchElectionReader() {
+            private int reads;
+
+            @Override
+            public Election getElection(String electionId, ProcessingListener listener) {
+                if (reads++ == 0) {
+                    return first;
+                }
+                building.countDown();
+                try {
+                    finish.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return second;
+            }
+        };
+        ElectionService service = new ElectionService(reader);
+        service.readElection("TK2023");
+        Map<String, Election> published = service.getAll();
+
+        CompletableFuture<Boolean> reload = CompletableFuture.supplyAsync(() -> service.readElection("TK2023"));
+        assertTrue(building.await(5, TimeUnit.SECONDS));
+        assertSame(first, service.getElection("TK2023"));
 
+        finish.countDown();
+        assertTrue(reload.get(5, TimeUnit.SECONDS));
+        assertSame(second, service.getElection("TK2023"));
+        // A map that has been handed out is never changed by a later reload
+        assertSame(first, published.get("TK2023"));
+        assertThrows(UnsupportedOperationException.class, () -> service.getAll().put("TK2021", first));
+    }
+
+    @Test
+    void aSearchLimitAboveTheMaximumIsRejected() {
+        ElectionService service = new ElectionService(new DutchElectionReader());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.search("TK2023", "jansen", null, ElectionService.MAX_LIMIT + 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.searchPollingStationsByZipCode("TK2023", "1012", Integer.MAX_VALUE));
+        assertEquals(List.of(), service.search("TK2023", "jansen", null, ElectionService.MAX_LIMIT));
+    }
 }
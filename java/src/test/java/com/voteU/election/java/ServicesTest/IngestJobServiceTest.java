@@ -0,0 +1,134 @@
+package com.voteU.election.java.ServicesTest;
+
+import com.voteU.election.java.exceptions.ResourceNotFoundException;
+import com.voteU.election.java.model.Election;
+import com.voteU.election.java.reader.DutchElectionReader;
+import com.voteU.election.java.services.electiondata.memory.ElectionService;
+import com.voteU.election.java.services.electiondata.memory.IngestJob;
+import com.voteU.election.java.services.electiondata.memory.IngestJobService;
+import com.voteU.election.java.utils.xml.ProcessingListener;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IngestJobServiceTest {
+
+    /**
+     * A reader that reports one file, and then waits until it is allowed to finish or is interrupted.
+     */
+    private static class BlockingReader extends DutchElectionReader {
+        final CountDownLatch reading = new CountDownLatch(1);
+        final CountDownLatch finish = new CountDownLatch(1);
+        final Path file;
+
+        BlockingReader(Path file) {
+            this.file = file;
+        }
+
+        @Override
+        public Election getElection(String electionId, ProcessingListener listener) {
+            listener.started(List.of(file, file));
+            listener.phaseStarted("municipalities", List.of(file, file));
+            listener.fileProcessed(file, 100);
+            reading.countDown();
+            try {
+                finish.await();
+            } catch (InterruptedException e) {
+                return null;
+            }
+            listener.fileProcessed(file, 100);
+            return new Election(electionId, "Tweede Kamer", "2023-11-22");
+        }
+    }
+
+    private static IngestJob awaitFinished(IngestJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!job.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.isFinished());
+        return job;
+    }
+
+    @Test
+    void aJobReportsItsProgressAndPublishesTheElection() throws Exception {
+        Path file = Files.write(Files.createTempFile("Telling_TK2023_gemeente_", ".eml.xml"), new byte[1000]);
+        BlockingReader reader = new BlockingReader(file);
+        ElectionService electionService = new ElectionService(reader);
+        IngestJobService service = new IngestJobService(electionService);
+
+        IngestJob job = service.start("TK2023");
+        assertTrue(reader.reading.await(5, TimeUnit.SECONDS));
+        assertEquals(IngestJob.State.RUNNING, job.getState());
+        assertEquals("municipalities", job.getPhase());
+        assertEquals(1, job.getFilesDone());
+        assertEquals(2, job.getFilesTotal());
+        assertEquals(1000, job.getBytesDone());
+        assertEquals(2000, job.getBytesTotal());
+        assertEquals(100, job.getRows());
+        assertNotNull(job.getEtaSeconds());
+        // The election is read by one job at a time
+        assertSame(job, service.start("TK2023"));
+        assertNull(electionService.getElection("TK2023"));
+
+        reader.finish.countDown();
+        awaitFinished(job);
+        assertEquals(IngestJob.State.SUCCEEDED, job.getState());
+        assertEquals(200, job.getRows());
+        assertNull(job.getEtaSeconds());
+        assertNotNull(electionService.getElection("TK2023"));
+        assertSame(job, service.getJob(job.getId()));
+        assertEquals(List.of(job), service.getJobs());
+        assertThrows(IllegalStateException.class, () -> service.cancel(job.getId()));
+        Files.delete(file);
+    }
+
+    @Test
+    void aCancelledJobPublishesNothing() throws Exception {
+        Path file = Files.write(Files.createTempFile("Telling_TK2023_gemeente_", ".eml.xml"), new byte[10]);
+        BlockingReader reader = new BlockingReader(file);
+        ElectionService electionService = new ElectionService(reader);
+        IngestJobService service = new IngestJobService(electionService);
+
+        IngestJob job = service.start("TK2023");
+        assertTrue(reader.reading.await(5, TimeUnit.SECONDS));
+        service.cancel(job.getId());
+
+        awaitFinished(job);
+        assertEquals(IngestJob.State.CANCELLED, job.getState());
+        assertNull(electionService.getElection("TK2023"));
+        // After the job has finished the election can be read again
+        assertNotSame(job, service.start("TK2023"));
+        reader.finish.countDown();
+        Files.delete(file);
+    }
+
+    @Test
+    void anUnknownJobIsNotFound() {
+        IngestJobService service = new IngestJobService(new ElectionService(new DutchElectionReader()));
+
+        assertThrows(ResourceNotFoundException.class, () -> service.getJob("unknown"));
+    }
+
+    @Test
+    void aFileThatCannotBeReadCountsAsEmpty() throws Exception {
+        Path file = Files.createTempFile("ingest", ".xml");
+        Files.write(file, new byte[1000]);
+        Path missing = file.resolveSibling(file.getFileName() + ".missing");
+        IngestJob job = new IngestJob("job", "TK2023");
+
+        job.started(List.of(file, missing));
+        job.fileProcessed(missing, 10);
+
+        assertEquals(1000, job.getBytesTotal());
+        assertEquals(0, job.getBytesDone());
+        assertEquals(1, job.getFilesDone());
+        Files.delete(file);
+    }
+}
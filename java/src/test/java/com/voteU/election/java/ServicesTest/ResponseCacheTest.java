@@ -0,0 +1,106 @@
+package com.voteU.election.java.ServicesTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voteU.election.java.model.Election;
+import com.voteU.election.java.services.electiondata.memory.ElectionService;
+import com.voteU.election.java.services.electiondata.memory.ResponseCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ResponseCacheTest {
+    private ElectionService electionService;
+    private ResponseCache cache;
+    private final AtomicInteger encoded = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        electionService = mock(ElectionService.class);
+        cache = new ResponseCache(electionService, new ObjectMapper());
+        when(electionService.getElection("TK2023")).thenReturn(new Election("TK2023", "Tweede Kamer", "2023-11-22"));
+    }
+
+    private Supplier<Object> value(Object value) {
+        return () -> {
+            encoded.incrementAndGet();
+            return value;
+        };
+    }
+
+    private static HttpHeaders ifNoneMatch(String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        return headers;
+    }
+
+    @Test
+    void aResponseIsEncodedOnceAndRevalidatedWithItsETag() {
+        ResponseEntity<byte[]> first = cache.get(new HttpHeaders(), "TK2023", "parties", value(List.of("VVD", "D66")));
+        ResponseEntity<byte[]> second = cache.get(new HttpHeaders(), "TK2023", "parties", value(List.of("VVD", "D66")));
+        String etag = first.getHeaders().getETag();
+
+        assertEquals("[\"VVD\",\"D66\"]", new String(first.getBody()));
+        assertArrayEquals(first.getBody(), second.getBody());
+        assertEquals(1, encoded.get());
+        assertTrue(etag.startsWith("\""));
+        assertEquals(HttpStatus.NOT_MODIFIED, cache.get(ifNoneMatch(etag), "TK2023", "parties", value(null)).getStatusCode());
+        assertEquals(HttpStatus.NOT_MODIFIED, cache.get(ifNoneMatch("W/" + etag), "TK2023", "parties", value(null)).getStatusCode());
+        assertEquals(HttpStatus.OK, cache.get(ifNoneMatch("\"other\""), "TK2023", "parties", value(null)).getStatusCode());
+        assertEquals(1, encoded.get());
+    }
+
+    @Test
+    void aReadElectionDropsItsResponses() {
+        ResponseEntity<byte[]> first = cache.get(new HttpHeaders(), "TK2023", "parties", value(List.of("VVD")));
+        when(electionService.getElection("TK2023")).thenReturn(new Election("TK2023", "Tweede Kamer", "2023-11-22"));
+
+        ResponseEntity<byte[]> second = cache.get(ifNoneMatch(first.getHeaders().getETag()), "TK2023", "parties", value(List.of("VVD", "PVV")));
+
+        assertEquals(HttpStatus.OK, second.getStatusCode());
+        assertEquals("[\"VVD\",\"PVV\"]", new String(second.getBody()));
+        assertNotEquals(first.getHeaders().getETag(), second.getHeaders().getETag());
+        assertEquals(2, encoded.get());
+    }
+
+    @Test
+    void anUnpublishedElectionIsNotCached() {
+        cache.get(new HttpHeaders(), "TK2021", "parties", value(List.of()));
+        ResponseEntity<byte[]> response = cache.get(new HttpHeaders(), "TK2021", "parties", value(List.of()));
+
+        assertEquals("[]", new String(response.getBody()));
+        assertNull(response.getHeaders().getETag());
+        assertEquals(2, encoded.get());
+    }
+
+    @Test
+    void aLargeResponseIsSentGzippedToClientsThatAcceptIt() throws IOException {
+        String name = "Partij ".repeat(500);
+        HttpHeaders gzip = new HttpHeaders();
+        gzip.set(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8");
+
+        ResponseEntity<byte[]> plain = cache.get(new HttpHeaders(), "TK2023", "names", value(List.of(name)));
+        ResponseEntity<byte[]> compressed = cache.get(gzip, "TK2023", "names", value(List.of(name)));
+
+        assertNull(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", compressed.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(compressed.getBody().length < plain.getBody().length);
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed.getBody()))) {
+            assertArrayEquals(plain.getBody(), input.readAllBytes());
+        }
+        assertNotEquals(plain.getHeaders().getETag(), compressed.getHeaders().getETag());
+        assertEquals(List.of(HttpHeaders.ACCEPT_ENCODING), compressed.getHeaders().getVary());
+        assertEquals(1, encoded.get());
+    }
+}
@@ -0,0 +1,76 @@
+package com.voteU.election.java.model;
+
+import com.voteU.election.java.services.electiondata.memory.ProvinceService;
+import com.voteU.election.java.utils.xml.ElectionFixture;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AggregateIndexTest {
+    private static Election election;
+    private static AggregateIndex index;
+
+    @BeforeAll
+    static void load() throws Exception {
+        election = ElectionFixture.tk2023();
+        index = AggregateIndex.of(election);
+    }
+
+    @Test
+    void provinceTotalsMatchTheAuthorities() {
+        ProvinceService walker = new ProvinceService(null, null);
+        for (Province province : election.getProvinces()) {
+            Map<Integer, Party> expected = walker.getTotalVotesPerParty(province);
+            Map<Integer, Party> actual = index.provinceParties(province.getId());
+
+            assertEquals(expected.keySet(), actual.keySet(), province.getName());
+            for (Party party : expected.values()) {
+                assertEquals(party.getName(), actual.get(party.getId()).getName());
+                assertEquals(party.getVotes(), actual.get(party.getId()).getVotes());
+                assertEquals(party.getPercentage(), actual.get(party.getId()).getPercentage(), 1e-9);
+            }
+            assertEquals(expected.values().stream().mapToInt(Party::getVotes).sum(), index.provinceVotes(province.getId()));
+            assertSame(province, index.province(province.getId()));
+        }
+    }
+
+    @Test
+    void constituencyAndAuthorityTotalsMatchTheAuthorities() {
+        for (Constituency constituency : election.getConstituencies().values()) {
+            int constituencyOrdinal = index.constituencyOrdinal(constituency.getId());
+            int constituencyTotal = 0;
+            for (Authority authority : constituency.getAuthorities().values()) {
+                int authorityOrdinal = index.authorityOrdinal(authority.getId());
+                assertEquals(authority.getVotes(), index.authorities().total(authorityOrdinal));
+                for (Party party : authority.getParties().values()) {
+                    assertEquals(party.getVotes(), index.authorities().votes(authorityOrdinal, index.partyOrdinal(party.getId())));
+                }
+                constituencyTotal += authority.getVotes();
+            }
+            assertEquals(constituencyTotal, index.constituencies().total(constituencyOrdinal));
+        }
+    }
+
+    @Test
+    void unknownProvincesAreEmpty() {
+        assertNull(index.province(99));
+        assertEquals(0, index.provinceVotes(99));
+        assertTrue(index.provinceParties(-1).isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> index.provinceParties(1).clear());
+    }
+
+    @Test
+    void changingAProvincePartyDoesNotChangeTheIndex() {
+        Province province = election.getProvinces().stream()
+                .filter(candidate -> !index.provinceParties(candidate.getId()).isEmpty()).findFirst().orElseThrow();
+        Party party = index.provinceParties(province.getId()).values().iterator().next();
+        int votes = party.getVotes();
+
+        party.setVotes(votes + 1);
+
+        assertEquals(votes, index.provinceParties(province.getId()).get(party.getId()).getVotes());
+    }
+}
@@ -0,0 +1,44 @@
+package com.voteU.election.java.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandidateDictionaryTest {
+
+    @Test
+    void equalDetailsShareOneInstance() {
+        CandidateDictionary dictionary = new CandidateDictionary();
+        CandidateDetails first = dictionary.register(1, 2, 3, new CandidateDetails("Rob", "Jetten", "male", "Ubbergen"));
+        CandidateDetails second = dictionary.register(2, 2, 3, new CandidateDetails("Rob", "Jetten", "male", "Ubbergen"));
+
+        assertSame(first, second);
+        assertSame(first, dictionary.get(2, 2, 3));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    void candidatesAreKeyedPerContest() {
+        CandidateDictionary dictionary = new CandidateDictionary();
+        dictionary.register(1, 2, 30, new CandidateDetails("Anna", "de Vries", "female", "Assen"));
+        dictionary.register(2, 2, 30, new CandidateDetails("Bert", "Bakker", "male", "Leeuwarden"));
+
+        assertEquals("de Vries", dictionary.get(1, 2, 30).lastName());
+        assertEquals("Bakker", dictionary.get(2, 2, 30).lastName());
+        assertNull(dictionary.get(3, 2, 30));
+    }
+
+    @Test
+    void candidateJsonContainsTheDetails() throws Exception {
+        Candidate candidate = new Candidate();
+        candidate.setId(3);
+        candidate.setDetails(new CandidateDetails("Rob", "Jetten", "male", "Ubbergen"));
+        candidate.setPartyId(2);
+        candidate.setVotes(10);
+        candidate.setElectionId("TK2023");
+
+        assertEquals("{\"id\":3,\"firstName\":\"Rob\",\"lastName\":\"Jetten\",\"gender\":\"male\",\"localityName\":\"Ubbergen\","
+                + "\"partyId\":2,\"votes\":10,\"electionId\":\"TK2023\"}", new ObjectMapper().writeValueAsString(candidate));
+    }
+}
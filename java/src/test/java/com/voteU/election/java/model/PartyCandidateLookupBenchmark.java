@@ -0,0 +1,70 @@
+package com.voteU.election.java.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures filling the candidate list of a {@link Party} the way the transformer does for every reporting unit: each
+ * candidate vote first checks whether the candidate is already in the list, and adds it when it is not.
+ * {@code indexed} uses {@link Party#hasCandidateId}, {@code linearScan} the scan over the list it replaced. With 80
+ * candidates, the length of the longest candidate lists, the scan does about 3,200 comparisons per party.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartyCandidateLookupBenchmark {
+    @Param({"20", "80", "320"})
+    public int candidates;
+
+    private int[] candidateIds;
+
+    @Setup(Level.Trial)
+    public void createIds() {
+        candidateIds = new int[candidates];
+        for (int i = 0; i < candidates; i++) {
+            candidateIds[i] = i + 1;
+        }
+    }
+
+    @Benchmark
+    public Party indexed() {
+        Party party = new Party(1, "Party");
+        for (int candidateId : candidateIds) {
+            if (!party.hasCandidateId(candidateId)) {
+                party.addCandidate(candidate(candidateId));
+            }
+        }
+        return party;
+    }
+
+    @Benchmark
+    public List<Candidate> linearScan() {
+        List<Candidate> list = new ArrayList<>();
+        for (int candidateId : candidateIds) {
+            boolean found = false;
+            for (Candidate candidate : list) {
+                if (candidate.getId() == candidateId) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                list.add(candidate(candidateId));
+            }
+        }
+        return list;
+    }
+
+    private static Candidate candidate(int candidateId) {
+        Candidate candidate = new Candidate();
+        candidate.setId(candidateId);
+        candidate.setPartyId(1);
+        return candidate;
+    }
+}
@@ -0,0 +1,85 @@
+package com.voteU.election.java.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartyTest {
+
+    private static Candidate candidate(int id) {
+        Candidate candidate = new Candidate();
+        candidate.setId(id);
+        return candidate;
+    }
+
+    @Test
+    void candidatesAreFoundOnTheirId() {
+        Party party = new Party(1, "VVD");
+        for (int id = 80; id >= 1; id--) {
+            party.addCandidate(candidate(id));
+        }
+
+        assertEquals(80, party.getCandidate(80).getId());
+        assertSame(party.getCandidates().get(79), party.getCandidate(1));
+        assertTrue(party.hasCandidateId(42));
+        assertFalse(party.hasCandidateId(81));
+        assertNull(party.getCandidate(0));
+    }
+
+    @Test
+    void candidatesAddedAfterALookupAreFound() {
+        Party party = new Party(1, "VVD");
+        party.addCandidate(candidate(1));
+        assertFalse(party.hasCandidateId(2));
+
+        party.addCandidate(candidate(2));
+        party.getCandidates().add(candidate(3));
+
+        assertTrue(party.hasCandidateId(2));
+        assertTrue(party.hasCandidateId(3));
+    }
+
+    @Test
+    void theIndexFollowsChangesToTheList() {
+        Party party = new Party(1, "VVD");
+        party.setCandidates(new ArrayList<>(List.of(candidate(1), candidate(2), candidate(3))));
+        assertTrue(party.hasCandidateId(3));
+
+        party.setCandidates(new ArrayList<>(List.of(candidate(4))));
+        assertFalse(party.hasCandidateId(3));
+        assertTrue(party.hasCandidateId(4));
+
+        // Replacing a candidate in place is noticed when its old id is looked up
+        party.getCandidates().set(0, candidate(5));
+        party.getCandidates().add(candidate(6));
+        assertNull(party.getCandidate(4));
+        assertEquals(5, party.getCandidate(5).getId());
+        assertEquals(6, party.getCandidate(6).getId());
+    }
+
+    @Test
+    void theFirstCandidateWithAnIdIsFound() {
+        Party party = new Party(1, "VVD");
+        Candidate first = candidate(7);
+        party.addCandidate(first);
+        party.addCandidate(candidate(7));
+
+        assertSame(first, party.getCandidate(7));
+    }
+
+    @Test
+    void jsonDoesNotContainTheIndex() throws Exception {
+        Party party = new Party(1, "VVD");
+        party.setVotes(10);
+        party.addCandidate(candidate(1));
+        party.hasCandidateId(1);
+
+        String json = new ObjectMapper().writeValueAsString(party);
+        assertTrue(json.startsWith("{\"id\":1,\"name\":\"VVD\",\"votes\":10,\"percentage\":0.0,\"candidates\":[{\"id\":1,"), json);
+        assertFalse(json.contains("index"), json);
+    }
+}
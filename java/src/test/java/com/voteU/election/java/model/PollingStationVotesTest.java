@@ -0,0 +1,111 @@
+package com.voteU.election.java.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PollingStationVotesTest {
+
+    private static PollingStationVotes twoStations() {
+        PollingStationVotes votes = new PollingStationVotes();
+        int first = votes.registerPollingStation("0363::SB1", "Stembureau 1", "1011AB", "TK2023", "0363");
+        votes.registerPartyVotes(first, 1, "VVD", 120);
+        votes.registerCandidateVotes(first, 1, 1, 100);
+        votes.registerCandidateVotes(first, 1, 2, 20);
+        votes.registerPartyVotes(first, 2, "D66", 30);
+        votes.registerCandidateVotes(first, 2, 1, 30);
+
+        int second = votes.registerPollingStation("0363::SB2", "Stembureau 2", null, "TK2023", "0363");
+        votes.registerPartyVotes(second, 2, "D66", 7);
+        votes.registerCandidateVotes(second, 2, 1, 5);
+        votes.registerCandidateVotes(second, 2, 3, 2);
+        return votes;
+    }
+
+    @Test
+    void pollingStationsAreViewsOfTheRows() {
+        PollingStationVotes votes = twoStations();
+
+        assertEquals(2, votes.size());
+        assertEquals(List.of("0363::SB1", "0363::SB2"), List.copyOf(votes.keySet()));
+
+        PollingStation first = votes.get("0363::SB1");
+        assertEquals("Stembureau 1", first.getName());
+        assertEquals("1011AB", first.getZipCode());
+        assertEquals(150, first.getVotes());
+        assertEquals("TK2023", first.getElectionId());
+        assertEquals("0363", first.getAuthorityId());
+
+        Party vvd = first.getParties().get(1);
+        assertEquals("VVD", vvd.getName());
+        assertEquals(120, vvd.getVotes());
+        assertEquals(List.of(1, 2), vvd.getCandidates().stream().map(Candidate::getId).toList());
+        assertEquals(20, vvd.getCandidates().get(1).getVotes());
+        assertEquals("TK2023", vvd.getCandidates().get(1).getElectionId());
+
+        PollingStation second = votes.get("0363::SB2");
+        assertEquals(Map.of(2, "D66"), Map.of(2, second.getParties().get(2).getName()));
+        assertEquals(List.of(1, 3), second.getParties().get(2).getCandidates().stream().map(Candidate::getId).toList());
+        assertNull(votes.get("0363::SB3"));
+    }
+
+    @Test
+    void votesAreOnlyRegisteredOnce() {
+        PollingStationVotes votes = twoStations();
+        int first = votes.ordinal("0363::SB1");
+        votes.registerPartyVotes(first, 1, "VVD", 999);
+        votes.registerCandidateVotes(first, 1, 1, 999);
+        // The second polling station has no votes for party 1, so its candidates are ignored
+        votes.registerCandidateVotes(votes.ordinal("0363::SB2"), 1, 1, 999);
+
+        assertEquals(120, votes.get("0363::SB1").getParties().get(1).getVotes());
+        assertEquals(100, votes.get("0363::SB1").getParties().get(1).getCandidates().get(0).getVotes());
+        assertNull(votes.get("0363::SB2").getParties().get(1));
+    }
+
+    @Test
+    void registeredCandidatesAreAddedToThePollingStationsOfTheirParty() {
+        PollingStationVotes votes = twoStations();
+        CandidateDetails jetten = new CandidateDetails("Rob", "Jetten", "male", "Ubbergen");
+        votes.registerCandidate(2, 3, jetten);
+
+        List<Candidate> first = votes.get("0363::SB1").getParties().get(2).getCandidates();
+        assertEquals(List.of(1, 3), first.stream().map(Candidate::getId).toList());
+        assertEquals(0, first.get(1).getVotes());
+        assertEquals("Jetten", first.get(1).getLastName());
+
+        Candidate second = votes.get("0363::SB2").getParties().get(2).getCandidates().get(1);
+        assertEquals(2, second.getVotes());
+        assertSame(jetten, second.getDetails());
+        assertEquals("", votes.get("0363::SB2").getParties().get(2).getCandidates().get(0).getFirstName());
+    }
+
+    @Test
+    void putCopiesAPollingStationIntoTheRows() {
+        PollingStationVotes votes = twoStations();
+        PollingStation station = new PollingStation("0363::SB2", "Stembureau 2b", "1012CD");
+        station.setVotes(11);
+        Party party = new Party(3, "GL");
+        party.setVotes(11);
+        Candidate candidate = new Candidate();
+        candidate.setId(4);
+        candidate.setVotes(11);
+        candidate.setLastName("Klaver");
+        party.addCandidate(candidate);
+        station.getParties().put(3, party);
+
+        PollingStation previous = votes.put("0363::SB2", station);
+
+        assertEquals(7, previous.getVotes());
+        assertEquals(7, previous.getParties().get(2).getVotes());
+        PollingStation copy = votes.get("0363::SB2");
+        assertEquals("Stembureau 2b", copy.getName());
+        assertEquals(11, copy.getVotes());
+        assertEquals(Map.of(3, 11), Map.of(3, copy.getParties().get(3).getVotes()));
+        assertEquals(1, copy.getParties().size());
+        assertEquals("Klaver", copy.getParties().get(3).getCandidates().get(0).getLastName());
+    }
+}
@@ -0,0 +1,102 @@
+package com.voteU.election.java.model;
+
+import com.voteU.election.java.utils.xml.ElectionFixture;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTest {
+    private static Election election;
+    private static SearchIndex index;
+    private static Party party;
+    private static Candidate candidate;
+
+    @BeforeAll
+    static void load() throws Exception {
+        election = ElectionFixture.tk2023();
+        index = SearchIndex.of(election);
+
+        // A candidate with a long last name of one word, so it can be searched with typos
+        for (Party nationalParty : election.getParties().values()) {
+            for (Candidate nationalCandidate : nationalParty.getCandidates()) {
+                String lastName = nationalCandidate.getLastName();
+                if (candidate == null && lastName != null && lastName.length() >= 8 && lastName.matches("\\p{L}+")) {
+                    party = nationalParty;
+                    candidate = nationalCandidate;
+                }
+            }
+        }
+        assertNotNull(candidate);
+    }
+
+    private static boolean found(List<SearchIndex.Hit> hits, SearchIndex.Type type, String id) {
+        return hits.stream().anyMatch(hit -> hit.type() == type && hit.id().equals(id));
+    }
+
+    @Test
+    void aCandidateIsFoundByNameWithAPrefixAndWithTypos() {
+        String lastName = SearchIndex.terms(candidate.getLastName()).get(0);
+        String id = String.valueOf(candidate.getId());
+        char[] swapped = lastName.toCharArray();
+        char c = swapped[3];
+        swapped[3] = swapped[4];
+        swapped[4] = c;
+        String substituted = lastName.substring(0, 5) + (lastName.charAt(5) == 'x' ? 'y' : 'x') + lastName.substring(6);
+
+        List<SearchIndex.Hit> exact = index.search(lastName, null, 1000);
+
+        assertTrue(found(exact, SearchIndex.Type.CANDIDATE, id));
+        assertEquals(SearchIndex.Type.CANDIDATE, exact.get(0).type());
+        assertTrue(found(index.search(lastName.substring(0, 4), null, 10000), SearchIndex.Type.CANDIDATE, id));
+        assertTrue(found(index.search(new String(swapped), null, 1000), SearchIndex.Type.CANDIDATE, id));
+        assertTrue(found(index.search(substituted.toUpperCase(), null, 1000), SearchIndex.Type.CANDIDATE, id));
+        assertTrue(found(index.search(candidate.getFirstName() + " " + lastName, null, 10), SearchIndex.Type.CANDIDATE, id));
+    }
+
+    @Test
+    void everyTermOfTheQueryHasToMatch() {
+        String lastName = candidate.getLastName();
+
+        List<SearchIndex.Hit> hits = index.search(lastName + " qqqqqqqqqq", null, 10);
+
+        assertTrue(hits.isEmpty());
+    }
+
+    @Test
+    void theResultsCanBeLimitedToTypes() {
+        List<SearchIndex.Hit> parties = index.search(party.getName(), Set.of(SearchIndex.Type.PARTY), 10);
+
+        assertFalse(parties.isEmpty());
+        assertTrue(parties.stream().allMatch(hit -> hit.type() == SearchIndex.Type.PARTY));
+        assertTrue(found(parties, SearchIndex.Type.PARTY, String.valueOf(party.getId())));
+    }
+
+    @Test
+    void authoritiesAndPollingStationsAreFoundWithoutDiacritics() {
+        Constituency constituency = election.getConstituencies().values().iterator().next();
+        Authority authority = constituency.getAuthorities().values().iterator().next();
+        PollingStation pollingStation = authority.getPollingStations().values().iterator().next();
+
+        List<SearchIndex.Hit> authorities = index.search(authority.getName(), Set.of(SearchIndex.Type.AUTHORITY), 10);
+        List<SearchIndex.Hit> pollingStations = index.search(pollingStation.getName(), Set.of(SearchIndex.Type.POLLING_STATION), 1000);
+
+        assertTrue(found(authorities, SearchIndex.Type.AUTHORITY, authority.getId()));
+        assertEquals(constituency.getId(), authorities.get(0).constituencyId());
+        assertTrue(found(pollingStations, SearchIndex.Type.POLLING_STATION, pollingStation.getId()));
+        assertEquals(List.of("cafe", "de", "ruyter", "s", "gravenhage"), SearchIndex.terms("Café De Rüyter, 's-Gravenhage"));
+    }
+
+    @Test
+    void theEditDistanceCountsSwapsAsOneEdit() {
+        assertEquals(0, SearchIndex.editDistance("omtzigt", "omtzigt", 2));
+        assertEquals(1, SearchIndex.editDistance("omtzigt", "omtizgt", 2));
+        assertEquals(1, SearchIndex.editDistance("omtzigt", "omtzig", 2));
+        assertEquals(2, SearchIndex.editDistance("omtzigt", "ontzig", 2));
+        assertEquals(3, SearchIndex.editDistance("omtzigt", "yesilgoz", 2));
+        assertTrue(index.search("   ", null, 10).isEmpty());
+    }
+}
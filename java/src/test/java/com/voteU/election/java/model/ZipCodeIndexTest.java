@@ -0,0 +1,85 @@
+package com.voteU.election.java.model;
+
+import com.voteU.election.java.utils.xml.ElectionFixture;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipCodeIndexTest {
+    private static List<PollingStation> pollingStations;
+    private static ZipCodeIndex index;
+
+    @BeforeAll
+    static void load() throws Exception {
+        Election election = ElectionFixture.tk2023();
+        index = ZipCodeIndex.of(election);
+
+        pollingStations = new ArrayList<>();
+        for (Constituency constituency : election.getConstituencies().values()) {
+            for (Authority authority : constituency.getAuthorities().values()) {
+                for (PollingStation pollingStation : authority.getPollingStations().values()) {
+                    if (!ZipCodeIndex.normalize(pollingStation.getZipCode()).isEmpty()) {
+                        pollingStations.add(pollingStation);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the polling stations of a prefix the slow way, by scanning all of them.
+     */
+    private static List<String> scan(String prefix) {
+        return pollingStations.stream()
+                .filter(pollingStation -> ZipCodeIndex.normalize(pollingStation.getZipCode()).startsWith(prefix))
+                .sorted(Comparator.comparing((PollingStation pollingStation) -> ZipCodeIndex.normalize(pollingStation.getZipCode()))
+                        .thenComparing(PollingStation::getAuthorityId)
+                        .thenComparing(PollingStation::getId))
+                .map(PollingStation::getId)
+                .toList();
+    }
+
+    private static List<String> ids(List<PollingStation> pollingStations) {
+        return pollingStations.stream().map(PollingStation::getId).toList();
+    }
+
+    @Test
+    void everyPrefixFindsTheSamePollingStationsAsAScan() {
+        assertFalse(pollingStations.isEmpty());
+        assertEquals(pollingStations.size(), index.size());
+        for (PollingStation pollingStation : pollingStations) {
+            String zipCode = ZipCodeIndex.normalize(pollingStation.getZipCode());
+            for (int length = 1; length <= zipCode.length(); length++) {
+                String prefix = zipCode.substring(0, length);
+                List<String> expected = scan(prefix);
+
+                assertEquals(expected, ids(index.search(prefix, Integer.MAX_VALUE)), prefix);
+                assertEquals(expected.size(), index.count(prefix), prefix);
+            }
+        }
+    }
+
+    @Test
+    void theLimitReturnsTheFirstMatches() {
+        String prefix = ZipCodeIndex.normalize(pollingStations.get(0).getZipCode()).substring(0, 1);
+        List<String> expected = scan(prefix);
+
+        assertEquals(expected.subList(0, Math.min(3, expected.size())), ids(index.search(prefix, 3)));
+        assertTrue(index.search(prefix, 0).isEmpty());
+    }
+
+    @Test
+    void spacesAndCaseAreIgnored() {
+        String zipCode = ZipCodeIndex.normalize(pollingStations.get(0).getZipCode());
+        String spaced = (zipCode.substring(0, 4) + " " + zipCode.substring(4)).toLowerCase();
+
+        assertEquals(ids(index.search(zipCode, 10)), ids(index.search(spaced, 10)));
+        assertTrue(index.search("ZZZZ", 10).isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> index.search(zipCode, 10).set(0, null));
+    }
+}
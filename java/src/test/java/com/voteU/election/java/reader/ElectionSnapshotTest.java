@@ -0,0 +1,108 @@
+package com.voteU.election.java.reader;
+
+import com.voteU.election.java.model.Election;
+import com.voteU.election.java.model.Province;
+import com.voteU.election.java.utils.xml.DutchElectionProcessor;
+import com.voteU.election.java.utils.xml.ElectionDump;
+import com.voteU.election.java.utils.xml.EmlGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ElectionSnapshotTest {
+    private static final String ELECTION_ID = "TK2023";
+
+    @TempDir
+    Path folder;
+    @TempDir
+    Path snapshots;
+
+    private Election election;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        new EmlGenerator(ELECTION_ID, new EmlGenerator.Size(4, 6, 20, 5, 8), 7).write(folder);
+        DutchElectionTransformer transformer = new DutchElectionTransformer();
+        new DutchElectionProcessor<>(transformer).processResults(ELECTION_ID, folder.toString());
+        election = transformer.getElection(ELECTION_ID);
+    }
+
+    @Test
+    void snapshot_contains_the_complete_election() throws Exception {
+        byte[] checksum = ElectionSnapshot.sourceChecksum(ELECTION_ID, folder.toString());
+        Path file = snapshots.resolve("TK2023.snapshot");
+
+        ElectionSnapshot.write(election, checksum, file);
+        Election loaded = ElectionSnapshot.read(file, checksum);
+
+        assertNotNull(loaded);
+        assertEquals(ElectionDump.of(election), ElectionDump.of(loaded));
+        for (Province province : loaded.getProvinces()) {
+            province.getConstituencies().forEach(constituency ->
+                    assertSame(loaded.getConstituencies().get(constituency.getId()), constituency));
+        }
+    }
+
+    @Test
+    void snapshot_is_ignored_when_the_source_files_change() throws Exception {
+        byte[] checksum = ElectionSnapshot.sourceChecksum(ELECTION_ID, folder.toString());
+        Path file = snapshots.resolve("TK2023.snapshot");
+        ElectionSnapshot.write(election, checksum, file);
+
+        List<Path> sources;
+        try (var files = Files.list(folder.resolve("Gemeente"))) {
+            sources = files.toList();
+        }
+        // Another vote count of the same length, with the size and the modification time of the file kept
+        Path source = sources.get(0);
+        FileTime modified = Files.getLastModifiedTime(source);
+        String content = Files.readString(source);
+        int votes = content.indexOf("<ValidVotes>") + "<ValidVotes>".length();
+        char digit = content.charAt(votes);
+        Files.writeString(source, content.substring(0, votes) + (digit == '9' ? '8' : (char) (digit + 1)) + content.substring(votes + 1));
+        Files.setLastModifiedTime(source, modified);
+        byte[] changed = ElectionSnapshot.sourceChecksum(ELECTION_ID, folder.toString());
+
+        assertFalse(java.util.Arrays.equals(checksum, changed));
+        assertNull(ElectionSnapshot.read(file, changed));
+    }
+
+    @Test
+    void snapshot_of_another_format_is_ignored() throws Exception {
+        Path file = snapshots.resolve("TK2023.snapshot");
+        Files.write(file, new byte[64]);
+
+        assertNull(ElectionSnapshot.read(file, ElectionSnapshot.sourceChecksum(ELECTION_ID, folder.toString())));
+    }
+
+    @Test
+    void reader_stores_and_loads_snapshots() {
+        Election parsed = new DutchElectionReader(1, snapshots.toString()).getElection(ELECTION_ID, folder.toString());
+        assertTrue(Files.exists(snapshots.resolve("TK2023.snapshot")));
+
+        Election loaded = new DutchElectionReader(1, snapshots.toString()).getElection(ELECTION_ID, folder.toString());
+
+        assertNotSame(parsed, loaded);
+        assertEquals(ElectionDump.of(parsed), ElectionDump.of(loaded));
+    }
+
+    @Test
+    void reader_returns_no_election_when_a_file_cannot_be_processed() throws Exception {
+        Path municipality;
+        try (var files = Files.list(folder.resolve("Gemeente"))) {
+            municipality = files.findFirst().orElseThrow();
+        }
+        String content = Files.readString(municipality);
+        Files.writeString(municipality, content.substring(0, content.length() / 2));
+
+        assertNull(new DutchElectionReader(1, snapshots.toString()).getElection(ELECTION_ID, folder.toString()));
+        assertFalse(Files.exists(snapshots.resolve("TK2023.snapshot")));
+    }
+}
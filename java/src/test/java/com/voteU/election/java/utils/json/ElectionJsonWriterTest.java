@@ -0,0 +1,102 @@
+package com.voteU.election.java.utils.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voteU.election.java.model.Authority;
+import com.voteU.election.java.model.Constituency;
+import com.voteU.election.java.model.Election;
+import com.voteU.election.java.utils.xml.ElectionFixture;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ElectionJsonWriterTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static Election election;
+
+    @BeforeAll
+    static void load() throws Exception {
+        election = ElectionFixture.tk2023();
+    }
+
+    private static JsonNode write(ElectionJsonWriter.Body body) throws IOException {
+        return write(Projection.ALL, body);
+    }
+
+    private static JsonNode write(Projection projection, ElectionJsonWriter.Body body) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ElectionJsonWriter writer = new ElectionJsonWriter(output, projection)) {
+            body.write(writer);
+        }
+        return MAPPER.readTree(output.toByteArray());
+    }
+
+    @Test
+    void anElectionIsWrittenLikeTheDefaultSerialization() throws IOException {
+        assertEquals(MAPPER.valueToTree(election), write(writer -> writer.writeElection(election)));
+        assertEquals(MAPPER.valueToTree(Map.of("TK2023", election)),
+                write(writer -> writer.writeElections(Map.of("TK2023", election))));
+    }
+
+    @Test
+    void constituenciesAndAuthoritiesAreWrittenLikeTheDefaultSerialization() throws IOException {
+        Map<Integer, Constituency> constituencies = election.getConstituencies();
+        assertFalse(constituencies.isEmpty());
+        assertEquals(MAPPER.valueToTree(constituencies), write(writer -> writer.writeConstituencies(constituencies)));
+
+        Constituency constituency = constituencies.values().iterator().next();
+        Authority authority = constituency.getAuthorities().values().iterator().next();
+        assertFalse(authority.getPollingStations().isEmpty());
+        assertEquals(MAPPER.valueToTree(constituency.getAuthorities()),
+                write(writer -> writer.writeAuthorities(constituency.getAuthorities())));
+        assertEquals(MAPPER.valueToTree(authority), write(writer -> writer.writeAuthority(authority)));
+    }
+
+    @Test
+    void missingValuesAreWrittenAsNull() throws IOException {
+        Authority authority = new Authority("0363", "Amsterdam");
+
+        JsonNode written = write(writer -> writer.writeAuthority(authority));
+
+        assertEquals(MAPPER.valueToTree(authority), written);
+        assertTrue(written.get("pollingStations").isNull());
+        assertTrue(write(writer -> writer.writeElection(null)).isNull());
+    }
+
+    @Test
+    void aProjectionPrunesLevelsAndProperties() throws IOException {
+        Map<Integer, Constituency> constituencies = election.getConstituencies();
+
+        JsonNode written = write(Projection.of(1, "name, votes,parties"), writer -> writer.writeConstituencies(constituencies));
+
+        assertEquals(constituencies.size(), written.size());
+        for (Constituency constituency : constituencies.values()) {
+            JsonNode node = written.get(String.valueOf(constituency.getId()));
+            assertEquals(3, node.size());
+            assertEquals(constituency.getName(), node.get("name").asText());
+            JsonNode parties = node.get("parties");
+            assertEquals(constituency.getParties().size(), parties.size());
+            constituency.getParties().forEach((id, party) -> {
+                JsonNode partyNode = parties.get(String.valueOf(id));
+                assertEquals(2, partyNode.size());
+                assertEquals(party.getVotes(), partyNode.get("votes").asInt());
+            });
+        }
+    }
+
+    @Test
+    void aDepthOfZeroOnlyWritesTheRequestedObjects() throws IOException {
+        JsonNode written = write(Projection.of(0, null), writer -> writer.writeElection(election));
+
+        assertEquals("TK2023", written.get("id").asText());
+        assertEquals(election.getVotes(), written.get("votes").asInt());
+        assertFalse(written.has("constituencies"));
+        assertFalse(written.has("parties"));
+        assertThrows(IllegalArgumentException.class, () -> Projection.of(-1, null));
+    }
+}
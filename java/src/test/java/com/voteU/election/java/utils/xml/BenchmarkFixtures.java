@@ -0,0 +1,59 @@
+package com.voteU.election.java.utils.xml;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Provides the synthetic data sets the benchmarks run on. A data set is generated by the {@link EmlGenerator} the
+ * first time it is needed and kept in {@code target/eml-synthetic}, so the forks and later runs can re-use it.
+ */
+final class BenchmarkFixtures {
+    static final String ELECTION_ID = "TK2023";
+    private static final long SEED = 2023;
+    private static final String COMPLETE_MARKER = ".complete";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Returns the folder with a data set of {@code scale} times the size of the TK2023 election.
+     */
+    static synchronized Path folder(double scale) throws IOException {
+        Path folder = Path.of(System.getProperty("eml.synthetic.dir", "target/eml-synthetic"), ELECTION_ID + "-x" + scale)
+                .toAbsolutePath();
+        if (!Files.exists(folder.resolve(COMPLETE_MARKER))) {
+            long start = System.nanoTime();
+            new EmlGenerator(ELECTION_ID, EmlGenerator.Size.TK2023.scaled(scale), SEED).write(folder);
+            Files.createFile(folder.resolve(COMPLETE_MARKER));
+            System.out.printf("Generated synthetic election data in %s in %.1f s%n", folder, (System.nanoTime() - start) / 1e9);
+        }
+        return folder;
+    }
+
+    /**
+     * Returns the largest municipality file of the data set.
+     */
+    static Path largestMunicipalityFile(Path folder) throws IOException {
+        try (Stream<Path> files = Files.list(folder.resolve("Gemeente"))) {
+            return files.max(Comparator.comparingLong(BenchmarkFixtures::sizeOf)).orElseThrow();
+        }
+    }
+
+    static List<Path> municipalityFiles(Path folder) throws IOException {
+        try (Stream<Path> files = Files.list(folder.resolve("Gemeente"))) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
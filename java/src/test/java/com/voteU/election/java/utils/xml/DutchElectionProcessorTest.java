@@ -0,0 +1,70 @@
+package com.voteU.election.java.utils.xml;
+
+import com.voteU.election.java.model.AggregateIndex;
+import com.voteU.election.java.model.Authority;
+import com.voteU.election.java.model.Constituency;
+import com.voteU.election.java.model.Election;
+import com.voteU.election.java.model.Party;
+import com.voteU.election.java.model.Province;
+import com.voteU.election.java.reader.DutchElectionTransformer;
+import com.voteU.election.java.utils.PathUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link DutchElectionProcessor} using the small EML data set in {@code /EML_testdata_TK2023}.
+ */
+class DutchElectionProcessorTest {
+    private static final String FOLDER = PathUtils.getResourcePath("/EML_testdata_TK2023");
+
+    private static Election load(int parallelism) throws Exception {
+        DutchElectionTransformer transformer = new DutchElectionTransformer();
+        new DutchElectionProcessor<>(transformer, parallelism).processResults("TK2023", FOLDER);
+        return transformer.getElection("TK2023");
+    }
+
+    @Test
+    void processResults_builds_the_election_tree() throws Exception {
+        Election election = load(1);
+
+        assertNotNull(election);
+        assertEquals("Tweede Kamer der Staten-Generaal 2023", election.getName());
+        assertEquals(2, election.getConstituencies().size());
+        assertEquals(3, election.getParties().size());
+
+        Constituency groningen = election.getConstituencies().get(1);
+        assertEquals(2, groningen.getAuthorities().size());
+        Authority stadskanaal = groningen.getAuthorities().get("0037");
+        assertEquals("Stadskanaal", stadskanaal.getName());
+        assertEquals(2, stadskanaal.getPollingStations().size());
+        assertEquals("9501EB", stadskanaal.getPollingStations().get("0037::SB1").getZipCode());
+        assertEquals(4, election.getConstituencies().get(2).getAuthorities().get("0080").getPollingStations().size());
+    }
+
+    @Test
+    void province_totals_are_the_sum_of_their_authorities() throws Exception {
+        Election election = load(1);
+        AggregateIndex aggregates = AggregateIndex.of(election);
+
+        for (Province province : election.getProvinces()) {
+            int expected = 0;
+            for (Constituency constituency : province.getConstituencies()) {
+                for (Authority authority : constituency.getAuthorities().values()) {
+                    expected += authority.getParties().values().stream().mapToInt(Party::getVotes).sum();
+                }
+            }
+            assertEquals(expected, aggregates.provinceVotes(province.getId()), province.getName());
+        }
+        assertTrue(election.getProvinces().stream().anyMatch(province -> aggregates.provinceVotes(province.getId()) > 0));
+    }
+
+    @Test
+    void parallel_load_is_identical_to_sequential_load() throws Exception {
+        String sequential = ElectionDump.of(load(1));
+
+        for (int run = 0; run < 5; run++) {
+            assertEquals(sequential, ElectionDump.of(load(4)));
+        }
+    }
+}
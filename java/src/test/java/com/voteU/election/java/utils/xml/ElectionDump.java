@@ -0,0 +1,72 @@
+package com.voteU.election.java.utils.xml;
+
+import com.voteU.election.java.model.*;
+
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * Writes an {@link Election} as a canonical, line based text, so two elections can be compared with a single
+ * {@code assertEquals}. Maps are written sorted on their keys, lists in their own order.
+ */
+public final class ElectionDump {
+
+    private ElectionDump() {
+    }
+
+    public static String of(Election election) {
+        StringBuilder out = new StringBuilder();
+        out.append("election ").append(election.getId()).append(' ').append(election.getName())
+                .append(' ').append(election.getDate()).append(" votes=").append(election.getVotes()).append('\n');
+        parties(out, "  ", election.getParties());
+        if (election.getProvinces() != null) {
+            AggregateIndex aggregates = AggregateIndex.of(election);
+            for (Province province : election.getProvinces()) {
+                out.append("  province ").append(province.getId()).append(' ').append(province.getName()).append(" votes=").append(aggregates.provinceVotes(province.getId())).append(" constituencies=");
+                province.getConstituencies().forEach(c -> out.append(c.getId()).append(','));
+                out.append('\n');
+            }
+        }
+        for (Constituency constituency : sorted(election.getConstituencies())) {
+            out.append("  constituency ").append(constituency.getId()).append(' ').append(constituency.getName())
+                    .append(" province=").append(constituency.getProvinceId()).append(" votes=").append(constituency.getVotes())
+                    .append(" election=").append(constituency.getElectionId()).append('\n');
+            parties(out, "    ", constituency.getParties());
+            for (Authority authority : sorted(constituency.getAuthorities())) {
+                out.append("    authority ").append(authority.getId()).append(' ').append(authority.getName())
+                        .append(" votes=").append(authority.getVotes()).append(" constituency=").append(authority.getConstituencyId())
+                        .append(" election=").append(authority.getElectionId()).append('\n');
+                parties(out, "      ", authority.getParties());
+                for (PollingStation station : sorted(authority.getPollingStations())) {
+                    out.append("      station ").append(station.getId()).append(' ').append(station.getName())
+                            .append(" zip=").append(station.getZipCode()).append(" votes=").append(station.getVotes())
+                            .append(" authority=").append(station.getAuthorityId()).append(" election=").append(station.getElectionId()).append('\n');
+                    parties(out, "        ", station.getParties());
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    private static void parties(StringBuilder out, String indent, Map<Integer, Party> parties) {
+        for (Party party : sorted(parties)) {
+            out.append(indent).append("party ").append(party.getId()).append(' ').append(party.getName())
+                    .append(" votes=").append(party.getVotes()).append(" percentage=").append(party.getPercentage()).append('\n');
+            for (Candidate candidate : party.getCandidates()) {
+                out.append(indent).append("  candidate ").append(candidate.getId()).append(' ')
+                        .append(candidate.getFirstName()).append(' ').append(candidate.getLastName())
+                        .append(' ').append(candidate.getGender()).append(' ').append(candidate.getLocalityName())
+                        .append(" votes=").append(candidate.getVotes()).append(" party=").append(candidate.getPartyId())
+                        .append(" election=").append(candidate.getElectionId()).append('\n');
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Iterable<V> sorted(Map<K, V> map) {
+        return map.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey((Comparator<K>) Comparator.naturalOrder()))
+                .map(Map.Entry::getValue)
+                .toList();
+    }
+}
@@ -0,0 +1,24 @@
+package com.voteU.election.java.utils.xml;
+
+import com.voteU.election.java.model.Election;
+import com.voteU.election.java.reader.DutchElectionTransformer;
+import com.voteU.election.java.utils.PathUtils;
+
+/**
+ * Reads the elections of the test data sets, for the tests that need a complete {@link Election}.
+ */
+public final class ElectionFixture {
+
+    private ElectionFixture() {
+    }
+
+    /**
+     * Reads the TK2023 election of {@code EML_testdata_TK2023}. Every call reads it again, so a test can change the
+     * election it gets without affecting other tests.
+     */
+    public static Election tk2023() throws Exception {
+        DutchElectionTransformer transformer = new DutchElectionTransformer();
+        new DutchElectionProcessor<>(transformer).processResults("TK2023", PathUtils.getResourcePath("/EML_testdata_TK2023"));
+        return transformer.getElection("TK2023");
+    }
+}
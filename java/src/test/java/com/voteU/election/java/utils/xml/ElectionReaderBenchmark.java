@@ -0,0 +1,38 @@
+package com.voteU.election.java.utils.xml;
+
+import com.voteU.election.java.model.Election;
+import com.voteU.election.java.reader.DutchElectionReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading a complete election through {@link DutchElectionReader#getElection(String, String)}, from the
+ * files on disk up to the complete model.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ElectionReaderBenchmark {
+    @Param("0.1")
+    public double scale;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private String folder;
+
+    @Setup
+    public void setUp() throws IOException {
+        folder = BenchmarkFixtures.folder(scale).toString();
+    }
+
+    @Benchmark
+    public Election getElection() {
+        return new DutchElectionReader(parallelism).getElection(BenchmarkFixtures.ELECTION_ID, folder);
+    }
+}
@@ -0,0 +1,406 @@
+package com.voteU.election.java.utils.xml;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates a synthetic, but structurally complete, set of EML files for a Dutch election, in the same layout as the
+ * files published by the Kiesraad:
+ * <ul>
+ *     <li>{@code Kandidatenlijst/Kandidatenlijsten_<id>_<kieskring>.eml.xml}, one per 'kieskring'</li>
+ *     <li>{@code Kieskring/Telling_<id>_kieskring_<kieskring>.eml.xml}, one per 'kieskring'</li>
+ *     <li>{@code Gemeente/Telling_<id>_gemeente_<gemeente>.eml.xml}, one per municipality</li>
+ *     <li>{@code Totaaltelling_<id>.eml.xml}</li>
+ * </ul>
+ * The files follow the structure of the EML 5 files of the Kiesraad, including the elements the application doesn't
+ * use (such as the {@code Cast} and {@code RejectedVotes} counts), and are written without any whitespace between the
+ * tags, as expected by the {@link DutchElectionProcessor}. The same seed always produces exactly the same files.<br>
+ * <br>
+ * The generator can be started from the command line to create a data set for load tests, for example twice the size
+ * of the TK2023 election:
+ * <pre>
+ *     mvn exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.voteU.election.java.utils.xml.EmlGenerator \
+ *         -Dexec.args="target/EML_synthetic_TK2023 --scale 2"
+ * </pre>
+ * The options {@code --election}, {@code --seed}, {@code --constituencies}, {@code --municipalities},
+ * {@code --reporting-units}, {@code --parties} and {@code --candidates} override the corresponding values.
+ */
+public class EmlGenerator {
+    private static final String NAMESPACES = "xmlns=\"urn:oasis:names:tc:evs:schema:eml\" "
+            + "xmlns:ds=\"http://www.w3.org/2000/09/xmldsig#\" xmlns:kr=\"http://www.kiesraad.nl/extensions\" "
+            + "xmlns:rg=\"http://www.kiesraad.nl/reportgenerator\" "
+            + "xmlns:xal=\"urn:oasis:names:tc:ciq:xsdschema:xAL:2.0\" xmlns:xnl=\"urn:oasis:names:tc:ciq:xsdschema:xNL:2.0\"";
+    private static final String CANONICALIZATION = "<ds:CanonicalizationMethod Algorithm=\"http://www.w3.org/TR/2001/REC-xml-c14n-20010315#WithComments\"/>";
+    /**
+     * The largest supported data set, relative to {@link Size#TK2023}.
+     */
+    public static final double MAX_SCALE = 10;
+    private static final String[] FIRST_NAMES = {"Anna", "Bram", "Charlotte", "Daan", "Eva", "Fleur", "Gijs", "Hanna",
+            "Ivo", "Julia", "Koen", "Lotte", "Maarten", "Noor", "Olaf", "Pien", "Ruben", "Sanne", "Thijs", "Vera"};
+    private static final String[] NAME_PREFIXES = {null, null, null, "van", "de", "van der", "van den"};
+    private static final String[] LAST_NAMES = {"Bakker", "Bos", "Dekker", "Hendriks", "Jansen", "Kok", "Meijer",
+            "Mulder", "Peters", "Smit", "Vos", "Visser", "Willems", "Berg", "Dijk", "Vries", "Brink", "Leeuwen"};
+    private static final String[] LOCALITIES = {"Amsterdam", "Rotterdam", "Den Haag", "Utrecht", "Groningen",
+            "Eindhoven", "Tilburg", "Almere", "Breda", "Nijmegen", "Leeuwarden", "Maastricht", "Zwolle", "Assen"};
+
+    /**
+     * The number of items to generate. The election is only loaded correctly when there are at most 20 'kieskringen',
+     * because every 'kieskring' is mapped onto one of the Dutch provinces.
+     *
+     * @param constituencies the number of 'kieskringen', at most 20.
+     * @param municipalities the number of municipalities, spread evenly over the 'kieskringen'.
+     * @param reportingUnits the number of reporting units, spread evenly over the municipalities.
+     * @param parties        the number of parties, each party takes part in every 'kieskring'.
+     * @param maxCandidates  the number of candidates on the list of the largest party.
+     */
+    public record Size(int constituencies, int municipalities, int reportingUnits, int parties, int maxCandidates) {
+        /**
+         * Roughly the size of the elections for the 'Tweede Kamer' of 2023.
+         */
+        public static final Size TK2023 = new Size(20, 342, 9_900, 26, 80);
+
+        public Size {
+            if (constituencies < 1 || constituencies > 20) {
+                throw new IllegalArgumentException("The number of constituencies must be between 1 and 20.");
+            }
+            if (municipalities < constituencies || reportingUnits < municipalities || parties < 1 || maxCandidates < 1) {
+                throw new IllegalArgumentException("Every constituency needs a municipality, and every municipality a reporting unit.");
+            }
+            if (municipalities > 9_999) {
+                throw new IllegalArgumentException("The number of municipalities must fit in a four digit identifier.");
+            }
+        }
+
+        /**
+         * Returns a size with {@code factor} times the number of municipalities and reporting units.
+         *
+         * @throws IllegalArgumentException when the factor is not positive or larger than {@link EmlGenerator#MAX_SCALE}.
+         */
+        public Size scaled(double factor) {
+            if (factor <= 0 || factor > MAX_SCALE) {
+                throw new IllegalArgumentException("The scale must be larger than 0 and at most %s.".formatted(MAX_SCALE));
+            }
+            int scaledMunicipalities = Math.max(constituencies, (int) Math.round(municipalities * factor));
+            int scaledReportingUnits = Math.max(scaledMunicipalities, (int) Math.round(reportingUnits * factor));
+            return new Size(constituencies, scaledMunicipalities, scaledReportingUnits, parties, maxCandidates);
+        }
+    }
+
+    private record Candidate(String initials, String firstName, String namePrefix, String lastName, String gender,
+                             String locality) {
+        String shortCode() {
+            return lastName + initials.charAt(0);
+        }
+    }
+
+    private record Party(int id, String name, int weight, List<Candidate> candidates) {
+    }
+
+    private record Municipality(String id, String name, int constituency, int reportingUnits) {
+    }
+
+    private final String electionId;
+    private final Size size;
+    private final Random random;
+    private final List<Party> parties = new ArrayList<>();
+    private final List<Municipality> municipalities = new ArrayList<>();
+
+    public EmlGenerator(String electionId, Size size, long seed) {
+        this.electionId = electionId;
+        this.size = size;
+        this.random = new Random(seed);
+        createParties();
+        createMunicipalities();
+    }
+
+    private void createParties() {
+        for (int p = 1; p <= size.parties(); p++) {
+            // The larger parties come first on the ballot and have the longest lists.
+            int candidates = Math.max(1, size.maxCandidates() - (p - 1) * size.maxCandidates() / (size.parties() + 4));
+            List<Candidate> list = new ArrayList<>();
+            for (int c = 0; c < candidates; c++) {
+                String firstName = pick(FIRST_NAMES);
+                list.add(new Candidate(firstName.charAt(0) + ".", firstName, pick(NAME_PREFIXES), pick(LAST_NAMES),
+                        random.nextBoolean() ? "female" : "male", pick(LOCALITIES)));
+            }
+            parties.add(new Party(p, "Partij " + p, Math.max(1, 400 / p), list));
+        }
+    }
+
+    private void createMunicipalities() {
+        for (int m = 0; m < size.municipalities(); m++) {
+            int reportingUnits = size.reportingUnits() / size.municipalities()
+                    + (m < size.reportingUnits() % size.municipalities() ? 1 : 0);
+            String id = "%04d".formatted(m + 1);
+            municipalities.add(new Municipality(id, "Gemeente" + id, m % size.constituencies() + 1, reportingUnits));
+        }
+    }
+
+    /**
+     * Writes a synthetic data set, see the description of the class for the arguments.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || args.length % 2 == 0) {
+            System.err.println("Usage: EmlGenerator <folder> [--scale <factor>] [--election <id>] [--seed <seed>] "
+                    + "[--constituencies <n>] [--municipalities <n>] [--reporting-units <n>] [--parties <n>] [--candidates <n>]");
+            System.exit(1);
+        }
+        Path folder = Path.of(args[0]);
+        String electionId = "TK2023";
+        long seed = 2023;
+        Size size = Size.TK2023;
+        for (int i = 1; i < args.length; i += 2) {
+            String value = args[i + 1];
+            size = switch (args[i]) {
+                case "--scale" -> size.scaled(Double.parseDouble(value));
+                case "--constituencies" -> new Size(Integer.parseInt(value), size.municipalities(), size.reportingUnits(), size.parties(), size.maxCandidates());
+                case "--municipalities" -> new Size(size.constituencies(), Integer.parseInt(value), size.reportingUnits(), size.parties(), size.maxCandidates());
+                case "--reporting-units" -> new Size(size.constituencies(), size.municipalities(), Integer.parseInt(value), size.parties(), size.maxCandidates());
+                case "--parties" -> new Size(size.constituencies(), size.municipalities(), size.reportingUnits(), Integer.parseInt(value), size.maxCandidates());
+                case "--candidates" -> new Size(size.constituencies(), size.municipalities(), size.reportingUnits(), size.parties(), Integer.parseInt(value));
+                case "--election" -> {
+                    electionId = value;
+                    yield size;
+                }
+                case "--seed" -> {
+                    seed = Long.parseLong(value);
+                    yield size;
+                }
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            };
+        }
+
+        long start = System.nanoTime();
+        new EmlGenerator(electionId, size, seed).write(folder);
+        System.out.printf("Generated %s into %s in %.1f s%n", size, folder.toAbsolutePath(), (System.nanoTime() - start) / 1e9);
+    }
+
+    private <T> T pick(T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Writes all the files of the election into {@code folder}.
+     *
+     * @param folder the folder to write the files to, it is created when it doesn't exist.
+     * @throws IOException when one of the files can't be written.
+     */
+    public void write(Path folder) throws IOException {
+        int[][][] constituencyVotes = new int[size.constituencies() + 1][][];
+        List<List<String>> constituencyRows = new ArrayList<>();
+        for (int k = 0; k <= size.constituencies(); k++) {
+            constituencyVotes[k] = emptyVotes();
+            constituencyRows.add(new ArrayList<>());
+        }
+
+        for (Municipality municipality : municipalities) {
+            int[][] total = writeMunicipality(folder, municipality);
+            add(constituencyVotes[municipality.constituency()], total);
+            constituencyRows.get(municipality.constituency()).add(reportingUnit(
+                    "HSB%d::%s".formatted(municipality.constituency(), municipality.id()), municipality.name(), total, false));
+        }
+
+        int[][] nation = emptyVotes();
+        for (int k = 1; k <= size.constituencies(); k++) {
+            writeConstituency(folder, k, constituencyVotes[k], constituencyRows.get(k));
+            writeCandidateLists(folder, k);
+            add(nation, constituencyVotes[k]);
+        }
+        writeNation(folder, constituencyVotes, nation);
+    }
+
+    private int[][] writeMunicipality(Path folder, Municipality municipality) throws IOException {
+        int[][][] votes = new int[municipality.reportingUnits()][][];
+        int[][] total = emptyVotes();
+        for (int r = 0; r < votes.length; r++) {
+            votes[r] = randomVotes();
+            add(total, votes[r]);
+        }
+
+        Path file = folder.resolve("Gemeente/Telling_%s_gemeente_%s.eml.xml".formatted(electionId, municipality.name()));
+        try (Writer out = open(file)) {
+            out.write(header("510b", municipality.id(), municipality.name()));
+            out.write("<Count><EventIdentifier/><Election>");
+            out.write(election());
+            out.write("<Contests><Contest>");
+            out.write(contest(municipality.constituency()));
+            out.write(totalVotes(total, false));
+            for (int r = 0; r < votes.length; r++) {
+                String zipCode = "%04d %s".formatted(1000 + random.nextInt(9000), (char) ('A' + random.nextInt(26)) + "" + (char) ('A' + random.nextInt(26)));
+                String name = r % 10 == 9
+                        ? "Stembureau Mobiel %d".formatted(r + 1)
+                        : "Stembureau %s %d (postcode: %s)".formatted(municipality.name(), r + 1, zipCode);
+                out.write(reportingUnit("%s::SB%d".formatted(municipality.id(), r + 1), name, votes[r], false));
+            }
+            out.write("</Contest></Contests></Election></Count></EML>");
+        }
+        return total;
+    }
+
+    private void writeConstituency(Path folder, int constituency, int[][] votes, List<String> rows) throws IOException {
+        Path file = folder.resolve("Kieskring/Telling_%s_kieskring_%s.eml.xml".formatted(electionId, constituencyName(constituency)));
+        try (Writer out = open(file)) {
+            out.write(header("510c", "HSB" + constituency, constituencyName(constituency)));
+            out.write("<Count><EventIdentifier/><Election>");
+            out.write(election());
+            out.write("<Contests><Contest>");
+            out.write(contest(constituency));
+            out.write(totalVotes(votes, false));
+            for (String row : rows) {
+                out.write(row);
+            }
+            out.write("</Contest></Contests></Election></Count></EML>");
+        }
+    }
+
+    private void writeCandidateLists(Path folder, int constituency) throws IOException {
+        Path file = folder.resolve("Kandidatenlijst/Kandidatenlijsten_%s_%s.eml.xml".formatted(electionId, constituencyName(constituency)));
+        try (Writer out = open(file)) {
+            out.write(header("230b", "HSB" + constituency, constituencyName(constituency)));
+            out.write("<CandidateList><Election>");
+            out.write(election("<kr:NominationDate>2023-10-02</kr:NominationDate>"));
+            out.write("<Contest>");
+            out.write(contest(constituency));
+            for (Party party : parties) {
+                out.write("<Affiliation><AffiliationIdentifier Id=\"%d\"><RegisteredName>%s</RegisteredName></AffiliationIdentifier>"
+                        .formatted(party.id(), party.name()));
+                out.write("<Type>lijstengroep</Type><ListData PublishGender=\"true\"/>");
+                for (int c = 0; c < party.candidates().size(); c++) {
+                    Candidate candidate = party.candidates().get(c);
+                    out.write("<Candidate><CandidateIdentifier Id=\"%d\"/><CandidateFullName><xnl:PersonName>".formatted(c + 1));
+                    out.write("<xnl:NameLine NameType=\"Initials\">%s</xnl:NameLine><xnl:FirstName>%s</xnl:FirstName>"
+                            .formatted(candidate.initials(), candidate.firstName()));
+                    if (candidate.namePrefix() != null) {
+                        out.write("<xnl:NamePrefix>%s</xnl:NamePrefix>".formatted(candidate.namePrefix()));
+                    }
+                    out.write("<xnl:LastName>%s</xnl:LastName></xnl:PersonName></CandidateFullName>".formatted(candidate.lastName()));
+                    out.write("<Gender>%s</Gender><QualifyingAddress><xal:Locality><xal:LocalityName>%s</xal:LocalityName></xal:Locality></QualifyingAddress></Candidate>"
+                            .formatted(candidate.gender(), candidate.locality()));
+                }
+                out.write("</Affiliation>");
+            }
+            out.write("</Contest></Election></CandidateList></EML>");
+        }
+    }
+
+    private void writeNation(Path folder, int[][][] constituencyVotes, int[][] nation) throws IOException {
+        Path file = folder.resolve("Totaaltelling_%s.eml.xml".formatted(electionId));
+        try (Writer out = open(file)) {
+            out.write(header("510d", "CSB", "Kiesraad"));
+            out.write("<Count><EventIdentifier/><Election>");
+            out.write(election());
+            out.write("<Contests><Contest><ContestIdentifier Id=\"alle\"/>");
+            out.write(totalVotes(nation, true));
+            for (int k = 1; k <= size.constituencies(); k++) {
+                out.write(reportingUnit(String.valueOf(k), constituencyName(k), constituencyVotes[k], true));
+            }
+            out.write("</Contest></Contests></Election></Count></EML>");
+        }
+    }
+
+    private static Writer open(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        return new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    private String header(String documentId, String authorityId, String authorityName) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?><EML %s Id=\"%s\" SchemaVersion=\"5\"><TransactionId>1</TransactionId>"
+                .formatted(NAMESPACES, documentId)
+                + "<ManagingAuthority><AuthorityIdentifier Id=\"%s\">%s</AuthorityIdentifier><AuthorityAddress/></ManagingAuthority>"
+                .formatted(authorityId, authorityName)
+                + "<kr:CreationDateTime>2023-11-24T12:00:00.000</kr:CreationDateTime>" + CANONICALIZATION;
+    }
+
+    private String election() {
+        return election("");
+    }
+
+    private String election(String extensions) {
+        return "<ElectionIdentifier Id=\"%s\"><ElectionName>Tweede Kamer der Staten-Generaal</ElectionName>".formatted(electionId)
+                + "<ElectionCategory>TK</ElectionCategory><kr:ElectionSubcategory>TK</kr:ElectionSubcategory>"
+                + "<ElectionDate>2023-11-22</ElectionDate>" + extensions + "</ElectionIdentifier>";
+    }
+
+    private static String contest(int constituency) {
+        return "<ContestIdentifier Id=\"%d\"><ContestName>%s</ContestName></ContestIdentifier>"
+                .formatted(constituency, constituencyName(constituency));
+    }
+
+    private static String constituencyName(int constituency) {
+        return "Kieskring" + constituency;
+    }
+
+    private String totalVotes(int[][] votes, boolean shortCodes) {
+        return "<TotalVotes>" + selections(votes, shortCodes) + "</TotalVotes>";
+    }
+
+    private String reportingUnit(String id, String name, int[][] votes, boolean shortCodes) {
+        return "<ReportingUnitVotes><ReportingUnitIdentifier Id=\"%s\">%s</ReportingUnitIdentifier>".formatted(id, name)
+                + selections(votes, shortCodes) + "</ReportingUnitVotes>";
+    }
+
+    private String selections(int[][] votes, boolean shortCodes) {
+        StringBuilder builder = new StringBuilder();
+        int total = 0;
+        for (Party party : parties) {
+            int[] candidateVotes = votes[party.id() - 1];
+            int partyVotes = 0;
+            for (int v : candidateVotes) {
+                partyVotes += v;
+            }
+            total += partyVotes;
+            builder.append("<Selection><AffiliationIdentifier Id=\"").append(party.id()).append("\"><RegisteredName>")
+                    .append(party.name()).append("</RegisteredName></AffiliationIdentifier><ValidVotes>")
+                    .append(partyVotes).append("</ValidVotes></Selection>");
+            for (int c = 0; c < candidateVotes.length; c++) {
+                builder.append("<Selection><Candidate><CandidateIdentifier Id=\"").append(c + 1).append('"');
+                if (shortCodes) {
+                    builder.append(" ShortCode=\"").append(party.candidates().get(c).shortCode()).append('"');
+                }
+                builder.append("/></Candidate><ValidVotes>").append(candidateVotes[c]).append("</ValidVotes></Selection>");
+            }
+        }
+        builder.append("<Cast>").append(total + 7).append("</Cast><TotalCounted>").append(total + 3)
+                .append("</TotalCounted><RejectedVotes ReasonCode=\"ongeldig\">2</RejectedVotes>")
+                .append("<RejectedVotes ReasonCode=\"blanco\">1</RejectedVotes>")
+                .append("<UncountedVotes ReasonCode=\"geldige stempassen\">").append(total + 7).append("</UncountedVotes>");
+        return builder.toString();
+    }
+
+    private int[][] emptyVotes() {
+        int[][] votes = new int[parties.size()][];
+        for (Party party : parties) {
+            votes[party.id() - 1] = new int[party.candidates().size()];
+        }
+        return votes;
+    }
+
+    /**
+     * The votes of a single reporting unit, the first candidates of the larger parties get the most votes.
+     */
+    private int[][] randomVotes() {
+        int[][] votes = emptyVotes();
+        for (Party party : parties) {
+            int[] candidateVotes = votes[party.id() - 1];
+            for (int c = 0; c < candidateVotes.length; c++) {
+                candidateVotes[c] = random.nextInt(party.weight() / (c + 1) + 2);
+            }
+        }
+        return votes;
+    }
+
+    private static void add(int[][] total, int[][] votes) {
+        for (int p = 0; p < total.length; p++) {
+            for (int c = 0; c < total[p].length; c++) {
+                total[p][c] += votes[p][c];
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.voteU.election.java.utils.xml;
+
+import com.voteU.election.java.model.*;
+import com.voteU.election.java.reader.DutchElectionTransformer;
+import com.voteU.election.java.utils.PathUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmlGeneratorTest {
+    private static final EmlGenerator.Size SIZE = new EmlGenerator.Size(3, 7, 40, 4, 6);
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void generated_files_are_found_by_path_utils() throws Exception {
+        new EmlGenerator("TK2023", SIZE, 1).write(folder);
+
+        String root = folder.toString();
+        assertEquals(3, PathUtils.findFilesToScan(root, "Telling_TK2023_kieskring_").size());
+        assertEquals(7, PathUtils.findFilesToScan(root, "Telling_TK2023_gemeente_").size());
+        assertEquals(1, PathUtils.findFilesToScan(root, "Totaaltelling_TK2023.eml.xml").size());
+        assertEquals(3, PathUtils.findFilesToScan(root, "Kandidatenlijsten_TK2023_").size());
+    }
+
+    @Test
+    void generated_election_is_processed_completely() throws Exception {
+        new EmlGenerator("TK2023", SIZE, 1).write(folder);
+
+        DutchElectionTransformer transformer = new DutchElectionTransformer();
+        new DutchElectionProcessor<>(transformer).processResults("TK2023", folder.toString());
+        Election election = transformer.getElection("TK2023");
+
+        assertNotNull(election);
+        assertEquals(3, election.getConstituencies().size());
+        assertEquals(4, election.getParties().size());
+        int authorities = 0;
+        int pollingStations = 0;
+        for (Constituency constituency : election.getConstituencies().values()) {
+            assertEquals(4, constituency.getParties().size());
+            assertEquals(6, constituency.getParties().get(1).getCandidates().size());
+            int constituencyVotes = 0;
+            for (Authority authority : constituency.getAuthorities().values()) {
+                authorities++;
+                int authorityVotes = 0;
+                for (PollingStation pollingStation : authority.getPollingStations().values()) {
+                    pollingStations++;
+                    authorityVotes += pollingStation.getVotes();
+                    assertFalse(pollingStation.getParties().get(1).getCandidates().isEmpty());
+                }
+                assertEquals(authority.getVotes(), authorityVotes, "votes of " + authority.getId());
+                constituencyVotes += authorityVotes;
+            }
+            assertEquals(constituency.getVotes(), constituencyVotes, "votes of constituency " + constituency.getId());
+        }
+        assertEquals(7, authorities);
+        assertEquals(40, pollingStations);
+        assertNotNull(election.getParties().get(1).getCandidates().get(0).getLastName());
+    }
+
+    @Test
+    void same_seed_generates_the_same_files(@TempDir Path other) throws Exception {
+        new EmlGenerator("TK2023", SIZE, 42).write(folder);
+        new EmlGenerator("TK2023", SIZE, 42).write(other);
+
+        Path file = Path.of("Gemeente", "Telling_TK2023_gemeente_Gemeente0007.eml.xml");
+        assertEquals(-1L, Files.mismatch(folder.resolve(file), other.resolve(file)));
+    }
+
+    @Test
+    void size_is_limited_to_ten_times_the_national_size() {
+        EmlGenerator.Size largest = EmlGenerator.Size.TK2023.scaled(EmlGenerator.MAX_SCALE);
+        assertEquals(3_420, largest.municipalities());
+        assertEquals(99_000, largest.reportingUnits());
+        assertThrows(IllegalArgumentException.class, () -> EmlGenerator.Size.TK2023.scaled(10.5));
+        assertThrows(IllegalArgumentException.class, () -> new EmlGenerator.Size(21, 342, 9_900, 26, 80));
+    }
+}
@@ -0,0 +1,187 @@
+package com.voteU.election.java.utils.xml;
+
+import com.voteU.election.java.model.Election;
+import com.voteU.election.java.reader.DutchElectionTransformer;
+import com.voteU.election.java.utils.PathUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that reading every municipality file once produces the same output as the two-pass processing it replaced,
+ * and that it registers the totals of the authority before the votes of its reporting units. The time it takes is
+ * measured by the {@link ReportingUnitBenchmark}.
+ * <p>
+ * The output of the two-pass processing for the test data set is kept in {@code two_pass_TK2023}: the authority and
+ * polling station events it emitted, and the {@link ElectionDump} of the election it built. It was recorded before
+ * the two-pass processing was removed.
+ */
+class MunicipalitySinglePassTest {
+    private static final String FOLDER = PathUtils.getResourcePath("/EML_testdata_TK2023");
+    private static final String TWO_PASS = "/two_pass_TK2023/";
+
+    /**
+     * Remembers the authority and polling station events it receives and forwards them to a real transformer. It
+     * only implements the map based {@link Transformer}, so it receives the vote counts as maps.
+     */
+    private static class EventLog implements Transformer<Election> {
+        final DutchElectionTransformer delegate = new DutchElectionTransformer();
+        final List<String> authorityEvents = new ArrayList<>();
+        final List<String> pollingStationEvents = new ArrayList<>();
+        /**
+         * The authority of every event in the order they arrived, {@code A} for the totals and {@code P} for a polling
+         * station.
+         */
+        final List<String> order = new ArrayList<>();
+
+        @Override
+        public void registerAuthority(Map<String, String> authorityData) {
+            authorityEvents.add(new TreeMap<>(authorityData).toString());
+            order.add("A " + authorityData.get(DutchElectionProcessor.AUTHORITY_IDENTIFIER));
+            delegate.registerAuthority(authorityData);
+        }
+
+        @Override
+        public void registerPollingStation(Map<String, String> reportingUnitData) {
+            pollingStationEvents.add(new TreeMap<>(reportingUnitData).toString());
+            order.add("P " + reportingUnitData.get(DutchElectionProcessor.AUTHORITY_IDENTIFIER));
+            delegate.registerPollingStation(reportingUnitData);
+        }
+
+        @Override
+        public void registerElection(Map<String, String> electionData) {
+            delegate.registerElection(electionData);
+        }
+
+        @Override
+        public void registerContest(Map<String, String> contestData) {
+            delegate.registerContest(contestData);
+        }
+
+        @Override
+        public void registerAffiliation(Map<String, String> affiliationData) {
+            delegate.registerAffiliation(affiliationData);
+        }
+
+        @Override
+        public void registerCandidate(Map<String, String> candidateData) {
+            delegate.registerCandidate(candidateData);
+        }
+
+        @Override
+        public void registerNation(Map<String, String> votesData) {
+            delegate.registerNation(votesData);
+        }
+
+        @Override
+        public void registerConstituency(Map<String, String> constituencyData, Map<Integer, Integer> affiliationVotes,
+                                         Map<Integer, Map<Integer, Integer>> candidateVotes,
+                                         Map<Integer, String> affiliationNames) {
+            delegate.registerConstituency(constituencyData, affiliationVotes, candidateVotes, affiliationNames);
+        }
+
+        @Override
+        public Election retrieve() {
+            return delegate.retrieve();
+        }
+
+        Election getElection() {
+            return delegate.getElection("TK2023");
+        }
+    }
+
+    private static EventLog load() throws Exception {
+        return load(FOLDER);
+    }
+
+    private static EventLog load(String folder) throws Exception {
+        EventLog log = new EventLog();
+        new DutchElectionProcessor<>(log).processResults("TK2023", folder);
+        return log;
+    }
+
+    private static String twoPass(String name) throws IOException {
+        return Files.readString(Path.of(PathUtils.getResourcePath(TWO_PASS + name)));
+    }
+
+    private static List<String> twoPassLines(String name) throws IOException {
+        return Files.readAllLines(Path.of(PathUtils.getResourcePath(TWO_PASS + name)));
+    }
+
+    /**
+     * The two-pass processing scanned the whole municipality file for authority totals and relied on the first
+     * occurrence of every affiliation and candidate being the one in {@code TotalVotes}. Only those first
+     * occurrences had any effect.
+     */
+    private static List<String> firstOccurrences(List<String> authorityEvents) {
+        Set<String> seen = new HashSet<>();
+        List<String> result = new ArrayList<>();
+        for (String event : authorityEvents) {
+            String key = event.replaceAll("(CandidateVotes|ValidVotes|RegisteredName)=[^,}]*", "");
+            if (seen.add(key)) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    void single_pass_emits_the_same_events_as_two_passes() throws Exception {
+        EventLog log = load();
+
+        assertEquals(twoPassLines("polling-station-events.txt"), log.pollingStationEvents);
+        assertEquals(firstOccurrences(twoPassLines("authority-events.txt")), log.authorityEvents);
+        assertEquals(twoPass("election.txt"), ElectionDump.of(log.getElection()));
+    }
+
+    @Test
+    void a_candidate_selected_twice_in_the_totals_is_only_counted_once(@TempDir Path folder) throws Exception {
+        Path source = Path.of(FOLDER);
+        try (var files = Files.walk(source)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                Path target = folder.resolve(source.relativize(file).toString());
+                Files.createDirectories(target.getParent());
+                Files.copy(file, target);
+            }
+        }
+        Path groningen = folder.resolve("Gemeente/Telling_TK2023_gemeente_Groningen.eml.xml");
+        String selection = "<Selection><Candidate><CandidateIdentifier Id=\"1\"/></Candidate>"
+                + "<ValidVotes>266</ValidVotes></Selection>";
+        String eml = Files.readString(groningen);
+        assertTrue(eml.contains(selection));
+        Files.writeString(groningen, eml.replaceFirst(selection,
+                selection + selection.replace(">266<", ">1000<")));
+
+        EventLog log = load(folder.toString());
+
+        assertEquals(firstOccurrences(twoPassLines("authority-events.txt")), log.authorityEvents);
+        assertEquals(twoPass("election.txt"), ElectionDump.of(log.getElection()));
+    }
+
+    @Test
+    void the_totals_of_an_authority_arrive_before_its_polling_stations() throws Exception {
+        EventLog log = load();
+
+        assertFalse(log.authorityEvents.isEmpty());
+        assertFalse(log.pollingStationEvents.isEmpty());
+        Set<String> totals = new HashSet<>();
+        Set<String> pollingStations = new HashSet<>();
+        for (String event : log.order) {
+            String authority = event.substring(2);
+            if (event.startsWith("A ")) {
+                assertFalse(pollingStations.contains(authority), event);
+                totals.add(authority);
+            } else {
+                assertTrue(totals.contains(authority), event);
+                pollingStations.add(authority);
+            }
+        }
+        assertFalse(log.getElection().getConstituencies().isEmpty());
+    }
+}
@@ -0,0 +1,65 @@
+package com.voteU.election.java.utils.xml;
+
+import com.voteU.election.java.model.Election;
+import com.voteU.election.java.reader.DutchElectionTransformer;
+import org.openjdk.jmh.annotations.*;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast the {@link DutchElectionTransformer} registers the votes of the polling stations, without any
+ * parsing. All the events of the data set are recorded once; before every invocation the events that create the
+ * election, constituencies and authorities are replayed on a new transformer, after which the benchmark replays only
+ * the polling station events. {@code typed} uses the {@link VoteTransformer} methods, {@code registerPollingStation}
+ * passes the same events through the {@link java.util.Map} based {@code registerPollingStation}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PollingStationRegistrationBenchmark {
+    @Param("0.1")
+    public double scale;
+
+    private final RecordingTransformer<Election> pollingStationEvents = new RecordingTransformer<>();
+    private final RecordingTransformer<Election> otherEvents = new RecordingTransformer<>() {
+        @Override
+        public void registerPollingStationAffiliationVotes(ReportingUnit reportingUnit, int affiliationId, String registeredName, int votes) {
+            pollingStationEvents.registerPollingStationAffiliationVotes(reportingUnit, affiliationId, registeredName, votes);
+        }
+
+        @Override
+        public void registerPollingStationCandidateVotes(ReportingUnit reportingUnit, int affiliationId, int candidateId, int votes) {
+            pollingStationEvents.registerPollingStationCandidateVotes(reportingUnit, affiliationId, candidateId, votes);
+        }
+    };
+    private DutchElectionTransformer transformer;
+
+    @Setup(Level.Trial)
+    public void record() throws IOException, XMLStreamException {
+        String folder = BenchmarkFixtures.folder(scale).toString();
+        new DutchElectionProcessor<>(otherEvents).processResults(BenchmarkFixtures.ELECTION_ID, folder);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareTransformer() {
+        transformer = new DutchElectionTransformer();
+        otherEvents.replay(transformer);
+    }
+
+    @Benchmark
+    public Election typed() {
+        pollingStationEvents.replay(transformer);
+        return transformer.getElection(BenchmarkFixtures.ELECTION_ID);
+    }
+
+    @Benchmark
+    public Election registerPollingStation() {
+        pollingStationEvents.replay(new MapTransformerAdapter<>(transformer));
+        return transformer.getElection(BenchmarkFixtures.ELECTION_ID);
+    }
+}
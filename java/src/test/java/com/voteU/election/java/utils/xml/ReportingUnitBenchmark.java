@@ -0,0 +1,116 @@
+package com.voteU.election.java.utils.xml;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast the vote counts of all the municipality files are parsed, which is dominated by
+ * {@code processReportingUnit}. Every file is read once, for the totals of the authority and the votes of its
+ * reporting units alike. The events are passed to a transformer that only counts them, so the result is the
+ * parsing throughput in vote rows per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReportingUnitBenchmark {
+    @Param("0.1")
+    public double scale;
+
+    private String municipalityFolder;
+
+    /**
+     * Reports the number of vote rows as the throughput of the benchmark.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Rows {
+        public long rows;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        municipalityFolder = BenchmarkFixtures.folder(scale).resolve("Gemeente").toString();
+    }
+
+    @Benchmark
+    public void processMunicipalities(Rows rows) throws IOException, XMLStreamException {
+        CountingTransformer counter = new CountingTransformer();
+        new DutchElectionProcessor<>(counter).processResults(BenchmarkFixtures.ELECTION_ID, municipalityFolder);
+        rows.rows += counter.rows;
+    }
+
+    private static class CountingTransformer implements VoteTransformer<Long> {
+        long rows;
+        long votes;
+
+        @Override
+        public void registerAuthorityAffiliationVotes(VoteScope scope, int affiliationId, String registeredName, int votes) {
+            rows++;
+            this.votes += votes;
+        }
+
+        @Override
+        public void registerAuthorityCandidateVotes(VoteScope scope, int affiliationId, int candidateId, int votes) {
+            rows++;
+            this.votes += votes;
+        }
+
+        @Override
+        public void registerPollingStationAffiliationVotes(ReportingUnit reportingUnit, int affiliationId, String registeredName, int votes) {
+            rows++;
+            this.votes += votes;
+        }
+
+        @Override
+        public void registerPollingStationCandidateVotes(ReportingUnit reportingUnit, int affiliationId, int candidateId, int votes) {
+            rows++;
+            this.votes += votes;
+        }
+
+        @Override
+        public void registerElection(Map<String, String> electionData) {
+        }
+
+        @Override
+        public void registerContest(Map<String, String> contestData) {
+        }
+
+        @Override
+        public void registerAffiliation(Map<String, String> affiliationData) {
+        }
+
+        @Override
+        public void registerCandidate(Map<String, String> candidateData) {
+        }
+
+        @Override
+        public void registerNation(Map<String, String> votesData) {
+        }
+
+        @Override
+        public void registerConstituency(Map<String, String> constituencyData, Map<Integer, Integer> affiliationVotes,
+                                         Map<Integer, Map<Integer, Integer>> candidateVotes,
+                                         Map<Integer, String> affiliationNames) {
+        }
+
+        @Override
+        public void registerPollingStation(Map<String, String> pollingStationData) {
+        }
+
+        @Override
+        public void registerAuthority(Map<String, String> authorityData) {
+        }
+
+        @Override
+        public Long retrieve() {
+            return votes;
+        }
+    }
+}
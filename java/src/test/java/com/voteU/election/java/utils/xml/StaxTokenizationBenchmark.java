@@ -0,0 +1,48 @@
+package com.voteU.election.java.utils.xml;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the raw StAX tokenization of the largest municipality file, without any processing. This is the lower
+ * bound for the time the {@link DutchElectionProcessor} needs for that file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StaxTokenizationBenchmark {
+    @Param("0.1")
+    public double scale;
+
+    private final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+    private byte[] file;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.readAllBytes(BenchmarkFixtures.largestMunicipalityFile(BenchmarkFixtures.folder(scale)));
+    }
+
+    @Benchmark
+    public int tokenize() throws XMLStreamException {
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(new ByteArrayInputStream(file));
+        int startElements = 0;
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                startElements++;
+            }
+        }
+        reader.close();
+        return startElements;
+    }
+}
@@ -0,0 +1,59 @@
+package com.voteU.election.java.utils.xml;
+
+import com.voteU.election.java.model.Election;
+import com.voteU.election.java.reader.DutchElectionTransformer;
+import com.voteU.election.java.utils.PathUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VoteTransformerTest {
+    private static final String FOLDER = PathUtils.getResourcePath("/EML_testdata_TK2023");
+
+    @Test
+    void typed_events_build_the_same_election_as_the_map_based_methods() throws Exception {
+        DutchElectionTransformer typed = new DutchElectionTransformer();
+        new DutchElectionProcessor<>(typed).processResults("TK2023", FOLDER);
+
+        DutchElectionTransformer mapBased = new DutchElectionTransformer();
+        new DutchElectionProcessor<>(new MapTransformerAdapter<>(mapBased)).processResults("TK2023", FOLDER);
+
+        assertEquals(ElectionDump.of(mapBased.getElection("TK2023")), ElectionDump.of(typed.getElection("TK2023")));
+    }
+
+    @Test
+    void adapter_converts_reporting_unit_events_into_one_map_per_reporting_unit() {
+        List<Map<String, String>> registered = new ArrayList<>();
+        MapTransformerAdapter<Election> adapter = new MapTransformerAdapter<>(new DutchElectionTransformer() {
+            @Override
+            public void registerPollingStation(Map<String, String> reportingUnitData) {
+                registered.add(Map.copyOf(reportingUnitData));
+            }
+        });
+        VoteScope scope = new VoteScope("TK2023", "Tweede Kamer 2023", "TK", "2023-11-22", 1, "Groningen", "0014", "Groningen");
+        ReportingUnit reportingUnit = new ReportingUnit(scope, "0014::SB1", "Stembureau Stadhuis", "9711PN");
+
+        adapter.registerPollingStationAffiliationVotes(reportingUnit, 2, "Partij B", 120);
+        adapter.registerPollingStationCandidateVotes(reportingUnit, 2, 1, 100);
+        adapter.registerPollingStationCandidateVotes(reportingUnit, 2, 2, 20);
+
+        assertEquals(2, registered.size());
+        Map<String, String> first = registered.get(0);
+        assertEquals("TK2023", first.get(DutchElectionProcessor.ELECTION_IDENTIFIER));
+        assertEquals("1", first.get(DutchElectionProcessor.CONTEST_IDENTIFIER));
+        assertEquals("0014", first.get(DutchElectionProcessor.AUTHORITY_IDENTIFIER));
+        assertEquals("0014::SB1", first.get(DutchElectionProcessor.REPORTING_UNIT_IDENTIFIER));
+        assertEquals("9711PN", first.get(DutchElectionProcessor.ZIPCODE));
+        assertEquals("2", first.get(DutchElectionProcessor.AFFILIATION_IDENTIFIER));
+        assertEquals("Partij B", first.get(DutchElectionProcessor.REGISTERED_NAME));
+        assertEquals("120", first.get(MapTransformerAdapter.AFFILIATION_VOTES));
+        assertEquals("1", first.get(DutchElectionProcessor.CANDIDATE_IDENTIFIER));
+        assertEquals("100", first.get(MapTransformerAdapter.CANDIDATE_VOTES));
+        assertEquals("2", registered.get(1).get(DutchElectionProcessor.CANDIDATE_IDENTIFIER));
+        assertEquals("20", registered.get(1).get(MapTransformerAdapter.CANDIDATE_VOTES));
+    }
+}